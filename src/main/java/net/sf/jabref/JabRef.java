@@ -22,6 +22,7 @@ import java.awt.Font;
 import java.io.File;
 import java.io.IOException;
 import java.net.Authenticator;
+import java.net.ResponseCache;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -29,6 +30,8 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.prefs.BackingStoreException;
 
 import javax.swing.*;
@@ -40,6 +43,7 @@ import net.sf.jabref.importer.fetcher.EntryFetchers;
 import net.sf.jabref.logic.CustomEntryTypesManager;
 import net.sf.jabref.logic.journals.Abbreviations;
 import net.sf.jabref.logic.l10n.Localization;
+import net.sf.jabref.logic.net.PersistentResponseCache;
 import net.sf.jabref.logic.util.OS;
 import net.sf.jabref.migrations.PreferencesMigrations;
 import net.sf.jabref.model.database.BibtexDatabase;
@@ -79,6 +83,8 @@ public class JabRef {
 
     private JabRefCLI cli;
 
+    private final StartupTasks startupTasks = new StartupTasks();
+
 
     public void start(String[] args) {
         JabRefPreferences prefs = JabRefPreferences.getInstance();
@@ -105,6 +111,12 @@ public class JabRef {
             Authenticator.setDefault(new ProxyAuthenticator());
         }
 
+        // keep the responses of the fetchers, so that repeated lookups do not need the network
+        if (prefs.getBoolean(JabRefPreferences.USE_HTTP_CACHE)) {
+            ResponseCache.setDefault(new PersistentResponseCache(PersistentResponseCache.getDefaultDirectory(),
+                    prefs.getInt(JabRefPreferences.HTTP_CACHE_SIZE) * 1024L * 1024L));
+        }
+
         Globals.startBackgroundTasks();
         setupLogHandlerForErrorConsole();
         Globals.prefs = prefs;
@@ -120,50 +132,63 @@ public class JabRef {
         // Update which fields should be treated as numeric, based on preferences:
         BibtexFields.setNumericFieldsFromPrefs();
 
-        /* Build list of Import and Export formats */
-        Globals.importFormatReader.resetImportFormats();
-        CustomEntryTypesManager.loadCustomEntryTypes(prefs);
-        ExportFormats.initAllExports();
+        /* Build list of Import formats and read the custom entry types while checking for a running JabRef */
+        startupTasks.submit("Import formats", () -> Globals.importFormatReader.resetImportFormats());
+        startupTasks.submit("Custom entry types", () -> CustomEntryTypesManager.loadCustomEntryTypes(prefs));
 
-        // Read list(s) of journal names and abbreviations:
-        Abbreviations.initializeJournalNames(Globals.prefs);
+        // The export formats and the list(s) of journal names and abbreviations are read on first use
+        Abbreviations.initializeJournalNamesLazily(Globals.prefs);
 
         // Check for running JabRef
-        RemotePreferences remotePreferences = new RemotePreferences(Globals.prefs);
-        if (remotePreferences.useRemoteServer()) {
+        boolean passedOn = startupTasks.compute("Remote listener", () -> {
+            RemotePreferences remotePreferences = new RemotePreferences(Globals.prefs);
+            if (!remotePreferences.useRemoteServer()) {
+                return false;
+            }
 
             Globals.remoteListener.open(new JabRefMessageHandler(this), remotePreferences.getPort());
 
             if (Globals.remoteListener.isOpen()) {
-                Globals.remoteListener.start(); // we are alone, we start the server
-            } else {
-                // we are not alone, there is already a server out there, try to contact already running JabRef:
-                if (RemoteListenerClient.sendToActiveJabRefInstance(args, remotePreferences.getPort())) {
-                    /*
-                     * We have successfully sent our command line options
-                     * through the socket to another JabRef instance. So we
-                     * assume it's all taken care of, and quit.
-                     */
-                    System.out.println(
-                            Localization.lang("Arguments passed on to running JabRef instance. Shutting down."));
-                    JabRefExecutorService.INSTANCE.shutdownEverything();
-                    return;
-                }
+                // we are alone, the server is started once the import formats and entry types are read
+                return false;
             }
+            // we are not alone, there is already a server out there, try to contact already running JabRef:
+            return RemoteListenerClient.sendToActiveJabRefInstance(args, remotePreferences.getPort());
+        });
+        if (passedOn) {
+            /*
+             * We have successfully sent our command line options
+             * through the socket to another JabRef instance. So we
+             * assume it's all taken care of, and quit.
+             */
+            System.out.println(
+                    Localization.lang("Arguments passed on to running JabRef instance. Shutting down."));
+            JabRefExecutorService.INSTANCE.shutdownEverything();
+            return;
         }
 
+        startupTasks.awaitSubmitted();
+
+        // the messages of other instances are processed like command line arguments, which need the startup tasks
+        Globals.remoteListener.start();
+
         // override used newline character with the one stored in the preferences
         // The preferences return the system newline character sequence as default
         Globals.NEWLINE = Globals.prefs.get(JabRefPreferences.NEWLINE);
 
-        Vector<ParserResult> loaded = processArguments(args, true);
+        Vector<ParserResult> loaded = startupTasks.compute("Command line", () -> processArguments(args, true));
 
         if ((loaded == null) || cli.isDisableGui() || cli.isShowVersion()) {
             JabRefExecutorService.INSTANCE.shutdownEverything();
             return;
         }
 
-        SwingUtilities.invokeLater(() -> openWindow(loaded));
+        SwingUtilities.invokeLater(() -> {
+            startupTasks.run("Main window", () -> openWindow(loaded));
+            startupTasks.logTimings();
+            // the window is usable now, read the journal lists before they are needed
+            JabRefExecutorService.INSTANCE.execute(Abbreviations::getJournalAbbreviations);
+        });
     }
 
     private void setupLogHandlerForErrorConsole() {
@@ -224,15 +249,13 @@ public class JabRef {
         Vector<ParserResult> loaded = new Vector<>();
         Vector<String> toImport = new Vector<>();
         if (!cli.isBlank() && (cli.getLeftOver().length > 0)) {
-            for (String aLeftOver : cli.getLeftOver()) {
-                // Leftover arguments that have a "bib" extension are interpreted as
-                // bib files to open. Other files, and files that could not be opened
-                // as bib, we try to import instead.
-                boolean bibExtension = aLeftOver.toLowerCase().endsWith("bib");
-                ParserResult pr = null;
-                if (bibExtension) {
-                    pr = JabRef.openBibFile(aLeftOver, false);
-                }
+            // Leftover arguments that have a "bib" extension are interpreted as
+            // bib files to open. Other files, and files that could not be opened
+            // as bib, we try to import instead.
+            List<ParserResult> opened = JabRef.openBibFiles(cli.getLeftOver());
+            for (int i = 0; i < cli.getLeftOver().length; i++) {
+                String aLeftOver = cli.getLeftOver()[i];
+                ParserResult pr = opened.get(i);
 
                 if ((pr == null) || (pr == ParserResult.INVALID_FORMAT)) {
                     // We will try to import this file. Normally we
@@ -841,6 +864,45 @@ public class JabRef {
 
     }
 
+    /**
+     * Opens the given files which have a "bib" extension concurrently.
+     *
+     * @return the result for every given file name in the same order, null if the name has no "bib" extension
+     */
+    private static List<ParserResult> openBibFiles(String[] names) {
+        List<Future<ParserResult>> futures = new ArrayList<>();
+        for (String name : names) {
+            if (name.toLowerCase().endsWith("bib")) {
+                futures.add(JabRefExecutorService.INSTANCE.submit(() -> JabRef.openBibFile(name, false)));
+            } else {
+                futures.add(null);
+            }
+        }
+
+        List<ParserResult> results = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            Future<ParserResult> future = futures.get(i);
+            if (future == null) {
+                results.add(null);
+                continue;
+            }
+            try {
+                results.add(future.get());
+            } catch (InterruptedException | ExecutionException ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                LOGGER.warn("Could not open " + names[i], ex);
+                ParserResult pr = new ParserResult(null, null, null);
+                pr.setFile(new File(names[i]));
+                pr.setInvalid(true);
+                pr.setErrorMessage(ex.getMessage());
+                results.add(pr);
+            }
+        }
+        return results;
+    }
+
     private static ParserResult importFile(String argument) {
         String[] data = argument.split(",");
         try {
@@ -65,6 +65,13 @@ public class JabRefExecutorService implements Executor {
         }
     }
 
+    /**
+     * Submits a task whose result is needed by the caller, e.g. one part of a computation split over several threads.
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return executorService.submit(task);
+    }
+
     private static class AutoCleanupRunnable implements Runnable {
 
         private final Runnable runnable;
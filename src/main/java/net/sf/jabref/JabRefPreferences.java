@@ -29,6 +29,8 @@ import java.io.StringReader;
 import java.util.*;
 import java.util.prefs.BackingStoreException;
 import java.util.prefs.InvalidPreferencesFormatException;
+import java.util.prefs.PreferenceChangeEvent;
+import java.util.prefs.PreferenceChangeListener;
 import java.util.prefs.Preferences;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -46,6 +48,7 @@ import net.sf.jabref.importer.fileformat.ImportFormat;
 import net.sf.jabref.logic.autocompleter.AutoCompletePreferences;
 import net.sf.jabref.logic.l10n.Localization;
 import net.sf.jabref.logic.labelPattern.GlobalLabelPattern;
+import net.sf.jabref.logic.preferences.PreferencesSnapshot;
 import net.sf.jabref.logic.util.OS;
 import net.sf.jabref.model.entry.EntryUtil;
 import net.sf.jabref.model.entry.CustomEntryType;
@@ -107,6 +110,8 @@ public class JabRefPreferences {
     public static final String PROXY_USERNAME = "proxyUsername";
     public static final String PROXY_PASSWORD = "proxyPassword";
     public static final String USE_PROXY_AUTHENTICATION = "useProxyAuthentication";
+    public static final String USE_HTTP_CACHE = "useHttpCache";
+    public static final String HTTP_CACHE_SIZE = "httpCacheSize";
     public static final String TABLE_PRIMARY_SORT_FIELD = "priSort";
     public static final String TABLE_PRIMARY_SORT_DESCENDING = "priDescending";
     public static final String TABLE_SECONDARY_SORT_FIELD = "secSort";
@@ -289,12 +294,15 @@ public class JabRefPreferences {
     public static final String OPEN_FOLDERS_OF_ATTACHED_FILES = "openFoldersOfAttachedFiles";
     public static final String KEY_GEN_ALWAYS_ADD_LETTER = "keyGenAlwaysAddLetter";
     public static final String KEY_GEN_FIRST_LETTER_A = "keyGenFirstLetterA";
+    public static final String KEY_PATTERN_REGEX = "KeyPatternRegex";
+    public static final String KEY_PATTERN_REPLACEMENT = "KeyPatternReplacement";
     public static final String INCLUDE_EMPTY_FIELDS = "includeEmptyFields";
     public static final String VALUE_DELIMITERS2 = "valueDelimiters";
     public static final String BIBLATEX_MODE = "biblatexMode";
     public static final String ENFORCE_LEGAL_BIBTEX_KEY = "enforceLegalBibtexKey";
     public static final String PROMPT_BEFORE_USING_AUTOSAVE = "promptBeforeUsingAutosave";
     public static final String AUTO_SAVE_INTERVAL = "autoSaveInterval";
+    public static final String UNDO_MEMORY_LIMIT = "undoMemoryLimit";
     public static final String AUTO_SAVE = "autoSave";
     public static final String USE_LOCK_FILES = "useLockFiles";
     public static final String RUN_AUTOMATIC_FILE_SEARCH = "runAutomaticFileSearch";
@@ -350,6 +358,10 @@ public class JabRefPreferences {
     private final HashSet<String> nonWrappableFields = new HashSet<>(5);
     private GlobalLabelPattern keyPattern;
 
+    // Typed copy of the preferences used in per-entry code, rebuilt lazily after every change:
+    private volatile PreferencesSnapshot snapshot;
+    private final Object snapshotLock = new Object();
+
     // Object containing custom export formats:
     public final CustomExportList customExports;
 
@@ -410,6 +422,14 @@ public class JabRefPreferences {
 
         // load user preferences
         prefs = Preferences.userNodeForPackage(JabRef.class);
+        // Also catches changes that do not go through this class, e.g. imported preferences
+        prefs.addPreferenceChangeListener(new PreferenceChangeListener() {
+
+            @Override
+            public void preferenceChange(PreferenceChangeEvent event) {
+                invalidateSnapshot();
+            }
+        });
 
         defaults.put(TEXMAKER_PATH, OS.guessProgramPath("texmaker", "Texmaker"));
         defaults.put(WIN_EDT_PATH, OS.guessProgramPath("WinEdt", "WinEdt Team\\WinEdt"));
@@ -456,6 +476,9 @@ public class JabRefPreferences {
         defaults.put(USE_PROXY_AUTHENTICATION, Boolean.FALSE);
         defaults.put(PROXY_USERNAME, "");
         defaults.put(PROXY_PASSWORD, "");
+        defaults.put(USE_HTTP_CACHE, Boolean.TRUE);
+        // in megabytes
+        defaults.put(HTTP_CACHE_SIZE, 50);
         defaults.put(PDF_PREVIEW, Boolean.FALSE);
         defaults.put(USE_DEFAULT_LOOK_AND_FEEL, Boolean.TRUE);
         defaults.put(LYXPIPE, System.getProperty("user.home") + File.separator + ".lyx/lyxpipe");
@@ -743,6 +766,8 @@ public class JabRefPreferences {
         defaults.put(USE_LOCK_FILES, Boolean.TRUE);
         defaults.put(AUTO_SAVE, Boolean.TRUE);
         defaults.put(AUTO_SAVE_INTERVAL, 5);
+        // in megabytes
+        defaults.put(UNDO_MEMORY_LIMIT, 64);
         defaults.put(PROMPT_BEFORE_USING_AUTOSAVE, Boolean.TRUE);
         defaults.put(ENFORCE_LEGAL_BIBTEX_KEY, Boolean.TRUE);
         defaults.put(BIBLATEX_MODE, Boolean.FALSE);
@@ -850,7 +875,32 @@ public class JabRefPreferences {
                 nonWrappableFields.add(field.trim());
             }
         }
+        invalidateSnapshot();
+    }
+
+    /**
+     * Returns an immutable copy of the preferences needed in per-entry code. Reading from the snapshot avoids the
+     * synchronized backing store lookups of the get methods. The snapshot is rebuilt on the first call after a
+     * preference has changed, so callers should fetch it once per operation and not keep it for longer.
+     */
+    public PreferencesSnapshot getSnapshot() {
+        PreferencesSnapshot result = snapshot;
+        if (result == null) {
+            synchronized (snapshotLock) {
+                if (snapshot == null) {
+                    snapshot = new PreferencesSnapshot(this);
+                }
+                result = snapshot;
+            }
+        }
+        return result;
+    }
 
+    private void invalidateSnapshot() {
+        // waits for a snapshot being built, which might not contain the change yet
+        synchronized (snapshotLock) {
+            snapshot = null;
+        }
     }
 
     public char getValueDelimiters(int index) {
@@ -917,26 +967,32 @@ public class JabRefPreferences {
 
     public void put(String key, String value) {
         prefs.put(key, value);
+        invalidateSnapshot();
     }
 
     public void putBoolean(String key, boolean value) {
         prefs.putBoolean(key, value);
+        invalidateSnapshot();
     }
 
     public void putDouble(String key, double value) {
         prefs.putDouble(key, value);
+        invalidateSnapshot();
     }
 
     public void putInt(String key, int value) {
         prefs.putInt(key, value);
+        invalidateSnapshot();
     }
 
     public void putByteArray(String key, byte[] value) {
         prefs.putByteArray(key, value);
+        invalidateSnapshot();
     }
 
     public void remove(String key) {
         prefs.remove(key);
+        invalidateSnapshot();
     }
 
     /**
@@ -1137,10 +1193,12 @@ public class JabRefPreferences {
      */
     public void clear() throws BackingStoreException {
         prefs.clear();
+        invalidateSnapshot();
     }
 
     public void clear(String key) {
         prefs.remove(key);
+        invalidateSnapshot();
     }
 
     /**
@@ -0,0 +1,138 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Runs the phases of the application start and records how long each of them took.
+ *
+ * Phases which do not depend on each other are started with {@link #submit(String, Runnable)} and run concurrently
+ * on the {@link JabRefExecutorService}, {@link #awaitSubmitted()} waits until they are done. Phases started with
+ * {@link #run(String, Runnable)} or {@link #compute(String, Supplier)} run in the calling thread.
+ */
+public class StartupTasks {
+
+    private static final Log LOGGER = LogFactory.getLog(StartupTasks.class);
+
+    private final long startTime = System.nanoTime();
+
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final List<Future<Void>> submitted = new ArrayList<>();
+
+
+    /**
+     * Starts the given phase in the background.
+     */
+    public void submit(final String name, final Runnable task) {
+        submitted.add(JabRefExecutorService.INSTANCE.submit(new Callable<Void>() {
+
+            @Override
+            public Void call() {
+                run(name, task);
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * Waits until all phases started with {@link #submit(String, Runnable)} are finished. If a phase failed, its
+     * exception is rethrown.
+     */
+    public void awaitSubmitted() {
+        long start = System.nanoTime();
+        try {
+            for (Future<Void> future : submitted) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            submitted.clear();
+            record("Waiting for background phases", start);
+        }
+    }
+
+    /**
+     * Runs the given phase in the current thread.
+     */
+    public void run(String name, Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /**
+     * Runs the given phase in the current thread and returns its result.
+     */
+    public <T> T compute(String name, Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            record(name, start);
+        }
+    }
+
+    /**
+     * Returns the duration of every finished phase in milliseconds, in the order in which the phases finished.
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    /**
+     * Logs the duration of all phases finished so far and the time since this object was created.
+     */
+    public void logTimings() {
+        StringBuilder sb = new StringBuilder("Startup took ");
+        sb.append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)).append(" ms");
+        for (Map.Entry<String, Long> timing : getTimings().entrySet()) {
+            sb.append("\n  ").append(timing.getKey()).append(": ").append(timing.getValue()).append(" ms");
+        }
+        LOGGER.info(sb.toString());
+    }
+
+    private void record(String name, long start) {
+        timings.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
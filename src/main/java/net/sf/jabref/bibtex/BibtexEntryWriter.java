@@ -19,7 +19,7 @@ package net.sf.jabref.bibtex;
 
 import net.sf.jabref.gui.BibtexFields;
 import net.sf.jabref.Globals;
-import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.logic.preferences.PreferencesSnapshot;
 import net.sf.jabref.exporter.LatexFieldFormatter;
 import net.sf.jabref.logic.util.strings.StringUtil;
 import net.sf.jabref.model.entry.BibtexEntry;
@@ -84,15 +84,28 @@ public class BibtexEntryWriter {
 
     private final LatexFieldFormatter fieldFormatter;
     private final boolean write;
-    private final boolean writeFieldCameCaseName = Globals.prefs.getBoolean(JabRefPreferences.WRITEFIELD_CAMELCASENAME);
-    private final boolean writeFieldAddSpaces = Globals.prefs.getBoolean(JabRefPreferences.WRITEFIELD_ADDSPACES);
-    private final boolean includeEmptyFields = Globals.prefs.getBoolean(JabRefPreferences.INCLUDE_EMPTY_FIELDS);
-    private final int writeFieldSortStyle = Globals.prefs.getInt(JabRefPreferences.WRITEFIELD_SORTSTYLE);
+    private final boolean writeFieldCameCaseName;
+    private final boolean writeFieldAddSpaces;
+    private final boolean includeEmptyFields;
+    private final int writeFieldSortStyle;
+    private final List<String> writeFieldUserDefinedOrder;
 
 
     public BibtexEntryWriter(LatexFieldFormatter fieldFormatter, boolean write) {
+        this(fieldFormatter, write, Globals.prefs.getSnapshot());
+    }
+
+    /**
+     * Creates a writer using the given preferences instead of the global ones.
+     */
+    public BibtexEntryWriter(LatexFieldFormatter fieldFormatter, boolean write, PreferencesSnapshot preferences) {
         this.fieldFormatter = fieldFormatter;
         this.write = write;
+        writeFieldCameCaseName = preferences.isWriteFieldCamelCaseName();
+        writeFieldAddSpaces = preferences.isWriteFieldAddSpaces();
+        includeEmptyFields = preferences.isIncludeEmptyFields();
+        writeFieldSortStyle = preferences.getWriteFieldSortStyle();
+        writeFieldUserDefinedOrder = preferences.getWriteFieldUserDefinedOrder();
     }
 
     public void write(BibtexEntry entry, Writer out) throws IOException {
@@ -265,14 +278,11 @@ public class BibtexEntryWriter {
         boolean hasWritten = false;
 
         // Write user defined fields first.
-        String[] fields = Globals.prefs.getStringArray(JabRefPreferences.WRITEFIELD_USERDEFINEDORDER);
-        if (fields != null) {
-            //do not sort, write as it is.
-            for (String value : fields) {
-                if (!written.containsKey(value)) { // If field appears both in req. and opt. don't repeat.
-                    hasWritten = hasWritten | writeField(entry, out, value, hasWritten);
-                    written.put(value, null);
-                }
+        //do not sort, write as it is.
+        for (String value : writeFieldUserDefinedOrder) {
+            if (!written.containsKey(value)) { // If field appears both in req. and opt. don't repeat.
+                hasWritten = hasWritten | writeField(entry, out, value, hasWritten);
+                written.put(value, null);
             }
         }
 
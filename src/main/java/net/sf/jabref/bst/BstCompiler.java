@@ -0,0 +1,321 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.bst;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.jabref.bst.BstProgram.Block;
+import net.sf.jabref.bst.BstProgram.Command;
+import net.sf.jabref.bst.BstProgram.Function;
+import net.sf.jabref.bst.BstProgram.Reference;
+
+import org.antlr.runtime.tree.CommonTree;
+import org.antlr.runtime.tree.Tree;
+
+/**
+ * Translates the syntax tree of a .bst file into a {@link BstProgram}.
+ *
+ * Names are resolved with the same precedence the {@link VM} uses at runtime: entry fields, string entry variables,
+ * integer entry variables, global strings, global integers and finally functions.
+ */
+final class BstCompiler {
+
+    private static final String CROSSREF = "crossref";
+
+    private static final String SORT_KEY = "sort.key$";
+
+    private final String fileName;
+
+    // Declared names mapped to their slots
+    private final Map<String, Integer> fields = new HashMap<>();
+    private final Map<String, Integer> entryStrings = new HashMap<>();
+    private final Map<String, Integer> entryIntegers = new HashMap<>();
+    private final Map<String, Integer> globalStrings = new HashMap<>();
+    private final Map<String, Integer> globalIntegers = new HashMap<>();
+    private final Set<String> userFunctions = new HashSet<>();
+    private final Map<String, Integer> functions = new HashMap<>();
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<String, Integer> stringConstants = new HashMap<>();
+    private final Map<Integer, Integer> referenceConstants = new HashMap<>();
+
+
+    private BstCompiler(String fileName) {
+        this.fileName = fileName;
+    }
+
+    static BstProgram compile(CommonTree tree, String fileName) {
+        return new BstCompiler(fileName).compile(tree);
+    }
+
+    private BstProgram compile(Tree tree) {
+        for (int i = 0; i < BstProgram.BUILTIN_NAMES.length; i++) {
+            functions.put(BstProgram.BUILTIN_NAMES[i], i);
+        }
+        declare("entry.max$", globalIntegers);
+        declare("global.max$", globalIntegers);
+
+        declare(tree);
+
+        int readFieldCount = fields.size();
+        declare(CROSSREF, fields);
+        declare(SORT_KEY, entryStrings);
+
+        List<Command> commands = new ArrayList<>();
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            Tree child = tree.getChild(i);
+            switch (child.getType()) {
+            case BstParser.STRINGS:
+                commands.add(new Command(BstProgram.CMD_STRINGS, -1, slots(child.getChild(0), globalStrings), null));
+                break;
+            case BstParser.INTEGERS:
+                commands.add(new Command(BstProgram.CMD_INTEGERS, -1, slots(child.getChild(0), globalIntegers), null));
+                break;
+            case BstParser.FUNCTION:
+                commands.add(new Command(BstProgram.CMD_FUNCTION, functions.get(child.getChild(0).getText()), null,
+                        new Function(-1, block(child.getChild(1)), null)));
+                break;
+            case BstParser.MACRO:
+                commands.add(new Command(BstProgram.CMD_FUNCTION, functions.get(child.getChild(0).getText()), null,
+                        new Function(-1, null, child.getChild(1).getText())));
+                break;
+            case BstParser.EXECUTE:
+                commands.add(new Command(BstProgram.CMD_EXECUTE, nameId(child.getChild(0).getText()), null, null));
+                break;
+            case BstParser.ITERATE:
+                commands.add(new Command(BstProgram.CMD_ITERATE, functionSlot(child.getChild(0).getText()), null,
+                        null));
+                break;
+            case BstParser.REVERSE:
+                commands.add(new Command(BstProgram.CMD_REVERSE, functionSlot(child.getChild(0).getText()), null,
+                        null));
+                break;
+            case BstParser.SORT:
+                commands.add(new Command(BstProgram.CMD_SORT, -1, null, null));
+                break;
+            case BstParser.ENTRY:
+                commands.add(new Command(BstProgram.CMD_ENTRY, -1, null, null));
+                break;
+            case BstParser.READ:
+                commands.add(new Command(BstProgram.CMD_READ, -1, null, null));
+                break;
+            default:
+                break;
+            }
+        }
+
+        int nameCount = names.size();
+        int[] fieldSlots = new int[nameCount];
+        int[] entryStringSlots = new int[nameCount];
+        int[] entryIntSlots = new int[nameCount];
+        int[] globalStringSlots = new int[nameCount];
+        int[] globalIntSlots = new int[nameCount];
+        int[] functionSlots = new int[nameCount];
+        for (int id = 0; id < nameCount; id++) {
+            String name = names.get(id);
+            fieldSlots[id] = indexOf(fields, name);
+            entryStringSlots[id] = indexOf(entryStrings, name);
+            entryIntSlots[id] = indexOf(entryIntegers, name);
+            globalStringSlots[id] = indexOf(globalStrings, name);
+            globalIntSlots[id] = indexOf(globalIntegers, name);
+            Integer slot = functions.get(name);
+            functionSlots[id] = slot == null ? -1 : slot;
+        }
+
+        String[] fieldNames = new String[fields.size()];
+        for (Map.Entry<String, Integer> field : fields.entrySet()) {
+            fieldNames[field.getValue()] = field.getKey();
+        }
+
+        int[] initialGlobalInts = new int[globalIntegers.size()];
+        initialGlobalInts[0] = Integer.MAX_VALUE;
+        initialGlobalInts[1] = Integer.MAX_VALUE;
+
+        Function[] initialFunctions = new Function[functions.size()];
+        for (int i = 0; i < BstProgram.BUILTIN_NAMES.length; i++) {
+            initialFunctions[i] = new Function(i, null, null);
+        }
+
+        return new BstProgram(fileName, names.toArray(new String[nameCount]), nameIds, fieldSlots,
+                entryStringSlots, entryIntSlots, globalStringSlots, globalIntSlots, functionSlots, fieldNames,
+                readFieldCount, entryStrings.size(), entryIntegers.size(), indexOf(entryStrings, SORT_KEY),
+                globalStrings.size(), initialGlobalInts, initialFunctions, constants.toArray(),
+                commands.toArray(new Command[commands.size()]));
+    }
+
+    /**
+     * Collects all declarations of the style, so that every identifier can be bound to its slot.
+     */
+    private void declare(Tree tree) {
+        for (int i = 0; i < tree.getChildCount(); i++) {
+            Tree child = tree.getChild(i);
+            switch (child.getType()) {
+            case BstParser.STRINGS:
+                addAll(child.getChild(0), globalStrings);
+                break;
+            case BstParser.INTEGERS:
+                addAll(child.getChild(0), globalIntegers);
+                break;
+            case BstParser.ENTRY:
+                addAll(child.getChild(0), fields);
+                addAll(child.getChild(1), entryIntegers);
+                addAll(child.getChild(2), entryStrings);
+                break;
+            case BstParser.FUNCTION:
+            case BstParser.MACRO:
+                String name = child.getChild(0).getText();
+                userFunctions.add(name);
+                if (!functions.containsKey(name)) {
+                    functions.put(name, functions.size());
+                }
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    private Block block(Tree stack) {
+        int count = stack.getChildCount();
+        int[] code = new int[2 * count];
+        int[] lines = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            Tree c = stack.getChild(i);
+            lines[i] = c.getLine();
+            int opcode;
+            int argument;
+            switch (c.getType()) {
+            case BstParser.STRING:
+                String s = c.getText();
+                opcode = BstProgram.PUSH_CONSTANT;
+                argument = stringConstant(s.substring(1, s.length() - 1));
+                break;
+            case BstParser.INTEGER:
+                opcode = BstProgram.PUSH_INT;
+                argument = Integer.parseInt(c.getText().substring(1));
+                break;
+            case BstParser.QUOTED:
+                opcode = BstProgram.PUSH_CONSTANT;
+                argument = referenceConstant(nameId(c.getText().substring(1)));
+                break;
+            case BstParser.STACK:
+                opcode = BstProgram.PUSH_CONSTANT;
+                argument = constants.size();
+                constants.add(block(c));
+                break;
+            default:
+                String name = c.getText();
+                argument = nameId(name);
+                if (fields.containsKey(name)) {
+                    opcode = BstProgram.LOAD_FIELD;
+                } else if (entryStrings.containsKey(name)) {
+                    opcode = BstProgram.LOAD_ENTRY_STRING;
+                } else if (entryIntegers.containsKey(name)) {
+                    opcode = BstProgram.LOAD_ENTRY_INT;
+                } else if (globalStrings.containsKey(name)) {
+                    opcode = BstProgram.LOAD_GLOBAL_STRING;
+                    argument = indexOf(globalStrings, name);
+                } else if (globalIntegers.containsKey(name)) {
+                    opcode = BstProgram.LOAD_GLOBAL_INT;
+                    argument = indexOf(globalIntegers, name);
+                } else if (userFunctions.contains(name)) {
+                    // Also used for redefined built-ins, the function table is only filled at runtime
+                    opcode = BstProgram.CALL;
+                } else if (functions.containsKey(name)) {
+                    opcode = BstProgram.BUILTIN;
+                    argument = functions.get(name);
+                } else {
+                    opcode = BstProgram.LOAD_NAME;
+                }
+            }
+            code[2 * i] = opcode;
+            code[(2 * i) + 1] = argument;
+        }
+        return new Block(code, lines);
+    }
+
+    private int nameId(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    private int functionSlot(String name) {
+        Integer slot = functions.get(name);
+        if (slot == null) {
+            throw new VMException("No matching identifier found: " + name);
+        }
+        return slot;
+    }
+
+    private int stringConstant(String s) {
+        Integer index = stringConstants.get(s);
+        if (index == null) {
+            index = constants.size();
+            constants.add(s);
+            stringConstants.put(s, index);
+        }
+        return index;
+    }
+
+    private int referenceConstant(int nameId) {
+        Integer index = referenceConstants.get(nameId);
+        if (index == null) {
+            index = constants.size();
+            constants.add(new Reference(nameId));
+            referenceConstants.put(nameId, index);
+        }
+        return index;
+    }
+
+    private static int[] slots(Tree idList, Map<String, Integer> declared) {
+        int[] result = new int[idList.getChildCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indexOf(declared, idList.getChild(i).getText());
+        }
+        return result;
+    }
+
+    private static void addAll(Tree idList, Map<String, Integer> declared) {
+        for (int i = 0; i < idList.getChildCount(); i++) {
+            declare(idList.getChild(i).getText(), declared);
+        }
+    }
+
+    private static void declare(String name, Map<String, Integer> declared) {
+        if (!declared.containsKey(name)) {
+            declared.put(name, declared.size());
+        }
+    }
+
+    private static int indexOf(Map<String, Integer> declared, String name) {
+        Integer slot = declared.get(name);
+        return slot == null ? -1 : slot;
+    }
+}
@@ -0,0 +1,1032 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.bst;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sf.jabref.JabRefExecutorService;
+import net.sf.jabref.bst.BibtexCaseChanger.FORMAT_MODE;
+import net.sf.jabref.bst.BstProgram.Block;
+import net.sf.jabref.bst.BstProgram.Command;
+import net.sf.jabref.bst.BstProgram.Function;
+import net.sf.jabref.bst.BstProgram.Reference;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.AuthorList;
+import net.sf.jabref.model.entry.AuthorList.Author;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Executes a {@link BstProgram}.
+ *
+ * Produces the same output as the {@link VM}, but instead of walking the syntax tree and looking up every identifier
+ * by name, it runs the precompiled instruction arrays of the program on an unsynchronized {@link BstStack}.
+ *
+ * If parallel iteration is enabled, ITERATE splits the entry list into chunks which are processed by worker machines
+ * on separate threads. Each worker writes into its own output buffer, stack and copy of the global variables; the
+ * results are then concatenated in entry order, so the output is the same as for a sequential run. Whether this is
+ * valid is checked while running: if an entry reads a global variable before assigning it (in the same entry) while
+ * any entry assigns it, or if a worker needs more operands than it pushed itself, the entry variables are restored
+ * and the ITERATE is repeated sequentially. Functions like presort or format.entry, which only use global variables
+ * as scratch space, are therefore run in parallel.
+ */
+public class BstMachine implements Warn {
+
+    private static final Log LOGGER = LogFactory.getLog(BstMachine.class);
+
+    private static final Pattern ADD_PERIOD_PATTERN = Pattern.compile("([^\\.\\?\\!\\}\\s])(\\}|\\s)*$");
+
+    /** Each worker of a parallel ITERATE gets at least this many entries. */
+    private static final int MIN_ENTRIES_PER_WORKER = 64;
+
+    private final BstProgram program;
+
+    private final boolean parallelIterate;
+
+    /** True for the machines processing a chunk of entries during a parallel ITERATE. */
+    private final boolean worker;
+
+    private List<EntryContext> entries;
+
+    private String[] globalStrings;
+
+    private int[] globalIntegers;
+
+    private Function[] functions;
+
+    private BstStack stack = new BstStack();
+
+    private StringBuilder bbl;
+
+    private String preamble;
+
+    private int warning = 1;
+
+    // Bookkeeping of a worker, see class comment
+    private int entryStamp;
+    private int[] stringWriteStamps;
+    private int[] intWriteStamps;
+    private boolean[] stringsReadFirst;
+    private boolean[] intsReadFirst;
+    private boolean[] stringsWritten;
+    private boolean[] intsWritten;
+    private boolean unsafe;
+    private List<DeferredWarning> deferredWarnings;
+
+
+    /**
+     * The values of the fields and entry variables of one entry, stored in the slots assigned by the compiler.
+     */
+    public static final class EntryContext {
+
+        final BibtexEntry entry;
+
+        final String[] fields;
+
+        final String[] strings;
+
+        final int[] integers;
+
+
+        EntryContext(BibtexEntry entry, BstProgram program) {
+            this.entry = entry;
+            this.fields = new String[program.fieldNames.length];
+            this.strings = new String[program.entryStringCount];
+            this.integers = new int[program.entryIntCount];
+        }
+
+        public BibtexEntry getBibtexEntry() {
+            return entry;
+        }
+    }
+
+
+    /**
+     * A warning issued by a worker, logged by the main machine once the ITERATE has finished.
+     */
+    private static final class DeferredWarning {
+
+        /** true for warning$, which numbers its messages */
+        final boolean numbered;
+
+        final String message;
+
+
+        DeferredWarning(boolean numbered, String message) {
+            this.numbered = numbered;
+            this.message = message;
+        }
+    }
+
+
+    public BstMachine(BstProgram program) {
+        this(program, false);
+    }
+
+    /**
+     * @param parallelIterate whether ITERATE commands may process the entries on several threads
+     */
+    public BstMachine(BstProgram program, boolean parallelIterate) {
+        this.program = program;
+        this.parallelIterate = parallelIterate;
+        this.worker = false;
+    }
+
+    private BstMachine(BstMachine parent, List<EntryContext> entries) {
+        this.program = parent.program;
+        this.parallelIterate = false;
+        this.worker = true;
+        this.entries = entries;
+        // the function table cannot change during an ITERATE, so it can be shared
+        this.functions = parent.functions;
+        this.preamble = parent.preamble;
+        this.globalStrings = parent.globalStrings.clone();
+        this.globalIntegers = parent.globalIntegers.clone();
+        this.bbl = new StringBuilder();
+        this.stringWriteStamps = new int[globalStrings.length];
+        this.intWriteStamps = new int[globalIntegers.length];
+        this.stringsReadFirst = new boolean[globalStrings.length];
+        this.intsReadFirst = new boolean[globalIntegers.length];
+        this.stringsWritten = new boolean[globalStrings.length];
+        this.intsWritten = new boolean[globalIntegers.length];
+        this.deferredWarnings = new ArrayList<>();
+    }
+
+    public String run(BibtexDatabase db) {
+        preamble = db.getPreamble();
+        return run(db.getEntries());
+    }
+
+    public String run(Collection<BibtexEntry> bibtex) {
+        reset();
+
+        entries = new ArrayList<>(bibtex.size());
+        for (BibtexEntry entry : bibtex) {
+            entries.add(new EntryContext(entry, program));
+        }
+
+        for (Command command : program.commands) {
+            switch (command.type) {
+            case BstProgram.CMD_STRINGS:
+                for (int slot : command.slots) {
+                    globalStrings[slot] = null;
+                }
+                break;
+            case BstProgram.CMD_INTEGERS:
+                for (int slot : command.slots) {
+                    globalIntegers[slot] = 0;
+                }
+                break;
+            case BstProgram.CMD_FUNCTION:
+                functions[command.argument] = command.function;
+                break;
+            case BstProgram.CMD_EXECUTE:
+                loadName(command.argument, null);
+                break;
+            case BstProgram.CMD_ITERATE:
+                iterate(command.argument);
+                break;
+            case BstProgram.CMD_REVERSE:
+                reverse(command.argument);
+                break;
+            case BstProgram.CMD_SORT:
+                sort();
+                break;
+            case BstProgram.CMD_READ:
+                read();
+                break;
+            default:
+                // ENTRY: the entry variables have already been allocated and initialized
+                break;
+            }
+        }
+
+        return bbl.toString();
+    }
+
+    private void reset() {
+        bbl = new StringBuilder();
+        globalStrings = new String[program.globalStringCount];
+        globalIntegers = program.initialGlobalInts.clone();
+        functions = program.initialFunctions.clone();
+        stack = new BstStack();
+        warning = 1;
+    }
+
+    private void read() {
+        for (EntryContext context : entries) {
+            for (int i = 0; i < program.readFieldCount; i++) {
+                context.fields[i] = context.entry.getField(program.fieldNames[i]);
+            }
+        }
+    }
+
+    private void iterate(int functionSlot) {
+        Function function = getFunction(functionSlot);
+        if (parallelIterate && iterateInParallel(function)) {
+            return;
+        }
+        for (EntryContext context : entries) {
+            invoke(function, context);
+        }
+    }
+
+    /**
+     * @return false if the function could not be applied in parallel, the state of the machine is unchanged then
+     */
+    private boolean iterateInParallel(Function function) {
+        int size = entries.size();
+        int workerCount = Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_ENTRIES_PER_WORKER);
+        if (workerCount < 2) {
+            return false;
+        }
+
+        String[][] savedStrings = new String[size][];
+        int[][] savedIntegers = new int[size][];
+        for (int i = 0; i < size; i++) {
+            savedStrings[i] = entries.get(i).strings.clone();
+            savedIntegers[i] = entries.get(i).integers.clone();
+        }
+
+        List<Future<BstMachine>> futures = new ArrayList<>(workerCount);
+        int chunkSize = ((size + workerCount) - 1) / workerCount;
+        for (int start = 0; start < size; start += chunkSize) {
+            BstMachine chunkWorker = new BstMachine(this, entries.subList(start, Math.min(size, start + chunkSize)));
+            futures.add(JabRefExecutorService.INSTANCE.submit(() -> chunkWorker.iterateChunk(function)));
+        }
+        List<BstMachine> workers = new ArrayList<>(futures.size());
+        for (Future<BstMachine> future : futures) {
+            workers.add(waitFor(future));
+        }
+
+        if (!isParallelResultValid(workers)) {
+            LOGGER.debug("ITERATE cannot be run in parallel, falling back to sequential execution");
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(savedStrings[i], 0, entries.get(i).strings, 0, savedStrings[i].length);
+                System.arraycopy(savedIntegers[i], 0, entries.get(i).integers, 0, savedIntegers[i].length);
+            }
+            return false;
+        }
+
+        for (BstMachine chunkWorker : workers) {
+            bbl.append(chunkWorker.bbl);
+            stack.pushAll(chunkWorker.stack);
+            for (int slot = 0; slot < globalStrings.length; slot++) {
+                if (chunkWorker.stringsWritten[slot]) {
+                    globalStrings[slot] = chunkWorker.globalStrings[slot];
+                }
+            }
+            for (int slot = 0; slot < globalIntegers.length; slot++) {
+                if (chunkWorker.intsWritten[slot]) {
+                    globalIntegers[slot] = chunkWorker.globalIntegers[slot];
+                }
+            }
+            for (DeferredWarning deferred : chunkWorker.deferredWarnings) {
+                if (deferred.numbered) {
+                    warning(deferred.message);
+                } else {
+                    warn(deferred.message);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static BstMachine waitFor(Future<BstMachine> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // the workers modify the entries, so we have to wait for them in any case
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    LOGGER.warn("Worker of parallel ITERATE failed", e);
+                    return null;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private BstMachine iterateChunk(Function function) {
+        try {
+            for (EntryContext context : entries) {
+                entryStamp++;
+                invoke(function, context);
+            }
+        } catch (RuntimeException e) {
+            // Maybe the function needs the operands left by previous entries, the sequential run will tell
+            unsafe = true;
+        }
+        return this;
+    }
+
+    private boolean isParallelResultValid(List<BstMachine> workers) {
+        boolean[] stringsReadFirstByAny = new boolean[globalStrings.length];
+        boolean[] intsReadFirstByAny = new boolean[globalIntegers.length];
+        boolean[] stringsWrittenByAny = new boolean[globalStrings.length];
+        boolean[] intsWrittenByAny = new boolean[globalIntegers.length];
+        for (BstMachine chunkWorker : workers) {
+            if ((chunkWorker == null) || chunkWorker.unsafe) {
+                return false;
+            }
+            for (int slot = 0; slot < globalStrings.length; slot++) {
+                stringsReadFirstByAny[slot] |= chunkWorker.stringsReadFirst[slot];
+                stringsWrittenByAny[slot] |= chunkWorker.stringsWritten[slot];
+            }
+            for (int slot = 0; slot < globalIntegers.length; slot++) {
+                intsReadFirstByAny[slot] |= chunkWorker.intsReadFirst[slot];
+                intsWrittenByAny[slot] |= chunkWorker.intsWritten[slot];
+            }
+        }
+        for (int slot = 0; slot < globalStrings.length; slot++) {
+            if (stringsReadFirstByAny[slot] && stringsWrittenByAny[slot]) {
+                return false;
+            }
+        }
+        for (int slot = 0; slot < globalIntegers.length; slot++) {
+            if (intsReadFirstByAny[slot] && intsWrittenByAny[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readGlobalString(int slot) {
+        if (worker && (stringWriteStamps[slot] != entryStamp)) {
+            stringsReadFirst[slot] = true;
+        }
+        return globalStrings[slot];
+    }
+
+    private int readGlobalInteger(int slot) {
+        if (worker && (intWriteStamps[slot] != entryStamp)) {
+            intsReadFirst[slot] = true;
+        }
+        return globalIntegers[slot];
+    }
+
+    private void writeGlobalString(int slot, String value) {
+        globalStrings[slot] = value;
+        if (worker) {
+            stringWriteStamps[slot] = entryStamp;
+            stringsWritten[slot] = true;
+        }
+    }
+
+    private void writeGlobalInteger(int slot, int value) {
+        globalIntegers[slot] = value;
+        if (worker) {
+            intWriteStamps[slot] = entryStamp;
+            intsWritten[slot] = true;
+        }
+    }
+
+    private void reverse(int functionSlot) {
+        Function function = getFunction(functionSlot);
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            invoke(function, entries.get(i));
+        }
+    }
+
+    /**
+     * Sorts the entry list using the values of the string entry variable sort.key$.
+     */
+    private void sort() {
+        final int sortKey = program.sortKeySlot;
+        Collections.sort(entries, (o1, o2) -> o1.strings[sortKey].compareTo(o2.strings[sortKey]));
+    }
+
+    private Function getFunction(int functionSlot) {
+        Function function = functions[functionSlot];
+        if (function == null) {
+            throw new VMException("No matching identifier found: " + functionName(functionSlot));
+        }
+        return function;
+    }
+
+    private String functionName(int functionSlot) {
+        for (int id = 0; id < program.functionSlots.length; id++) {
+            if (program.functionSlots[id] == functionSlot) {
+                return program.names[id];
+            }
+        }
+        return String.valueOf(functionSlot);
+    }
+
+    private void invoke(Function function, EntryContext context) {
+        if (function.body != null) {
+            execute(function.body, context);
+        } else if (function.macro != null) {
+            stack.push(function.macro);
+        } else {
+            builtin(function.builtin, context);
+        }
+    }
+
+    private void execute(Block block, EntryContext context) {
+        int[] code = block.code;
+        int pc = 0;
+        try {
+            for (; pc < code.length; pc += 2) {
+                int argument = code[pc + 1];
+                switch (code[pc]) {
+                case BstProgram.PUSH_INT:
+                    stack.pushInt(argument);
+                    break;
+                case BstProgram.PUSH_CONSTANT:
+                    stack.push(program.constants[argument]);
+                    break;
+                case BstProgram.LOAD_FIELD:
+                    if (context == null) {
+                        loadName(argument, null);
+                    } else {
+                        stack.push(context.fields[program.fieldSlots[argument]]);
+                    }
+                    break;
+                case BstProgram.LOAD_ENTRY_STRING:
+                    if (context == null) {
+                        loadName(argument, null);
+                    } else {
+                        stack.push(context.strings[program.entryStringSlots[argument]]);
+                    }
+                    break;
+                case BstProgram.LOAD_ENTRY_INT:
+                    if (context == null) {
+                        loadName(argument, null);
+                    } else {
+                        stack.pushInt(context.integers[program.entryIntSlots[argument]]);
+                    }
+                    break;
+                case BstProgram.LOAD_GLOBAL_STRING:
+                    stack.push(readGlobalString(argument));
+                    break;
+                case BstProgram.LOAD_GLOBAL_INT:
+                    stack.pushInt(readGlobalInteger(argument));
+                    break;
+                case BstProgram.CALL:
+                    Function function = functions[program.functionSlots[argument]];
+                    if (function == null) {
+                        throw new VMException("No matching identifier found: " + program.names[argument]);
+                    }
+                    invoke(function, context);
+                    break;
+                case BstProgram.BUILTIN:
+                    builtin(argument, context);
+                    break;
+                default:
+                    loadName(argument, context);
+                    break;
+                }
+            }
+        } catch (VMException e) {
+            if (worker) {
+                throw e;
+            }
+            int line = block.lines[pc / 2];
+            if (program.fileName != null) {
+                LOGGER.error("ERROR " + e.getMessage() + " (" + program.fileName + ":" + line + ")");
+            } else {
+                LOGGER.error("ERROR " + e.getMessage() + " (" + line + ")");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves a name at runtime in the order entry fields, entry variables, global variables and functions.
+     */
+    private void loadName(int nameId, EntryContext context) {
+        if (context != null) {
+            int slot = program.fieldSlots[nameId];
+            if (slot >= 0) {
+                stack.push(context.fields[slot]);
+                return;
+            }
+            slot = program.entryStringSlots[nameId];
+            if (slot >= 0) {
+                stack.push(context.strings[slot]);
+                return;
+            }
+            slot = program.entryIntSlots[nameId];
+            if (slot >= 0) {
+                stack.pushInt(context.integers[slot]);
+                return;
+            }
+        }
+        int slot = program.globalStringSlots[nameId];
+        if (slot >= 0) {
+            stack.push(readGlobalString(slot));
+            return;
+        }
+        slot = program.globalIntSlots[nameId];
+        if (slot >= 0) {
+            stack.pushInt(readGlobalInteger(slot));
+            return;
+        }
+        slot = program.functionSlots[nameId];
+        if ((slot >= 0) && (functions[slot] != null)) {
+            invoke(functions[slot], context);
+            return;
+        }
+        throw new VMException("No matching identifier found: " + program.names[nameId]);
+    }
+
+    private void executeInContext(Object o, EntryContext context) {
+        if (o instanceof Block) {
+            execute((Block) o, context);
+        } else if (o instanceof Reference) {
+            loadName(((Reference) o).nameId, context);
+        }
+    }
+
+    private static boolean isFunction(Object o) {
+        return (o instanceof Block) || (o instanceof Reference);
+    }
+
+    private void checkOperands(int count, String operation) {
+        if (stack.size() < count) {
+            throw new VMException("Not enough operands on stack for operation " + operation);
+        }
+    }
+
+    /**
+     * Executes a built-in function, see {@link VM} for the documentation of each of them.
+     */
+    private void builtin(int builtin, EntryContext context) {
+        switch (builtin) {
+        case BstProgram.GREATER:
+            checkOperands(2, ">");
+            if (!(stack.isInt(0) && stack.isInt(1))) {
+                throw new VMException("Can only compare two integers with >");
+            }
+            int right = stack.popInt();
+            stack.pushInt(stack.popInt() > right ? 1 : 0);
+            break;
+        case BstProgram.LESS:
+            checkOperands(2, "<");
+            if (!(stack.isInt(0) && stack.isInt(1))) {
+                throw new VMException("Can only compare two integers with <");
+            }
+            right = stack.popInt();
+            stack.pushInt(stack.popInt() < right ? 1 : 0);
+            break;
+        case BstProgram.EQUALS:
+            checkOperands(2, "=");
+            if (stack.isInt(0) && stack.isInt(1)) {
+                stack.pushInt(stack.popInt() == stack.popInt() ? 1 : 0);
+            } else {
+                Object o1 = stack.pop();
+                Object o2 = stack.pop();
+                if ((o1 == null) ^ (o2 == null)) {
+                    stack.pushInt(0);
+                } else {
+                    stack.pushInt((o1 == o2) || o1.equals(o2) ? 1 : 0);
+                }
+            }
+            break;
+        case BstProgram.PLUS:
+            checkOperands(2, "+");
+            if (!(stack.isInt(0) && stack.isInt(1))) {
+                throw new VMException("Can only compare two integers with +");
+            }
+            stack.pushInt(stack.popInt() + stack.popInt());
+            break;
+        case BstProgram.MINUS:
+            checkOperands(2, "-");
+            if (!(stack.isInt(0) && stack.isInt(1))) {
+                throw new VMException("Can only subtract two integers with -");
+            }
+            right = stack.popInt();
+            stack.pushInt(stack.popInt() - right);
+            break;
+        case BstProgram.CONCAT:
+            checkOperands(2, "*");
+            if (!(stack.isString(0) && stack.isString(1))) {
+                throw new VMException("Can only concatenate two String with *");
+            }
+            String second = stack.popString();
+            stack.push(stack.popString().concat(second));
+            break;
+        case BstProgram.ASSIGN:
+            if (stack.size() < 2) {
+                throw new VMException("Invalid call to operation :=");
+            }
+            assign(context);
+            break;
+        case BstProgram.ADD_PERIOD:
+            checkOperands(1, "add.period$");
+            if (!stack.isString(0)) {
+                throw new VMException("Can only add a period to a string for add.period$");
+            }
+            stack.push(addPeriod(stack.popString()));
+            break;
+        case BstProgram.CALL_TYPE:
+            if (context == null) {
+                throw new VMException("Call.type$ can only be called from within a context (ITERATE or REVERSE).");
+            }
+            String type = context.entry.getType().getName().toLowerCase();
+            int nameId = program.getNameId(type);
+            if (nameId < 0) {
+                throw new VMException("No matching identifier found: " + type);
+            }
+            loadName(nameId, context);
+            break;
+        case BstProgram.CHANGE_CASE:
+            checkOperands(2, "change.case$");
+            Object format = stack.pop();
+            Object toChange = stack.pop();
+            if (!((format instanceof String) && (((String) format).length() == 1))) {
+                throw new VMException("A format string of length 1 is needed for change.case$");
+            }
+            if (!(toChange instanceof String)) {
+                throw new VMException("A string is needed as second parameter for change.case$");
+            }
+            stack.push(BibtexCaseChanger.changeCase((String) toChange,
+                    FORMAT_MODE.getFormatModeForBSTFormat(((String) format).toLowerCase().charAt(0))));
+            break;
+        case BstProgram.CHR_TO_INT:
+            checkOperands(1, "chr.to.int$");
+            if (!(stack.isString(0) && (((String) stack.peek(0)).length() == 1))) {
+                throw new VMException("Can only perform chr.to.int$ on string with length 1");
+            }
+            stack.pushInt(stack.popString().charAt(0));
+            break;
+        case BstProgram.CITE:
+            stack.push(context.entry.getCiteKey());
+            break;
+        case BstProgram.DUPLICATE:
+            checkOperands(1, "duplicate$");
+            stack.duplicate();
+            break;
+        case BstProgram.EMPTY:
+            checkOperands(1, "empty$");
+            Object toCheck = stack.pop();
+            if (toCheck == null) {
+                stack.pushInt(1);
+            } else if (toCheck instanceof String) {
+                stack.pushInt(((String) toCheck).trim().isEmpty() ? 1 : 0);
+            } else {
+                throw new VMException("Operand does not match function empty$");
+            }
+            break;
+        case BstProgram.FORMAT_NAME:
+            formatName();
+            break;
+        case BstProgram.IF:
+            if (stack.size() < 3) {
+                throw new VMException("Not enough operands on stack for operation =");
+            }
+            Object f1 = stack.pop();
+            Object f2 = stack.pop();
+            Object i = stack.pop();
+            if (!isFunction(f1) && isFunction(f2) && (i instanceof Integer)) {
+                throw new VMException("Expecting two functions and an integer for if$.");
+            }
+            executeInContext((Integer) i > 0 ? f2 : f1, context);
+            break;
+        case BstProgram.INT_TO_CHR:
+            checkOperands(1, "int.to.chr$");
+            if (!stack.isInt(0)) {
+                throw new VMException("Can only perform operation int.to.chr$ on an Integer");
+            }
+            stack.push(String.valueOf((char) stack.popInt()));
+            break;
+        case BstProgram.INT_TO_STR:
+            checkOperands(1, "int.to.str$");
+            if (!stack.isInt(0)) {
+                throw new VMException("Can only transform an integer to an string using int.to.str$");
+            }
+            stack.push(Integer.toString(stack.popInt()));
+            break;
+        case BstProgram.MISSING:
+            checkOperands(1, "missing$");
+            if (stack.isString(0)) {
+                stack.popString();
+                stack.pushInt(0);
+            } else {
+                if (stack.pop() != null) {
+                    warn("Not a string or missing field in operation missing$");
+                }
+                stack.pushInt(1);
+            }
+            break;
+        case BstProgram.NEWLINE:
+            bbl.append('\n');
+            break;
+        case BstProgram.NUM_NAMES:
+            checkOperands(1, "num.names$");
+            if (!stack.isString(0)) {
+                throw new VMException("Need a string at the top of the stack for num.names$");
+            }
+            stack.pushInt(AuthorList.getAuthorList(stack.popString()).size());
+            break;
+        case BstProgram.POP:
+            stack.pop();
+            break;
+        case BstProgram.PREAMBLE:
+            stack.push(preamble == null ? "" : preamble);
+            break;
+        case BstProgram.PURIFY:
+            checkOperands(1, "purify$");
+            if (stack.isString(0)) {
+                stack.push(BibtexPurify.purify(stack.popString(), this));
+            } else {
+                stack.pop();
+                warn("A string is needed for purify$");
+                stack.push("");
+            }
+            break;
+        case BstProgram.QUOTE:
+            stack.push("\"");
+            break;
+        case BstProgram.SKIP:
+            break;
+        case BstProgram.STACK:
+            // a worker does not see the literals pushed before its chunk
+            unsafe |= worker;
+            while (!stack.isEmpty()) {
+                LOGGER.debug(stack.pop());
+            }
+            break;
+        case BstProgram.SUBSTRING:
+            substring();
+            break;
+        case BstProgram.SWAP:
+            checkOperands(2, "swap$");
+            stack.swap();
+            break;
+        case BstProgram.TEXT_LENGTH:
+            checkOperands(1, "text.length$");
+            if (!stack.isString(0)) {
+                throw new VMException("Can only perform operation on a string text.length$");
+            }
+            stack.pushInt(textLength(stack.popString()));
+            break;
+        case BstProgram.TEXT_PREFIX:
+            checkOperands(2, "text.prefix$");
+            Object length = stack.pop();
+            Object toPrefix = stack.pop();
+            if (!(length instanceof Integer)) {
+                warn("An integer is needed as first parameter to text.prefix$");
+                stack.push("");
+            } else if (!(toPrefix instanceof String)) {
+                warn("A string is needed as second parameter to text.prefix$");
+                stack.push("");
+            } else {
+                stack.push(BibtexTextPrefix.textPrefix((Integer) length, (String) toPrefix, this));
+            }
+            break;
+        case BstProgram.TOP:
+            LOGGER.debug(stack.pop());
+            break;
+        case BstProgram.TYPE:
+            stack.push(context.entry.getType().getName());
+            break;
+        case BstProgram.WARNING:
+            warning(String.valueOf(stack.pop()));
+            break;
+        case BstProgram.WHILE:
+            checkOperands(2, "while$");
+            Object body = stack.pop();
+            Object condition = stack.pop();
+            if (!isFunction(condition) && isFunction(body)) {
+                throw new VMException("Expecting two functions for while$.");
+            }
+            while (true) {
+                executeInContext(condition, context);
+                if (stack.isEmpty() || !stack.isInt(0)) {
+                    throw new VMException(
+                            "First parameter to while has to return an integer but was " + stack.pop());
+                }
+                if (stack.popInt() <= 0) {
+                    break;
+                }
+                executeInContext(body, context);
+            }
+            break;
+        case BstProgram.WIDTH:
+            checkOperands(1, "width$");
+            if (stack.isString(0)) {
+                stack.pushInt(BibtexWidth.width(stack.popString()));
+            } else {
+                stack.pop();
+                warn("A string is needed for change.case$");
+                stack.pushInt(0);
+            }
+            break;
+        case BstProgram.WRITE:
+            bbl.append((String) stack.pop());
+            break;
+        default:
+            throw new VMException("Unknown built-in function " + builtin);
+        }
+    }
+
+    private void assign(EntryContext context) {
+        Object target = stack.pop();
+        if (!(target instanceof Reference)) {
+            throw new VMException("Invalid parameters");
+        }
+        int nameId = ((Reference) target).nameId;
+
+        if (stack.isInt(0)) {
+            int value = stack.popInt();
+            if ((context != null) && (program.entryIntSlots[nameId] >= 0)) {
+                context.integers[program.entryIntSlots[nameId]] = value;
+            } else if (program.globalIntSlots[nameId] >= 0) {
+                writeGlobalInteger(program.globalIntSlots[nameId], value);
+            }
+            return;
+        }
+
+        Object value = stack.pop();
+        if (!(value instanceof String)) {
+            throw new VMException("Invalid parameters");
+        }
+        if ((context != null) && (program.entryStringSlots[nameId] >= 0)) {
+            context.strings[program.entryStringSlots[nameId]] = (String) value;
+        } else if (program.globalStringSlots[nameId] >= 0) {
+            writeGlobalString(program.globalStringSlots[nameId], (String) value);
+        }
+    }
+
+    private static String addPeriod(String s) {
+        Matcher m = ADD_PERIOD_PATTERN.matcher(s);
+        if (!m.find()) {
+            return s;
+        }
+        StringBuffer sb = new StringBuffer();
+        m.appendReplacement(sb, m.group(1));
+        sb.append('.');
+        String group2 = m.group(2);
+        if (group2 != null) {
+            sb.append(group2);
+        }
+        return sb.toString();
+    }
+
+    private void formatName() {
+        checkOperands(3, "format.name$");
+        Object o1 = stack.pop();
+        Object o2 = stack.pop();
+        Object o3 = stack.pop();
+
+        if (!(o1 instanceof String) && !(o2 instanceof Integer) && !(o3 instanceof String)) {
+            stack.push("");
+            return;
+        }
+
+        String format = (String) o1;
+        Integer name = (Integer) o2;
+        String names = (String) o3;
+
+        if (names == null) {
+            stack.push("");
+            return;
+        }
+        AuthorList a = AuthorList.getAuthorList(names);
+        if (name > a.size()) {
+            throw new VMException("Author Out of Bounds. Number " + name + " invalid for " + names);
+        }
+        Author author = a.getAuthor(name - 1);
+        stack.push(BibtexNameFormatter.formatName(author, format, this));
+    }
+
+    private void substring() {
+        checkOperands(3, "substring$");
+        if (!(stack.isInt(0) && stack.isInt(1) && stack.isString(2))) {
+            throw new VMException("Expecting two integers and a string for substring$");
+        }
+        int len = stack.popInt();
+        int start = stack.popInt();
+        String s = stack.popString();
+
+        if (len > (Integer.MAX_VALUE / 2)) {
+            len = Integer.MAX_VALUE / 2;
+        }
+        if (start > (Integer.MAX_VALUE / 2)) {
+            start = Integer.MAX_VALUE / 2;
+        }
+        if (start < (Integer.MIN_VALUE / 2)) {
+            start = -Integer.MIN_VALUE / 2;
+        }
+        if (start < 0) {
+            start += s.length() + 1;
+            start = Math.max(1, (start + 1) - len);
+        }
+        stack.push(s.substring(start - 1, Math.min((start - 1) + len, s.length())));
+    }
+
+    /**
+     * Counts the text characters like text.length$: a special character counts as one character and braces are not
+     * counted at all.
+     */
+    private static int textLength(String s) {
+        int result = 0;
+        int n = s.length();
+        int braceLevel = 0;
+        int i = 0;
+        while (i < n) {
+            char c = s.charAt(i);
+            i++;
+            if (c == '{') {
+                braceLevel++;
+                if ((braceLevel == 1) && (i < n) && (s.charAt(i) == '\\')) {
+                    // skip over the special character
+                    i++;
+                    while ((i < n) && (braceLevel > 0)) {
+                        if (s.charAt(i) == '}') {
+                            braceLevel--;
+                        } else if (s.charAt(i) == '{') {
+                            braceLevel++;
+                        }
+                        i++;
+                    }
+                    result++;
+                }
+            } else if (c == '}') {
+                if (braceLevel > 0) {
+                    braceLevel--;
+                }
+            } else {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    public BstStack getStack() {
+        return stack;
+    }
+
+    public List<EntryContext> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return the value of the given global integer variable or null if the style does not declare it
+     */
+    public Integer getGlobalInteger(String name) {
+        int nameId = program.getNameId(name);
+        if ((nameId < 0) || (program.globalIntSlots[nameId] < 0)) {
+            return null;
+        }
+        return globalIntegers[program.globalIntSlots[nameId]];
+    }
+
+    /**
+     * @return the value of the given global string variable or null if it is not set
+     */
+    public String getGlobalString(String name) {
+        int nameId = program.getNameId(name);
+        if ((nameId < 0) || (program.globalStringSlots[nameId] < 0)) {
+            return null;
+        }
+        return globalStrings[program.globalStringSlots[nameId]];
+    }
+
+    private void warning(String message) {
+        if (worker) {
+            deferredWarnings.add(new DeferredWarning(true, message));
+        } else {
+            LOGGER.warn("Warning (#" + (warning++) + "): " + message);
+        }
+    }
+
+    @Override
+    public void warn(String string) {
+        if (worker) {
+            deferredWarnings.add(new DeferredWarning(false, string));
+        } else {
+            LOGGER.warn(string);
+        }
+    }
+}
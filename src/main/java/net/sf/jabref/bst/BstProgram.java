@@ -0,0 +1,261 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.bst;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.antlr.runtime.ANTLRFileStream;
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.RecognitionException;
+
+/**
+ * A .bst style compiled for execution by the {@link BstMachine}.
+ *
+ * All identifiers are resolved at compile time: entry fields and entry/global variables are mapped to slots in
+ * arrays, built-in functions to opcodes and user defined functions to slots of the function table. Every function
+ * body (and every nested {...} literal) is a {@link Block} holding a flat instruction array.
+ *
+ * A BstProgram is immutable and can thus be shared between several machines.
+ */
+public final class BstProgram {
+
+    // Instruction set: each instruction consists of an opcode followed by one int argument
+
+    /** Pushes the integer argument. */
+    static final int PUSH_INT = 0;
+    /** Pushes the constant (String, Block or Reference) with the given index. */
+    static final int PUSH_CONSTANT = 1;
+    // The following three push the entry field/variable of the given name id, outside of an entry context they
+    // behave like LOAD_NAME
+    static final int LOAD_FIELD = 2;
+    static final int LOAD_ENTRY_STRING = 3;
+    static final int LOAD_ENTRY_INT = 4;
+    /** Pushes the global string variable in the given slot. */
+    static final int LOAD_GLOBAL_STRING = 5;
+    /** Pushes the global integer variable in the given slot. */
+    static final int LOAD_GLOBAL_INT = 6;
+    /** Calls the function currently stored in the function table for the given name id. */
+    static final int CALL = 7;
+    /** Executes the built-in function with the given number. */
+    static final int BUILTIN = 8;
+    /** Resolves the name with the given id at runtime, the same way {@link VM} does. */
+    static final int LOAD_NAME = 9;
+
+    // Built-in functions, the number of a built-in equals its slot in the function table
+
+    static final int GREATER = 0;
+    static final int LESS = 1;
+    static final int EQUALS = 2;
+    static final int PLUS = 3;
+    static final int MINUS = 4;
+    static final int CONCAT = 5;
+    static final int ASSIGN = 6;
+    static final int ADD_PERIOD = 7;
+    static final int CALL_TYPE = 8;
+    static final int CHANGE_CASE = 9;
+    static final int CHR_TO_INT = 10;
+    static final int CITE = 11;
+    static final int DUPLICATE = 12;
+    static final int EMPTY = 13;
+    static final int FORMAT_NAME = 14;
+    static final int IF = 15;
+    static final int INT_TO_CHR = 16;
+    static final int INT_TO_STR = 17;
+    static final int MISSING = 18;
+    static final int NEWLINE = 19;
+    static final int NUM_NAMES = 20;
+    static final int POP = 21;
+    static final int PREAMBLE = 22;
+    static final int PURIFY = 23;
+    static final int QUOTE = 24;
+    static final int SKIP = 25;
+    static final int STACK = 26;
+    static final int SUBSTRING = 27;
+    static final int SWAP = 28;
+    static final int TEXT_LENGTH = 29;
+    static final int TEXT_PREFIX = 30;
+    static final int TOP = 31;
+    static final int TYPE = 32;
+    static final int WARNING = 33;
+    static final int WHILE = 34;
+    static final int WIDTH = 35;
+    static final int WRITE = 36;
+
+    static final String[] BUILTIN_NAMES = {">", "<", "=", "+", "-", "*", ":=", "add.period$", "call.type$",
+            "change.case$", "chr.to.int$", "cite$", "duplicate$", "empty$", "format.name$", "if$", "int.to.chr$",
+            "int.to.str$", "missing$", "newline$", "num.names$", "pop$", "preamble$", "purify$", "quote$", "skip$",
+            "stack$", "substring$", "swap$", "text.length$", "text.prefix$", "top$", "type$", "warning$", "while$",
+            "width$", "write$"};
+
+    // Commands of the style in the order they have to be executed
+
+    static final int CMD_STRINGS = 0;
+    static final int CMD_INTEGERS = 1;
+    static final int CMD_FUNCTION = 2;
+    static final int CMD_EXECUTE = 3;
+    static final int CMD_SORT = 4;
+    static final int CMD_ITERATE = 5;
+    static final int CMD_REVERSE = 6;
+    static final int CMD_ENTRY = 7;
+    static final int CMD_READ = 8;
+
+
+    /**
+     * A compiled function body or {...} literal.
+     */
+    static final class Block {
+
+        /** Pairs of opcode and argument. */
+        final int[] code;
+
+        /** Source line of each instruction, used for error messages. */
+        final int[] lines;
+
+
+        Block(int[] code, int[] lines) {
+            this.code = code;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * A quoted identifier ('name) pushed on the stack as the target of := or as a function literal.
+     */
+    static final class Reference {
+
+        final int nameId;
+
+
+        Reference(int nameId) {
+            this.nameId = nameId;
+        }
+    }
+
+    /**
+     * The content of a slot of the function table: either a built-in, a user defined function or a macro.
+     */
+    static final class Function {
+
+        final int builtin;
+
+        final Block body;
+
+        final String macro;
+
+
+        Function(int builtin, Block body, String macro) {
+            this.builtin = builtin;
+            this.body = body;
+            this.macro = macro;
+        }
+    }
+
+    /**
+     * A top-level command of the style.
+     */
+    static final class Command {
+
+        final int type;
+
+        /** Function slot (FUNCTION, MACRO, ITERATE, REVERSE) or name id (EXECUTE). */
+        final int argument;
+
+        /** Declared variable slots (STRINGS, INTEGERS). */
+        final int[] slots;
+
+        /** Function assigned to the slot by FUNCTION and MACRO. */
+        final Function function;
+
+
+        Command(int type, int argument, int[] slots, Function function) {
+            this.type = type;
+            this.argument = argument;
+            this.slots = slots;
+            this.function = function;
+        }
+    }
+
+
+    final String fileName;
+
+    // Name table: for every name id the slot of each kind of identifier or -1
+    final String[] names;
+    final Map<String, Integer> nameIds;
+    final int[] fieldSlots;
+    final int[] entryStringSlots;
+    final int[] entryIntSlots;
+    final int[] globalStringSlots;
+    final int[] globalIntSlots;
+    final int[] functionSlots;
+
+    final String[] fieldNames;
+    /** Only the first readFieldCount fields are filled by READ, the others (crossref) stay missing. */
+    final int readFieldCount;
+    final int entryStringCount;
+    final int entryIntCount;
+    final int sortKeySlot;
+    final int globalStringCount;
+    final int[] initialGlobalInts;
+    final Function[] initialFunctions;
+
+    final Object[] constants;
+    final Command[] commands;
+
+
+    BstProgram(String fileName, String[] names, Map<String, Integer> nameIds, int[] fieldSlots,
+            int[] entryStringSlots, int[] entryIntSlots, int[] globalStringSlots, int[] globalIntSlots,
+            int[] functionSlots, String[] fieldNames, int readFieldCount, int entryStringCount, int entryIntCount,
+            int sortKeySlot, int globalStringCount, int[] initialGlobalInts, Function[] initialFunctions,
+            Object[] constants, Command[] commands) {
+        this.fileName = fileName;
+        this.names = names;
+        this.nameIds = nameIds;
+        this.fieldSlots = fieldSlots;
+        this.entryStringSlots = entryStringSlots;
+        this.entryIntSlots = entryIntSlots;
+        this.globalStringSlots = globalStringSlots;
+        this.globalIntSlots = globalIntSlots;
+        this.functionSlots = functionSlots;
+        this.fieldNames = fieldNames;
+        this.readFieldCount = readFieldCount;
+        this.entryStringCount = entryStringCount;
+        this.entryIntCount = entryIntCount;
+        this.sortKeySlot = sortKeySlot;
+        this.globalStringCount = globalStringCount;
+        this.initialGlobalInts = initialGlobalInts;
+        this.initialFunctions = initialFunctions;
+        this.constants = constants;
+        this.commands = commands;
+    }
+
+    public static BstProgram compile(File f) throws RecognitionException, IOException {
+        return BstCompiler.compile(VM.charStream2CommonTree(new ANTLRFileStream(f.getPath())), f.getPath());
+    }
+
+    public static BstProgram compile(String s) throws RecognitionException {
+        return BstCompiler.compile(VM.charStream2CommonTree(new ANTLRStringStream(s)), null);
+    }
+
+    /**
+     * @return the id of the given name or -1 if the name does not occur in the style
+     */
+    int getNameId(String name) {
+        Integer id = nameIds.get(name);
+        return id == null ? -1 : id;
+    }
+}
@@ -0,0 +1,78 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.bst;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.antlr.runtime.RecognitionException;
+
+/**
+ * Keeps the compiled version of every .bst file used so far, so that a style is parsed and compiled only once as long
+ * as the file does not change. As a {@link BstProgram} is immutable, the cached programs can be used by any number of
+ * {@link BstMachine}s at the same time.
+ */
+public class BstProgramCache {
+
+    private static final Map<String, CachedProgram> PROGRAMS = new ConcurrentHashMap<>();
+
+
+    private static class CachedProgram {
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final BstProgram program;
+
+
+        CachedProgram(long lastModified, long length, BstProgram program) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.program = program;
+        }
+
+        boolean isUpToDate(File file) {
+            return (lastModified == file.lastModified()) && (length == file.length());
+        }
+    }
+
+
+    private BstProgramCache() {
+    }
+
+    /**
+     * Returns the compiled style of the given file, compiling it if it is not cached or has been modified since.
+     */
+    public static BstProgram getProgram(File file) throws RecognitionException, IOException {
+        String key = file.getCanonicalPath();
+        CachedProgram cached = PROGRAMS.get(key);
+        if ((cached == null) || !cached.isUpToDate(file)) {
+            // take the time stamp first, a modification during compilation must not be missed
+            long lastModified = file.lastModified();
+            long length = file.length();
+            cached = new CachedProgram(lastModified, length, BstProgram.compile(file));
+            PROGRAMS.put(key, cached);
+        }
+        return cached.program;
+    }
+
+    public static void clear() {
+        PROGRAMS.clear();
+    }
+}
@@ -0,0 +1,176 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.bst;
+
+import java.util.Arrays;
+
+/**
+ * Operand stack of the {@link BstMachine}.
+ *
+ * In contrast to the java.util.Stack used by {@link VM} this stack is not synchronized and keeps integer literals
+ * unboxed in a parallel int array. A slot holds an integer iff its object slot contains the internal INTEGER marker.
+ */
+public final class BstStack {
+
+    private static final Object INTEGER = new Object();
+
+    private Object[] values;
+
+    private int[] integers;
+
+    private int size;
+
+
+    public BstStack() {
+        this(64);
+    }
+
+    public BstStack(int initialCapacity) {
+        values = new Object[Math.max(initialCapacity, 4)];
+        integers = new int[values.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    public void push(Object value) {
+        if (value instanceof Integer) {
+            pushInt((Integer) value);
+            return;
+        }
+        ensureCapacity();
+        values[size++] = value;
+    }
+
+    public void pushInt(int value) {
+        ensureCapacity();
+        values[size] = INTEGER;
+        integers[size++] = value;
+    }
+
+    /**
+     * Pops the top literal, boxing it if it is an integer.
+     */
+    public Object pop() {
+        checkNotEmpty();
+        size--;
+        Object value = values[size];
+        values[size] = null;
+        return value == INTEGER ? Integer.valueOf(integers[size]) : value;
+    }
+
+    /**
+     * Pops the top literal which the caller must have checked to be an integer using {@link #isInt(int)}.
+     */
+    public int popInt() {
+        checkNotEmpty();
+        size--;
+        values[size] = null;
+        return integers[size];
+    }
+
+    /**
+     * Pops the top literal which the caller must have checked to be a string using {@link #isString(int)}.
+     */
+    public String popString() {
+        checkNotEmpty();
+        size--;
+        String value = (String) values[size];
+        values[size] = null;
+        return value;
+    }
+
+    /**
+     * @param depth 0 for the top of the stack, 1 for the literal below it, ...
+     */
+    public boolean isInt(int depth) {
+        return values[size - 1 - depth] == INTEGER;
+    }
+
+    /**
+     * @param depth 0 for the top of the stack, 1 for the literal below it, ...
+     */
+    public boolean isString(int depth) {
+        return values[size - 1 - depth] instanceof String;
+    }
+
+    /**
+     * Returns the literal at the given depth without removing it, boxing it if it is an integer.
+     */
+    public Object peek(int depth) {
+        int index = size - 1 - depth;
+        Object value = values[index];
+        return value == INTEGER ? Integer.valueOf(integers[index]) : value;
+    }
+
+    /**
+     * Pushes a copy of the top literal.
+     */
+    public void duplicate() {
+        checkNotEmpty();
+        ensureCapacity();
+        values[size] = values[size - 1];
+        integers[size] = integers[size - 1];
+        size++;
+    }
+
+    /**
+     * Exchanges the two top literals.
+     */
+    public void swap() {
+        int top = size - 1;
+        Object value = values[top];
+        values[top] = values[top - 1];
+        values[top - 1] = value;
+        int integer = integers[top];
+        integers[top] = integers[top - 1];
+        integers[top - 1] = integer;
+    }
+
+    /**
+     * Pushes all literals of the other stack, bottom first, so that they end up in the same order on this stack.
+     */
+    public void pushAll(BstStack other) {
+        for (int i = 0; i < other.size; i++) {
+            ensureCapacity();
+            values[size] = other.values[i];
+            integers[size++] = other.integers[i];
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new VMException("Not enough operands on stack");
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            integers = Arrays.copyOf(integers, size * 2);
+        }
+    }
+}
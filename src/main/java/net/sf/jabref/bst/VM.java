@@ -108,7 +108,7 @@ public class VM implements Warn {
         this(new ANTLRStringStream(s));
     }
 
-    private static CommonTree charStream2CommonTree(CharStream bst) throws RecognitionException {
+    static CommonTree charStream2CommonTree(CharStream bst) throws RecognitionException {
         BstLexer lex = new BstLexer(bst);
         CommonTokenStream tokens = new CommonTokenStream(lex);
         BstParser parser = new BstParser(tokens);
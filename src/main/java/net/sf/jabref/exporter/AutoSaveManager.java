@@ -98,7 +98,8 @@ public class AutoSaveManager {
     private static boolean autoSave(BasePanel panel) {
         File backupFile = AutoSaveManager.getAutoSaveFile(panel.getDatabaseFile());
         try {
-            SaveSession ss = FileActions.saveDatabase(panel.database(), panel.metaData(),
+            // Only taking the snapshot waits for the event dispatch thread, the snapshot is saved on this thread:
+            SaveSession ss = FileActions.saveDatabase(panel.getDatabaseSnapshot(), panel.metaData(),
                     backupFile, Globals.prefs,
                     false, false, panel.getEncoding(), true);
             ss.commit();
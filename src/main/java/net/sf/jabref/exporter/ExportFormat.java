@@ -240,9 +240,10 @@ public class ExportFormat implements IExportFormat {
             HashMap<String, Layout> layouts = new HashMap<>();
             Layout layout;
 
-            ExportFormats.entryNumber = 0;
+            int entryNumber = 0;
             for (BibtexEntry entry : sorted) {
-                ExportFormats.entryNumber++; // Increment entry counter.
+                entryNumber++; // Increment entry counter.
+                ExportFormats.setEntryNumber(entryNumber);
                 // Get the layout
                 String type = entry.getType().getName().toLowerCase();
                 if (layouts.containsKey(type)) {
@@ -44,11 +44,36 @@ public class ExportFormats {
 
     private static final Map<String, IExportFormat> exportFormats = new TreeMap<>();
 
-    // Global variable that is used for counting output entries when exporting:
-    public static int entryNumber;
+    private static boolean initialized;
 
+    // Used for counting output entries when exporting. Every thread has its own count, so that a preview rendered
+    // in the background does not change the numbers of an export running at the same time.
+    private static final ThreadLocal<Integer> entryNumber = new ThreadLocal<Integer>() {
 
-    public static void initAllExports() {
+        @Override
+        protected Integer initialValue() {
+            return 0;
+        }
+    };
+
+
+    /**
+     * @return the number of the entry currently exported by this thread
+     */
+    public static int getEntryNumber() {
+        return entryNumber.get();
+    }
+
+    public static void setEntryNumber(int number) {
+        entryNumber.set(number);
+    }
+
+
+    /**
+     * (Re)builds the list of export formats. This is done automatically on first use, so it is only necessary to call
+     * this method after the custom export formats have changed.
+     */
+    public static synchronized void initAllExports() {
 
         ExportFormats.exportFormats.clear();
 
@@ -89,6 +114,7 @@ public class ExportFormats {
         for (IExportFormat format : customFormats.values()) {
             ExportFormats.putFormat(format);
         }
+        initialized = true;
     }
 
     /**
@@ -106,7 +132,7 @@ public class ExportFormats {
         StringBuilder sb = new StringBuilder();
         int lastBreak = -firstLineSubtr;
 
-        for (String name : ExportFormats.exportFormats.keySet()) {
+        for (String name : ExportFormats.getFormats().keySet()) {
             if (((sb.length() + 2 + name.length()) - lastBreak) > maxLineLength) {
                 sb.append(",\n");
                 lastBreak = sb.length();
@@ -126,7 +152,7 @@ public class ExportFormats {
      */
     public static Map<String, IExportFormat> getExportFormats() {
         // It is perhaps overly paranoid to make a defensive copy in this case:
-        return Collections.unmodifiableMap(ExportFormats.exportFormats);
+        return Collections.unmodifiableMap(ExportFormats.getFormats());
     }
 
     /**
@@ -138,7 +164,7 @@ public class ExportFormats {
      *         registered.
      */
     public static IExportFormat getExportFormat(String consoleName) {
-        return ExportFormats.exportFormats.get(consoleName);
+        return ExportFormats.getFormats().get(consoleName);
     }
 
     /**
@@ -277,7 +303,7 @@ public class ExportFormats {
         FileFilter defaultFilter = null;
         JFileChooser fc = new JFileChooser(currentDir);
         TreeSet<FileFilter> filters = new TreeSet<>();
-        for (Map.Entry<String, IExportFormat> e : ExportFormats.exportFormats.entrySet()) {
+        for (Map.Entry<String, IExportFormat> e : ExportFormats.getFormats().entrySet()) {
             String formatName = e.getKey();
             IExportFormat format = e.getValue();
             filters.add(format.getFileFilter());
@@ -295,6 +321,13 @@ public class ExportFormats {
         return fc;
     }
 
+    private static synchronized Map<String, IExportFormat> getFormats() {
+        if (!initialized) {
+            initAllExports();
+        }
+        return ExportFormats.exportFormats;
+    }
+
     private static void putFormat(IExportFormat format) {
         ExportFormats.exportFormats.put(format.getConsoleName(), format);
     }
@@ -19,8 +19,10 @@ import net.sf.jabref.*;
 import net.sf.jabref.gui.BibtexFields;
 import net.sf.jabref.gui.GUIGlobals;
 import net.sf.jabref.importer.fileformat.FieldContentParser;
+import net.sf.jabref.logic.preferences.PreferencesSnapshot;
 import net.sf.jabref.logic.util.strings.StringUtil;
 
+import java.util.List;
 import java.util.Vector;
 
 /**
@@ -49,7 +51,8 @@ public class LatexFieldFormatter {
     private final char valueDelimiterStartOfValue;
     private final char valueDelimiterEndOfValue;
     private final boolean writefieldWrapfield;
-    private final String[] doNotResolveStringsFors;
+    private final List<String> doNotResolveStringsFors;
+    private final PreferencesSnapshot preferences;
 
     private final FieldContentParser parser;
 
@@ -59,13 +62,25 @@ public class LatexFieldFormatter {
     }
 
     private LatexFieldFormatter(boolean neverFailOnHashes) {
+        this(neverFailOnHashes, Globals.prefs.getSnapshot());
+    }
+
+    /**
+     * Creates a formatter using the given preferences instead of the global ones.
+     */
+    public LatexFieldFormatter(PreferencesSnapshot preferences) {
+        this(true, preferences);
+    }
+
+    private LatexFieldFormatter(boolean neverFailOnHashes, PreferencesSnapshot preferences) {
         this.neverFailOnHashes = neverFailOnHashes;
+        this.preferences = preferences;
 
-        this.resolveStringsAllFields = Globals.prefs.getBoolean(JabRefPreferences.RESOLVE_STRINGS_ALL_FIELDS);
-        valueDelimiterStartOfValue = Globals.prefs.getValueDelimiters(0);
-        valueDelimiterEndOfValue = Globals.prefs.getValueDelimiters(1);
-        doNotResolveStringsFors = Globals.prefs.getStringArray(JabRefPreferences.DO_NOT_RESOLVE_STRINGS_FOR);
-        writefieldWrapfield = Globals.prefs.getBoolean(JabRefPreferences.WRITEFIELD_WRAPFIELD);
+        this.resolveStringsAllFields = preferences.isResolveStringsAllFields();
+        valueDelimiterStartOfValue = preferences.getValueDelimiterStart();
+        valueDelimiterEndOfValue = preferences.getValueDelimiterEnd();
+        doNotResolveStringsFors = preferences.getDoNotResolveStringsFor();
+        writefieldWrapfield = preferences.isWriteFieldWrapField();
 
         parser = new FieldContentParser();
     }
@@ -85,7 +100,7 @@ public class LatexFieldFormatter {
             return valueDelimiterStartOfValue + String.valueOf(valueDelimiterEndOfValue);
         }
 
-        boolean shouldWrapWithBraces = Globals.prefs.putBracesAroundCapitals(fieldName) && !BIBTEX_STRING.equals(fieldName);
+        boolean shouldWrapWithBraces = preferences.putBracesAroundCapitals(fieldName) && !BIBTEX_STRING.equals(fieldName);
         if (shouldWrapWithBraces) {
             content = StringUtil.putBracesAroundCapitals(content);
         }
@@ -170,7 +185,7 @@ public class LatexFieldFormatter {
         }
 
         // currently, we do not add newlines and new formatting
-        if (writefieldWrapfield && !Globals.prefs.isNonWrappableField(fieldName)) {
+        if (writefieldWrapfield && !preferences.isNonWrappableField(fieldName)) {
             //             introduce a line break to be read at the parser
             return parser.format(StringUtil.wrap(stringBuilder.toString(), GUIGlobals.LINE_LENGTH), fieldName);//, but that lead to ugly .tex
 
@@ -184,13 +199,7 @@ public class LatexFieldFormatter {
         if (resolveStringsAllFields) {
             // Resolve strings for all fields except some:
 
-            String[] exceptions = doNotResolveStringsFors;
-            for (String exception : exceptions) {
-                if (exception.equals(fieldName)) {
-                    resolveStrings = false;
-                    break;
-                }
-            }
+            resolveStrings = !doNotResolveStringsFors.contains(fieldName);
         } else {
             // Default operation - we only resolve strings for standard fields:
             resolveStrings = BibtexFields.isStandardField(fieldName)
@@ -209,7 +218,7 @@ public class LatexFieldFormatter {
         boolean isAbstract = "abstract".equals(fieldName);
         boolean isReview = "review".equals(fieldName);
         boolean doWrap = !isAbstract || !isReview;
-        boolean strangePrefSettings = writefieldWrapfield && !Globals.prefs.isNonWrappableField(fieldName);
+        boolean strangePrefSettings = writefieldWrapfield && !preferences.isNonWrappableField(fieldName);
 
         if (strangePrefSettings && doWrap) {
             stringBuilder.append(parser.format(StringUtil.wrap(content, GUIGlobals.LINE_LENGTH), fieldName));
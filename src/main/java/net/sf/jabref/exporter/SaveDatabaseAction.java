@@ -28,6 +28,8 @@ import net.sf.jabref.gui.worker.Worker;
 import net.sf.jabref.logic.l10n.Encodings;
 import net.sf.jabref.logic.l10n.Localization;
 import net.sf.jabref.logic.util.io.FileBasedLock;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
 import javax.swing.*;
 
 import org.apache.commons.logging.Log;
@@ -227,12 +229,15 @@ public class SaveDatabaseAction extends AbstractWorker {
         SaveSession session;
         frame.block();
         try {
+            // Saves a snapshot, so that the file never holds half applied edits:
+            BibtexDatabase snapshot = panel.getDatabaseSnapshot();
             if (!selectedOnly) {
-                session = FileActions.saveDatabase(panel.database(), panel.metaData(), file,
+                session = FileActions.saveDatabase(snapshot, panel.metaData(), file,
                         Globals.prefs, false, false, encoding, false);
             } else {
-                session = FileActions.savePartOfDatabase(panel.database(), panel.metaData(), file,
-                        Globals.prefs, panel.getSelectedEntries(), encoding, FileActions.DatabaseSaveType.DEFAULT);
+                session = FileActions.savePartOfDatabase(snapshot, panel.metaData(), file, Globals.prefs,
+                        BasePanel.getSnapshotEntries(snapshot, panel.getSelectedEntries()), encoding,
+                        FileActions.DatabaseSaveType.DEFAULT);
             }
 
         } catch (UnsupportedCharsetException ex2) {
@@ -244,14 +249,16 @@ public class SaveDatabaseAction extends AbstractWorker {
             if (ex == SaveException.FILE_LOCKED) {
                 throw ex;
             }
-            if (ex.specificEntry()) {
+            // the entry of the exception is the one of the snapshot
+            BibtexEntry entry = ex.specificEntry() ? panel.database().getEntryById(ex.getEntry().getId()) : null;
+            if (entry != null) {
                 // Error occured during processing of
                 // be. Highlight it:
-                int row = panel.mainTable.findEntry(ex.getEntry());
+                int row = panel.mainTable.findEntry(entry);
                 int topShow = Math.max(0, row - 3);
                 panel.mainTable.setRowSelectionInterval(row, row);
                 panel.mainTable.scrollTo(topShow);
-                panel.showEntry(ex.getEntry());
+                panel.showEntry(entry);
             } else {
                 ex.printStackTrace();
             }
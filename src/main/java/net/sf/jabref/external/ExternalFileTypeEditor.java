@@ -391,6 +391,10 @@ public class ExternalFileTypeEditor extends JDialog {
             editor.setValues();
             editor.setVisible(true);
             if (frame != null) {
+                // the tables show the icons of the file types
+                for (int i = 0; i < frame.getBasePanelCount(); i++) {
+                    frame.getBasePanelAt(i).tableFormat.clearCache();
+                }
                 if (frame.getCurrentBasePanel() != null) {
                     frame.getCurrentBasePanel().mainTable.repaint();
                 }
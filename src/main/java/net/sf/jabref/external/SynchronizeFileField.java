@@ -247,6 +247,7 @@ public class SynchronizeFileField extends AbstractWorker {
                                     fileTypes.add(newType);
                                     Collections.sort(fileTypes);
                                     Globals.prefs.setExternalFileTypes(fileTypes);
+                                    panel.tableFormat.clearCache();
                                     panel.mainTable.repaint();
                                 }
                             } else {
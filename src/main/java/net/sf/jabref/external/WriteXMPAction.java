@@ -37,7 +37,7 @@ import net.sf.jabref.logic.l10n.Localization;
 import net.sf.jabref.model.database.BibtexDatabase;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.logic.util.io.FileUtil;
-import net.sf.jabref.logic.xmp.XMPUtil;
+import net.sf.jabref.logic.xmp.XMPBatchWriter;
 
 import com.jgoodies.forms.builder.ButtonBarBuilder;
 
@@ -116,6 +116,7 @@ public class WriteXMPAction extends AbstractWorker {
             return;
         }
 
+        final XMPBatchWriter writer = new XMPBatchWriter(database);
         for (BibtexEntry entry : entries) {
 
             // Make a list of all PDFs linked from this entry:
@@ -146,44 +147,87 @@ public class WriteXMPAction extends AbstractWorker {
                 }
             }
 
-            optDiag.progressArea.append(entry.getCiteKey() + "\n");
-
             if (files.isEmpty()) {
                 skipped++;
-                optDiag.progressArea.append("  " + Localization.lang("Skipped - No PDF linked") + ".\n");
+                appendProgress(entry.getCiteKey() + "\n  " + Localization.lang("Skipped - No PDF linked") + ".\n");
             } else {
                 for (File file : files) {
                     if (!file.exists()) {
                         skipped++;
-                        optDiag.progressArea.append("  " + Localization.lang("Skipped - PDF does not exist")
-                                + ":\n");
-                        optDiag.progressArea.append("    " + file.getPath() + "\n");
+                        appendProgress(entry.getCiteKey() + "\n  " + Localization.lang("Skipped - PDF does not exist")
+                                + ":\n    " + file.getPath() + "\n");
 
                     } else {
-                        try {
-                            XMPUtil.writeXMP(file, entry, database);
-                            optDiag.progressArea.append("  " + Localization.lang("Ok") + ".\n");
-                            entriesChanged++;
-                        } catch (Exception e) {
-                            optDiag.progressArea.append("  " + Localization.lang("Error while writing") + " '"
-                                    + file.getPath() + "':\n");
-                            optDiag.progressArea.append("    " + e.getLocalizedMessage() + "\n");
-                            errors++;
-                        }
+                        writer.add(file, entry);
                     }
                 }
             }
+        }
 
-            if (optDiag.canceled) {
-                optDiag.progressArea.append("\n"
-                        + Localization.lang("Operation canceled.") +"\n");
-                break;
-            }
+        // The files are written concurrently, so every message is appended as a whole
+        try {
+            writer.run(new XMPBatchWriter.Listener() {
+
+                @Override
+                public void written(File file, BibtexEntry entry, boolean changed) {
+                    if (changed) {
+                        appendProgress(entry.getCiteKey() + "\n  " + Localization.lang("Ok") + ".\n");
+                    } else {
+                        appendProgress(entry.getCiteKey() + "\n  "
+                                + Localization.lang("Skipped - XMP-metadata is up to date") + ".\n");
+                    }
+                    checkCanceled();
+                }
+
+                @Override
+                public void failed(File file, BibtexEntry entry, Exception e) {
+                    appendProgress(entry.getCiteKey() + "\n  " + Localization.lang("Error while writing") + " '"
+                            + file.getPath() + "':\n    " + e.getLocalizedMessage() + "\n");
+                    checkCanceled();
+                }
+
+                private void checkCanceled() {
+                    if (optDiag.canceled) {
+                        writer.cancel();
+                    }
+                }
+            });
+        } catch (InterruptedException e) {
+            writer.cancel();
+            Thread.currentThread().interrupt();
+        }
+
+        entriesChanged = writer.getWrittenCount();
+        skipped += writer.getUpToDateCount();
+        errors = writer.getErrorCount();
+
+        if (writer.isCanceled()) {
+            appendProgress("\n" + Localization.lang("Operation canceled.") + "\n");
         }
-        optDiag.progressArea.append("\n"
+        appendProgress("\n"
                 + Localization.lang("Finished writing XMP for %0 file (%1 skipped, %2 errors).", String
-                .valueOf(entriesChanged), String.valueOf(skipped), String.valueOf(errors)));
-        optDiag.done();
+                .valueOf(entriesChanged), String.valueOf(skipped), String.valueOf(errors))
+                + "\n" + Localization.lang("Processed %0 files in %1 s (%2 files per second).",
+                String.valueOf(writer.getWrittenCount() + writer.getUpToDateCount() + errors),
+                String.format("%.1f", writer.getElapsedMillis() / 1000.0),
+                String.format("%.1f", writer.getFilesPerSecond())));
+        SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                optDiag.done();
+            }
+        });
+    }
+
+    private void appendProgress(final String text) {
+        SwingUtilities.invokeLater(new Runnable() {
+
+            @Override
+            public void run() {
+                optDiag.progressArea.append(text);
+            }
+        });
     }
 
     @Override
@@ -0,0 +1,304 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.groups;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.sf.jabref.groups.structure.AbstractGroup;
+import net.sf.jabref.groups.structure.ExplicitGroup;
+import net.sf.jabref.groups.structure.GroupHierarchyType;
+import net.sf.jabref.groups.structure.KeywordGroup;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
+import net.sf.jabref.model.database.KeywordIndex;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+/**
+ * Keeps track of the entries of a database contained in the groups, as bit sets over ordinals of the entries.
+ * <p>
+ * Every entry of the database gets a small number (its ordinal), the ordinals of removed entries are reused. The
+ * members of a group are determined once, when they are first asked for, and then updated for the added, removed and
+ * changed entries only. The members of an {@link ExplicitGroup} are taken from the group itself, as its assignments
+ * can change without changing an entry. The hierarchical contexts of the groups (see
+ * {@link GroupTreeNode#getSearchRule()}) and the combination of several selected groups come down to ANDing and ORing
+ * the bit sets.
+ * <p>
+ * If a {@link KeywordIndex} is given, the members of keyword groups searching the "keywords" field are looked up in
+ * the index instead of testing every entry.
+ */
+public class GroupMembership implements DatabaseChangeListener {
+
+    private final Map<BibtexEntry, Integer> ordinals = new IdentityHashMap<>();
+
+    /**
+     * The entries by ordinal, null for unused ordinals
+     */
+    private final List<BibtexEntry> entries = new ArrayList<>();
+
+    private final BitSet used = new BitSet();
+
+    /**
+     * The members of the groups seen so far, except for explicit groups
+     */
+    private final Map<AbstractGroup, BitSet> members = new IdentityHashMap<>();
+
+    private final List<DatabaseChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final KeywordIndex keywordIndex;
+
+
+    /**
+     * Creates the membership of the given database and keeps it up to date with the changes of the database.
+     */
+    public GroupMembership(BibtexDatabase database) {
+        this(database, null);
+    }
+
+    /**
+     * Creates the membership of the given database and keeps it up to date with the changes of the database, which
+     * are received through the given keyword index, so that the index is always updated first.
+     *
+     * @param keywordIndex the keyword index of the database, may be null
+     */
+    public GroupMembership(BibtexDatabase database, KeywordIndex keywordIndex) {
+        this.keywordIndex = keywordIndex;
+        synchronized (this) {
+            if (keywordIndex == null) {
+                database.addDatabaseChangeListener(this);
+            } else {
+                keywordIndex.addDatabaseChangeListener(this);
+            }
+            for (BibtexEntry entry : database.getEntries()) {
+                add(entry);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener which is notified of the changes of the database after the members have been updated.
+     */
+    public void addDatabaseChangeListener(DatabaseChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeDatabaseChangeListener(DatabaseChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the entry with the given ordinal, or null if there is none.
+     */
+    public synchronized BibtexEntry getEntry(int ordinal) {
+        return ordinal < entries.size() ? entries.get(ordinal) : null;
+    }
+
+    /**
+     * Returns the ordinal of the given entry, or -1 if it is not in the database.
+     */
+    public synchronized int getOrdinal(BibtexEntry entry) {
+        Integer ordinal = ordinals.get(entry);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Returns the ordinals of all entries of the database. The returned set may be changed by the caller.
+     */
+    public synchronized BitSet getAllEntries() {
+        return (BitSet) used.clone();
+    }
+
+    /**
+     * Returns the ordinals of the given entries which are in the database.
+     */
+    public synchronized BitSet getOrdinals(BibtexEntry[] selection) {
+        return getOrdinals(Arrays.asList(selection));
+    }
+
+    /**
+     * Returns the entries with the given ordinals.
+     */
+    public synchronized List<BibtexEntry> getEntries(BitSet selection) {
+        List<BibtexEntry> result = new ArrayList<>(selection.cardinality());
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            result.add(entries.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the entries contained in the given group itself, regardless of its hierarchical context. The returned
+     * set may be changed by the caller.
+     */
+    public synchronized BitSet getMembers(AbstractGroup group) {
+        return (BitSet) members(group).clone();
+    }
+
+    /**
+     * Returns the number of entries contained in the given group itself, regardless of its hierarchical context.
+     */
+    public synchronized int getMemberCount(AbstractGroup group) {
+        return members(group).cardinality();
+    }
+
+    /**
+     * Returns the entries found by selecting the group of the given node: the entries of its own group, the union with
+     * the entries of its subgroups or the intersection with the entries of its supergroup, depending on the
+     * hierarchical context. This is the same as the entries matched by {@link GroupTreeNode#getSearchRule()}. The
+     * returned set may be changed by the caller.
+     */
+    public synchronized BitSet getMembers(GroupTreeNode node) {
+        return getMembers(node, node.getGroup().getHierarchicalContext());
+    }
+
+    private BitSet getMembers(GroupTreeNode node, GroupHierarchyType originalContext) {
+        GroupHierarchyType context = node.getGroup().getHierarchicalContext();
+        BitSet result = (BitSet) members(node.getGroup()).clone();
+        if ((context == GroupHierarchyType.INCLUDING) && (originalContext != GroupHierarchyType.REFINING)) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                result.or(getMembers((GroupTreeNode) node.getChildAt(i), originalContext));
+            }
+        } else if ((context == GroupHierarchyType.REFINING) && !node.isRoot()
+                && (originalContext != GroupHierarchyType.INCLUDING)) {
+            result.and(getMembers((GroupTreeNode) node.getParent(), originalContext));
+        }
+        return result;
+    }
+
+    /**
+     * Forgets the members of all groups which are not in the given tree, e.g. groups which have been deleted or
+     * replaced by a modified copy.
+     */
+    public synchronized void retainGroups(GroupTreeNode root) {
+        Set<AbstractGroup> groups = Collections.newSetFromMap(new IdentityHashMap<AbstractGroup, Boolean>());
+        for (Enumeration<GroupTreeNode> e = root.preorderEnumeration(); e.hasMoreElements();) {
+            groups.add(e.nextElement().getGroup());
+        }
+        members.keySet().retainAll(groups);
+    }
+
+    @Override
+    public void databaseChanged(DatabaseChangeEvent e) {
+        if (e.getType() != DatabaseChangeEvent.ChangeType.CHANGING_ENTRY) {
+            synchronized (this) {
+                for (BibtexEntry entry : e.getRemovedEntries()) {
+                    remove(entry);
+                }
+                for (BibtexEntry entry : e.getAddedEntries()) {
+                    add(entry);
+                }
+                for (BibtexEntry entry : e.getChangedEntries()) {
+                    Integer ordinal = ordinals.get(entry);
+                    if (ordinal != null) {
+                        update(entry, ordinal);
+                    }
+                }
+            }
+        }
+        for (DatabaseChangeListener listener : listeners) {
+            listener.databaseChanged(e);
+        }
+    }
+
+    private BitSet members(AbstractGroup group) {
+        if (group instanceof ExplicitGroup) {
+            return getOrdinals(((ExplicitGroup) group).getEntries());
+        }
+        BitSet result = members.get(group);
+        if (result == null) {
+            result = new BitSet(entries.size());
+            if ((keywordIndex != null) && (group instanceof KeywordGroup) && ((KeywordGroup) group).isKeywordBased()) {
+                findKeywordMembers((KeywordGroup) group, result);
+            } else {
+                for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1)) {
+                    if (group.contains(entries.get(i))) {
+                        result.set(i);
+                    }
+                }
+            }
+            members.put(group, result);
+        }
+        return result;
+    }
+
+    private void findKeywordMembers(KeywordGroup group, BitSet result) {
+        for (String keyword : keywordIndex.getKeywords()) {
+            if (group.containsKeyword(keyword)) {
+                for (BibtexEntry entry : keywordIndex.getEntries(keyword)) {
+                    Integer ordinal = ordinals.get(entry);
+                    // the index may already know of changes which are about to be reported to this membership
+                    if ((ordinal != null) && group.contains(entry)) {
+                        result.set(ordinal);
+                    }
+                }
+            }
+        }
+    }
+
+    private BitSet getOrdinals(Collection<BibtexEntry> selection) {
+        BitSet result = new BitSet();
+        for (BibtexEntry entry : selection) {
+            Integer ordinal = ordinals.get(entry);
+            if (ordinal != null) {
+                result.set(ordinal);
+            }
+        }
+        return result;
+    }
+
+    private void add(BibtexEntry entry) {
+        if (ordinals.containsKey(entry)) {
+            return;
+        }
+        int ordinal = used.nextClearBit(0);
+        used.set(ordinal);
+        ordinals.put(entry, ordinal);
+        if (ordinal == entries.size()) {
+            entries.add(entry);
+        } else {
+            entries.set(ordinal, entry);
+        }
+        update(entry, ordinal);
+    }
+
+    private void remove(BibtexEntry entry) {
+        Integer ordinal = ordinals.remove(entry);
+        if (ordinal == null) {
+            return;
+        }
+        used.clear(ordinal);
+        entries.set(ordinal, null);
+        for (BitSet groupMembers : members.values()) {
+            groupMembers.clear(ordinal);
+        }
+    }
+
+    private void update(BibtexEntry entry, int ordinal) {
+        for (Map.Entry<AbstractGroup, BitSet> group : members.entrySet()) {
+            group.getValue().set(ordinal, group.getKey().contains(entry));
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.Vector;
@@ -68,11 +69,7 @@ import net.sf.jabref.MetaData;
 import net.sf.jabref.groups.structure.AbstractGroup;
 import net.sf.jabref.groups.structure.AllEntriesGroup;
 import net.sf.jabref.logic.l10n.Localization;
-import net.sf.jabref.logic.search.rules.InvertSearchRule;
-import net.sf.jabref.logic.search.SearchRule;
 import net.sf.jabref.gui.help.HelpAction;
-import net.sf.jabref.logic.search.rules.sets.SearchRuleSets;
-import net.sf.jabref.logic.search.rules.sets.SearchRuleSet;
 import net.sf.jabref.gui.undo.NamedCompound;
 
 import org.apache.commons.logging.Log;
@@ -203,6 +200,7 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
             public void stateChanged(ChangeEvent e) {
                 Globals.prefs.putBoolean(JabRefPreferences.GROUP_SHOW_NUMBER_OF_ELEMENTS,
                         showNumberOfElements.isSelected());
+                updateGroupCounts();
                 if (groupsTree != null) {
                     groupsTree.invalidate();
                     groupsTree.validate();
@@ -728,18 +726,34 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
     }
 
     private void updateSelections() {
-        final SearchRuleSet searchRules = SearchRuleSets
-                .build(andCb.isSelected() ? SearchRuleSets.RuleSetType.AND : SearchRuleSets.RuleSetType.OR);
+        GroupMembership membership = panel.getGroupMembership();
+        membership.retainGroups(groupsRoot);
         TreePath[] selection = groupsTree.getSelectionPaths();
 
+        BitSet hits = null;
         for (TreePath aSelection : selection) {
-            SearchRule searchRule = ((GroupTreeNode) aSelection.getLastPathComponent()).getSearchRule();
-            searchRules.addRule(searchRule);
+            BitSet members = membership.getMembers((GroupTreeNode) aSelection.getLastPathComponent());
+            if (hits == null) {
+                hits = members;
+            } else if (andCb.isSelected()) {
+                hits.and(members);
+            } else {
+                hits.or(members);
+            }
+        }
+        if (hits == null) {
+            hits = new BitSet();
         }
-        SearchRule searchRule = invCb.isSelected() ? new InvertSearchRule(searchRules) : searchRules;
-        GroupingWorker worker = new GroupingWorker(searchRule, SearchRule.DUMMY_QUERY);
+        if (invCb.isSelected()) {
+            BitSet all = membership.getAllEntries();
+            all.andNot(hits);
+            hits = all;
+        }
+        GroupingWorker worker = new GroupingWorker(membership, hits);
         worker.getWorker().run();
         worker.getCallBack().update();
+        // the assignments of explicit groups may have changed
+        updateGroupCounts();
         /*panel.setGroupMatcher(new SearchMatcher(searchRules, searchOptions));
         DatabaseSearch search = new DatabaseSearch(this, searchOptions, searchRules,
                 panel, Globals.GROUPSEARCH, floatCb.isSelected(), Globals.prefs
@@ -752,30 +766,22 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
 
     class GroupingWorker extends AbstractWorker {
 
-        private final SearchRule rules;
-        private final String searchTerm;
-        private final ArrayList<BibtexEntry> matches = new ArrayList<>();
+        private final GroupMembership membership;
+        private final BitSet hits;
         private final boolean showOverlappingGroupsP;
-        int hits;
 
 
-        public GroupingWorker(SearchRule rules, String searchTerm) {
-            this.rules = rules;
-            this.searchTerm = searchTerm;
+        public GroupingWorker(GroupMembership membership, BitSet hits) {
+            this.membership = membership;
+            this.hits = hits;
             showOverlappingGroupsP = showOverlappingGroups.isSelected();
         }
 
         @Override
         public void run() {
             for (BibtexEntry entry : panel.getDatabase().getEntries()) {
-                boolean hit = rules.applyRule(searchTerm, entry);
-                entry.setGroupHit(hit);
-                if (hit) {
-                    hits++;
-                    if (showOverlappingGroupsP) {
-                        matches.add(entry);
-                    }
-                }
+                int ordinal = membership.getOrdinal(entry);
+                entry.setGroupHit((ordinal >= 0) && hits.get(ordinal));
             }
         }
 
@@ -792,7 +798,7 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
             }
 
             if (showOverlappingGroupsP) {
-                showOverlappingGroups(matches);
+                showOverlappingGroups(membership, hits);
             }
             frame.output(Localization.lang("Updated group selection") + ".");
         }
@@ -829,6 +835,30 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
         if (node != null) {
             groupsTree.scrollPathToVisible(new TreePath(node.getPath()));
         }
+        updateGroupCounts();
+    }
+
+    /**
+     * Starts counting the entries of the groups in the background, if the counts are shown.
+     */
+    private void updateGroupCounts() {
+        if ((panel != null) && (groupsRoot != null)
+                && Globals.prefs.getBoolean(JabRefPreferences.GROUP_SHOW_NUMBER_OF_ELEMENTS)) {
+            panel.getGroupStatistics().update(groupsRoot);
+        }
+    }
+
+    /**
+     * Shows the entry counts of the groups, which have been computed by the {@link GroupStatistics} of the current
+     * panel.
+     */
+    public void groupCountsChanged() {
+        if (groupsTreeModel == null) {
+            return;
+        }
+        for (Enumeration<GroupTreeNode> e = groupsRoot.preorderEnumeration(); e.hasMoreElements();) {
+            groupsTreeModel.nodeChanged(e.nextElement());
+        }
     }
 
     /**
@@ -1437,6 +1467,7 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
             metaData.setGroups(newGroupsRoot);
             setGroups(newGroupsRoot);
         }
+        updateGroupCounts();
 
         // auto show/hide groups interface
         if (Globals.prefs.getBoolean(JabRefPreferences.GROUP_AUTO_SHOW) && !groupsRoot.isLeaf()) { // groups were defined
@@ -1496,19 +1527,14 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
     }
 
     /**
-     * Show groups that, if selected, would show at least one of the entries found in the specified search.
+     * Show groups that, if selected, would show at least one of the given entries.
      */
-    private void showOverlappingGroups(List<BibtexEntry> matches) { //DatabaseSearch search) {
+    private void showOverlappingGroups(GroupMembership membership, BitSet matches) {
         List<GroupTreeNode> nodes = new ArrayList<>();
         for (Enumeration<GroupTreeNode> e = groupsRoot.depthFirstEnumeration(); e.hasMoreElements();) {
             GroupTreeNode node = e.nextElement();
-            SearchRule rule = node.getSearchRule();
-            for (BibtexEntry match : matches) {
-                if (!rule.applyRule(SearchRule.DUMMY_QUERY, match)) {
-                    continue;
-                }
+            if (membership.getMembers(node).intersects(matches)) {
                 nodes.add(node);
-                break;
             }
         }
         groupsTree.setHighlight2Cells(nodes.toArray());
@@ -0,0 +1,165 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.groups;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import javax.swing.SwingUtilities;
+
+import net.sf.jabref.groups.structure.AbstractGroup;
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Counts the entries of every group of a group tree in the background, so that they can be shown in the tree.
+ * <p>
+ * The counts are computed again after every change of the database and after {@link #update(GroupTreeNode)}, on a
+ * thread of the given executor. Changes arriving while the counts are computed are collected into a single further
+ * computation. As the members of the groups are kept by {@link GroupMembership}, a computation only has to count the
+ * bits of every group, except for groups which are new. When the counts have changed, the listener is called on the
+ * event dispatch thread.
+ */
+public class GroupStatistics implements DatabaseChangeListener {
+
+    private static final Log LOGGER = LogFactory.getLog(GroupStatistics.class);
+
+    private final GroupMembership membership;
+    private final Executor executor;
+    private final Runnable listener;
+
+    /**
+     * The groups to count, taken from the tree on the event dispatch thread
+     */
+    private volatile List<AbstractGroup> groups = Collections.emptyList();
+
+    private volatile Map<AbstractGroup, Integer> counts = Collections.emptyMap();
+
+    /**
+     * Guarded by this
+     */
+    private boolean running;
+    private boolean pending;
+
+    private final Runnable computation = new Runnable() {
+
+        @Override
+        public void run() {
+            do {
+                synchronized (GroupStatistics.this) {
+                    pending = false;
+                }
+                try {
+                    compute();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not count the entries of the groups", e);
+                }
+            } while (continueRunning());
+        }
+    };
+
+
+    /**
+     * @param listener is called on the event dispatch thread when counts have changed
+     */
+    public GroupStatistics(GroupMembership membership, Executor executor, Runnable listener) {
+        this.membership = membership;
+        this.executor = executor;
+        this.listener = listener;
+        membership.addDatabaseChangeListener(this);
+    }
+
+    /**
+     * Sets the groups to count to the groups of the given tree and starts counting them. Call this after the tree has
+     * been changed.
+     */
+    public void update(GroupTreeNode root) {
+        List<AbstractGroup> newGroups = new ArrayList<>();
+        for (Enumeration<GroupTreeNode> e = root.preorderEnumeration(); e.hasMoreElements();) {
+            newGroups.add(e.nextElement().getGroup());
+        }
+        groups = newGroups;
+        schedule();
+    }
+
+    /**
+     * Returns the number of entries contained in the given group itself, or -1 if it has not been counted yet.
+     */
+    public int getCount(AbstractGroup group) {
+        Integer count = counts.get(group);
+        return count == null ? -1 : count;
+    }
+
+    @Override
+    public void databaseChanged(DatabaseChangeEvent e) {
+        if ((e.getType() != DatabaseChangeEvent.ChangeType.CHANGING_ENTRY) && !groups.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        synchronized (this) {
+            if (running) {
+                pending = true;
+                return;
+            }
+            running = true;
+        }
+        executor.execute(computation);
+    }
+
+    private synchronized boolean continueRunning() {
+        if (pending) {
+            return true;
+        }
+        running = false;
+        return false;
+    }
+
+    private void compute() {
+        Map<AbstractGroup, Integer> newCounts = new IdentityHashMap<>();
+        for (AbstractGroup group : groups) {
+            newCounts.put(group, membership.getMemberCount(group));
+        }
+        if (!haveSameCounts(newCounts, counts)) {
+            counts = newCounts;
+            SwingUtilities.invokeLater(listener);
+        }
+    }
+
+    /**
+     * Compares the counts by value, as the equality of identity maps compares the boxed counts by identity
+     */
+    private static boolean haveSameCounts(Map<AbstractGroup, Integer> counts, Map<AbstractGroup, Integer> otherCounts) {
+        if (counts.size() != otherCounts.size()) {
+            return false;
+        }
+        for (Map.Entry<AbstractGroup, Integer> entry : counts.entrySet()) {
+            if (!entry.getValue().equals(otherCounts.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
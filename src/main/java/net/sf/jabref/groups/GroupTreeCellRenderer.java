@@ -21,7 +21,6 @@ import javax.swing.*;
 import javax.swing.tree.DefaultTreeCellRenderer;
 
 import net.sf.jabref.gui.IconTheme;
-import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRef;
 import net.sf.jabref.JabRefPreferences;
@@ -109,16 +108,11 @@ public class GroupTreeCellRenderer extends DefaultTreeCellRenderer {
             sb.append("<i>");
         }
         sb.append(StringUtil.quoteForHTML(name));
-        if (Globals.prefs.getBoolean(JabRefPreferences.GROUP_SHOW_NUMBER_OF_ELEMENTS)) {
-            if (group instanceof ExplicitGroup) {
-                sb.append(" [").append(((ExplicitGroup) group).getNumEntries()).append("]");
-            } else if ((group instanceof KeywordGroup) || (group instanceof SearchGroup)) {
-                int hits = 0;
-                for (BibtexEntry entry : JabRef.jrf.getCurrentBasePanel().getDatabase().getEntries()) {
-                    if (group.contains(entry)) {
-                        hits++;
-                    }
-                }
+        if (Globals.prefs.getBoolean(JabRefPreferences.GROUP_SHOW_NUMBER_OF_ELEMENTS)
+                && !(group instanceof AllEntriesGroup) && (JabRef.jrf.getCurrentBasePanel() != null)) {
+            // the counts are computed in the background, they are missing until they are known
+            int hits = JabRef.jrf.getCurrentBasePanel().getGroupStatistics().getCount(group);
+            if (hits >= 0) {
                 sb.append(" [").append(hits).append("]");
             }
         }
@@ -28,6 +28,7 @@ import net.sf.jabref.logic.util.strings.QuotedStringTokenizer;
 import net.sf.jabref.logic.util.strings.StringUtil;
 import net.sf.jabref.model.database.BibtexDatabase;
 import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.EntryUtil;
 
 /**
  * @author jzieren
@@ -268,6 +269,35 @@ public class KeywordGroup extends AbstractGroup {
         return KeywordGroup.containsWord(searchExpression.toLowerCase(), content.toLowerCase());
     }
 
+    /**
+     * Checks whether every entry of this group has a single keyword of its "keywords" field containing the search
+     * expression (see {@link #containsKeyword(String)}), so that the members can be found using a keyword index. This
+     * is the case if the group searches the "keywords" field for a plain word which contains no separators of
+     * keywords.
+     */
+    public boolean isKeywordBased() {
+        if (regExp || !"keywords".equalsIgnoreCase(searchField) || searchExpression.trim().isEmpty()
+                || !searchExpression.trim().equals(searchExpression)) {
+            return false;
+        }
+        for (char separator : EntryUtil.SEPARATING_CHARS_NOSPACE.toCharArray()) {
+            if (searchExpression.indexOf(separator) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the given single keyword contains the search expression of this group as a complete word.
+     */
+    public boolean containsKeyword(String keyword) {
+        if (caseSensitive) {
+            return KeywordGroup.containsWord(searchExpression, keyword);
+        }
+        return KeywordGroup.containsWord(searchExpression.toLowerCase(), keyword.toLowerCase());
+    }
+
     /**
      * Look for the given non-regexp string in another string, but check whether a
      * match concerns a complete word, not part of a word.
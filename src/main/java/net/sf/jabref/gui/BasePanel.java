@@ -34,7 +34,9 @@ import net.sf.jabref.exporter.layout.Layout;
 import net.sf.jabref.exporter.layout.LayoutHelper;
 import net.sf.jabref.external.*;
 import net.sf.jabref.groups.GroupMatcher;
+import net.sf.jabref.groups.GroupMembership;
 import net.sf.jabref.groups.GroupSelector;
+import net.sf.jabref.groups.GroupStatistics;
 import net.sf.jabref.groups.GroupTreeNode;
 import net.sf.jabref.gui.actions.Actions;
 import net.sf.jabref.gui.actions.BaseAction;
@@ -58,17 +60,19 @@ import net.sf.jabref.logic.autocompleter.AutoCompletePreferences;
 import net.sf.jabref.logic.autocompleter.AutoCompleter;
 import net.sf.jabref.logic.autocompleter.AutoCompleterFactory;
 import net.sf.jabref.logic.autocompleter.ContentAutoCompleters;
+import net.sf.jabref.logic.integrity.IntegrityCheck;
+import net.sf.jabref.logic.integrity.IntegrityService;
 import net.sf.jabref.logic.l10n.Encodings;
 import net.sf.jabref.logic.l10n.Localization;
-import net.sf.jabref.logic.labelPattern.LabelPatternUtil;
+import net.sf.jabref.logic.labelPattern.KeyGenerator;
 import net.sf.jabref.logic.search.matchers.EverythingMatcher;
 import net.sf.jabref.logic.search.matchers.SearchMatcher;
 import net.sf.jabref.logic.util.io.FileBasedLock;
 import net.sf.jabref.model.database.BibtexDatabase;
 import net.sf.jabref.model.database.DatabaseChangeEvent;
-import net.sf.jabref.model.database.DatabaseChangeEvent.ChangeType;
 import net.sf.jabref.model.database.DatabaseChangeListener;
 import net.sf.jabref.model.database.KeyCollisionException;
+import net.sf.jabref.model.database.KeywordIndex;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.model.entry.EntryType;
 import net.sf.jabref.model.entry.IdGenerator;
@@ -92,10 +96,14 @@ import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListener {
 
@@ -111,6 +119,25 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
      */
     private final BibtexDatabase database;
 
+    /*
+     * The members of the groups, created when the groups are first used.
+     */
+    private KeywordIndex keywordIndex;
+    private GroupMembership groupMembership;
+    private GroupStatistics groupStatistics;
+
+    /*
+     * The integrity messages, created outside of the lock of this panel as checking all entries takes a while.
+     */
+    private volatile boolean integrityServiceRequested;
+    private final FutureTask<IntegrityService> integrityService = new FutureTask<>(new Callable<IntegrityService>() {
+
+        @Override
+        public IntegrityService call() {
+            return new IntegrityService(database, new IntegrityCheck());
+        }
+    });
+
     private int mode;
     private EntryEditor currentEditor;
     private PreviewPanel currentPreview;
@@ -208,6 +235,7 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         this.sidePaneManager = GUIGlobals.sidePaneManager;
         this.frame = frame;
         database = db;
+        undoManager.setMemoryLimit(Globals.prefs.getInt(JabRefPreferences.UNDO_MEMORY_LIMIT) * 1024L * 1024L);
 
         searchBar = new SearchBar(this);
 
@@ -277,6 +305,129 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         return database;
     }
 
+    /**
+     * Returns a snapshot of the database of this panel (see {@link BibtexDatabase#snapshot()}) for saving it. The
+     * snapshot is taken on the event dispatch thread, where the database is edited, waiting for it if necessary.
+     */
+    public BibtexDatabase getDatabaseSnapshot() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            return database.snapshot();
+        }
+        final BibtexDatabase[] snapshot = new BibtexDatabase[1];
+        try {
+            SwingUtilities.invokeAndWait(new Runnable() {
+
+                @Override
+                public void run() {
+                    snapshot[0] = database.snapshot();
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            LOGGER.warn("Could not take a snapshot of the database", e.getCause());
+        }
+        // the database may be changing now, but this is still better than not saving at all
+        return snapshot[0] == null ? database.snapshot() : snapshot[0];
+    }
+
+    /**
+     * Returns the entries of the given snapshot of the database of this panel which correspond to the given entries.
+     */
+    public static BibtexEntry[] getSnapshotEntries(BibtexDatabase snapshot, BibtexEntry[] entries) {
+        List<BibtexEntry> result = new ArrayList<>(entries.length);
+        for (BibtexEntry entry : entries) {
+            BibtexEntry copy = snapshot.getEntryById(entry.getId());
+            if (copy != null) {
+                result.add(copy);
+            }
+        }
+        return result.toArray(new BibtexEntry[result.size()]);
+    }
+
+    /**
+     * Returns the keywords of the entries in the database of this panel, which are kept up to date with its changes.
+     */
+    public synchronized KeywordIndex getKeywordIndex() {
+        if (keywordIndex == null) {
+            keywordIndex = new KeywordIndex(database);
+        }
+        return keywordIndex;
+    }
+
+    /**
+     * Returns the integrity messages of the entries in the database of this panel, which are kept up to date with its
+     * changes. All entries are checked when this is first called.
+     */
+    public IntegrityService getIntegrityService() {
+        integrityServiceRequested = true;
+        // the first caller creates the service, the others wait for it
+        integrityService.run();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return integrityService.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Checks all entries again in the background if the integrity messages are already kept, e.g. after a preference
+     * affecting the checks has changed.
+     */
+    public void recheckIntegrity() {
+        if (integrityServiceRequested) {
+            JabRefExecutorService.INSTANCE.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    getIntegrityService().checkAll();
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the members of the groups in the database of this panel, which are kept up to date with its changes.
+     */
+    public synchronized GroupMembership getGroupMembership() {
+        if (groupMembership == null) {
+            groupMembership = new GroupMembership(database, getKeywordIndex());
+        }
+        return groupMembership;
+    }
+
+    /**
+     * Returns the entry counts of the groups in the database of this panel, which are computed in the background.
+     */
+    public synchronized GroupStatistics getGroupStatistics() {
+        if (groupStatistics == null) {
+            groupStatistics = new GroupStatistics(getGroupMembership(), JabRefExecutorService.INSTANCE, new Runnable() {
+
+                @Override
+                public void run() {
+                    if (frame.getCurrentBasePanel() == BasePanel.this) {
+                        frame.groupSelector.groupCountsChanged();
+                    }
+                }
+            });
+        }
+        return groupStatistics;
+    }
+
     public MetaData metaData() {
         return metaData;
     }
@@ -360,10 +511,15 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
                     Localization.lang("cut entry")));
                 // @formatter:on
                 // Loop through the array of entries, and delete them.
-                for (BibtexEntry be : bes) {
-                    database.removeEntry(be.getId());
-                    ensureNotShowing(be);
-                    ce.addEdit(new UndoableRemoveEntry(database, be, BasePanel.this));
+                database.beginBulkChange();
+                try {
+                    for (BibtexEntry be : bes) {
+                        database.removeEntry(be.getId());
+                        ensureNotShowing(be);
+                        ce.addEdit(new UndoableRemoveEntry(database, be, BasePanel.this));
+                    }
+                } finally {
+                    database.commitBulkChange();
                 }
                 //entryTable.clearSelection();
                 frame.output(formatOutputMessage(Localization.lang("Cut"), bes.length));
@@ -386,10 +542,15 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
                         Localization.lang("delete entry")));
                     // @formatter:on
                     // Loop through the array of entries, and delete them.
-                    for (BibtexEntry be : bes) {
-                        database.removeEntry(be.getId());
-                        ensureNotShowing(be);
-                        ce.addEdit(new UndoableRemoveEntry(database, be, BasePanel.this));
+                    database.beginBulkChange();
+                    try {
+                        for (BibtexEntry be : bes) {
+                            database.removeEntry(be.getId());
+                            ensureNotShowing(be);
+                            ce.addEdit(new UndoableRemoveEntry(database, be, BasePanel.this));
+                        }
+                    } finally {
+                        database.commitBulkChange();
                     }
                     markBaseChanged();
                     frame.output(formatOutputMessage(Localization.lang("Deleted"), bes.length));
@@ -455,25 +616,30 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
                     // for the first inserted entry.
                     BibtexEntry firstBE = null;
 
-                    for (BibtexEntry be1 : bes) {
+                    database.beginBulkChange();
+                    try {
+                        for (BibtexEntry be1 : bes) {
 
-                        BibtexEntry be = (BibtexEntry) be1.clone();
-                        if (firstBE == null) {
-                            firstBE = be;
-                        }
-                        Util.setAutomaticFields(be, Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_OWNER),
-                                Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_TIME_STAMP));
+                            BibtexEntry be = (BibtexEntry) be1.clone();
+                            if (firstBE == null) {
+                                firstBE = be;
+                            }
+                            Util.setAutomaticFields(be, Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_OWNER),
+                                    Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_TIME_STAMP));
 
-                        // We have to clone the
-                        // entries, since the pasted
-                        // entries must exist
-                        // independently of the copied
-                        // ones.
-                        be.setId(IdGenerator.next());
-                        database.insertEntry(be);
+                            // We have to clone the
+                            // entries, since the pasted
+                            // entries must exist
+                            // independently of the copied
+                            // ones.
+                            be.setId(IdGenerator.next());
+                            database.insertEntry(be);
 
-                        ce.addEdit(new UndoableInsertEntry(database, be, BasePanel.this));
+                            ce.addEdit(new UndoableInsertEntry(database, be, BasePanel.this));
 
+                        }
+                    } finally {
+                        database.commitBulkChange();
                     }
                     ce.end();
                     undoManager.addEdit(ce);
@@ -701,11 +867,13 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
                 }
 
                 // Finally, set the new keys:
-                for (BibtexEntry entry : entries) {
-                    bes = entry;
-                    LabelPatternUtil.makeLabel(metaData, database, bes);
+                Map<BibtexEntry, String> newKeys = new KeyGenerator(metaData, database,
+                        Globals.prefs.getSnapshot()).generateKeys(entries);
+                for (Map.Entry<BibtexEntry, String> newKey : newKeys.entrySet()) {
+                    bes = newKey.getKey();
+                    database.setCiteKeyForEntry(bes.getId(), newKey.getValue());
                     ce.addEdit(new UndoableKeyChange(database, bes.getId(), (String) oldvals.get(bes),
-                            bes.getField(BibtexEntry.KEY_FIELD)));
+                            newKey.getValue()));
                 }
                 ce.end();
                 undoManager.addEdit(ce);
@@ -1246,11 +1414,12 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         SaveSession session;
         frame.block();
         try {
+            BibtexDatabase snapshot = getDatabaseSnapshot();
             if (!selectedOnly) {
-                session = FileActions.saveDatabase(database, metaData, file, Globals.prefs, false, false, enc, false);
+                session = FileActions.saveDatabase(snapshot, metaData, file, Globals.prefs, false, false, enc, false);
             } else {
-                session = FileActions.savePartOfDatabase(database, metaData, file, Globals.prefs,
-                        mainTable.getSelectedEntries(), enc, saveType);
+                session = FileActions.savePartOfDatabase(snapshot, metaData, file, Globals.prefs,
+                        getSnapshotEntries(snapshot, mainTable.getSelectedEntries()), enc, saveType);
             }
 
         } catch (UnsupportedCharsetException ex2) {
@@ -1261,14 +1430,16 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
             // @formatter:on
             throw new SaveException("rt");
         } catch (SaveException ex) {
-            if (ex.specificEntry()) {
+            // the entry of the exception is the one of the snapshot
+            BibtexEntry entry = ex.specificEntry() ? database.getEntryById(ex.getEntry().getId()) : null;
+            if (entry != null) {
                 // Error occured during processing of
                 // be. Highlight it:
-                int row = mainTable.findEntry(ex.getEntry());
+                int row = mainTable.findEntry(entry);
                 int topShow = Math.max(0, row - 3);
                 mainTable.setRowSelectionInterval(row, row);
                 mainTable.scrollTo(topShow);
-                showEntry(ex.getEntry());
+                showEntry(entry);
             } else {
                 ex.printStackTrace();
             }
@@ -1397,9 +1568,10 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
 
         @Override
         public void databaseChanged(DatabaseChangeEvent e) {
-            if ((e.getType() == ChangeType.ADDED_ENTRY) && Globals.prefs.getBoolean(JabRefPreferences.AUTO_ASSIGN_GROUP)
+            if (!e.getAddedEntries().isEmpty() && Globals.prefs.getBoolean(JabRefPreferences.AUTO_ASSIGN_GROUP)
                     && frame.groupToggle.isSelected()) {
-                BibtexEntry[] entries = {e.getEntry()};
+                List<BibtexEntry> added = e.getAddedEntries();
+                BibtexEntry[] entries = added.toArray(new BibtexEntry[added.size()]);
                 TreePath[] selection = frame.groupSelector.getGroupsTree().getSelectionPaths();
                 if (selection != null) {
                     // it is possible that the user selected nothing. Therefore, checked for "!= null"
@@ -1427,8 +1599,11 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
 
         @Override
         public void databaseChanged(DatabaseChangeEvent e) {
-            if ((e.getType() == ChangeType.CHANGED_ENTRY) || (e.getType() == ChangeType.ADDED_ENTRY)) {
-                searchAutoCompleter.addBibtexEntry(e.getEntry());
+            for (BibtexEntry entry : e.getAddedEntries()) {
+                searchAutoCompleter.addBibtexEntry(entry);
+            }
+            for (BibtexEntry entry : e.getChangedEntries()) {
+                searchAutoCompleter.addBibtexEntry(entry);
             }
         }
     }
@@ -1441,8 +1616,11 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
 
         @Override
         public void databaseChanged(DatabaseChangeEvent e) {
-            if ((e.getType() == ChangeType.CHANGED_ENTRY) || (e.getType() == ChangeType.ADDED_ENTRY)) {
-                BasePanel.this.autoCompleters.addEntry(e.getEntry());
+            for (BibtexEntry entry : e.getAddedEntries()) {
+                BasePanel.this.autoCompleters.addEntry(entry);
+            }
+            for (BibtexEntry entry : e.getChangedEntries()) {
+                BasePanel.this.autoCompleters.addEntry(entry);
             }
         }
     }
@@ -1506,8 +1684,12 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         if (filterSearchToggle != null) {
             filterSearchToggle.updateFilterList(searchFilterList);
         }
+        if (tableFormat != null) {
+            database.removeDatabaseChangeListener(tableFormat);
+        }
         tableFormat = new MainTableFormat(this);
         tableFormat.updateTableFormat();
+        database.addDatabaseChangeListener(tableFormat);
         mainTable = new MainTable(tableFormat, searchFilterList, frame, this);
 
         selectionListener = new MainTableSelectionListener(this, mainTable);
@@ -2210,14 +2392,21 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
             NamedCompound ce = new NamedCompound(Localization.lang("autogenerate keys"));
             boolean any = false;
 
+            List<BibtexEntry> entriesWithoutKey = new ArrayList<>();
             for (BibtexEntry bes : database.getEntries()) {
                 String oldKey = bes.getCiteKey();
                 if ((oldKey == null) || oldKey.isEmpty()) {
-                    LabelPatternUtil.makeLabel(metaData, database, bes);
-                    ce.addEdit(new UndoableKeyChange(database, bes.getId(), null, bes.getCiteKey()));
-                    any = true;
+                    entriesWithoutKey.add(bes);
                 }
             }
+            Map<BibtexEntry, String> newKeys = new KeyGenerator(metaData, database, Globals.prefs.getSnapshot())
+                    .generateKeys(entriesWithoutKey);
+            for (Map.Entry<BibtexEntry, String> newKey : newKeys.entrySet()) {
+                BibtexEntry bes = newKey.getKey();
+                database.setCiteKeyForEntry(bes.getId(), newKey.getValue());
+                ce.addEdit(new UndoableKeyChange(database, bes.getId(), null, newKey.getValue()));
+                any = true;
+            }
             // Store undo information, if any:
             if (any) {
                 ce.end();
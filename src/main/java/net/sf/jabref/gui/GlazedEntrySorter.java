@@ -16,7 +16,10 @@
 package net.sf.jabref.gui;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.model.database.DatabaseChangeEvent;
 import net.sf.jabref.model.database.DatabaseChangeListener;
@@ -62,9 +65,31 @@ public class GlazedEntrySorter implements DatabaseChangeListener {
                 // thus,
                 list.set(index, e.getEntry());
             }
+        } else if (e.getType() == DatabaseChangeEvent.ChangeType.BULK_CHANGE) {
+            // the bulk operations of the list are published as a single list event
+            if (!e.getRemovedEntries().isEmpty()) {
+                list.removeAll(new HashSet<>(e.getRemovedEntries()));
+            }
+            list.addAll(e.getAddedEntries());
+            if (!e.getChangedEntries().isEmpty()) {
+                updateAll(new HashSet<>(e.getChangedEntries()));
+            }
         }
         list.getReadWriteLock().writeLock().unlock();
 
     }
 
+    /**
+     * Tells the listeners of the list that the given entries have changed, looking them up in one pass.
+     */
+    private void updateAll(Set<BibtexEntry> changed) {
+        ListIterator<BibtexEntry> iterator = list.listIterator();
+        while (iterator.hasNext()) {
+            BibtexEntry entry = iterator.next();
+            if (changed.contains(entry)) {
+                iterator.set(entry);
+            }
+        }
+    }
+
 }
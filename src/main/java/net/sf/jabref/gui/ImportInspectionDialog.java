@@ -704,9 +704,14 @@ public class ImportInspectionDialog extends JDialog implements ImportInspector,
 
             // See if we should remove any old entries for duplicate resolving:
             if (!entriesToDelete.isEmpty()) {
-                for (BibtexEntry entry : entriesToDelete) {
-                    ce.addEdit(new UndoableRemoveEntry(panel.database(), entry, panel));
-                    panel.database().removeEntry(entry.getId());
+                panel.database().beginBulkChange();
+                try {
+                    for (BibtexEntry entry : entriesToDelete) {
+                        ce.addEdit(new UndoableRemoveEntry(panel.database(), entry, panel));
+                        panel.database().removeEntry(entry.getId());
+                    }
+                } finally {
+                    panel.database().commitBulkChange();
                 }
             }
 
@@ -734,64 +739,69 @@ public class ImportInspectionDialog extends JDialog implements ImportInspector,
                 net.sf.jabref.util.Util.setAutomaticFields(selected, Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_OWNER),
                         Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_TIME_STAMP), Globals.prefs.getBoolean(JabRefPreferences.MARK_IMPORTED_ENTRIES));
 
-                // Check if we should unmark entries before adding the new ones:
-                if (Globals.prefs.getBoolean(JabRefPreferences.UNMARK_ALL_ENTRIES_BEFORE_IMPORTING)) {
-                    for (BibtexEntry entry : panel.database().getEntries()) {
-                        EntryMarker.unmarkEntry(entry, true, panel.database(), ce);
+                panel.database().beginBulkChange();
+                try {
+                    // Check if we should unmark entries before adding the new ones:
+                    if (Globals.prefs.getBoolean(JabRefPreferences.UNMARK_ALL_ENTRIES_BEFORE_IMPORTING)) {
+                        for (BibtexEntry entry : panel.database().getEntries()) {
+                            EntryMarker.unmarkEntry(entry, true, panel.database(), ce);
+                        }
                     }
-                }
 
-                for (BibtexEntry entry : selected) {
-                    // entry.clone();
-
-                    // Remove settings to group/search hit status:
-                    entry.setSearchHit(false);
-                    entry.setGroupHit(false);
-
-                    // If this entry should be added to any groups, do it now:
-                    Set<GroupTreeNode> groups = groupAdditions.get(entry);
-                    if (!groupingCanceled && (groups != null)) {
-                        if (entry.getCiteKey() == null) {
-                            // The entry has no key, so it can't be added to the
-                            // group.
-                            // The best course of action is probably to ask the
-                            // user if a key should be generated
-                            // immediately.
-                            int answer = JOptionPane
-                                    .showConfirmDialog(
-                                            ImportInspectionDialog.this,
-                                            Localization.lang("Cannot add entries to group without generating keys. Generate keys now?"),
-                                            Localization.lang("Add to group"), JOptionPane.YES_NO_OPTION);
-                            if (answer == JOptionPane.YES_OPTION) {
-                                generateKeys();
-                            } else {
-                                groupingCanceled = true;
+                    for (BibtexEntry entry : selected) {
+                        // entry.clone();
+
+                        // Remove settings to group/search hit status:
+                        entry.setSearchHit(false);
+                        entry.setGroupHit(false);
+
+                        // If this entry should be added to any groups, do it now:
+                        Set<GroupTreeNode> groups = groupAdditions.get(entry);
+                        if (!groupingCanceled && (groups != null)) {
+                            if (entry.getCiteKey() == null) {
+                                // The entry has no key, so it can't be added to the
+                                // group.
+                                // The best course of action is probably to ask the
+                                // user if a key should be generated
+                                // immediately.
+                                int answer = JOptionPane
+                                        .showConfirmDialog(
+                                                ImportInspectionDialog.this,
+                                                Localization.lang("Cannot add entries to group without generating keys. Generate keys now?"),
+                                                Localization.lang("Add to group"), JOptionPane.YES_NO_OPTION);
+                                if (answer == JOptionPane.YES_OPTION) {
+                                    generateKeys();
+                                } else {
+                                    groupingCanceled = true;
+                                }
                             }
-                        }
 
-                        // If the key existed, or exists now, go ahead:
-                        if (entry.getCiteKey() != null) {
-                            for (GroupTreeNode node : groups) {
-                                if (node.getGroup().supportsAdd()) {
-                                    // Add the entry:
-                                    AbstractUndoableEdit undo = node.getGroup().add(
-                                            new BibtexEntry[]{entry});
-                                    if (undo instanceof UndoableChangeAssignment) {
-                                        ((UndoableChangeAssignment) undo).setEditedNode(node);
+                            // If the key existed, or exists now, go ahead:
+                            if (entry.getCiteKey() != null) {
+                                for (GroupTreeNode node : groups) {
+                                    if (node.getGroup().supportsAdd()) {
+                                        // Add the entry:
+                                        AbstractUndoableEdit undo = node.getGroup().add(
+                                                new BibtexEntry[]{entry});
+                                        if (undo instanceof UndoableChangeAssignment) {
+                                            ((UndoableChangeAssignment) undo).setEditedNode(node);
+                                        }
+                                        ce.addEdit(undo);
+
+                                    } else {
+                                        // Shouldn't happen...
                                     }
-                                    ce.addEdit(undo);
-
-                                } else {
-                                    // Shouldn't happen...
                                 }
                             }
                         }
-                    }
 
-                    entry.setId(IdGenerator.next());
-                    panel.database().insertEntry(entry);
-                    ce.addEdit(new UndoableInsertEntry(panel.database(), entry, panel));
+                        entry.setId(IdGenerator.next());
+                        panel.database().insertEntry(entry);
+                        ce.addEdit(new UndoableInsertEntry(panel.database(), entry, panel));
 
+                    }
+                } finally {
+                    panel.database().commitBulkChange();
                 }
 
                 ce.end();
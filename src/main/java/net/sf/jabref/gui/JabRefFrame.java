@@ -46,6 +46,7 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
+import javax.swing.table.DefaultTableModel;
 
 import net.sf.jabref.*;
 import net.sf.jabref.bibtex.EntryTypes;
@@ -62,8 +63,8 @@ import net.sf.jabref.gui.util.PositionWindow;
 import net.sf.jabref.importer.*;
 import net.sf.jabref.importer.fetcher.GeneralFetcher;
 import net.sf.jabref.logic.CustomEntryTypesManager;
-import net.sf.jabref.logic.integrity.IntegrityCheck;
 import net.sf.jabref.logic.integrity.IntegrityMessage;
+import net.sf.jabref.logic.integrity.IntegrityService;
 import net.sf.jabref.logic.l10n.Localization;
 import net.sf.jabref.logic.preferences.LastFocusedTabPreferences;
 import net.sf.jabref.logic.util.OS;
@@ -132,27 +133,36 @@ public class JabRefFrame extends JFrame implements OutputPrinter {
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            IntegrityCheck check = new IntegrityCheck();
-            List<IntegrityMessage> messages = check.checkBibtexDatabase(getCurrentBasePanel().database());
+            final BasePanel panel = getCurrentBasePanel();
+            // the first call checks all entries, which takes a while for a large database
+            JabRefExecutorService.INSTANCE.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    final IntegrityService service = panel.getIntegrityService();
+                    final List<IntegrityMessage> messages = service.getMessages();
+                    SwingUtilities.invokeLater(new Runnable() {
 
+                        @Override
+                        public void run() {
+                            showMessages(panel, service, messages);
+                        }
+                    });
+                }
+            });
+        }
+
+        private void showMessages(final BasePanel panel, final IntegrityService service,
+                List<IntegrityMessage> messages) {
             if (messages.isEmpty()) {
-                JOptionPane.showMessageDialog(getCurrentBasePanel(), Localization.lang("No problems found."));
+                JOptionPane.showMessageDialog(panel, Localization.lang("No problems found."));
             } else {
                 // prepare data model
-                Object[][] model = new Object[messages.size()][3];
-                int i = 0;
-                for (IntegrityMessage message : messages) {
-                    model[i][0] = message.getEntry().getCiteKey();
-                    model[i][1] = message.getFieldName();
-                    model[i][2] = message.getMessage();
-                    i++;
-                }
+                final DefaultTableModel model = new DefaultTableModel(new Object[]{"key", "field", "message"}, 0);
+                setIntegrityMessages(model, messages);
 
                 // construct view
-                JTable table = new JTable(
-                        model,
-                        new Object[]{"key", "field", "message"}
-                );
+                JTable table = new JTable(model);
 
                 table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
                 ListSelectionModel selectionModel = table.getSelectionModel();
@@ -161,10 +171,10 @@ public class JabRefFrame extends JFrame implements OutputPrinter {
 
                     @Override
                     public void valueChanged(ListSelectionEvent e) {
-                        if (!e.getValueIsAdjusting()) {
-                            String citeKey = (String) model[table.getSelectedRow()][0];
-                            String fieldName = (String) model[table.getSelectedRow()][1];
-                            getCurrentBasePanel().editEntryByKeyAndFocusField(citeKey, fieldName);
+                        if (!e.getValueIsAdjusting() && (table.getSelectedRow() >= 0)) {
+                            String citeKey = (String) model.getValueAt(table.getSelectedRow(), 0);
+                            String fieldName = (String) model.getValueAt(table.getSelectedRow(), 1);
+                            panel.editEntryByKeyAndFocusField(citeKey, fieldName);
                         }
                     }
                 });
@@ -175,9 +185,36 @@ public class JabRefFrame extends JFrame implements OutputPrinter {
                 table.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
                 JScrollPane scrollPane = new JScrollPane(table);
                 String title = Localization.lang("%0 problem(s) found", String.valueOf(messages.size()));
-                JDialog dialog = new JDialog(JabRefFrame.this, title, false);
+                final JDialog dialog = new JDialog(JabRefFrame.this, title, false);
                 dialog.add(scrollPane);
                 dialog.setSize(600, 500);
+                dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+
+                // the messages are kept up to date while the dialog is open
+                final IntegrityService.Listener listener = new IntegrityService.Listener() {
+
+                    @Override
+                    public void messagesChanged(final IntegrityService changedService) {
+                        SwingUtilities.invokeLater(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                List<IntegrityMessage> current = changedService.getMessages();
+                                setIntegrityMessages(model, current);
+                                dialog.setTitle(Localization.lang("%0 problem(s) found",
+                                        String.valueOf(current.size())));
+                            }
+                        });
+                    }
+                };
+                service.addListener(listener);
+                dialog.addWindowListener(new WindowAdapter() {
+
+                    @Override
+                    public void windowClosed(WindowEvent e) {
+                        service.removeListener(listener);
+                    }
+                });
 
                 // show view
                 dialog.setVisible(true);
@@ -185,6 +222,13 @@ public class JabRefFrame extends JFrame implements OutputPrinter {
         }
     };
 
+    private static void setIntegrityMessages(DefaultTableModel model, List<IntegrityMessage> messages) {
+        model.setRowCount(0);
+        for (IntegrityMessage message : messages) {
+            model.addRow(new Object[]{message.getEntry().getCiteKey(), message.getFieldName(), message.getMessage()});
+        }
+    }
+
     class ToolBar extends JToolBar {
         void addAction(Action a) {
             JButton b = new JButton(a);
@@ -16,13 +16,18 @@
 package net.sf.jabref.gui;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Vector;
 
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
 import net.sf.jabref.model.entry.AuthorList;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.model.entry.EntryUtil;
+import net.sf.jabref.logic.preferences.PreferencesSnapshot;
 import net.sf.jabref.specialfields.Priority;
 import net.sf.jabref.specialfields.Rank;
 import net.sf.jabref.specialfields.ReadStatus;
@@ -34,8 +39,12 @@ import javax.swing.JLabel;
 
 /**
  * Class defining the contents and column headers of the main table.
+ * <p>
+ * Formatting a cell (e.g. the names of the authors, or the icon of the first file link) is done again on every
+ * repaint of the table. The values of the recently shown entries are therefore cached, and dropped when the database
+ * reports that the entry has changed. To receive these reports, this has to be added as a listener of the database.
  */
-public class MainTableFormat implements TableFormat<BibtexEntry> {
+public class MainTableFormat implements TableFormat<BibtexEntry>, DatabaseChangeListener {
     // Character separating field names that are to be used in sequence as
     // fallbacks for a single column (e.g. "author/editor" to use editor where
     // author is not set):
@@ -58,8 +67,30 @@ public class MainTableFormat implements TableFormat<BibtexEntry> {
     private static final String[] READ = {SpecialFieldsUtils.FIELDNAME_READ};
     public static final String[] FILE = {Globals.FILE_FIELD};
 
+    /**
+     * The number of entries whose values are cached, more than the rows of the table shown at once
+     */
+    private static final int MAX_CACHED_ENTRIES = 2000;
+
+    /**
+     * Marks a cached value of null
+     */
+    private static final Object NO_VALUE = new Object();
+
     private final BasePanel panel;
 
+    /**
+     * The values of the columns of the recently shown entries, least recently used first. A value not computed yet
+     * is null.
+     */
+    private final Map<BibtexEntry, Object[]> cache = new LinkedHashMap<BibtexEntry, Object[]>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BibtexEntry, Object[]> eldest) {
+            return size() > MAX_CACHED_ENTRIES;
+        }
+    };
+
     private String[][] columns; // Contains the current column names.
     public int padleft = -1; // padleft indicates how many columns (starting from left) are
     // special columns (number column or icon column).
@@ -93,7 +124,7 @@ public class MainTableFormat implements TableFormat<BibtexEntry> {
             String iconTypeForColumnZero = getIconTypeForColumn(col)[0];
             if ("ranking".equals(iconTypeForColumnZero)) {
                 return EntryUtil.capitalizeFirst(iconTypeForColumnZero);
-            } else if (Globals.prefs.getBoolean(JabRefPreferences.SHOW_ONE_LETTER_HEADING_FOR_ICON_COLUMNS)) {
+            } else if (Globals.prefs.getSnapshot().isShowOneLetterHeadingForIconColumns()) {
                 return iconTypeForColumnZero.substring(0, 1).toUpperCase();
             } else {
                 return null;
@@ -183,6 +214,71 @@ public class MainTableFormat implements TableFormat<BibtexEntry> {
 
     @Override
     public Object getColumnValue(BibtexEntry be, int col) {
+        if (col == 0) {
+            return "#";
+        }
+        Object[] values;
+        synchronized (cache) {
+            values = cache.get(be);
+            if ((values == null) || (values.length != getColumnCount())) {
+                values = new Object[getColumnCount()];
+                cache.put(be, values);
+            } else if (values[col] != null) {
+                return values[col] == NO_VALUE ? null : values[col];
+            }
+        }
+
+        Object value = computeColumnValue(be, col);
+        if (!dependsOnStrings(be, col)) {
+            synchronized (cache) {
+                // if the entry has changed meanwhile, the array is not in the cache any more
+                values[col] = value == null ? NO_VALUE : value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops all cached values, e.g. after the external file types have changed.
+     */
+    public void clearCache() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public void databaseChanged(DatabaseChangeEvent e) {
+        if (e.getType() == DatabaseChangeEvent.ChangeType.CHANGING_ENTRY) {
+            return;
+        }
+        synchronized (cache) {
+            for (BibtexEntry entry : e.getRemovedEntries()) {
+                cache.remove(entry);
+            }
+            for (BibtexEntry entry : e.getChangedEntries()) {
+                cache.remove(entry);
+            }
+        }
+    }
+
+    /**
+     * The author column resolves the strings of the database, which change without notice.
+     */
+    private boolean dependsOnStrings(BibtexEntry be, int col) {
+        if ((col < padleft) || !"Author".equals(getColumnName(col))) {
+            return false;
+        }
+        for (String field : columns[col - padleft]) {
+            String value = be.getFieldOrAlias(field);
+            if ((value != null) && (value.indexOf('#') >= 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object computeColumnValue(BibtexEntry be, int col) {
         Object o = null;
         String[] iconType = getIconTypeForColumn(col); // If non-null, indicates an icon column's type.
 
@@ -352,11 +448,12 @@ public class MainTableFormat implements TableFormat<BibtexEntry> {
         }
 
         // Read name format options:
-        namesNatbib = Globals.prefs.getBoolean(JabRefPreferences.NAMES_NATBIB); //MK:
-        namesLastOnly = Globals.prefs.getBoolean(JabRefPreferences.NAMES_LAST_ONLY);
-        namesAsIs = Globals.prefs.getBoolean(JabRefPreferences.NAMES_AS_IS);
-        abbr_names = Globals.prefs.getBoolean(JabRefPreferences.ABBR_AUTHOR_NAMES); //MK:
-        namesFf = Globals.prefs.getBoolean(JabRefPreferences.NAMES_FIRST_LAST);
+        PreferencesSnapshot preferences = Globals.prefs.getSnapshot();
+        namesNatbib = preferences.isNamesNatbib(); //MK:
+        namesLastOnly = preferences.isNamesLastOnly();
+        namesAsIs = preferences.isNamesAsIs();
+        abbr_names = preferences.isAbbreviateAuthorNames(); //MK:
+        namesFf = preferences.isNamesFirstLast();
         namesLf = !(namesAsIs || namesFf || namesNatbib || namesLastOnly); // None of the above.
 
         // Set the icon columns, indicating the number of special columns to the left.
@@ -426,6 +523,7 @@ public class MainTableFormat implements TableFormat<BibtexEntry> {
 
         // Add 1 to the number of icon columns to get padleft.
         padleft = 1 + iconCols.size();
+        clearCache();
 
         // Set up the int[][] nameCols, to mark which columns should be
         // treated as lists of names. This is to provide a correct presentation
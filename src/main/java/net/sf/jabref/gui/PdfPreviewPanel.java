@@ -22,10 +22,14 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.MetaData;
@@ -45,44 +49,105 @@ class PdfPreviewPanel extends JPanel {
 
     private static final Log LOGGER = LogFactory.getLog(PdfPreviewPanel.class);
 
+    /**
+     * The thumbnails of the first pages of the PDF files shown by all previews
+     */
+    private static final PdfThumbnailCache PAGE_CACHE = new PdfThumbnailCache(32);
+
+    /**
+     * Renders the PDF files of all previews, one at a time
+     */
+    private static final ExecutorService RENDERER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PDF preview renderer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Counts the updates of this panel, so that only the result of the latest one is shown. Only used on the EDT.
+     */
+    private int updateCount;
+
+
     public PdfPreviewPanel(MetaData metaData) {
         this.metaData = metaData;
         picLabel = new JLabel();
         add(picLabel);
     }
 
-    private void renderPDFFile(File file) {
+    /**
+     * Renders the first page of the given file in the background, unless it is in the cache, and shows it if no other
+     * file has been asked for in the meantime.
+     */
+    private void renderPDFFile(final File file) {
+        final int update = updateCount;
+        final int width = this.getParent().getWidth();
+        final int height = this.getParent().getHeight();
+        RENDERER.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final BufferedImage resImage = getThumbnail(file, width, height);
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (update != updateCount) {
+                            // another entry is shown already
+                            return;
+                        }
+                        if (resImage != null) {
+                            picLabel.setText(null);
+                            picLabel.setIcon(new ImageIcon(resImage));
+                        } else {
+                            clearPreview();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns the first page of the given PDF file, resized to the given size, or null if it cannot be rendered.
+     */
+    private static BufferedImage getThumbnail(File file, int width, int height) {
+        String key = PdfThumbnailCache.getKey(file, width, height);
+        BufferedImage cached = PAGE_CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
 
+        BufferedImage image;
         try (InputStream input = new FileInputStream(file);
                 PDDocument document = PDDocument.load(input)) {
             List<PDPage> pages = document.getDocumentCatalog().getAllPages();
 
             PDPage page = pages.get(0);
-            BufferedImage image;
             try {
                 image = page.convertToImage();
             } catch (Exception e1) {
                 // silently ignores all rendering exceptions
                 image = null;
             }
-
-            if (image != null) {
-                int width = this.getParent().getWidth();
-                int height = this.getParent().getHeight();
-                BufferedImage resImage = resizeImage(image, width, height, BufferedImage.TYPE_INT_RGB);
-                ImageIcon icon = new ImageIcon(resImage);
-                picLabel.setText(null);
-                picLabel.setIcon(icon);
-            } else {
-                clearPreview();
-            }
-
         } catch (IOException e) {
             LOGGER.warn("Cannot open file/PDF document", e);
+            return null;
+        }
+
+        if (image == null) {
+            return null;
         }
+        BufferedImage thumbnail = resizeImage(image, width, height, BufferedImage.TYPE_INT_RGB);
+        PAGE_CACHE.put(key, thumbnail);
+        return thumbnail;
     }
 
-    private BufferedImage resizeImage(BufferedImage originalImage, int width, int height, int type) {
+    private static BufferedImage resizeImage(BufferedImage originalImage, int width, int height, int type) {
         int h = originalImage.getHeight();
         int w = originalImage.getWidth();
         if ((height == 0) || (width == 0)) {
@@ -108,6 +173,7 @@ class PdfPreviewPanel extends JPanel {
     }
 
     public void updatePanel(BibtexEntry entry) {
+        updateCount++;
         if (entry == null) {
             clearPreview();
             return;
@@ -0,0 +1,66 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.gui;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The thumbnails of the first pages of PDF files shown by {@link PdfPreviewPanel}. Only the most recently used
+ * thumbnails are kept.
+ */
+class PdfThumbnailCache {
+
+    private final Map<String, BufferedImage> thumbnails;
+
+
+    /**
+     * @param capacity the number of thumbnails to keep
+     */
+    PdfThumbnailCache(final int capacity) {
+        thumbnails = new LinkedHashMap<String, BufferedImage>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the key of the thumbnail of the given file. It contains the path and the modification time of the file,
+     * so that a changed file is rendered again, and the size of the thumbnail.
+     */
+    static String getKey(File file, int width, int height) {
+        return file.getAbsolutePath() + '|' + file.lastModified() + '|' + width + 'x' + height;
+    }
+
+    /**
+     * @return the thumbnail, or null if it is not in the cache
+     */
+    synchronized BufferedImage get(String key) {
+        return thumbnails.get(key);
+    }
+
+    /**
+     * Adds a thumbnail and removes the least recently used one if the cache is full.
+     */
+    synchronized void put(String key, BufferedImage thumbnail) {
+        thumbnails.put(key, thumbnail);
+    }
+}
@@ -23,10 +23,16 @@ import java.beans.PropertyVetoException;
 import java.beans.VetoableChangeListener;
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.print.attribute.HashPrintRequestAttributeSet;
 import javax.print.attribute.PrintRequestAttributeSet;
@@ -56,6 +62,35 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
 
     private static final Log LOGGER = LogFactory.getLog(PreviewPanel.class);
 
+    /**
+     * The number of layouts kept in {@link #LAYOUTS}
+     */
+    private static final int LAYOUT_CACHE_SIZE = 8;
+
+    /**
+     * The parsed layouts of all previews by their text, least recently used first
+     */
+    private static final Map<String, Layout> LAYOUTS = new LinkedHashMap<String, Layout>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Layout> eldest) {
+            return size() > LAYOUT_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Renders the entries of all previews, one at a time, so that a layout is never used by two threads
+     */
+    private static final ExecutorService RENDERER = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Preview renderer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     /**
      * The bibtex entry currently shown
      */
@@ -67,6 +102,9 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
      */
     private Optional<BibtexDatabase> database = Optional.empty();
 
+    /**
+     * The layout given by {@link #setLayout(Layout)}, used instead of the one of {@link #layoutFile}
+     */
     private Optional<Layout> layout = Optional.empty();
 
     /**
@@ -92,6 +130,13 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
 
     private final List<String> wordsToHighlight = new LinkedList<>();
 
+    /**
+     * Whether an entry is being rendered in the background and whether the preview has to be rendered again when it
+     * is finished. Only used on the EDT.
+     */
+    private boolean rendering;
+    private boolean renderingPending;
+
     /**
      * @param database
      *            (may be null) Optionally used to resolve strings.
@@ -167,7 +212,6 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
 
         this.metaData = Objects.requireNonNull(metaData);
         this.layoutFile = Objects.requireNonNull(layoutFile);
-        updateLayout();
 
         this.closeAction = new CloseAction();
         this.printAction = new PrintAction();
@@ -295,18 +339,36 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
         this.metaData = metaData;
     }
 
+    /**
+     * Uses the given layout. It is parsed again even if it is known already, as the preferences used by the layout may
+     * have changed. The other previews with this layout use the new version as well.
+     */
     public void updateLayout(String layoutFormat) throws IOException {
         layoutFile = layoutFormat;
-        updateLayout();
+        layout = Optional.empty();
+        synchronized (LAYOUTS) {
+            LAYOUTS.remove(layoutFile);
+        }
     }
 
-    private void updateLayout() {
-        StringReader sr = new StringReader(layoutFile.replaceAll("__NEWLINE__", "\n"));
-        try {
-            layout = Optional.of(new LayoutHelper(sr).getLayoutFromText(Globals.FORMATTER_PACKAGE));
-        } catch (IOException e) {
-            layout = Optional.empty();
-            LOGGER.debug("no layout could be set", e);
+    /**
+     * Returns the parsed layout of the given text, which is shared by all previews. The text is only parsed if it is
+     * not used by a preview already.
+     */
+    private static Optional<Layout> getLayout(String layoutFile) {
+        synchronized (LAYOUTS) {
+            Layout layout = LAYOUTS.get(layoutFile);
+            if (layout == null) {
+                StringReader sr = new StringReader(layoutFile.replaceAll("__NEWLINE__", "\n"));
+                try {
+                    layout = new LayoutHelper(sr).getLayoutFromText(Globals.FORMATTER_PACKAGE);
+                } catch (IOException e) {
+                    LOGGER.debug("no layout could be set", e);
+                    return Optional.empty();
+                }
+                LAYOUTS.put(layoutFile, layout);
+            }
+            return Optional.of(layout);
         }
     }
 
@@ -320,8 +382,6 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
             newEntry.addPropertyChangeListener(this);
         }
         entry = Optional.ofNullable(newEntry);
-
-        updateLayout();
         update();
     }
 
@@ -330,15 +390,55 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
         return this.entry.orElse(null);
     }
 
+    /**
+     * Renders the current entry in the background and shows it when it is done. If the preview is updated again while
+     * an entry is being rendered, e.g. when moving through the table with the arrow keys, only the latest entry is
+     * rendered and shown afterwards.
+     */
     public void update() {
-        StringBuilder sb = new StringBuilder();
-        ExportFormats.entryNumber = 1; // Set entry number in case that is included in the preview layout.
-        entry.ifPresent(entry ->
-                layout.ifPresent(layout ->
-                        sb.append(layout.doLayout(entry, database.orElse(null), wordsToHighlight))
-                )
-        );
-        String newValue = sb.toString();
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::update);
+            return;
+        }
+        if (rendering) {
+            renderingPending = true;
+            return;
+        }
+        rendering = true;
+
+        final Optional<BibtexEntry> entryToRender = entry;
+        final Optional<Layout> layoutToUse = layout.isPresent() ? layout : getLayout(layoutFile);
+        final BibtexDatabase databaseToUse = database.orElse(null);
+        final List<String> words = new ArrayList<>(wordsToHighlight);
+        RENDERER.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                StringBuilder sb = new StringBuilder();
+                try {
+                    // Set entry number in case that is included in the preview layout, only for this thread.
+                    ExportFormats.setEntryNumber(1);
+                    entryToRender.ifPresent(entry ->
+                            layoutToUse.ifPresent(layout ->
+                                    sb.append(layout.doLayout(entry, databaseToUse, words))
+                            )
+                    );
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not render preview", e);
+                }
+                SwingUtilities.invokeLater(() -> showPreview(sb.toString(), entryToRender.orElse(null)));
+            }
+        });
+    }
+
+    private void showPreview(String newValue, BibtexEntry renderedEntry) {
+        rendering = false;
+        if (renderingPending) {
+            // the rendered preview is outdated already
+            renderingPending = false;
+            update();
+            return;
+        }
 
         previewPane.setText(newValue);
         previewPane.revalidate();
@@ -348,7 +448,7 @@ public class PreviewPanel extends JPanel implements VetoableChangeListener, Sear
         SwingUtilities.invokeLater(() -> bar.setValue(0));
 
         // update pdf preview
-        pdfPreviewPanel.ifPresent(p -> p.updatePanel(entry.orElse(null)));
+        pdfPreviewPanel.ifPresent(p -> p.updatePanel(renderedEntry));
     }
 
     /**
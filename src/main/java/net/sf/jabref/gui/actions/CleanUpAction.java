@@ -15,8 +15,13 @@
  */
 package net.sf.jabref.gui.actions;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -36,6 +41,7 @@ import com.jgoodies.forms.layout.FormLayout;
 
 import net.sf.jabref.logic.FieldChange;
 import net.sf.jabref.logic.cleanup.Cleaner;
+import net.sf.jabref.logic.cleanup.CleanupEngine;
 import net.sf.jabref.logic.cleanup.DoiCleanup;
 import net.sf.jabref.logic.cleanup.FieldFormatterCleanup;
 import net.sf.jabref.logic.cleanup.FormatterCleanup;
@@ -268,60 +274,89 @@ public class CleanUpAction extends AbstractWorker {
             }
         }
 
-        for (BibtexEntry entry : panel.getSelectedEntries()) {
-            // undo granularity is on entry level
-            NamedCompound ce = new NamedCompound(Localization.lang("Cleanup entry"));
+        List<Cleaner> cleaners = new ArrayList<>();
+        if (choiceCleanUpUpgradeExternalLinks) {
+            cleaners.add(new UpgradePdfPsToFileCleanup());
+        }
+        if (choiceCleanUpSuperscripts) {
+            // Converts the text in 1st, 2nd, ... to real superscripts by wrapping in \textsuperscript{st}, ...
+            cleaners.add(new FormatterCleanup(BibtexFieldFormatters.SUPERSCRIPTS));
+        }
+        if (choiceCleanUpDOI) {
+            // Removes the http://... for each DOI. Moves DOIs from URL and NOTE filed to DOI field.
+            cleaners.add(new DoiCleanup());
+        }
+        if (choiceCleanUpMonth) {
+            cleaners.add(FieldFormatterCleanup.MONTH);
+        }
+        if (choiceCleanUpPageNumbers) {
+            cleaners.add(FieldFormatterCleanup.PAGE_NUMBERS);
+        }
+        if (choiceCleanUpDate) {
+            // Format dates correctly (yyyy-mm-dd or yyyy-mm)
+            cleaners.add(FieldFormatterCleanup.DATES);
+        }
 
-            if (choiceCleanUpUpgradeExternalLinks) {
-                doUpgradePdfPsToFile(entry, ce);
-            }
-            if (choiceCleanUpSuperscripts) {
-                doCleanUpSuperscripts(entry, ce);
-            }
-            if (choiceCleanUpDOI) {
-                doCleanUpDOI(entry, ce);
-            }
-            if (choiceCleanUpMonth) {
-                doCleanUpMonth(entry, ce);
-            }
-            if (choiceCleanUpPageNumbers) {
-                doCleanUpPageNumbers(entry, ce);
-            }
-            if (choiceCleanUpDate) {
-                doCleanUpDate(entry, ce);
-            }
+        cleaners.add(new FileEntryCleaner());
+        if (choiceMakePathsRelative) {
+            cleaners.add(new RelativePathsCleanup(panel.metaData().getFileDirectory(Globals.FILE_FIELD)));
+        }
+        RenamePdfCleanup renamer = null;
+        if (choiceRenamePDF) {
+            renamer = new RenamePdfCleanup(panel.metaData().getFileDirectory(Globals.FILE_FIELD),
+                    cleanUpRenamePDFonlyRelativePaths.isSelected(), panel.database());
+            cleaners.add(renamer);
+        }
+        if (choiceConvertHTML) {
+            // Converts HTML code to LaTeX code
+            cleaners.add(FieldFormatterCleanup.TITLE_HTML);
+        }
+        if (choiceConvertUnits) {
+            cleaners.add(FieldFormatterCleanup.TITLE_UNITS);
+        }
+        if (choiceConvertCase) {
+            // Adds curly brackets {} around keywords
+            cleaners.add(FieldFormatterCleanup.TITLE_CASE);
+        }
+        if (choiceConvertLaTeX) {
+            cleaners.add(FieldFormatterCleanup.TITLE_LATEX);
+        }
+        if (choiceConvertUnicode) {
+            // Converts Unicode characters to LaTeX code
+            cleaners.add(new UnicodeCleanup());
+        }
+        if (choiceConvertToBiblatex) {
+            cleaners.add(new BiblatexCleanup());
+        }
 
-            fixWrongFileEntries(entry, ce);
-            if (choiceMakePathsRelative) {
-                doMakePathsRelative(entry, ce);
-            }
-            if (choiceRenamePDF) {
-                doRenamePDFs(entry, ce);
-            }
-            if (choiceConvertHTML) {
-                doConvertHTML(entry, ce);
-            }
-            if (choiceConvertUnits) {
-                doConvertUnits(entry, ce);
-            }
-            if (choiceConvertCase) {
-                doConvertCase(entry, ce);
-            }
-            if (choiceConvertLaTeX) {
-                doConvertLaTeX(entry, ce);
-            }
-            if (choiceConvertUnicode) {
-                doConvertUnicode(entry, ce);
-            }
-            if (choiceConvertToBiblatex) {
-                doConvertToBiblatex(entry, ce);
-            }
+        // The entries are cleaned up on copies, so that all cores can be used. Renaming files has side effects
+        // outside of the entries and counts the failures, so it is done on one thread.
+        CleanupEngine engine = new CleanupEngine(cleaners);
+        List<BibtexEntry> entries = Arrays.asList(panel.getSelectedEntries());
+        List<FieldChange> changes = renamer == null ? engine.computeChangesInParallel(entries) : engine
+                .computeChanges(entries);
+        if (renamer != null) {
+            unsuccessfulRenames += renamer.getUnsuccessfulRenames();
+        }
 
-            ce.end();
-            if (ce.hasEdits()) {
-                modifiedEntriesCount++;
-                panel.undoManager.addEdit(ce);
-            }
+        // all changes are one undo step and one change of the database
+        NamedCompound ce = new NamedCompound(Localization.lang("Cleanup entries"));
+        Set<BibtexEntry> modifiedEntries = Collections.newSetFromMap(new IdentityHashMap<BibtexEntry, Boolean>());
+        BibtexDatabase database = panel.database();
+        database.beginBulkChange();
+        try {
+            CleanupEngine.apply(changes);
+        } finally {
+            database.commitBulkChange();
+        }
+        for (FieldChange change : changes) {
+            ce.addEdit(new UndoableFieldChange(change));
+            modifiedEntries.add(change.getEntry());
+        }
+        ce.end();
+        modifiedEntriesCount = modifiedEntries.size();
+        if (ce.hasEdits()) {
+            panel.undoManager.addEdit(ce);
         }
     }
 
@@ -359,106 +394,13 @@ public class CleanUpAction extends AbstractWorker {
     /**
      * Collects file links from the pdf or ps field, and adds them to the list contained in the file field.
      */
-    private void doUpgradePdfPsToFile(BibtexEntry entry, NamedCompound ce) {
-        Util.upgradePdfPsToFile(entry, new String[] {"pdf", "ps"}, ce);
-    }
-
-    /**
-     * Converts the text in 1st, 2nd, ... to real superscripts by wrapping in \textsuperscript{st}, ...
-     */
-    private static void doCleanUpSuperscripts(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(new FormatterCleanup(BibtexFieldFormatters.SUPERSCRIPTS), entry, ce);
-    }
-
-    /**
-     * Removes the http://... for each DOI. Moves DOIs from URL and NOTE filed to DOI field.
-     */
-    private static void doCleanUpDOI(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(new DoiCleanup(), entry, ce);
-    }
+    private static class UpgradePdfPsToFileCleanup implements Cleaner {
 
-    private static void doCleanUpMonth(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(FieldFormatterCleanup.MONTH, entry, ce);
-    }
-
-    private static void doCleanUpPageNumbers(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(FieldFormatterCleanup.PAGE_NUMBERS, entry, ce);
-    }
-
-    private static void fixWrongFileEntries(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(new FileEntryCleaner(), entry, ce);
-    }
-
-    private void doMakePathsRelative(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(new RelativePathsCleanup(panel.metaData().getFileDirectory(Globals.FILE_FIELD)), entry, ce);
-    }
-
-    private void doRenamePDFs(BibtexEntry entry, NamedCompound ce) {
-        String[] paths = panel.metaData().getFileDirectory(Globals.FILE_FIELD);
-        BibtexDatabase database = panel.database();
-        Boolean onlyRelativePaths = cleanUpRenamePDFonlyRelativePaths.isSelected();
-        RenamePdfCleanup cleaner = new RenamePdfCleanup(paths, onlyRelativePaths, database);
-        doCleanup(cleaner, entry, ce);
-        unsuccessfulRenames += cleaner.getUnsuccessfulRenames();
-    }
-
-    /**
-     * Converts HTML code to LaTeX code
-     */
-    private static void doConvertHTML(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(FieldFormatterCleanup.TITLE_HTML, entry, ce);
-    }
-
-    /**
-     * Converts Unicode characters to LaTeX code
-     */
-    private static void doConvertUnicode(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(new UnicodeCleanup(), entry, ce);
-    }
-
-    /**
-     * Adds curly brackets {} around keywords
-     */
-    private static void doConvertCase(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(FieldFormatterCleanup.TITLE_CASE, entry, ce);
-    }
-
-    private static void doConvertUnits(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(FieldFormatterCleanup.TITLE_UNITS, entry, ce);
-    }
-
-    private static void doConvertLaTeX(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(FieldFormatterCleanup.TITLE_LATEX, entry, ce);
-    }
-
-    /**
-     * Converts to BibLatex format
-     */
-    private static void doConvertToBiblatex(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(new BiblatexCleanup(), entry, ce);
-    }
-
-    /**
-     * Format dates correctly (yyyy-mm-dd or yyyy-mm)
-     */
-    private static void doCleanUpDate(BibtexEntry entry, NamedCompound ce) {
-        doCleanup(FieldFormatterCleanup.DATES, entry, ce);
-    }
-
-    /**
-     * Runs the field formatter on the entry and records the change.
-     */
-    private static void doCleanup(Cleaner cleaner, BibtexEntry entry, NamedCompound ce) {
-        // Run cleaner
-        List<FieldChange> changes = cleaner.cleanup(entry);
-
-        if (changes.isEmpty()) {
-            return;
-        }
-
-        // Register undo action
-        for (FieldChange change : changes) {
-            ce.addEdit(new UndoableFieldChange(change));
+        @Override
+        public List<FieldChange> cleanup(BibtexEntry entry) {
+            // the engine determines the changes itself, the undo information is not needed
+            Util.upgradePdfPsToFile(entry, new String[] {"pdf", "ps"}, new NamedCompound(""));
+            return new ArrayList<>();
         }
     }
 }
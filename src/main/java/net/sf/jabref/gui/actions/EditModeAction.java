@@ -1,6 +1,7 @@
 package net.sf.jabref.gui.actions;
 
 import net.sf.jabref.Globals;
+import net.sf.jabref.JabRef;
 import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.logic.l10n.Localization;
 
@@ -21,6 +22,12 @@ public class EditModeAction extends AbstractAction {
             // to Biblatex
             Globals.prefs.putBoolean(JabRefPreferences.BIBLATEX_MODE, true);
         }
+        // the integrity checks depend on the mode
+        if (JabRef.jrf != null) {
+            for (int i = 0; i < JabRef.jrf.getBasePanelCount(); i++) {
+                JabRef.jrf.getBasePanelAt(i).recheckIntegrity();
+            }
+        }
         // update menu label
         putValue(Action.NAME, Localization.menuTitle("Switch to %0 mode", getOppositeMode()));
         // TODO: enable this change per file and without GUI restart
@@ -480,7 +480,7 @@ public class EntryEditor extends JPanel implements VetoableChangeListener, Entry
                 @Override
                 public void actionPerformed(ActionEvent actionEvent) {
                     String text = editor.getText();
-                    if (Abbreviations.journalAbbrev.isKnownName(text)) {
+                    if (Abbreviations.getJournalAbbreviations().isKnownName(text)) {
                         String s = Abbreviations.toggleAbbreviation(text);
 
                         if (s != null) {
@@ -49,7 +49,7 @@ public class AbbreviateAction extends AbstractWorker {
             return;
         }
 
-        UndoableAbbreviator undoableAbbreviator = new UndoableAbbreviator(Abbreviations.journalAbbrev, iso);
+        UndoableAbbreviator undoableAbbreviator = new UndoableAbbreviator(Abbreviations.getJournalAbbreviations(), iso);
 
         NamedCompound ce = new NamedCompound("Abbreviate journal names");
         int count = 0;
@@ -171,7 +171,8 @@ class ManageJournalsPanel extends JPanel {
             public void actionPerformed(ActionEvent e) {
                 JournalAbbreviationRepository abbr = new JournalAbbreviationRepository();
                 abbr.readJournalListFromResource(Abbreviations.JOURNALS_FILE_BUILTIN);
-                JTable table = new JTable(JournalAbbreviationsUtil.getTableModel(Abbreviations.journalAbbrev));
+                JTable table = new JTable(
+                        JournalAbbreviationsUtil.getTableModel(Abbreviations.getJournalAbbreviations()));
                 JScrollPane pane = new JScrollPane(table);
                 JOptionPane.showMessageDialog(null, pane, Localization.lang("Journal list preview"),
                         JOptionPane.INFORMATION_MESSAGE);
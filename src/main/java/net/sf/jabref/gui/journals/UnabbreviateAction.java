@@ -47,7 +47,7 @@ public class UnabbreviateAction extends AbstractWorker {
             return;
         }
 
-        UndoableUnabbreviator undoableAbbreviator = new UndoableUnabbreviator(Abbreviations.journalAbbrev);
+        UndoableUnabbreviator undoableAbbreviator = new UndoableUnabbreviator(Abbreviations.getJournalAbbreviations());
 
         NamedCompound ce = new NamedCompound("Unabbreviate journal names");
         int count = 0;
@@ -15,18 +15,46 @@
 */
 package net.sf.jabref.gui.undo;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoManager;
 import javax.swing.undo.UndoableEdit;
 
 import net.sf.jabref.gui.BasePanel;
+import net.sf.jabref.model.entry.BibtexEntry;
 
+/**
+ * Undo manager which counts the edits since the database was last saved, and keeps the memory held by its edits
+ * below a limit by dropping the oldest ones.
+ * <p>
+ * The memory is estimated when an edit is added (see {@link SizedEdit}), as every change of a field keeps its old and
+ * new value, and every removal keeps the removed entry. It is estimated again when an edit is undone or redone, as
+ * e.g. an undone insertion keeps the entry alive. A single edit larger than the limit is kept anyway, and edits which
+ * can be redone are never dropped.
+ */
 public class CountingUndoManager extends UndoManager {
 
+    public static final long DEFAULT_MEMORY_LIMIT = 64L * 1024 * 1024;
+
+    /**
+     * The estimated size of an edit object itself, and of edits not implementing {@link SizedEdit}
+     */
+    static final long EDIT_SIZE = 64;
+
     private int unchangedPoint;
     private int current;
     private BasePanel panel;
 
+    private long memoryLimit = DEFAULT_MEMORY_LIMIT;
+
+    /**
+     * The estimated size of every edit in the history, and their sum
+     */
+    private final Map<UndoableEdit, Long> sizes = new IdentityHashMap<>();
+    private long memoryUsage;
+
 
     public CountingUndoManager(BasePanel basePanel) {
         super();
@@ -36,21 +64,33 @@ public class CountingUndoManager extends UndoManager {
     @Override
     public synchronized boolean addEdit(UndoableEdit edit) {
         current++;
-        return super.addEdit(edit);
+        boolean added = super.addEdit(edit);
+        if (added && !edits.isEmpty()) {
+            // the new edit is the last one now, unless it was absorbed by the last one
+            account(edits.lastElement());
+            trimForMemoryLimit();
+        }
+        return added;
     }
 
     @Override
     public synchronized void undo() throws CannotUndoException {
         super.undo();
+        accountAgain();
         current--;
-        panel.updateEntryEditorIfShowing();
+        if (panel != null) {
+            panel.updateEntryEditorIfShowing();
+        }
     }
 
     @Override
     public synchronized void redo() throws CannotUndoException {
         super.redo();
+        accountAgain();
         current++;
-        panel.updateEntryEditorIfShowing();
+        if (panel != null) {
+            panel.updateEntryEditorIfShowing();
+        }
     }
 
     public synchronized void markUnchanged() {
@@ -60,4 +100,82 @@ public class CountingUndoManager extends UndoManager {
     public boolean hasChanged() {
         return !(current == unchangedPoint);
     }
+
+    /**
+     * Sets the memory, in bytes, the edits may hold before the oldest ones are dropped.
+     */
+    public synchronized void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        trimForMemoryLimit();
+    }
+
+    public synchronized long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Returns the estimated memory held by the edits, in bytes.
+     */
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    @Override
+    public synchronized void discardAllEdits() {
+        super.discardAllEdits();
+        sizes.clear();
+        memoryUsage = 0;
+    }
+
+    @Override
+    protected void trimEdits(int from, int to) {
+        for (int i = from; i <= to; i++) {
+            Long size = sizes.remove(edits.get(i));
+            if (size != null) {
+                memoryUsage -= size;
+            }
+        }
+        super.trimEdits(from, to);
+    }
+
+    private void account(UndoableEdit edit) {
+        Long previous = sizes.put(edit, sizeOf(edit));
+        memoryUsage += sizes.get(edit) - (previous == null ? 0 : previous);
+    }
+
+    /**
+     * Estimates the edits again after some of them have been undone or redone. The history is short (see
+     * {@link #getLimit()}), so all edits are estimated.
+     */
+    private void accountAgain() {
+        for (UndoableEdit edit : edits) {
+            account(edit);
+        }
+        trimForMemoryLimit();
+    }
+
+    private void trimForMemoryLimit() {
+        // the oldest edit is only dropped if it can be undone, as dropping an edit to be redone would break the redo
+        while ((memoryUsage > memoryLimit) && (edits.size() > 1) && edits.get(0).canUndo()) {
+            trimEdits(0, 0);
+        }
+    }
+
+    static long sizeOf(UndoableEdit edit) {
+        return edit instanceof SizedEdit ? ((SizedEdit) edit).getSize() : EDIT_SIZE;
+    }
+
+    static long sizeOf(String value) {
+        // object header, hash and array header, two bytes per char
+        return value == null ? 0 : 40 + (2L * value.length());
+    }
+
+    static long sizeOf(BibtexEntry entry) {
+        // the field names are shared by all entries
+        long size = EDIT_SIZE;
+        for (String name : entry.getFieldNames()) {
+            size += 16 + sizeOf(entry.getField(name));
+        }
+        return size;
+    }
 }
@@ -20,7 +20,7 @@ import javax.swing.undo.UndoableEdit;
 
 import net.sf.jabref.logic.l10n.Localization;
 
-public class NamedCompound extends CompoundEdit {
+public class NamedCompound extends CompoundEdit implements SizedEdit {
 
     private final String name;
     private boolean hasEdits;
@@ -31,6 +31,15 @@ public class NamedCompound extends CompoundEdit {
         this.name = name;
     }
 
+    @Override
+    public long getSize() {
+        long size = CountingUndoManager.EDIT_SIZE;
+        for (UndoableEdit edit : edits) {
+            size += CountingUndoManager.sizeOf(edit);
+        }
+        return size;
+    }
+
     @Override
     public boolean addEdit(UndoableEdit undoableEdit) {
         hasEdits = true;
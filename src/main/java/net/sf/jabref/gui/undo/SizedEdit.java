@@ -0,0 +1,28 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.gui.undo;
+
+/**
+ * An undoable edit which can estimate how much memory it keeps alive, so that {@link CountingUndoManager} can drop the
+ * oldest edits when the undo history grows too large. Edits not implementing this are counted with a fixed size.
+ */
+public interface SizedEdit {
+
+    /**
+     * Returns an estimate of the memory held by this edit, in bytes.
+     */
+    long getSize();
+}
@@ -0,0 +1,78 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.gui.undo;
+
+/**
+ * A string stored as its difference to another string which is kept anyway, e.g. the old value of a field stored as
+ * its difference to the new value. Editing a long field (an abstract, say) usually changes only a small part of it,
+ * so that the common beginning and end are not stored twice.
+ */
+final class StringDelta {
+
+    private final int prefixLength;
+    private final String middle;
+    private final int suffixLength;
+
+
+    private StringDelta(int prefixLength, String middle, int suffixLength) {
+        this.prefixLength = prefixLength;
+        this.middle = middle;
+        this.suffixLength = suffixLength;
+    }
+
+    /**
+     * Returns the given value as its difference to the given base.
+     */
+    static StringDelta of(String value, String base) {
+        int maxLength = Math.min(value.length(), base.length());
+        int prefix = 0;
+        while ((prefix < maxLength) && (value.charAt(prefix) == base.charAt(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while ((suffix < (maxLength - prefix))
+                && (value.charAt(value.length() - suffix - 1) == base.charAt(base.length() - suffix - 1))) {
+            suffix++;
+        }
+        // substring() copies, so that the delta does not keep the whole value alive
+        return new StringDelta(prefix, value.substring(prefix, value.length() - suffix), suffix);
+    }
+
+    /**
+     * Returns the value this delta was made of, given the same base.
+     */
+    String apply(String base) {
+        StringBuilder value = new StringBuilder(prefixLength + middle.length() + suffixLength);
+        value.append(base, 0, prefixLength);
+        value.append(middle);
+        value.append(base, base.length() - suffixLength, base.length());
+        return value.toString();
+    }
+
+    /**
+     * Returns the number of characters stored.
+     */
+    int getStoredLength() {
+        return middle.length();
+    }
+
+    /**
+     * Returns the estimated memory held by this delta, in bytes.
+     */
+    long getSize() {
+        return 24 + CountingUndoManager.sizeOf(middle);
+    }
+}
@@ -28,13 +28,21 @@ import net.sf.jabref.model.entry.BibtexEntry;
  * This class represents a change in any field value. The relevant
  * information is the BibtexEntry, the field name, the old and the
  * new value. Old/new values can be null.
+ * <p>
+ * A long old value which differs from the new value only in a small part is kept as its difference to the new value.
  */
-public class UndoableFieldChange extends AbstractUndoableEdit {
+public class UndoableFieldChange extends AbstractUndoableEdit implements SizedEdit {
     private static final Log LOGGER = LogFactory.getLog(UndoableFieldChange.class);
 
+    /**
+     * Old values shorter than this are kept as they are
+     */
+    private static final int MIN_DELTA_LENGTH = 256;
+
     private final BibtexEntry entry;
     private final String field;
     private final String oldValue;
+    private final StringDelta oldValueDelta;
     private final String newValue;
 
 
@@ -42,8 +50,17 @@ public class UndoableFieldChange extends AbstractUndoableEdit {
             String oldValue, String newValue) {
         this.entry = entry;
         this.field = field;
-        this.oldValue = oldValue;
         this.newValue = newValue;
+        StringDelta delta = null;
+        if ((oldValue != null) && (newValue != null) && (oldValue.length() >= MIN_DELTA_LENGTH)) {
+            delta = StringDelta.of(oldValue, newValue);
+            if (delta.getStoredLength() > (oldValue.length() / 2)) {
+                // not worth it, e.g. the whole value was replaced
+                delta = null;
+            }
+        }
+        this.oldValueDelta = delta;
+        this.oldValue = delta == null ? oldValue : null;
     }
 
     public UndoableFieldChange(FieldChange change) {
@@ -71,14 +88,21 @@ public class UndoableFieldChange extends AbstractUndoableEdit {
         // @formatter:on
     }
 
+    @Override
+    public long getSize() {
+        long oldValueSize = oldValueDelta == null ? CountingUndoManager.sizeOf(oldValue) : oldValueDelta.getSize();
+        return CountingUndoManager.EDIT_SIZE + oldValueSize + CountingUndoManager.sizeOf(newValue);
+    }
+
     @Override
     public void undo() {
         super.undo();
 
         // Revert the change.
         try {
-            if (oldValue != null) {
-                entry.setField(field, oldValue);
+            String value = oldValueDelta == null ? oldValue : oldValueDelta.apply(newValue);
+            if (value != null) {
+                entry.setField(field, value);
             } else {
                 entry.clearField(field);
             }
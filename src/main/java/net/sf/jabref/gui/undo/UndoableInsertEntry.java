@@ -28,7 +28,7 @@ import net.sf.jabref.model.entry.BibtexEntry;
  * The latter to be able to close the entry's editor if it is opened before
  * the insert is undone.
  */
-public class UndoableInsertEntry extends AbstractUndoableEdit {
+public class UndoableInsertEntry extends AbstractUndoableEdit implements SizedEdit {
 
     private final BibtexDatabase base;
     private final BibtexEntry entry;
@@ -42,6 +42,15 @@ public class UndoableInsertEntry extends AbstractUndoableEdit {
         this.panel = panel;
     }
 
+    @Override
+    public long getSize() {
+        // the entry is only kept alive by this edit once the insertion is undone
+        if (canRedo()) {
+            return CountingUndoManager.EDIT_SIZE + CountingUndoManager.sizeOf(entry);
+        }
+        return CountingUndoManager.EDIT_SIZE;
+    }
+
     @Override
     public String getUndoPresentationName() {
         return "Undo: insert entry";
@@ -60,7 +69,9 @@ public class UndoableInsertEntry extends AbstractUndoableEdit {
         try {
             base.removeEntry(entry.getId());
             // If the entry has an editor currently open, we must close it.
-            panel.ensureNotShowing(entry);
+            if (panel != null) {
+                panel.ensureNotShowing(entry);
+            }
         } catch (Throwable ex) {
             ex.printStackTrace();
         }
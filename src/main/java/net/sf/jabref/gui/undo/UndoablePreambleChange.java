@@ -26,7 +26,7 @@ import net.sf.jabref.logic.l10n.Localization;
  * information is the BibtexEntry, the field name, the old and the
  * new value. Old/new values can be null.
  */
-public class UndoablePreambleChange extends AbstractUndoableEdit {
+public class UndoablePreambleChange extends AbstractUndoableEdit implements SizedEdit {
 
     private final BibtexDatabase base;
     private final String oldValue;
@@ -42,6 +42,12 @@ public class UndoablePreambleChange extends AbstractUndoableEdit {
         this.panel = panel;
     }
 
+    @Override
+    public long getSize() {
+        return CountingUndoManager.EDIT_SIZE + CountingUndoManager.sizeOf(oldValue)
+                + CountingUndoManager.sizeOf(newValue);
+    }
+
     @Override
     public String getUndoPresentationName() {
         // @formatter:off
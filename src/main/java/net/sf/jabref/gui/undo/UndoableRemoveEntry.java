@@ -28,7 +28,7 @@ import net.sf.jabref.model.entry.BibtexEntry;
  * The latter to be able to close the entry's editor if it is opened after
  * an undo, and the removal is then undone.
  */
-public class UndoableRemoveEntry extends AbstractUndoableEdit {
+public class UndoableRemoveEntry extends AbstractUndoableEdit implements SizedEdit {
 
     private final BibtexDatabase base;
     private final BibtexEntry entry;
@@ -42,6 +42,15 @@ public class UndoableRemoveEntry extends AbstractUndoableEdit {
         this.panel = panel;
     }
 
+    @Override
+    public long getSize() {
+        // the removed entry is only kept alive by this edit, until the removal is undone
+        if (canRedo()) {
+            return CountingUndoManager.EDIT_SIZE;
+        }
+        return CountingUndoManager.EDIT_SIZE + CountingUndoManager.sizeOf(entry);
+    }
+
     @Override
     public String getUndoPresentationName() {
         return "Undo: remove entry";
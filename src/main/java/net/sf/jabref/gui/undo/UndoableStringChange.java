@@ -21,7 +21,7 @@ import net.sf.jabref.gui.BasePanel;
 import net.sf.jabref.model.entry.BibtexString;
 import net.sf.jabref.logic.l10n.Localization;
 
-public class UndoableStringChange extends AbstractUndoableEdit {
+public class UndoableStringChange extends AbstractUndoableEdit implements SizedEdit {
 
     private final BibtexString string;
     private final String oldValue;
@@ -40,6 +40,12 @@ public class UndoableStringChange extends AbstractUndoableEdit {
         this.panel = panel;
     }
 
+    @Override
+    public long getSize() {
+        return CountingUndoManager.EDIT_SIZE + CountingUndoManager.sizeOf(oldValue)
+                + CountingUndoManager.sizeOf(newValue);
+    }
+
     @Override
     public String getUndoPresentationName() {
         // @formatter:off
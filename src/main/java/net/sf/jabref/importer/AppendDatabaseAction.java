@@ -137,15 +137,20 @@ public class AppendDatabaseAction implements BaseAction {
             boolean overwriteOwner = Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_OWNER);
             boolean overwriteTimeStamp = Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_TIME_STAMP);
 
-            for (String key : fromDatabase.getKeySet()) {
-                originalEntry = fromDatabase.getEntryById(key);
-                BibtexEntry be = (BibtexEntry) originalEntry.clone();
-                be.setId(IdGenerator.next());
-                Util.setAutomaticFields(be, overwriteOwner, overwriteTimeStamp);
-                database.insertEntry(be);
-                appendedEntries.add(be);
-                originalEntries.add(originalEntry);
-                ce.addEdit(new UndoableInsertEntry(database, be, panel));
+            database.beginBulkChange();
+            try {
+                for (String key : fromDatabase.getKeySet()) {
+                    originalEntry = fromDatabase.getEntryById(key);
+                    BibtexEntry be = (BibtexEntry) originalEntry.clone();
+                    be.setId(IdGenerator.next());
+                    Util.setAutomaticFields(be, overwriteOwner, overwriteTimeStamp);
+                    database.insertEntry(be);
+                    appendedEntries.add(be);
+                    originalEntries.add(originalEntry);
+                    ce.addEdit(new UndoableInsertEntry(database, be, panel));
+                }
+            } finally {
+                database.commitBulkChange();
             }
         }
 
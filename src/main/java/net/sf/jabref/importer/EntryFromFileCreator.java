@@ -104,6 +104,15 @@ public abstract class EntryFromFileCreator implements java.io.FileFilter {
             return null;
         }
 
+        completeEntry(newEntry, f, addPathTokensAsKeywords);
+        return newEntry;
+    }
+
+    /**
+     * Adds the information regarding the given File to an entry created from it: the link to the file, a title if
+     * there is none and optionally the path as keywords.
+     */
+    void completeEntry(BibtexEntry newEntry, File f, boolean addPathTokensAsKeywords) {
         if (addPathTokensAsKeywords) {
             appendToField(newEntry, "keywords", extractPathesToKeyWordsfield(f.getAbsolutePath()));
         }
@@ -113,7 +122,6 @@ public abstract class EntryFromFileCreator implements java.io.FileFilter {
         }
 
         addFileInfo(newEntry, f);
-        return newEntry;
     }
 
     /** Returns the ExternalFileType that is imported here */
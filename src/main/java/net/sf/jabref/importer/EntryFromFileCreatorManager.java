@@ -33,6 +33,7 @@ import net.sf.jabref.model.entry.EntryType;
 import net.sf.jabref.model.entry.IdGenerator;
 import net.sf.jabref.model.database.BibtexDatabase;
 import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.pdfimport.PdfImportPipeline;
 
 /**
  * The class EntryFromFileCreatorManager manages entry creators.
@@ -134,9 +135,13 @@ public final class EntryFromFileCreatorManager {
 
         int count = 0;
         CompoundEdit ce = new CompoundEdit();
+        List<File> pdfFiles = new ArrayList<>();
         for (File f : files) {
             EntryFromFileCreator creator = getEntryCreator(f);
-            if (creator != null) {
+            if (creator instanceof EntryFromPDFCreator) {
+                // imported together below
+                pdfFiles.add(f);
+            } else if (creator != null) {
                 BibtexEntry entry = creator.createEntry(f,
                         generateKeywordsFromPathToFile);
                 if (entry == null) {
@@ -178,6 +183,9 @@ public final class EntryFromFileCreatorManager {
             }
         }
 
+        count += addEntriesFromPdfFiles(pdfFiles, database, panel, entryType, generateKeywordsFromPathToFile,
+                changeListener, importGUIMessages, ce);
+
         System.out.println("count = " + count);
         if ((count > 0) && (panel != null)) {
             System.out.println("adding edit");
@@ -188,6 +196,59 @@ public final class EntryFromFileCreatorManager {
 
     }
 
+    /**
+     * Imports PDF files with a {@link PdfImportPipeline}, which reads the metadata of several files concurrently and
+     * does not ask the user how to import each file.
+     *
+     * @return the number of entries added
+     */
+    private int addEntriesFromPdfFiles(List<File> files, BibtexDatabase database, BasePanel panel,
+            final EntryType entryType, final boolean generateKeywordsFromPathToFile,
+            final ChangeListener changeListener, final List<String> importGUIMessages, CompoundEdit ce) {
+        if (files.isEmpty()) {
+            return 0;
+        }
+
+        final EntryFromFileCreator creator = getEntryCreator(files.get(0));
+        List<BibtexEntry> entries;
+        try {
+            entries = new PdfImportPipeline(JabRef.jrf).importInto(files, database, new PdfImportPipeline.Listener() {
+
+                @Override
+                public void imported(File file, BibtexEntry entry) {
+                    creator.completeEntry(entry, file, generateKeywordsFromPathToFile);
+                    if (entryType != null) {
+                        entry.setType(entryType);
+                    }
+                    fireStateChanged();
+                }
+
+                @Override
+                public void failed(File file, Exception exception) {
+                    importGUIMessages.add("Problem importing " + file.getPath() + ": " + exception.getMessage());
+                    fireStateChanged();
+                }
+
+                private void fireStateChanged() {
+                    if (changeListener != null) {
+                        changeListener.stateChanged(new ChangeEvent(EntryFromFileCreatorManager.this));
+                    }
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            importGUIMessages.add("Import of PDF files interrupted.");
+            return 0;
+        }
+
+        if (panel != null) {
+            for (BibtexEntry entry : entries) {
+                ce.addEdit(new UndoableInsertEntry(database, entry, panel));
+            }
+        }
+        return entries.size();
+    }
+
     /**
      * Returns a {@link FileFilter} instance which will accept all files, for
      * which a {@link EntryFromFileCreator} exists, that accepts the files. <br>
@@ -19,6 +19,10 @@ import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import net.sf.jabref.importer.fileformat.*;
 import net.sf.jabref.model.entry.IdGenerator;
@@ -38,6 +42,11 @@ public class ImportFormatReader {
      */
     private final SortedSet<ImportFormat> formats = new TreeSet<>();
 
+    /**
+     * Number of bytes at the beginning of a file of unknown format from which its format is guessed
+     */
+    private static final int SNIFFING_LENGTH = 64 * 1024;
+
     private static final Log LOGGER = LogFactory.getLog(ImportFormatReader.class);
 
 
@@ -129,14 +138,33 @@ public class ImportFormatReader {
 
     public List<BibtexEntry> importFromFile(ImportFormat importer, String filename, OutputPrinter status) throws IOException {
         File file = new File(filename);
+        checkFormat(importer, file);
+
+        // isRecognizedFormat has consumed the first stream
+        try (InputStream stream = new FileInputStream(file)) {
+            return importer.importEntries(stream, status);
+        }
+    }
+
+    /**
+     * Imports the file and passes every entry to the consumer as soon as it has been read, instead of collecting all
+     * entries first. See {@link ImportFormat#importEntries(InputStream, OutputPrinter, Consumer)}.
+     */
+    public void importFromFile(ImportFormat importer, String filename, OutputPrinter status,
+            Consumer<BibtexEntry> consumer) throws IOException {
+        File file = new File(filename);
+        checkFormat(importer, file);
 
         try (InputStream stream = new FileInputStream(file)) {
+            importer.importEntries(stream, status, consumer);
+        }
+    }
 
+    private static void checkFormat(ImportFormat importer, File file) throws IOException {
+        try (InputStream stream = new FileInputStream(file)) {
             if (!importer.isRecognizedFormat(stream)) {
                 throw new IOException("Wrong file format");
             }
-
-            return importer.importEntries(stream, status);
         }
     }
 
@@ -386,8 +414,13 @@ public class ImportFormatReader {
 
 
     /**
-     * Tries to import a file by iterating through the available import filters,
-     * and keeping the import that seems most promising.
+     * Tries to import a file with the import filters which are most likely to fit, and keeps the import that seems
+     * most promising.
+     * <p>
+     * The beginning of the file is read once, and every import filter estimates from it how likely the file is in its
+     * format (see {@link ImportFormat#getConfidence(byte[])}). Only the filters with the highest confidence do a full
+     * import, in parallel if there are several of them. If none of them finds an entry, the filters with the next
+     * lower confidence are tried. Filters which rule the file out are never run.
      * <p>
      * If all fails this method attempts to read this file as bibtex.
      *
@@ -400,40 +433,28 @@ public class ImportFormatReader {
         // we expect failures and do not want to report them to the user
         OutputPrinterToNull nullOutput = new OutputPrinterToNull();
 
-        // stores ref to best result, gets updated at the next loop
-        List<BibtexEntry> bestResult = null;
-        int bestResultCount = 0;
-        String bestFormatName = null;
+        byte[] prefix;
+        try {
+            prefix = readPrefix(new File(filename));
+        } catch (IOException ex) {
+            LOGGER.info("Cannot read " + filename, ex);
+            return null;
+        }
 
-        // Cycle through all importers:
+        // Group the importers by their confidence, highest first:
+        SortedMap<Integer, List<ImportFormat>> candidates = new TreeMap<>(Collections.reverseOrder());
         for (ImportFormat imFo : getImportFormats()) {
-
-            try {
-
-                List<BibtexEntry> entries = importFromFile(imFo, filename, nullOutput);
-
-                int entryCount;
-                if (entries == null) {
-                    entryCount = 0;
-                } else {
-                    ImportFormatReader.purgeEmptyEntries(entries);
-                    entryCount = entries.size();
-                }
-
-                if (entryCount > bestResultCount) {
-                    bestResult = entries;
-                    bestResultCount = bestResult.size();
-                    bestFormatName = imFo.getFormatName();
-                }
-            } catch (IOException ex) {
-                // The import didn't succeed. Go on.
+            int confidence = imFo.getConfidence(prefix);
+            if (confidence > ImportFormat.CONFIDENCE_NONE) {
+                candidates.computeIfAbsent(confidence, key -> new ArrayList<>()).add(imFo);
             }
         }
 
-        if (bestResult != null) {
-            // we found something
-            ParserResult parserResult = new ParserResult(bestResult);
-            return new UnknownFormatImport(bestFormatName, parserResult);
+        for (List<ImportFormat> importers : candidates.values()) {
+            UnknownFormatImport result = importWithBestFormat(importers, filename, nullOutput);
+            if (result != null) {
+                return result;
+            }
         }
 
         // Finally, if all else fails, see if it is a BibTeX file:
@@ -451,4 +472,83 @@ public class ImportFormatReader {
 
         return null;
     }
+
+    /**
+     * Imports the file with all given importers and returns the result with the most entries, or null if no importer
+     * found an entry.
+     */
+    private static UnknownFormatImport importWithBestFormat(List<ImportFormat> importers, final String filename,
+            final OutputPrinter status) {
+        List<Future<List<BibtexEntry>>> results = new ArrayList<>();
+        if (importers.size() > 1) {
+            for (final ImportFormat importer : importers) {
+                results.add(JabRefExecutorService.INSTANCE.submit(new Callable<List<BibtexEntry>>() {
+
+                    @Override
+                    public List<BibtexEntry> call() throws IOException {
+                        return importEntries(importer, filename, status);
+                    }
+                }));
+            }
+        }
+
+        // stores ref to best result, gets updated at the next loop
+        List<BibtexEntry> bestResult = null;
+        String bestFormatName = null;
+
+        for (int i = 0; i < importers.size(); i++) {
+            ImportFormat importer = importers.get(i);
+            List<BibtexEntry> entries;
+            try {
+                if (results.isEmpty()) {
+                    entries = importEntries(importer, filename, status);
+                } else {
+                    entries = results.get(i).get();
+                }
+            } catch (IOException | ExecutionException ex) {
+                // The import didn't succeed. Go on.
+                continue;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (!entries.isEmpty() && ((bestResult == null) || (entries.size() > bestResult.size()))) {
+                bestResult = entries;
+                bestFormatName = importer.getFormatName();
+            }
+        }
+
+        if (bestResult == null) {
+            return null;
+        }
+        return new UnknownFormatImport(bestFormatName, new ParserResult(bestResult));
+    }
+
+    private static List<BibtexEntry> importEntries(ImportFormat importer, String filename, OutputPrinter status)
+            throws IOException {
+        try (InputStream stream = new FileInputStream(filename)) {
+            List<BibtexEntry> entries = importer.importEntries(stream, status);
+            if (entries == null) {
+                return Collections.emptyList();
+            }
+            ImportFormatReader.purgeEmptyEntries(entries);
+            return entries;
+        }
+    }
+
+    /**
+     * Reads the part of the file the import formats are recognized by.
+     */
+    private static byte[] readPrefix(File file) throws IOException {
+        try (InputStream stream = new FileInputStream(file)) {
+            byte[] buffer = new byte[SNIFFING_LENGTH];
+            int length = 0;
+            int read;
+            while ((length < buffer.length) && ((read = stream.read(buffer, length, buffer.length - length)) > 0)) {
+                length += read;
+            }
+            return Arrays.copyOf(buffer, length);
+        }
+    }
 }
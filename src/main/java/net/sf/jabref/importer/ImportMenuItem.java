@@ -21,11 +21,14 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import net.sf.jabref.*;
 import net.sf.jabref.gui.*;
@@ -67,6 +70,10 @@ public class ImportMenuItem extends JMenuItem implements ActionListener {
 
     @Override
     public void actionPerformed(ActionEvent e) {
+        if ((importer != null) && !openInNew && (frame.getCurrentBasePanel() != null)) {
+            importIntoInspectionDialog();
+            return;
+        }
         MyWorker worker = new MyWorker();
         worker.init();
         worker.getWorker().run();
@@ -88,6 +95,80 @@ public class ImportMenuItem extends JMenuItem implements ActionListener {
     }
 
 
+    /**
+     * Imports the chosen files with the selected import format, and shows every entry in the import inspection dialog
+     * as soon as it has been read, instead of waiting until all files are imported.
+     */
+    private void importIntoInspectionDialog() {
+        final String[] filenames = FileDialogs.getMultipleFiles(frame,
+                new File(Globals.prefs.get(JabRefPreferences.WORKING_DIRECTORY)), importer.getExtensions(), true);
+        if ((filenames == null) || (filenames.length == 0)) {
+            return;
+        }
+        Globals.prefs.put(JabRefPreferences.WORKING_DIRECTORY, filenames[0]);
+        frame.output(Localization.lang("Starting import"));
+
+        final boolean overwriteOwner = Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_OWNER);
+        final boolean overwriteTimeStamp = Globals.prefs.getBoolean(JabRefPreferences.OVERWRITE_TIME_STAMP);
+        final boolean markEntries = Globals.prefs.getBoolean(JabRefPreferences.MARK_IMPORTED_ENTRIES);
+        final ImportInspectionDialog dialog = new ImportInspectionDialog(frame, frame.getCurrentBasePanel(),
+                BibtexFields.DEFAULT_INSPECTION_FIELDS, Localization.lang("Import"), false);
+        PositionWindow.placeDialog(dialog, frame);
+        dialog.setVisible(true);
+
+        JabRefExecutorService.INSTANCE.execute(new Runnable() {
+
+            private int imported;
+
+
+            @Override
+            public void run() {
+                IOException error = null;
+                for (String filename : filenames) {
+                    try {
+                        Globals.importFormatReader.importFromFile(importer, filename, frame,
+                                new Consumer<BibtexEntry>() {
+
+                                    @Override
+                                    public void accept(BibtexEntry entry) {
+                                        // empty entries are dropped, like in a complete import
+                                        if (entry.getFieldNames().isEmpty()) {
+                                            return;
+                                        }
+                                        Util.setAutomaticFields(Collections.singletonList(entry), overwriteOwner,
+                                                overwriteTimeStamp, markEntries);
+                                        dialog.addEntry(entry);
+                                        imported++;
+                                    }
+                                });
+                    } catch (IOException e) {
+                        error = e;
+                    }
+                }
+
+                final IOException importError = error;
+                final boolean found = imported > 0;
+                SwingUtilities.invokeLater(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (found) {
+                            dialog.entryListComplete();
+                            return;
+                        }
+                        dialog.dispose();
+                        String message = importError == null ? Localization.lang(
+                                "No entries found. Please make sure you are using the correct import filter.")
+                                : importError.getMessage();
+                        JOptionPane.showMessageDialog(frame, message, Localization.lang("Import failed"),
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                });
+            }
+        });
+    }
+
+
     class MyWorker extends AbstractWorker {
 
         String[] filenames;
@@ -42,7 +42,7 @@ import net.sf.jabref.migrations.FileLinksUpgradeWarning;
 import net.sf.jabref.importer.fileformat.BibtexParser;
 import net.sf.jabref.logic.l10n.Localization;
 import net.sf.jabref.model.database.BibtexDatabase;
-import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.database.KeywordIndex;
 import net.sf.jabref.specialfields.SpecialFieldsUtils;
 import net.sf.jabref.logic.util.io.FileBasedLock;
 import net.sf.jabref.logic.util.strings.StringUtil;
@@ -403,9 +403,10 @@ public class OpenDatabaseAction extends MnemonicAwareAction {
             result.setFile(fileToOpen);
 
             if (SpecialFieldsUtils.keywordSyncEnabled()) {
-                for (BibtexEntry entry : result.getDatabase().getEntries()) {
-                    SpecialFieldsUtils.syncSpecialFieldsFromKeywords(entry, null);
-                }
+                BibtexDatabase database = result.getDatabase();
+                KeywordIndex keywordIndex = new KeywordIndex(database);
+                SpecialFieldsUtils.syncSpecialFieldsFromKeywords(database, keywordIndex, null);
+                database.removeDatabaseChangeListener(keywordIndex);
                 LOGGER.info("Synchronized special fields based on keywords");
             }
 
@@ -1,15 +1,18 @@
 package net.sf.jabref.importer.fetcher;
 
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
+import net.sf.jabref.logic.net.URLDownload;
 import net.sf.jabref.logic.util.DOI;
 import net.sf.jabref.model.entry.BibtexEntry;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
 
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -36,12 +39,12 @@ public class CrossRef {
         }
 
         try {
-            HttpResponse<JsonNode> response = Unirest.get(API_URL + "/works")
-                    .queryString("query", title)
-                    .queryString("rows", "1")
-                    .asJson();
+            // downloaded through the HTTP cache, so that a repeated lookup does not query CrossRef again
+            URL url = new URL(API_URL + "/works?query=" + URLEncoder.encode(title, StandardCharsets.UTF_8.name())
+                    + "&rows=1");
+            JSONObject response = new JSONObject(new URLDownload(url).downloadToString(StandardCharsets.UTF_8));
 
-            JSONArray items = response.getBody().getObject().getJSONObject("message").getJSONArray("items");
+            JSONArray items = response.getJSONObject("message").getJSONArray("items");
             String dataTitle = items.getJSONObject(0).getJSONArray("title").getString(0);
             String dataDOI = items.getJSONObject(0).getString("DOI");
             // Only return if entry.title == result.title
@@ -49,7 +52,7 @@ public class CrossRef {
                 LOGGER.info("DOI " + dataDOI + "for " + title + "found.");
                 return DOI.build(dataDOI);
             }
-        } catch (UnirestException e) {
+        } catch (IOException | JSONException e) {
             LOGGER.warn("Unable to query CrossRef API: " + e.getMessage());
         }
         return doi;
@@ -19,20 +19,25 @@ package net.sf.jabref.importer.fetcher;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 
 import javax.swing.JPanel;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import net.sf.jabref.importer.*;
 import net.sf.jabref.importer.fileformat.BibtexParser;
+import net.sf.jabref.logic.net.FetchExecutor;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.util.Util;
 import net.sf.jabref.bibtex.DuplicateCheck;
 
 public class DBLPFetcher implements EntryFetcher {
 
+    private static final Log LOGGER = LogFactory.getLog(DBLPFetcher.class);
+
     private static final String URL_START = "http://www.dblp.org/search/api/";
     private static final String URL_PART1 = "?q=";
     private static final String URL_END = "&h=1000&c=4&f=0&format=json";
@@ -89,49 +94,47 @@ public class DBLPFetcher implements EntryFetcher {
             // we find this in the page which we get from "url"
             // and this bib file is then in "biburl"
 
-            int count = 1;
+            List<URL> bibtexUrls = new ArrayList<>(bibtexUrlList.size());
             for (String urlStr : bibtexUrlList) {
-                if (!shouldContinue) {
-                    break;
-                }
-
-                final URL bibUrl = new URL(urlStr);
-
-                final String bibtexHTMLPage = Util.getResults(bibUrl);
-
-                final String[] htmlLines = bibtexHTMLPage.split("\n");
-
-                for (final String line : htmlLines) {
-                    if (line.contains("biburl")) {
-                        int sidx = line.indexOf("{");
-                        int eidx = line.indexOf("}");
-                        // now we take everything within the curley braces
-                        String bibtexUrl = line.substring(sidx + 1, eidx);
+                bibtexUrls.add(new URL(urlStr));
+            }
 
-                        // we do not access dblp.uni-trier.de as they will complain
-                        bibtexUrl = bibtexUrl.replace("dblp.uni-trier.de", "www.dblp.org");
+            // the records are downloaded concurrently, but added in the order of the search result
+            final int total = bibtexUrls.size();
+            FetchExecutor.getInstance().fetchInOrder(bibtexUrls, new FetchExecutor.Download<List<BibtexEntry>>() {
 
-                        final URL bibFileURL = new URL(bibtexUrl);
-                        //System.out.println("URL:|"+bibtexUrl+"|");
-                        final String bibtexPage = Util.getResults(bibFileURL);
+                @Override
+                public List<BibtexEntry> download(URL bibUrl) throws IOException {
+                    return downloadEntries(bibUrl);
+                }
+            }, new FetchExecutor.Receiver<List<BibtexEntry>>() {
 
-                        Collection<BibtexEntry> bibtexEntries = BibtexParser.fromString(bibtexPage);
+                private int count = 1;
 
-                        for (BibtexEntry be : bibtexEntries) {
 
-                            if (!bibentryKnown.containsKey(be.getCiteKey())) {
+                @Override
+                public boolean received(URL url, List<BibtexEntry> bibtexEntries) {
+                    for (BibtexEntry be : bibtexEntries) {
 
-                                inspector.addEntry(be);
-                                bibentryKnown.put(be.getCiteKey(), true);
-                            }
+                        if (!bibentryKnown.containsKey(be.getCiteKey())) {
 
+                            inspector.addEntry(be);
+                            bibentryKnown.put(be.getCiteKey(), true);
                         }
+
                     }
+                    inspector.setProgress(count, total);
+                    count++;
+                    return shouldContinue;
                 }
 
-                inspector.setProgress(count, bibtexUrlList.size());
-                count++;
-            }
+                @Override
+                public boolean failed(URL url, IOException exception) {
+                    LOGGER.warn("Could not download " + url, exception);
+                    count++;
+                    return shouldContinue;
+                }
+            });
 
             DuplicateCheck.duplicateThreshold = saveThreshold;
 
@@ -141,11 +144,42 @@ public class DBLPFetcher implements EntryFetcher {
         } catch (IOException e) {
             e.printStackTrace();
             status.showMessage(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
         return res;
     }
 
+    /**
+     * Downloads the entries of one search result. The page of the result links the bib file.
+     */
+    private static List<BibtexEntry> downloadEntries(URL bibUrl) throws IOException {
+        List<BibtexEntry> entries = new ArrayList<>();
+        final String bibtexHTMLPage = FetchExecutor.download(bibUrl, null);
+
+        final String[] htmlLines = bibtexHTMLPage.split("\n");
+
+        for (final String line : htmlLines) {
+            if (line.contains("biburl")) {
+                int sidx = line.indexOf("{");
+                int eidx = line.indexOf("}");
+                // now we take everything within the curley braces
+                String bibtexUrl = line.substring(sidx + 1, eidx);
+
+                // we do not access dblp.uni-trier.de as they will complain
+                bibtexUrl = bibtexUrl.replace("dblp.uni-trier.de", "www.dblp.org");
+
+                final URL bibFileURL = new URL(bibtexUrl);
+                //System.out.println("URL:|"+bibtexUrl+"|");
+                final String bibtexPage = FetchExecutor.download(bibFileURL, null);
+
+                entries.addAll(BibtexParser.fromString(bibtexPage));
+            }
+        }
+        return entries;
+    }
+
     private String makeSearchURL() {
         StringBuilder sb = new StringBuilder(DBLPFetcher.URL_START).append(DBLPFetcher.URL_PART1);
         String cleanedQuery = helper.cleanDBLPQuery(query);
@@ -405,7 +405,8 @@ public class IEEEXploreFetcher implements EntryFetcher {
 
                 fullName = fullName.trim();
                 if (Globals.prefs.getBoolean(JabRefPreferences.USE_IEEE_ABRV)) {
-                    fullName = Abbreviations.journalAbbrev.getMedlineAbbreviation(fullName).orElse(fullName);
+                    fullName = Abbreviations.getJournalAbbreviations().getMedlineAbbreviation(fullName)
+                            .orElse(fullName);
                 }
             }
             if ("Inproceedings".equals(type.getName())) {
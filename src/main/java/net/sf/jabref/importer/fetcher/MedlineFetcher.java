@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -31,6 +32,7 @@ import net.sf.jabref.gui.GUIGlobals;
 import net.sf.jabref.importer.ImportInspector;
 import net.sf.jabref.importer.fileformat.MedlineImporter;
 import net.sf.jabref.importer.OutputPrinter;
+import net.sf.jabref.logic.net.FetchExecutor;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.logic.l10n.Localization;
 
@@ -66,7 +68,7 @@ public class MedlineFetcher implements EntryFetcher {
      */
     private static final int PACING = 20;
 
-    private boolean shouldContinue;
+    private volatile boolean shouldContinue;
 
     OutputPrinter frame;
 
@@ -88,15 +90,27 @@ public class MedlineFetcher implements EntryFetcher {
         return in;
     }
 
+    private static URL makeSearchURL(String term, int start, int pacing) throws MalformedURLException {
+        String baseUrl = "http://eutils.ncbi.nlm.nih.gov/entrez/eutils";
+        String medlineUrl = baseUrl + "/esearch.fcgi?db=pubmed&retmax=" + Integer.toString(pacing) +
+                "&retstart=" + Integer.toString(start) + "&term=";
+        return new URL(medlineUrl + term);
+    }
+
     /**
      * Gets the initial list of ids
      */
     private SearchResult getIds(String term, int start, int pacing) {
+        try {
+            return getIds(MedlineFetcher.makeSearchURL(term, start, pacing));
+        } catch (MalformedURLException e) { // new URL() failed
+            System.out.println("bad url");
+            e.printStackTrace();
+            return new SearchResult();
+        }
+    }
 
-        String baseUrl = "http://eutils.ncbi.nlm.nih.gov/entrez/eutils";
-        String medlineUrl = baseUrl + "/esearch.fcgi?db=pubmed&retmax=" + Integer.toString(pacing) +
-                "&retstart=" + Integer.toString(start) + "&term=";
-
+    private static SearchResult getIds(URL ncbi) {
         Pattern idPattern = Pattern.compile("<Id>(\\d+)</Id>");
         Pattern countPattern = Pattern.compile("<Count>(\\d+)<\\/Count>");
         Pattern retMaxPattern = Pattern.compile("<RetMax>(\\d+)<\\/RetMax>");
@@ -104,10 +118,8 @@ public class MedlineFetcher implements EntryFetcher {
 
         boolean doCount = true;
         SearchResult result = new SearchResult();
-        try {
-            URL ncbi = new URL(medlineUrl + term);
-            // get the ids
-            BufferedReader in = new BufferedReader(new InputStreamReader(ncbi.openStream()));
+        // get the ids
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(ncbi.openStream()))) {
             String inLine;
             while ((inLine = in.readLine()) != null) {
 
@@ -130,9 +142,6 @@ public class MedlineFetcher implements EntryFetcher {
                     doCount = false;
                 }
             }
-        } catch (MalformedURLException e) { // new URL() failed
-            System.out.println("bad url");
-            e.printStackTrace();
         } catch (IOException e) { // openConnection() failed
             System.out.println("connection failed");
             e.printStackTrace();
@@ -163,7 +172,7 @@ public class MedlineFetcher implements EntryFetcher {
     }
 
     @Override
-    public boolean processQuery(String query, ImportInspector iIDialog, OutputPrinter frameOP) {
+    public boolean processQuery(String query, final ImportInspector iIDialog, final OutputPrinter frameOP) {
 
         shouldContinue = true;
 
@@ -220,21 +229,51 @@ public class MedlineFetcher implements EntryFetcher {
                 }
             }
 
-            for (int i = 0; i < numberToFetch; i += MedlineFetcher.PACING) {
-                if (!shouldContinue) {
-                    break;
+            // the pages are fetched concurrently, but added in order
+            List<URL> pages = new ArrayList<>();
+            try {
+                for (int i = 0; i < numberToFetch; i += MedlineFetcher.PACING) {
+                    pages.add(MedlineFetcher.makeSearchURL(searchTerm, i,
+                            Math.min(MedlineFetcher.PACING, numberToFetch - i)));
                 }
+            } catch (MalformedURLException e) {
+                e.printStackTrace();
+                return false;
+            }
+
+            final int total = numberToFetch;
+            try {
+                FetchExecutor.getInstance().fetchInOrder(pages, new FetchExecutor.Download<List<BibtexEntry>>() {
 
-                int noToFetch = Math.min(MedlineFetcher.PACING, numberToFetch - i);
+                    @Override
+                    public List<BibtexEntry> download(URL page) {
+                        // get the ids from entrez
+                        return MedlineImporter.fetchMedline(MedlineFetcher.getIds(page).ids, frameOP);
+                    }
+                }, new FetchExecutor.Receiver<List<BibtexEntry>>() {
 
-                // get the ids from entrez
-                result = getIds(searchTerm, i, noToFetch);
+                    private int fetched;
 
-                List<BibtexEntry> bibs = MedlineImporter.fetchMedline(result.ids, frameOP);
-                for (BibtexEntry entry : bibs) {
-                    iIDialog.addEntry(entry);
-                }
-                iIDialog.setProgress(i + noToFetch, numberToFetch);
+
+                    @Override
+                    public boolean received(URL page, List<BibtexEntry> bibs) {
+                        for (BibtexEntry entry : bibs) {
+                            iIDialog.addEntry(entry);
+                        }
+                        fetched = Math.min(fetched + MedlineFetcher.PACING, total);
+                        iIDialog.setProgress(fetched, total);
+                        return shouldContinue;
+                    }
+
+                    @Override
+                    public boolean failed(URL page, IOException exception) {
+                        // not thrown, fetchMedline returns no entries instead
+                        return shouldContinue;
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
             }
             return true;
         }
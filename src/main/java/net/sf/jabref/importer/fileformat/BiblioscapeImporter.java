@@ -58,6 +58,14 @@ public class BiblioscapeImporter extends ImportFormat {
         return true;
     }
 
+    /**
+     * The format has no header, so every file might be a Biblioscape file.
+     */
+    @Override
+    public int getConfidence(byte[] prefix) {
+        return CONFIDENCE_POSSIBLE;
+    }
+
     /**
      * Parse the entries in the source, and return a List of BibtexEntry
      * objects.
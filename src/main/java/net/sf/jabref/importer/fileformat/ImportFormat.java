@@ -15,9 +15,11 @@
 */
 package net.sf.jabref.importer.fileformat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 import net.sf.jabref.importer.OutputPrinter;
 import net.sf.jabref.model.entry.BibtexEntry;
@@ -41,6 +43,21 @@ public abstract class ImportFormat implements Comparable<ImportFormat> {
      */
     public static final String DEFAULT_BIBTEXENTRY_ID = "__ID";
 
+    /**
+     * The beginning of the file shows that it is not in this format
+     */
+    public static final int CONFIDENCE_NONE = 0;
+
+    /**
+     * The format has no distinctive marks, so any file may be in this format
+     */
+    public static final int CONFIDENCE_POSSIBLE = 1;
+
+    /**
+     * The beginning of the file has the marks of this format
+     */
+    public static final int CONFIDENCE_RECOGNIZED = 2;
+
     private boolean isCustomImporter;
 
 
@@ -56,6 +73,24 @@ public abstract class ImportFormat implements Comparable<ImportFormat> {
      */
     public abstract boolean isRecognizedFormat(InputStream in) throws IOException;
 
+    /**
+     * Estimates how likely a file is in this format, judging only from its first bytes. This is used to choose the
+     * import formats to try when importing in unknown format, so it must be cheap.
+     *
+     * The default implementation checks {@link #isRecognizedFormat(InputStream)} on the given bytes. Formats which
+     * cannot be recognized from the beginning of a file, or only by reading all of it, override this.
+     *
+     * @param prefix the first bytes of the file (all of it, if the file is small)
+     * @return {@link #CONFIDENCE_NONE}, {@link #CONFIDENCE_POSSIBLE} or {@link #CONFIDENCE_RECOGNIZED}
+     */
+    public int getConfidence(byte[] prefix) {
+        try {
+            return isRecognizedFormat(new ByteArrayInputStream(prefix)) ? CONFIDENCE_RECOGNIZED : CONFIDENCE_NONE;
+        } catch (IOException e) {
+            return CONFIDENCE_NONE;
+        }
+    }
+
     /**
      * Parse the entries in the source, and return a List of BibtexEntry
      * objects.
@@ -73,6 +108,23 @@ public abstract class ImportFormat implements Comparable<ImportFormat> {
      */
     public abstract List<BibtexEntry> importEntries(InputStream in, OutputPrinter status) throws IOException;
 
+    /**
+     * Parse the entries in the source and pass each of them to the consumer as soon as it has been read.
+     *
+     * The default implementation passes on the result of {@link #importEntries(InputStream, OutputPrinter)}.
+     * Importers of formats which can be converted record by record override this method, so that large files can be
+     * imported without holding the whole file in memory.
+     */
+    public void importEntries(InputStream in, OutputPrinter status, Consumer<BibtexEntry> consumer)
+            throws IOException {
+        List<BibtexEntry> entries = importEntries(in, status);
+        if (entries != null) {
+            for (BibtexEntry entry : entries) {
+                consumer.accept(entry);
+            }
+        }
+    }
+
     /**
      * Name of this import format.
      * 
@@ -91,7 +91,10 @@ public class MedlineImporter extends ImportFormat {
         try {
             URL url = new URL(baseUrl);
             URLConnection data = url.openConnection();
-            return new MedlineImporter().importEntries(data.getInputStream(), status);
+            // closing the stream returns the connection to the keep-alive pool
+            try (InputStream in = data.getInputStream()) {
+                return new MedlineImporter().importEntries(in, status);
+            }
         } catch (IOException e) {
             return new ArrayList<>();
         }
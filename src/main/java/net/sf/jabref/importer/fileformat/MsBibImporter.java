@@ -17,7 +17,9 @@ package net.sf.jabref.importer.fileformat;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -37,6 +39,8 @@ import org.w3c.dom.Document;
  */
 public class MsBibImporter extends ImportFormat {
 
+    private static final Pattern SOURCES_ELEMENT = Pattern.compile("<([\\w.-]+:)?Sources[\\s>]");
+
     @Override
     public boolean isRecognizedFormat(InputStream in) throws IOException {
 
@@ -71,6 +75,15 @@ public class MsBibImporter extends ImportFormat {
         return true;
     }
 
+    /**
+     * An incomplete XML document cannot be parsed, so the root element is searched for in the text.
+     */
+    @Override
+    public int getConfidence(byte[] prefix) {
+        String start = new String(prefix, StandardCharsets.UTF_8);
+        return SOURCES_ELEMENT.matcher(start).find() ? CONFIDENCE_RECOGNIZED : CONFIDENCE_NONE;
+    }
+
     /**
      * String used to identify this import filter on the command line.
      * @return "msbib"
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.function.Consumer;
 
 import net.sf.jabref.bibtex.EntryTypes;
 import net.sf.jabref.importer.ImportFormatReader;
@@ -101,143 +102,170 @@ public class OvidImporter extends ImportFormat {
      */
     @Override
     public List<BibtexEntry> importEntries(InputStream stream, OutputPrinter status) throws IOException {
-        ArrayList<BibtexEntry> bibitems = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
+        List<BibtexEntry> bibitems = new ArrayList<>();
+        importEntries(stream, status, bibitems::add);
+        return bibitems;
+    }
+
+    /**
+     * Parse the entries in the source one item after the other. Every item begins with a marker like "<1>", which may
+     * also appear inside a line, so the lines are split at the markers. The text before the first marker is skipped.
+     */
+    @Override
+    public void importEntries(InputStream stream, OutputPrinter status, Consumer<BibtexEntry> consumer)
+            throws IOException {
         BufferedReader in = new BufferedReader(ImportFormatReader.getReaderDefaultEncoding(stream));
+        StringBuilder item = new StringBuilder();
+        boolean inItem = false;
         String line;
         while ((line = in.readLine()) != null) {
+            StringBuilder text = new StringBuilder();
             if (!line.isEmpty() && (line.charAt(0) != ' ')) {
-                sb.append("__NEWFIELD__");
+                text.append("__NEWFIELD__");
+            }
+            text.append(line);
+            text.append('\n');
+
+            Matcher marker = OvidImporter.ovidPattern.matcher(text);
+            int start = 0;
+            while (marker.find()) {
+                item.append(text, start, marker.start());
+                if (inItem && (item.length() > 0)) {
+                    consumer.accept(parseItem(item.toString()));
+                }
+                item.setLength(0);
+                inItem = true;
+                start = marker.end();
             }
-            sb.append(line);
-            sb.append('\n');
+            item.append(text, start, text.length());
         }
+        if (inItem && (item.length() > 0)) {
+            consumer.accept(parseItem(item.toString()));
+        }
+    }
 
-        String[] items = sb.toString().split("<[0-9]+>");
-
-        for (int i = 1; i < items.length; i++) {
-            HashMap<String, String> h = new HashMap<>();
-            String[] fields = items[i].split("__NEWFIELD__");
-            for (String field : fields) {
-                int linebreak = field.indexOf('\n');
-                String fieldName = field.substring(0, linebreak).trim();
-                String content = field.substring(linebreak).trim();
+    /**
+     * Converts the text of one item, in which every field begins with "__NEWFIELD__".
+     */
+    private static BibtexEntry parseItem(String item) {
+        HashMap<String, String> h = new HashMap<>();
+        String[] fields = item.split("__NEWFIELD__");
+        for (String field : fields) {
+            int linebreak = field.indexOf('\n');
+            String fieldName = field.substring(0, linebreak).trim();
+            String content = field.substring(linebreak).trim();
+
+            // Check if this is the author field (due to a minor special treatment for this field):
+            boolean isAuthor = (fieldName.indexOf("Author") == 0)
+                    && !fieldName.contains("Author Keywords")
+                    && !fieldName.contains("Author e-mail");
+
+            // Remove unnecessary dots at the end of lines, unless this is the author field,
+            // in which case a dot at the end could be significant:
+            if (!isAuthor && content.endsWith(".")) {
+                content = content.substring(0, content.length() - 1);
+            }
+            //fields[j] = fields[j].trim();
+            if (isAuthor) {
 
-                // Check if this is the author field (due to a minor special treatment for this field):
-                boolean isAuthor = (fieldName.indexOf("Author") == 0)
-                        && !fieldName.contains("Author Keywords")
-                        && !fieldName.contains("Author e-mail");
+                h.put("author", content);
 
-                // Remove unnecessary dots at the end of lines, unless this is the author field,
-                // in which case a dot at the end could be significant:
-                if (!isAuthor && content.endsWith(".")) {
+            } else if (fieldName.indexOf("Title") == 0) {
+                content = content.replaceAll("\\[.+\\]", "").trim();
+                if (content.endsWith(".")) {
                     content = content.substring(0, content.length() - 1);
                 }
-                //fields[j] = fields[j].trim();
-                if (isAuthor) {
-
-                    h.put("author", content);
-
-                } else if (fieldName.indexOf("Title") == 0) {
-                    content = content.replaceAll("\\[.+\\]", "").trim();
-                    if (content.endsWith(".")) {
-                        content = content.substring(0, content.length() - 1);
-                    }
-                    h.put("title", content);
-                } else if (fieldName.indexOf("Chapter Title") == 0) {
-                    h.put("chaptertitle", content);
-                } else if (fieldName.indexOf("Source") == 0) {
-                    Matcher matcher;
-                    if ((matcher = OvidImporter.ovid_src_pat.matcher(content)).find()) {
-                        h.put("journal", matcher.group(1));
-                        h.put("volume", matcher.group(2));
-                        h.put("issue", matcher.group(3));
-                        h.put("pages", matcher.group(4));
-                        h.put("year", matcher.group(5));
-                    } else if ((matcher = OvidImporter.ovid_src_pat_no_issue.matcher(content)).find()) {// may be missing the issue
-                        h.put("journal", matcher.group(1));
-                        h.put("volume", matcher.group(2));
-                        h.put("pages", matcher.group(3));
-                        h.put("year", matcher.group(4));
-                    } else if ((matcher = OvidImporter.ovid_src_pat_2.matcher(content)).find()) {
-
-                        h.put("journal", matcher.group(1));
-                        h.put("volume", matcher.group(2));
-                        h.put("issue", matcher.group(3));
-                        h.put("month", matcher.group(4));
-                        h.put("year", matcher.group(5));
-                        h.put("pages", matcher.group(6));
-
-                    } else if ((matcher = OvidImporter.incollection_pat.matcher(content)).find()) {
-                        h.put("editor", matcher.group(1).replaceAll(" \\(Ed\\)", ""));
-                        h.put("year", matcher.group(2));
-                        h.put("booktitle", matcher.group(3));
-                        h.put("pages", matcher.group(4));
-                        h.put("address", matcher.group(5));
-                        h.put("publisher", matcher.group(6));
-                    } else if ((matcher = OvidImporter.book_pat.matcher(content)).find()) {
-                        h.put("year", matcher.group(1));
-                        h.put("pages", matcher.group(2));
-                        h.put("address", matcher.group(3));
-                        h.put("publisher", matcher.group(4));
-
-                    }
-                    // Add double hyphens to page ranges:
-                    if (h.get("pages") != null) {
-                        h.put("pages", h.get("pages").replaceAll("-", "--"));
-                    }
-
-                } else if ("Abstract".equals(fieldName)) {
-                    h.put("abstract", content);
-
-                } else if ("Publication Type".equals(fieldName)) {
-                    if (content.contains("Book")) {
-                        h.put("entrytype", "book");
-                    } else if (content.contains("Journal")) {
-                        h.put("entrytype", "article");
-                    } else if (content.contains("Conference Paper")) {
-                        h.put("entrytype", "inproceedings");
-                    }
-                }
-            }
+                h.put("title", content);
+            } else if (fieldName.indexOf("Chapter Title") == 0) {
+                h.put("chaptertitle", content);
+            } else if (fieldName.indexOf("Source") == 0) {
+                Matcher matcher;
+                if ((matcher = OvidImporter.ovid_src_pat.matcher(content)).find()) {
+                    h.put("journal", matcher.group(1));
+                    h.put("volume", matcher.group(2));
+                    h.put("issue", matcher.group(3));
+                    h.put("pages", matcher.group(4));
+                    h.put("year", matcher.group(5));
+                } else if ((matcher = OvidImporter.ovid_src_pat_no_issue.matcher(content)).find()) {// may be missing the issue
+                    h.put("journal", matcher.group(1));
+                    h.put("volume", matcher.group(2));
+                    h.put("pages", matcher.group(3));
+                    h.put("year", matcher.group(4));
+                } else if ((matcher = OvidImporter.ovid_src_pat_2.matcher(content)).find()) {
+
+                    h.put("journal", matcher.group(1));
+                    h.put("volume", matcher.group(2));
+                    h.put("issue", matcher.group(3));
+                    h.put("month", matcher.group(4));
+                    h.put("year", matcher.group(5));
+                    h.put("pages", matcher.group(6));
+
+                } else if ((matcher = OvidImporter.incollection_pat.matcher(content)).find()) {
+                    h.put("editor", matcher.group(1).replaceAll(" \\(Ed\\)", ""));
+                    h.put("year", matcher.group(2));
+                    h.put("booktitle", matcher.group(3));
+                    h.put("pages", matcher.group(4));
+                    h.put("address", matcher.group(5));
+                    h.put("publisher", matcher.group(6));
+                } else if ((matcher = OvidImporter.book_pat.matcher(content)).find()) {
+                    h.put("year", matcher.group(1));
+                    h.put("pages", matcher.group(2));
+                    h.put("address", matcher.group(3));
+                    h.put("publisher", matcher.group(4));
 
-            // Now we need to check if a book entry has given editors in the author field;
-            // if so, rearrange:
-            String auth = h.get("author");
-            if ((auth != null) && auth.contains(" [Ed]")) {
-                h.remove("author");
-                h.put("editor", auth.replaceAll(" \\[Ed\\]", ""));
-            }
+                }
+                // Add double hyphens to page ranges:
+                if (h.get("pages") != null) {
+                    h.put("pages", h.get("pages").replaceAll("-", "--"));
+                }
 
-            // Rearrange names properly:
-            auth = h.get("author");
-            if (auth != null) {
-                h.put("author", fixNames(auth));
-            }
-            auth = h.get("editor");
-            if (auth != null) {
-                h.put("editor", fixNames(auth));
-            }
+            } else if ("Abstract".equals(fieldName)) {
+                h.put("abstract", content);
 
-            // Set the entrytype properly:
-            String entryType = h.containsKey("entrytype") ? h.get("entrytype") : "other";
-            h.remove("entrytype");
-            if ("book".equals(entryType)) {
-                if (h.containsKey("chaptertitle")) {
-                    // This means we have an "incollection" entry.
-                    entryType = "incollection";
-                    // Move the "chaptertitle" to just "title":
-                    h.put("title", h.remove("chaptertitle"));
+            } else if ("Publication Type".equals(fieldName)) {
+                if (content.contains("Book")) {
+                    h.put("entrytype", "book");
+                } else if (content.contains("Journal")) {
+                    h.put("entrytype", "article");
+                } else if (content.contains("Conference Paper")) {
+                    h.put("entrytype", "inproceedings");
                 }
             }
-            BibtexEntry b = new BibtexEntry(IdGenerator.next(), EntryTypes.getBibtexEntryType(entryType));
-            b.setField(h);
+        }
 
-            bibitems.add(b);
+        // Now we need to check if a book entry has given editors in the author field;
+        // if so, rearrange:
+        String auth = h.get("author");
+        if ((auth != null) && auth.contains(" [Ed]")) {
+            h.remove("author");
+            h.put("editor", auth.replaceAll(" \\[Ed\\]", ""));
+        }
 
+        // Rearrange names properly:
+        auth = h.get("author");
+        if (auth != null) {
+            h.put("author", fixNames(auth));
+        }
+        auth = h.get("editor");
+        if (auth != null) {
+            h.put("editor", fixNames(auth));
         }
 
-        return bibitems;
+        // Set the entrytype properly:
+        String entryType = h.containsKey("entrytype") ? h.get("entrytype") : "other";
+        h.remove("entrytype");
+        if ("book".equals(entryType)) {
+            if (h.containsKey("chaptertitle")) {
+                // This means we have an "incollection" entry.
+                entryType = "incollection";
+                // Move the "chaptertitle" to just "title":
+                h.put("title", h.remove("chaptertitle"));
+            }
+        }
+        BibtexEntry b = new BibtexEntry(IdGenerator.next(), EntryTypes.getBibtexEntryType(entryType));
+        b.setField(h);
+
+        return b;
     }
 
     /**
@@ -17,6 +17,7 @@ package net.sf.jabref.importer.fileformat;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import net.sf.jabref.importer.OutputPrinter;
@@ -30,6 +31,8 @@ import net.sf.jabref.logic.xmp.XMPUtil;
  */
 public class PdfXmpImporter extends ImportFormat {
 
+    private static final String PDF_HEADER = "%PDF";
+
     @Override
     public String getFormatName() {
         return Localization.lang("XMP-annotated PDF");
@@ -52,6 +55,16 @@ public class PdfXmpImporter extends ImportFormat {
         return XMPUtil.hasMetadata(in);
     }
 
+    /**
+     * The metadata cannot be read from the beginning of a PDF alone, so every PDF is a candidate.
+     */
+    @Override
+    public int getConfidence(byte[] prefix) {
+        boolean isPdf = new String(prefix, 0, Math.min(prefix.length, PDF_HEADER.length()),
+                StandardCharsets.ISO_8859_1).equals(PDF_HEADER);
+        return isPdf ? CONFIDENCE_RECOGNIZED : CONFIDENCE_NONE;
+    }
+
     /**
      * String used to identify this import filter on the command line.
      * 
@@ -0,0 +1,97 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.importer.fileformat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Reads a line-based export (RIS, ISI, MEDLINE, ...) one record at a time, so that an importer only holds the record
+ * it is converting in memory instead of the whole file.
+ * <p>
+ * Records are either ended by a terminator line (e.g. "ER  -" in RIS, or an empty line), or begun by a start line
+ * (e.g. "PT " in ISI). A terminator line is not part of any record, a start line is the first line of its record.
+ * Records consisting only of blank lines are skipped.
+ */
+public class RecordReader {
+
+    private final BufferedReader reader;
+    private final Predicate<String> startLine;
+    private final Predicate<String> terminatorLine;
+
+    /**
+     * The start line of the next record, if it has already been read
+     */
+    private String nextLine;
+
+
+    private RecordReader(BufferedReader reader, Predicate<String> startLine, Predicate<String> terminatorLine) {
+        this.reader = Objects.requireNonNull(reader);
+        this.startLine = startLine;
+        this.terminatorLine = terminatorLine;
+    }
+
+    /**
+     * Creates a reader for records which end with a line accepted by the given predicate.
+     */
+    public static RecordReader terminatedBy(BufferedReader reader, Predicate<String> terminatorLine) {
+        return new RecordReader(reader, line -> false, terminatorLine);
+    }
+
+    /**
+     * Creates a reader for records which begin with a line accepted by the given predicate. The lines before the first
+     * start line form a record of their own.
+     */
+    public static RecordReader startingWith(BufferedReader reader, Predicate<String> startLine) {
+        return new RecordReader(reader, startLine, line -> false);
+    }
+
+    /**
+     * @return the lines of the next record, or null if the end of the input has been reached
+     */
+    public List<String> readRecord() throws IOException {
+        List<String> record = new ArrayList<>();
+        boolean blank = true;
+        String line = nextLine == null ? reader.readLine() : nextLine;
+        nextLine = null;
+
+        while (line != null) {
+            boolean isStartLine = startLine.test(line);
+            if (terminatorLine.test(line) || (isStartLine && !record.isEmpty())) {
+                if (!blank) {
+                    if (isStartLine) {
+                        nextLine = line;
+                    }
+                    return record;
+                }
+                record.clear();
+                if (!isStartLine) {
+                    line = reader.readLine();
+                    continue;
+                }
+            }
+            record.add(line);
+            blank = blank && line.trim().isEmpty();
+            line = reader.readLine();
+        }
+
+        return blank ? null : record;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.function.Consumer;
 
 import net.sf.jabref.bibtex.EntryTypes;
 import net.sf.jabref.importer.ImportFormatReader;
@@ -80,210 +81,212 @@ public class RisImporter extends ImportFormat {
      */
     @Override
     public List<BibtexEntry> importEntries(InputStream stream, OutputPrinter status) throws IOException {
-        ArrayList<BibtexEntry> bibitems = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
+        List<BibtexEntry> bibitems = new ArrayList<>();
+        importEntries(stream, status, bibitems::add);
+        return bibitems;
+    }
+
+    /**
+     * Parse the entries in the source one record after the other.
+     */
+    @Override
+    public void importEntries(InputStream stream, OutputPrinter status, Consumer<BibtexEntry> consumer)
+            throws IOException {
         BufferedReader in = new BufferedReader(ImportFormatReader.getReaderDefaultEncoding(stream));
-        String str;
-        while ((str = in.readLine()) != null) {
-            sb.append(str);
-            sb.append("\n");
+        RecordReader records = RecordReader.terminatedBy(in, line -> line.startsWith("ER  -"));
+        List<String> record;
+        while ((record = records.readRecord()) != null) {
+            consumer.accept(parseRecord(record));
         }
-        String[] entries = sb.toString().replaceAll("\u2013", "-").replaceAll("\u2014", "--").replaceAll("\u2015", "--").split("ER  -.*\\n");
-
-        for (String entry1 : entries) {
-
-            if (entry1.trim().isEmpty()) {
-                continue;
-            }
+    }
 
-            String type = "";
-            String author = "";
-            String editor = "";
-            String startPage = "";
-            String endPage = "";
-            String comment = "";
-            HashMap<String, String> hm = new HashMap<>();
+    private static BibtexEntry parseRecord(List<String> record) {
+        String type = "";
+        String author = "";
+        String editor = "";
+        String startPage = "";
+        String endPage = "";
+        String comment = "";
+        HashMap<String, String> hm = new HashMap<>();
 
-            String[] fields = entry1.split("\n");
+        String[] fields = new String[record.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = record.get(i).replace("\u2013", "-").replace("\u2014", "--").replace("\u2015", "--");
+        }
 
-            for (int j = 0; j < fields.length; j++) {
-                StringBuilder current = new StringBuilder(fields[j]);
-                boolean done = false;
-                while (!done && (j < (fields.length - 1))) {
-                    if ((fields[j + 1].length() >= 6) && !"  - ".equals(fields[j + 1].substring(2, 6))) {
-                        if ((current.length() > 0)
-                                && !Character.isWhitespace(current.charAt(current.length() - 1))
-                                && !Character.isWhitespace(fields[j + 1].charAt(0))) {
-                            current.append(' ');
-                        }
-                        current.append(fields[j + 1]);
-                        j++;
-                    } else {
-                        done = true;
+        for (int j = 0; j < fields.length; j++) {
+            StringBuilder current = new StringBuilder(fields[j]);
+            boolean done = false;
+            while (!done && (j < (fields.length - 1))) {
+                if ((fields[j + 1].length() >= 6) && !"  - ".equals(fields[j + 1].substring(2, 6))) {
+                    if ((current.length() > 0)
+                            && !Character.isWhitespace(current.charAt(current.length() - 1))
+                            && !Character.isWhitespace(fields[j + 1].charAt(0))) {
+                        current.append(' ');
                     }
-                }
-                String entry = current.toString();
-                if (entry.length() < 6) {
-                    continue;
+                    current.append(fields[j + 1]);
+                    j++;
                 } else {
-                    String lab = entry.substring(0, 2);
-                    String val = entry.substring(6).trim();
-                    if ("TY".equals(lab)) {
-                        if ("BOOK".equals(val)) {
-                            type = "book";
-                        } else if ("JOUR".equals(val) || "MGZN".equals(val)) {
-                            type = "article";
-                        } else if ("THES".equals(val)) {
-                            type = "phdthesis";
-                        } else if ("UNPB".equals(val)) {
-                            type = "unpublished";
-                        } else if ("RPRT".equals(val)) {
-                            type = "techreport";
-                        } else if ("CONF".equals(val)) {
-                            type = "inproceedings";
-                        } else if ("CHAP".equals(val)) {
-                            type = "incollection";//"inbook";
-                        } else {
-                            type = "other";
-                        }
-                    } else if ("T1".equals(lab) || "TI".equals(lab)) {
-                        String oldVal = hm.get("title");
-                        if (oldVal == null) {
-                            hm.put("title", val);
+                    done = true;
+                }
+            }
+            String entry = current.toString();
+            if (entry.length() < 6) {
+                continue;
+            } else {
+                String lab = entry.substring(0, 2);
+                String val = entry.substring(6).trim();
+                if ("TY".equals(lab)) {
+                    if ("BOOK".equals(val)) {
+                        type = "book";
+                    } else if ("JOUR".equals(val) || "MGZN".equals(val)) {
+                        type = "article";
+                    } else if ("THES".equals(val)) {
+                        type = "phdthesis";
+                    } else if ("UNPB".equals(val)) {
+                        type = "unpublished";
+                    } else if ("RPRT".equals(val)) {
+                        type = "techreport";
+                    } else if ("CONF".equals(val)) {
+                        type = "inproceedings";
+                    } else if ("CHAP".equals(val)) {
+                        type = "incollection";//"inbook";
+                    } else {
+                        type = "other";
+                    }
+                } else if ("T1".equals(lab) || "TI".equals(lab)) {
+                    String oldVal = hm.get("title");
+                    if (oldVal == null) {
+                        hm.put("title", val);
+                    } else {
+                        if (oldVal.endsWith(":") || oldVal.endsWith(".") || oldVal.endsWith("?")) {
+                            hm.put("title", oldVal + " " + val);
                         } else {
-                            if (oldVal.endsWith(":") || oldVal.endsWith(".") || oldVal.endsWith("?")) {
-                                hm.put("title", oldVal + " " + val);
-                            } else {
-                                hm.put("title", oldVal + ": " + val);
-                            }
+                            hm.put("title", oldVal + ": " + val);
                         }
                     }
-                    // =
-                    // val;
-                    else if ("T2".equals(lab) || "T3".equals(lab) || "BT".equals(lab)) {
+                }
+                // =
+                // val;
+                else if ("T2".equals(lab) || "T3".equals(lab) || "BT".equals(lab)) {
+                    hm.put("booktitle", val);
+                } else if ("AU".equals(lab) || "A1".equals(lab)) {
+                    if ("".equals(author)) {
+                        author = val;
+                    } else {
+                        author += " and " + val;
+                    }
+                } else if ("A2".equals(lab)) {
+                    if ("".equals(editor)) {
+                        editor = val;
+                    } else {
+                        editor += " and " + val;
+                    }
+                } else if ("JA".equals(lab) || "JF".equals(lab) || "JO".equals(lab)) {
+                    if ("inproceedings".equals(type)) {
                         hm.put("booktitle", val);
-                    } else if ("AU".equals(lab) || "A1".equals(lab)) {
-                        if ("".equals(author)) {
-                            author = val;
-                        } else {
-                            author += " and " + val;
-                        }
-                    } else if ("A2".equals(lab)) {
-                        if ("".equals(editor)) {
-                            editor = val;
-                        } else {
-                            editor += " and " + val;
-                        }
-                    } else if ("JA".equals(lab) || "JF".equals(lab) || "JO".equals(lab)) {
-                        if ("inproceedings".equals(type)) {
-                            hm.put("booktitle", val);
-                        } else {
-                            hm.put("journal", val);
-                        }
-                    } else if ("SP".equals(lab)) {
-                        startPage = val;
-                    } else if ("PB".equals(lab)) {
-                        if ("phdthesis".equals(type)) {
-                            hm.put("school", val);
-                        } else {
-                            hm.put("publisher", val);
-                        }
-                    } else if ("AD".equals(lab) || "CY".equals(lab)) {
-                        hm.put("address", val);
-                    } else if ("EP".equals(lab)) {
-                        endPage = val;
-                    } else if ("SN".equals(lab)) {
-                        hm.put("issn", val);
-                    } else if ("VL".equals(lab)) {
-                        hm.put("volume", val);
-                    } else if ("IS".equals(lab)) {
-                        hm.put("number", val);
-                    } else if ("N2".equals(lab) || "AB".equals(lab)) {
-                        String oldAb = hm.get("abstract");
-                        if (oldAb == null) {
-                            hm.put("abstract", val);
-                        } else {
-                            hm.put("abstract", oldAb + "\n" + val);
-                        }
-                    } else if ("UR".equals(lab)) {
-                        hm.put("url", val);
-                    } else if (("Y1".equals(lab) || "PY".equals(lab)) && (val.length() >= 4)) {
-                        String[] parts = val.split("/");
-                        hm.put("year", parts[0]);
-                        if ((parts.length > 1) && !parts[1].isEmpty()) {
-                            try {
+                    } else {
+                        hm.put("journal", val);
+                    }
+                } else if ("SP".equals(lab)) {
+                    startPage = val;
+                } else if ("PB".equals(lab)) {
+                    if ("phdthesis".equals(type)) {
+                        hm.put("school", val);
+                    } else {
+                        hm.put("publisher", val);
+                    }
+                } else if ("AD".equals(lab) || "CY".equals(lab)) {
+                    hm.put("address", val);
+                } else if ("EP".equals(lab)) {
+                    endPage = val;
+                } else if ("SN".equals(lab)) {
+                    hm.put("issn", val);
+                } else if ("VL".equals(lab)) {
+                    hm.put("volume", val);
+                } else if ("IS".equals(lab)) {
+                    hm.put("number", val);
+                } else if ("N2".equals(lab) || "AB".equals(lab)) {
+                    String oldAb = hm.get("abstract");
+                    if (oldAb == null) {
+                        hm.put("abstract", val);
+                    } else {
+                        hm.put("abstract", oldAb + "\n" + val);
+                    }
+                } else if ("UR".equals(lab)) {
+                    hm.put("url", val);
+                } else if (("Y1".equals(lab) || "PY".equals(lab)) && (val.length() >= 4)) {
+                    String[] parts = val.split("/");
+                    hm.put("year", parts[0]);
+                    if ((parts.length > 1) && !parts[1].isEmpty()) {
+                        try {
 
-                                int monthNumber = Integer.parseInt(parts[1]);
-                                MonthUtil.Month month = MonthUtil.getMonthByNumber(monthNumber);
-                                if (month.isValid()) {
-                                    hm.put("month", month.bibtexFormat);
-                                }
-                            } catch (NumberFormatException ex) {
-                                // The month part is unparseable, so we ignore it.
+                            int monthNumber = Integer.parseInt(parts[1]);
+                            MonthUtil.Month month = MonthUtil.getMonthByNumber(monthNumber);
+                            if (month.isValid()) {
+                                hm.put("month", month.bibtexFormat);
                             }
+                        } catch (NumberFormatException ex) {
+                            // The month part is unparseable, so we ignore it.
                         }
-                    } else if ("KW".equals(lab)) {
-                        if (!hm.containsKey("keywords")) {
-                            hm.put("keywords", val);
-                        } else {
-                            String kw = hm.get("keywords");
-                            hm.put("keywords", kw + ", " + val);
-                        }
-                    } else if ("U1".equals(lab) || "U2".equals(lab) || "N1".equals(lab)) {
-                        if (!comment.isEmpty()) {
-                            comment = comment + "\n";
-                        }
-                        comment = comment + val;
                     }
-                    // Added ID import 2005.12.01, Morten Alver:
-                    else if ("ID".equals(lab)) {
-                        hm.put("refid", val);
-                    } else if ("M3".equals(lab)) {
-                        String doi = val;
-                        if (doi.startsWith("doi:")) {
-                            doi = doi.replaceAll("(?i)doi:", "").trim();
-                            hm.put("doi", doi);
-                        }
+                } else if ("KW".equals(lab)) {
+                    if (!hm.containsKey("keywords")) {
+                        hm.put("keywords", val);
+                    } else {
+                        String kw = hm.get("keywords");
+                        hm.put("keywords", kw + ", " + val);
                     }
+                } else if ("U1".equals(lab) || "U2".equals(lab) || "N1".equals(lab)) {
+                    if (!comment.isEmpty()) {
+                        comment = comment + "\n";
+                    }
+                    comment = comment + val;
                 }
-                // fix authors
-                if (!author.isEmpty()) {
-                    author = AuthorList.fixAuthor_lastNameFirst(author);
-                    hm.put("author", author);
-                }
-                if (!editor.isEmpty()) {
-                    editor = AuthorList.fixAuthor_lastNameFirst(editor);
-                    hm.put("editor", editor);
-                }
-                if (!comment.isEmpty()) {
-                    hm.put("comment", comment);
+                // Added ID import 2005.12.01, Morten Alver:
+                else if ("ID".equals(lab)) {
+                    hm.put("refid", val);
+                } else if ("M3".equals(lab)) {
+                    String doi = val;
+                    if (doi.startsWith("doi:")) {
+                        doi = doi.replaceAll("(?i)doi:", "").trim();
+                        hm.put("doi", doi);
+                    }
                 }
-
-                hm.put("pages", startPage + "--" + endPage);
             }
-            BibtexEntry b = new BibtexEntry(DEFAULT_BIBTEXENTRY_ID, EntryTypes
-                    .getBibtexEntryType(type)); // id assumes an existing database so don't
-
-            // Remove empty fields:
-            ArrayList<Object> toRemove = new ArrayList<>();
-            for (Map.Entry<String, String> key : hm.entrySet()) {
-                String content = key.getValue();
-                if ((content == null) || content.trim().isEmpty()) {
-                    toRemove.add(key.getKey());
-                }
+            // fix authors
+            if (!author.isEmpty()) {
+                author = AuthorList.fixAuthor_lastNameFirst(author);
+                hm.put("author", author);
             }
-            for (Object aToRemove : toRemove) {
-                hm.remove(aToRemove);
-
+            if (!editor.isEmpty()) {
+                editor = AuthorList.fixAuthor_lastNameFirst(editor);
+                hm.put("editor", editor);
+            }
+            if (!comment.isEmpty()) {
+                hm.put("comment", comment);
             }
 
-            // create one here
-            b.setField(hm);
-            bibitems.add(b);
+            hm.put("pages", startPage + "--" + endPage);
+        }
+        BibtexEntry b = new BibtexEntry(DEFAULT_BIBTEXENTRY_ID, EntryTypes
+                .getBibtexEntryType(type)); // id assumes an existing database so don't
 
+        // Remove empty fields:
+        ArrayList<Object> toRemove = new ArrayList<>();
+        for (Map.Entry<String, String> key : hm.entrySet()) {
+            String content = key.getValue();
+            if ((content == null) || content.trim().isEmpty()) {
+                toRemove.add(key.getKey());
+            }
         }
+        for (Object aToRemove : toRemove) {
+            hm.remove(aToRemove);
 
-        return bibitems;
+        }
 
+        // create one here
+        b.setField(hm);
+        return b;
     }
 }
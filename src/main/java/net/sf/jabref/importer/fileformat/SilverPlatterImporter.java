@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.function.Consumer;
 
 import net.sf.jabref.importer.ImportFormatReader;
 import net.sf.jabref.importer.OutputPrinter;
@@ -87,28 +88,29 @@ public class SilverPlatterImporter extends ImportFormat {
      */
     @Override
     public List<BibtexEntry> importEntries(InputStream stream, OutputPrinter status) throws IOException {
-        ArrayList<BibtexEntry> bibitems = new ArrayList<>();
+        List<BibtexEntry> bibitems = new ArrayList<>();
+        importEntries(stream, status, bibitems::add);
+        return bibitems;
+    }
+
+    /**
+     * Parse the entries in the source one record after the other. The records are separated by lines shorter than
+     * two characters, every other line is a field.
+     */
+    @Override
+    public void importEntries(InputStream stream, OutputPrinter status, Consumer<BibtexEntry> consumer)
+            throws IOException {
         try (BufferedReader in = new BufferedReader(ImportFormatReader.getReaderDefaultEncoding(stream))) {
             boolean isChapter = false;
-            String str;
-            StringBuilder sb = new StringBuilder();
-            while ((str = in.readLine()) != null) {
-                if (str.length() < 2) {
-                    sb.append("__::__").append(str);
-                } else {
-                    sb.append("__NEWFIELD__").append(str);
-                }
-            }
-            String[] entries = sb.toString().split("__::__");
+            RecordReader records = RecordReader.terminatedBy(in, line -> line.length() < 2);
+            List<String> fields;
             String Type = "";
             HashMap<String, String> h = new HashMap<>();
-            for (String entry : entries) {
-                if (entry.trim().length() < 6) {
+            while ((fields = records.readRecord()) != null) {
+                if (String.join("\n", fields).trim().length() < 6) {
                     continue;
                 }
-                //System.out.println("'"+entries[i]+"'");
                 h.clear();
-                String[] fields = entry.split("__NEWFIELD__");
                 for (String field : fields) {
                     if (field.length() < 6) {
                         continue;
@@ -217,11 +219,9 @@ public class SilverPlatterImporter extends ImportFormat {
                 // create one here
                 b.setField(h);
 
-                bibitems.add(b);
+                consumer.accept(b);
 
             }
         }
-
-        return bibitems;
     }
 }
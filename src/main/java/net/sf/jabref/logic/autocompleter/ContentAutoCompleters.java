@@ -60,7 +60,7 @@ public class ContentAutoCompleters extends AutoCompleters {
     public void addJournalListToAutoCompleter() {
         AutoCompleter<String> autoCompleter = get("journal");
         if(autoCompleter != null) {
-            for(Abbreviation abbreviation : Abbreviations.journalAbbrev.getAbbreviations()) {
+            for(Abbreviation abbreviation : Abbreviations.getJournalAbbreviations().getAbbreviations()) {
                 autoCompleter.addItemToIndex(abbreviation.getName());
             }
         }
@@ -0,0 +1,170 @@
+/*  Copyright (C) 2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+package net.sf.jabref.logic.cleanup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.sf.jabref.JabRefExecutorService;
+import net.sf.jabref.logic.FieldChange;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Runs several cleaners on many entries without changing the entries.
+ * <p>
+ * The cleaners are applied one after the other to a copy of every entry. The differences between the copy and the
+ * entry are returned as {@link FieldChange}s, which the caller applies to the entries, e.g. in one bulk change of the
+ * database with one undo edit. As every entry is cleaned up on its own copy, the entries can be cleaned up in
+ * parallel, if all cleaners can be used by several threads at the same time and have no side effects which depend on
+ * the order of the entries.
+ */
+public class CleanupEngine {
+
+    private static final Log LOGGER = LogFactory.getLog(CleanupEngine.class);
+
+    /**
+     * Below this number of entries per thread, a thread is not worth it
+     */
+    private static final int MIN_ENTRIES_PER_WORKER = 50;
+
+    private final List<Cleaner> cleaners;
+
+
+    /**
+     * @param cleaners the cleaners, in the order in which they are applied to an entry
+     */
+    public CleanupEngine(List<Cleaner> cleaners) {
+        this.cleaners = new ArrayList<>(Objects.requireNonNull(cleaners));
+    }
+
+    /**
+     * Computes the changes of the given entries on the calling thread.
+     *
+     * @return the changes, ordered by entry
+     */
+    public List<FieldChange> computeChanges(List<BibtexEntry> entries) {
+        List<FieldChange> changes = new ArrayList<>();
+        for (BibtexEntry entry : entries) {
+            changes.addAll(computeChanges(entry));
+        }
+        return changes;
+    }
+
+    /**
+     * Computes the changes of the given entries on several threads. All cleaners must be thread safe.
+     *
+     * @return the changes, ordered by entry
+     */
+    public List<FieldChange> computeChangesInParallel(List<BibtexEntry> entries) {
+        int size = entries.size();
+        int workerCount = Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_ENTRIES_PER_WORKER);
+        if (workerCount < 2) {
+            return computeChanges(entries);
+        }
+
+        List<Future<List<FieldChange>>> futures = new ArrayList<>(workerCount);
+        int chunkSize = ((size + workerCount) - 1) / workerCount;
+        for (int start = 0; start < size; start += chunkSize) {
+            final List<BibtexEntry> chunk = entries.subList(start, Math.min(size, start + chunkSize));
+            futures.add(JabRefExecutorService.INSTANCE.submit(new Callable<List<FieldChange>>() {
+
+                @Override
+                public List<FieldChange> call() {
+                    return computeChanges(chunk);
+                }
+            }));
+        }
+
+        List<FieldChange> changes = new ArrayList<>();
+        for (Future<List<FieldChange>> future : futures) {
+            changes.addAll(waitFor(future));
+        }
+        return changes;
+    }
+
+    /**
+     * Computes the changes of a single entry, by cleaning up a copy of it.
+     * <p>
+     * If a cleaner fails, the following ones are skipped, but the changes made so far are kept. They may belong to
+     * side effects which have happened already, e.g. the new name of a renamed file.
+     */
+    public List<FieldChange> computeChanges(BibtexEntry entry) {
+        BibtexEntry copy = (BibtexEntry) entry.clone();
+        try {
+            for (Cleaner cleaner : cleaners) {
+                cleaner.cleanup(copy);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not clean up entry " + entry.getCiteKey(), e);
+        }
+
+        Set<String> fields = new TreeSet<>(entry.getFieldNames());
+        fields.addAll(copy.getFieldNames());
+        List<FieldChange> changes = new ArrayList<>();
+        for (String field : fields) {
+            String oldValue = entry.getField(field);
+            String newValue = copy.getField(field);
+            if (!Objects.equals(oldValue, newValue)) {
+                changes.add(new FieldChange(entry, field, oldValue, newValue));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Applies the given changes to their entries.
+     */
+    public static void apply(List<FieldChange> changes) {
+        for (FieldChange change : changes) {
+            if (change.getNewValue() == null) {
+                change.getEntry().clearField(change.getField());
+            } else {
+                change.getEntry().setField(change.getField(), change.getNewValue());
+            }
+        }
+    }
+
+    private static List<FieldChange> waitFor(Future<List<FieldChange>> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // the changes of all entries are needed
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    LOGGER.warn("Cleanup worker failed", e);
+                    return Collections.emptyList();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package net.sf.jabref.logic.fetcher;
 
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
+import net.sf.jabref.logic.net.URLDownload;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.logic.util.DOI;
 import org.apache.commons.logging.Log;
@@ -11,14 +9,17 @@ import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -44,15 +45,15 @@ public class ArXiv implements FullTextFinder {
             String doiString = doi.get().getDOI();
             // Available in catalog?
             try {
-                HttpResponse<InputStream> response = Unirest.get(API_URL)
-                        .queryString("search_query", doiString)
-                        .queryString("max_results", 1)
-                        .asBinary();
+                // downloaded through the HTTP cache, so that a repeated lookup does not query arXiv again
+                URL url = new URL(API_URL + "?search_query="
+                        + URLEncoder.encode(doiString, StandardCharsets.UTF_8.name()) + "&max_results=1");
+                String response = new URLDownload(url).downloadToString(StandardCharsets.UTF_8);
 
                 // Xml response
                 DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
                 DocumentBuilder builder = factory.newDocumentBuilder();
-                Document doc = builder.parse(response.getBody());
+                Document doc = builder.parse(new InputSource(new StringReader(response)));
 
                 NodeList nodes = doc.getElementsByTagName("arxiv:doi");
                 Node doiTag = nodes.item(0);
@@ -75,7 +76,7 @@ public class ArXiv implements FullTextFinder {
                         }
                     }
                 }
-            } catch(UnirestException | ParserConfigurationException | SAXException e) {
+            } catch(IOException | ParserConfigurationException | SAXException e) {
                 LOGGER.warn("arXiv API request failed: " + e.getMessage(), e);
             }
         }
@@ -15,17 +15,17 @@
  */
 package net.sf.jabref.logic.fetcher;
 
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
+import net.sf.jabref.logic.net.URLDownload;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.logic.util.DOI;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.io.*;
 import java.util.Objects;
 import java.util.Optional;
@@ -53,19 +53,18 @@ public class SpringerLink implements FullTextFinder {
         if(doi.isPresent()) {
             // Available in catalog?
             try {
-                HttpResponse<JsonNode> jsonResponse = Unirest.get(API_URL)
-                        .queryString("api_key", API_KEY)
-                        .queryString("q", String.format("doi:%s", doi.get().getDOI()))
-                        .asJson();
-
-                JSONObject json = jsonResponse.getBody().getObject();
+                // downloaded through the HTTP cache, so that a repeated lookup does not query Springer again
+                String query = String.format("doi:%s", doi.get().getDOI());
+                URL url = new URL(API_URL + "?api_key=" + API_KEY + "&q="
+                        + URLEncoder.encode(query, StandardCharsets.UTF_8.name()));
+                JSONObject json = new JSONObject(new URLDownload(url).downloadToString(StandardCharsets.UTF_8));
                 int results = json.getJSONArray("result").getJSONObject(0).getInt("total");
 
                 if (results > 0) {
                     LOGGER.info("Fulltext PDF found @ Springer.");
                     pdfLink = Optional.of(new URL("http", CONTENT_HOST, String.format("/content/pdf/%s.pdf", doi.get().getDOI())));
                 }
-            } catch(UnirestException e) {
+            } catch(IOException | JSONException e) {
                 LOGGER.warn("SpringerLink API request failed: " + e.getMessage(), e);
             }
         }
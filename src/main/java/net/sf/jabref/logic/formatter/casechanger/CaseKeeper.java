@@ -19,30 +19,164 @@ import java.util.Arrays;
 
 import net.sf.jabref.logic.formatter.Formatter;
 import net.sf.jabref.logic.l10n.Localization;
+import net.sf.jabref.logic.util.strings.AhoCorasickMatcher;
 import net.sf.jabref.logic.util.strings.StringLengthComparator;
 
+/**
+ * Puts braces around the words of the {@link CaseKeeperList}, so that BibTeX keeps their case.
+ * <p>
+ * A word is protected if it is at the start of the text or follows one of the characters "- /[(}\"", and if it is not
+ * followed by a "}". The words are handled from the longest to the shortest, as if the text was searched for one word
+ * after the other: the braces put around a longer word prevent the protection of shorter words overlapping it, and
+ * the character following a protected word is not the start of another protected word of the same length.
+ * <p>
+ * All occurrences of all words are found in a single pass with a shared {@link AhoCorasickMatcher}. The braces are
+ * then placed on the occurrences in the order of the words.
+ */
 public class CaseKeeper implements Formatter {
 
-    private String format(String text, String[] listOfWords) {
-        if (text == null) {
-            return null;
-        }
-        Arrays.sort(listOfWords, new StringLengthComparator());
-        // For each word in the list
-        for (String listOfWord : listOfWords) {
-            // Add {} if the character before is a space, -, /, (, [, ", or } or if it is at the start of the string but not if it is followed by a }
-            text = text.replaceAll("(^|[- /\\[(}\"])" + listOfWord + "($|[^}])", "$1\\{" + listOfWord + "\\}$2");
+    private static final String PRECEDING_CHARACTERS = "- /[(}\"";
+
+    /**
+     * The positions in the text are numbered by character index * SLOTS. A gap before a character holds up to one
+     * inserted "}" (slot 0) and one inserted "{" (slot 1), the character itself has slot 3.
+     */
+    private static final int SLOTS = 4;
+    private static final int CLOSING_SLOT = 0;
+    private static final int OPENING_SLOT = 1;
+    private static final int CHARACTER_SLOT = 3;
+
+
+    private static class Words {
+
+        private static final String[] WORDS = sortedWords();
+        private static final AhoCorasickMatcher MATCHER = new AhoCorasickMatcher(Arrays.asList(WORDS));
+
+
+        private static String[] sortedWords() {
+            String[] words = new CaseKeeperList().getAll();
+            Arrays.sort(words, new StringLengthComparator());
+            return words;
         }
-        return text;
     }
 
+
     @Override
     public String format(String text) {
         if (text == null) {
             return null;
         }
-        final CaseKeeperList list = new CaseKeeperList();
-        return this.format(text, list.getAll());
+
+        final int length = text.length();
+        // word << 32 | start of every occurrence
+        final long[][] found = {new long[16]};
+        final int[] count = new int[1];
+        Words.MATCHER.findAll(text, new AhoCorasickMatcher.MatchHandler() {
+
+            @Override
+            public void found(int word, int start, int end) {
+                if (count[0] == found[0].length) {
+                    found[0] = Arrays.copyOf(found[0], count[0] * 2);
+                }
+                found[0][count[0]] = ((long) word << 32) | start;
+                count[0]++;
+            }
+        });
+        if (count[0] == 0) {
+            return text;
+        }
+        // the words are numbered in the order they are handled, so this sorts by word and then by start
+        long[] occurrences = found[0];
+        Arrays.sort(occurrences, 0, count[0]);
+
+        // the braces inserted before the character with the same index
+        boolean[] closing = new boolean[length + 1];
+        boolean[] opening = new boolean[length + 1];
+        int[] accepted = new int[count[0]];
+        int i = 0;
+        while (i < count[0]) {
+            int word = (int) (occurrences[i] >>> 32);
+            int wordLength = Words.WORDS[word].length();
+
+            // a pass over the text for one word only sees the braces of the words before
+            int acceptedCount = 0;
+            long resume = 0;
+            for (; (i < count[0]) && ((int) (occurrences[i] >>> 32) == word); i++) {
+                int start = (int) occurrences[i];
+                int end = start + wordLength;
+                long next = match(text, start, end, closing, opening, resume);
+                if (next >= 0) {
+                    accepted[acceptedCount] = start;
+                    acceptedCount++;
+                    resume = next;
+                }
+            }
+            for (int j = 0; j < acceptedCount; j++) {
+                opening[accepted[j]] = true;
+                closing[accepted[j] + wordLength] = true;
+            }
+        }
+
+        StringBuilder result = new StringBuilder(length + 16);
+        for (int position = 0; position <= length; position++) {
+            if (closing[position]) {
+                result.append('}');
+            }
+            if (opening[position]) {
+                result.append('{');
+            }
+            if (position < length) {
+                result.append(text.charAt(position));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Checks whether the occurrence of a word from start to end is protected.
+     *
+     * @param resume the first position not consumed by the previous protected occurrence of the same word
+     * @return the first position after the character following the word, or -1 if the occurrence is not protected
+     */
+    private static long match(String text, int start, int end, boolean[] closing, boolean[] opening, long resume) {
+        // the braces of a longer word split this occurrence
+        for (int position = start + 1; position < end; position++) {
+            if (closing[position] || opening[position]) {
+                return -1;
+            }
+        }
+
+        // the character before the word
+        if (opening[start]) {
+            return -1;
+        } else if (closing[start]) {
+            if (((long) start * SLOTS) + CLOSING_SLOT < resume) {
+                return -1;
+            }
+        } else if (start > 0) {
+            if ((PRECEDING_CHARACTERS.indexOf(text.charAt(start - 1)) < 0)
+                    || ((((long) (start - 1) * SLOTS) + CHARACTER_SLOT) < resume)) {
+                return -1;
+            }
+        } else if (resume > 0) {
+            // the start of the text
+            return -1;
+        }
+
+        // the character after the word
+        if (closing[end]) {
+            return -1;
+        } else if (opening[end]) {
+            return ((long) end * SLOTS) + OPENING_SLOT + 1;
+        } else if (end < text.length()) {
+            if (text.charAt(end) == '}') {
+                return -1;
+            }
+            return ((long) end * SLOTS) + CHARACTER_SLOT + 1;
+        } else {
+            // the end of the text
+            return Long.MAX_VALUE;
+        }
     }
 
     @Override
@@ -0,0 +1,312 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.logic.integrity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.sf.jabref.JabRefExecutorService;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Keeps the integrity messages of all entries of a database up to date.
+ * <p>
+ * All entries are checked once, on several threads, when the service is created. Afterwards, only the added and
+ * changed entries are checked again when the database reports them, and the messages of removed entries are dropped.
+ * The current messages can be asked for at any time without checking the database again.
+ * <p>
+ * A check of all entries does not lock the service, so that changes of the database are not held up by it. The
+ * entries changed in the meantime are checked on their own, and their messages replace the ones of the full check.
+ */
+public class IntegrityService implements DatabaseChangeListener {
+
+    /**
+     * Notified after the messages of some entries have changed, on the thread which changed the database.
+     */
+    public interface Listener {
+
+        void messagesChanged(IntegrityService service);
+    }
+
+
+    private static final Log LOGGER = LogFactory.getLog(IntegrityService.class);
+
+    /**
+     * Below this number of entries per thread, a thread is not worth it
+     */
+    private static final int MIN_ENTRIES_PER_WORKER = 200;
+
+    private final BibtexDatabase database;
+    private final IntegrityCheck check;
+
+    /**
+     * The messages of the entries having some, in no particular order
+     */
+    private Map<BibtexEntry, List<IntegrityMessage>> messages = new IdentityHashMap<>();
+
+    /**
+     * The number of checks of all entries running, and the entries added, changed or removed while one of them runs
+     */
+    private int runningFullChecks;
+    private final Set<BibtexEntry> changedDuringFullCheck = Collections
+            .newSetFromMap(new IdentityHashMap<BibtexEntry, Boolean>());
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+
+    /**
+     * Checks all entries of the given database and keeps the messages up to date with the changes of the database.
+     */
+    public IntegrityService(BibtexDatabase database, IntegrityCheck check) {
+        this.database = database;
+        this.check = check;
+        database.addDatabaseChangeListener(this);
+        checkAllEntries();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the current messages of all entries, grouped by entry in the order of the database, like a check of the
+     * whole database.
+     */
+    public synchronized List<IntegrityMessage> getMessages() {
+        List<IntegrityMessage> result = new ArrayList<>();
+        for (BibtexEntry entry : database.getEntries()) {
+            List<IntegrityMessage> entryMessages = messages.get(entry);
+            if (entryMessages != null) {
+                result.addAll(entryMessages);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the current messages of the given entry.
+     */
+    public synchronized List<IntegrityMessage> getMessages(BibtexEntry entry) {
+        List<IntegrityMessage> entryMessages = messages.get(entry);
+        return entryMessages == null ? Collections.<IntegrityMessage> emptyList() : entryMessages;
+    }
+
+    public synchronized int getMessageCount() {
+        int count = 0;
+        for (List<IntegrityMessage> entryMessages : messages.values()) {
+            count += entryMessages.size();
+        }
+        return count;
+    }
+
+    /**
+     * Checks all entries again, e.g. after the preferences affecting the checks have changed.
+     */
+    public void checkAll() {
+        checkAllEntries();
+        fireMessagesChanged();
+    }
+
+    private void checkAllEntries() {
+        List<BibtexEntry> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(database.getEntries());
+            runningFullChecks++;
+        }
+        Map<BibtexEntry, List<IntegrityMessage>> results = null;
+        try {
+            results = checkEntries(entries);
+        } finally {
+            synchronized (this) {
+                if (results != null) {
+                    Map<BibtexEntry, List<IntegrityMessage>> checked = new IdentityHashMap<>();
+                    for (BibtexEntry entry : entries) {
+                        List<IntegrityMessage> entryMessages = results.get(entry);
+                        if ((entryMessages != null) && !entryMessages.isEmpty()
+                                && !changedDuringFullCheck.contains(entry)) {
+                            checked.put(entry, entryMessages);
+                        }
+                    }
+                    // the messages of these entries have been updated after the full check had read them
+                    for (BibtexEntry entry : changedDuringFullCheck) {
+                        List<IntegrityMessage> entryMessages = messages.get(entry);
+                        if (entryMessages != null) {
+                            checked.put(entry, entryMessages);
+                        }
+                    }
+                    messages = checked;
+                }
+                runningFullChecks--;
+                if (runningFullChecks == 0) {
+                    changedDuringFullCheck.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops following the changes of the database.
+     */
+    public void dispose() {
+        database.removeDatabaseChangeListener(this);
+    }
+
+    @Override
+    public void databaseChanged(DatabaseChangeEvent e) {
+        if (e.getType() == DatabaseChangeEvent.ChangeType.CHANGING_ENTRY) {
+            return;
+        }
+        boolean changed = false;
+        synchronized (this) {
+            for (BibtexEntry entry : e.getRemovedEntries()) {
+                changed |= messages.remove(entry) != null;
+            }
+            List<BibtexEntry> entries = new ArrayList<>(e.getAddedEntries());
+            entries.addAll(e.getChangedEntries());
+            changed |= update(entries);
+            if (runningFullChecks > 0) {
+                changedDuringFullCheck.addAll(e.getRemovedEntries());
+                changedDuringFullCheck.addAll(entries);
+            }
+        }
+        if (changed) {
+            fireMessagesChanged();
+        }
+    }
+
+    /**
+     * Checks the given entries again.
+     *
+     * @return true if the messages of an entry have changed
+     */
+    private boolean update(List<BibtexEntry> entries) {
+        Map<BibtexEntry, List<IntegrityMessage>> results = checkEntries(entries);
+        boolean changed = false;
+        for (BibtexEntry entry : entries) {
+            List<IntegrityMessage> entryMessages = results.get(entry);
+            if (entryMessages == null) {
+                // the worker checking the entry failed
+                entryMessages = Collections.emptyList();
+            }
+            List<IntegrityMessage> previous = entryMessages.isEmpty() ? messages.remove(entry)
+                    : messages.put(entry, entryMessages);
+            changed |= !isSame(previous, entryMessages);
+        }
+        return changed;
+    }
+
+    private Map<BibtexEntry, List<IntegrityMessage>> checkEntries(List<BibtexEntry> entries) {
+        int size = entries.size();
+        int workerCount = Math.min(Runtime.getRuntime().availableProcessors(), size / MIN_ENTRIES_PER_WORKER);
+        if (workerCount < 2) {
+            return check(entries);
+        }
+
+        List<Future<Map<BibtexEntry, List<IntegrityMessage>>>> futures = new ArrayList<>(workerCount);
+        int chunkSize = ((size + workerCount) - 1) / workerCount;
+        for (int start = 0; start < size; start += chunkSize) {
+            final List<BibtexEntry> chunk = entries.subList(start, Math.min(size, start + chunkSize));
+            futures.add(JabRefExecutorService.INSTANCE.submit(new Callable<Map<BibtexEntry, List<IntegrityMessage>>>() {
+
+                @Override
+                public Map<BibtexEntry, List<IntegrityMessage>> call() {
+                    return check(chunk);
+                }
+            }));
+        }
+        Map<BibtexEntry, List<IntegrityMessage>> results = new IdentityHashMap<>();
+        for (Future<Map<BibtexEntry, List<IntegrityMessage>>> future : futures) {
+            results.putAll(waitFor(future));
+        }
+        return results;
+    }
+
+    private Map<BibtexEntry, List<IntegrityMessage>> check(Collection<BibtexEntry> entries) {
+        Map<BibtexEntry, List<IntegrityMessage>> results = new IdentityHashMap<>();
+        for (BibtexEntry entry : entries) {
+            try {
+                results.put(entry, check.checkBibtexEntry(entry));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not check entry " + entry.getCiteKey(), e);
+                results.put(entry, Collections.<IntegrityMessage> emptyList());
+            }
+        }
+        return results;
+    }
+
+    private void fireMessagesChanged() {
+        for (Listener listener : listeners) {
+            listener.messagesChanged(this);
+        }
+    }
+
+    private static boolean isSame(List<IntegrityMessage> previous, List<IntegrityMessage> current) {
+        if (previous == null) {
+            return current.isEmpty();
+        }
+        if (previous.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            if (!previous.get(i).getFieldName().equals(current.get(i).getFieldName())
+                    || !previous.get(i).getMessage().equals(current.get(i).getMessage())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<BibtexEntry, List<IntegrityMessage>> waitFor(
+            Future<Map<BibtexEntry, List<IntegrityMessage>>> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // the messages of all entries are needed
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    LOGGER.warn("Integrity check worker failed", e);
+                    return Collections.emptyMap();
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
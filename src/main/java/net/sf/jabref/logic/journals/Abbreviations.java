@@ -19,8 +19,22 @@ import net.sf.jabref.JabRefPreferences;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Abbreviations {
 
@@ -30,52 +44,225 @@ public class Abbreviations {
     public static final String JOURNALS_FILE_BUILTIN = "/journals/journalList.txt";
     public static final String JOURNALS_IEEE_ABBREVIATION_LIST_WITH_CODE = "/journals/IEEEJournalListCode.txt";
     public static final String JOURNALS_IEEE_ABBREVIATION_LIST_WITH_TEXT = "/journals/IEEEJournalListText.txt";
-    public static JournalAbbreviationRepository journalAbbrev;
+    /**
+     * The builtin list compiled at build time, see {@link JournalAbbreviationStore}
+     */
+    public static final String JOURNALS_FILE_BUILTIN_COMPILED = "/journals/journalList.bin";
+    private static final String COMPILED_LISTS_PREFIX = "journalLists-";
+    private static JournalAbbreviationRepository journalAbbrev;
 
-    public static void initializeJournalNames(JabRefPreferences jabRefPreferences) {
-        journalAbbrev = new JournalAbbreviationRepository();
+    /**
+     * The compiled builtin list, loaded once and shared by all repositories
+     */
+    private static JournalAbbreviationStore builtinStore;
 
-        // the order of reading the journal lists is important
-        // method: last added abbreviation wins
-        // for instance, in the personal list one can overwrite abbreviations in the built in list
+    /**
+     * The preferences to read the lists with on first use, null if they have been read already
+     */
+    private static JabRefPreferences pendingPreferences;
 
-        // Read builtin list
-        journalAbbrev.readJournalListFromResource(JOURNALS_FILE_BUILTIN);
 
-        // read IEEE list
-        if (jabRefPreferences.getBoolean(JabRefPreferences.USE_IEEE_ABRV)) {
-            journalAbbrev.readJournalListFromResource(JOURNALS_IEEE_ABBREVIATION_LIST_WITH_CODE);
-        } else {
-            journalAbbrev.readJournalListFromResource(JOURNALS_IEEE_ABBREVIATION_LIST_WITH_TEXT);
+    /**
+     * Reads the list(s) of journal names and abbreviations on the first call of {@link #getJournalAbbreviations()},
+     * using the given preferences.
+     */
+    public static synchronized void initializeJournalNamesLazily(JabRefPreferences jabRefPreferences) {
+        pendingPreferences = jabRefPreferences;
+        journalAbbrev = null;
+    }
+
+    /**
+     * Returns the journal names and abbreviations, reading the lists first if necessary.
+     */
+    public static synchronized JournalAbbreviationRepository getJournalAbbreviations() {
+        if ((journalAbbrev == null) && (pendingPreferences != null)) {
+            initializeJournalNames(pendingPreferences);
         }
+        return journalAbbrev;
+    }
+
+    public static synchronized void initializeJournalNames(JabRefPreferences jabRefPreferences) {
+        pendingPreferences = null;
 
-        // Read external lists
+        // the order of reading the journal lists is important
+        // method: last added abbreviation wins
+        // for instance, in the personal list one can overwrite abbreviations in the built in list
+        boolean useIEEE = jabRefPreferences.getBoolean(JabRefPreferences.USE_IEEE_ABRV);
+        List<File> customLists = new ArrayList<>();
+
+        // external lists
         String[] lists = jabRefPreferences.getStringArray(JabRefPreferences.EXTERNAL_JOURNAL_LISTS);
         if ((lists != null) && (lists.length > 0)) {
             for (int i = lists.length - 1; i >= 0; i--) {
-                String filename = lists[i];
-                try {
-                    journalAbbrev.readJournalListFromFile(new File(filename));
-                } catch (FileNotFoundException e) {
-                    // The file couldn't be found... should we tell anyone?
-                    LOGGER.info("Cannot find external journal list file " + filename, e);
-                }
+                customLists.add(new File(lists[i]));
             }
         }
 
-        // Read personal list
+        // personal list
         String personalJournalList = jabRefPreferences.get(JabRefPreferences.PERSONAL_JOURNAL_LIST);
         if ((personalJournalList != null) && !personalJournalList.trim().isEmpty()) {
+            customLists.add(new File(personalJournalList));
+        }
+
+        if (customLists.isEmpty()) {
+            journalAbbrev = readJournalLists(getBuiltinStore(), useIEEE, customLists);
+        } else {
+            journalAbbrev = readCompiledJournalLists(getCompiledListsDirectory(), useIEEE, customLists);
+        }
+    }
+
+    /**
+     * Reads the builtin list, the IEEE list and the given custom lists, in this order.
+     *
+     * @param store the compiled builtin list, or null to read the text version
+     */
+    static JournalAbbreviationRepository readJournalLists(JournalAbbreviationStore store, boolean useIEEE,
+            List<File> customLists) {
+        JournalAbbreviationRepository repository;
+        if (store == null) {
+            repository = new JournalAbbreviationRepository();
+            repository.readJournalListFromResource(JOURNALS_FILE_BUILTIN);
+        } else {
+            repository = new JournalAbbreviationRepository(store);
+        }
+
+        if (useIEEE) {
+            repository.readJournalListFromResource(JOURNALS_IEEE_ABBREVIATION_LIST_WITH_CODE);
+        } else {
+            repository.readJournalListFromResource(JOURNALS_IEEE_ABBREVIATION_LIST_WITH_TEXT);
+        }
+
+        for (File list : customLists) {
             try {
-                journalAbbrev.readJournalListFromFile(new File(personalJournalList));
+                repository.readJournalListFromFile(list);
             } catch (FileNotFoundException e) {
-                LOGGER.info("Personal journal list file '" + personalJournalList + "' not found.", e);
+                // The file couldn't be found... should we tell anyone?
+                LOGGER.info("Cannot find journal list file " + list, e);
+            }
+        }
+        return repository;
+    }
+
+    /**
+     * Reads the same lists as {@link #readJournalLists(JournalAbbreviationStore, boolean, List)}, but from a
+     * compiled version in the given directory. The compiled version is written when the lists are read for the first
+     * time and is replaced when one of the lists changes.
+     */
+    static JournalAbbreviationRepository readCompiledJournalLists(File directory, boolean useIEEE,
+            List<File> customLists) {
+        File compiled = new File(directory, COMPILED_LISTS_PREFIX + getListsKey(useIEEE, customLists) + ".bin");
+        if (compiled.isFile()) {
+            try {
+                return new JournalAbbreviationRepository(JournalAbbreviationStore.map(compiled.toPath()));
+            } catch (IOException e) {
+                LOGGER.warn("Cannot read compiled journal lists " + compiled, e);
             }
         }
 
+        // a repository based on a store cannot be compiled
+        JournalAbbreviationRepository repository = readJournalLists(null, useIEEE, customLists);
+        try {
+            writeCompiled(repository, compiled);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write compiled journal lists " + compiled, e);
+        }
+        return repository;
+    }
+
+    private static void writeCompiled(JournalAbbreviationRepository repository, File compiled) throws IOException {
+        File directory = compiled.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        File temporary = File.createTempFile(COMPILED_LISTS_PREFIX, ".tmp", directory);
+        try {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temporary))) {
+                repository.writeCompiled(out);
+            }
+            Files.move(temporary.toPath(), compiled.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (temporary.exists() && !temporary.delete()) {
+                LOGGER.debug("Cannot delete " + temporary);
+            }
+        }
+
+        // the versions of older lists are not needed anymore
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith(COMPILED_LISTS_PREFIX) && !file.equals(compiled) && !file.delete()) {
+                    LOGGER.debug("Cannot delete " + file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies the content of the lists by the version of the builtin list and the names, sizes and modification
+     * times of the custom lists.
+     */
+    private static String getListsKey(boolean useIEEE, List<File> customLists) {
+        StringBuilder key = new StringBuilder();
+        key.append(useIEEE);
+        URL builtin = Abbreviations.class.getResource(JOURNALS_FILE_BUILTIN);
+        if (builtin != null) {
+            try {
+                URLConnection connection = builtin.openConnection();
+                // closes the file opened by the connection
+                try (InputStream in = connection.getInputStream()) {
+                    key.append('\n').append(connection.getContentLengthLong()).append(' ')
+                            .append(connection.getLastModified());
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Cannot read version of " + JOURNALS_FILE_BUILTIN, e);
+            }
+        }
+        for (File list : customLists) {
+            key.append('\n').append(list.getAbsolutePath()).append(' ').append(list.length()).append(' ')
+                    .append(list.lastModified());
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The directory for the compiled versions of the custom journal lists
+     */
+    public static File getCompiledListsDirectory() {
+        return new File(System.getProperty("user.home"), ".jabref" + File.separator + "journals");
+    }
+
+    /**
+     * @return the compiled builtin list, or null if it is not available (e.g. when running without a Gradle build)
+     */
+    private static JournalAbbreviationStore getBuiltinStore() {
+        if (builtinStore == null) {
+            URL url = Abbreviations.class.getResource(JOURNALS_FILE_BUILTIN_COMPILED);
+            if (url == null) {
+                LOGGER.debug("No compiled journal list found, reading " + JOURNALS_FILE_BUILTIN);
+                return null;
+            }
+            try {
+                builtinStore = JournalAbbreviationStore.load(url);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot read compiled journal list, reading " + JOURNALS_FILE_BUILTIN, e);
+            }
+        }
+        return builtinStore;
     }
 
     public static String toggleAbbreviation(String text) {
-        return journalAbbrev.getNextAbbreviation(text).orElse(text);
+        return getJournalAbbreviations().getNextAbbreviation(text).orElse(text);
     }
 }
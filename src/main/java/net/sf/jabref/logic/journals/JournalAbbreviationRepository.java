@@ -20,10 +20,15 @@ import org.apache.commons.logging.LogFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 /**
  * A repository for all journal abbreviations, including add and find methods.
+ * <p>
+ * The repository may be based on a precompiled {@link JournalAbbreviationStore}. Abbreviations added later override
+ * the ones of the store in the same way as if all of them had been added one after the other.
  */
 public class JournalAbbreviationRepository {
 
@@ -33,8 +38,38 @@ public class JournalAbbreviationRepository {
 
     private final SortedSet<Abbreviation> abbreviations = new TreeSet<>();
 
+    private final JournalAbbreviationStore base;
+
+    /**
+     * Names of the abbreviations of the base store which have been replaced by added abbreviations
+     */
+    private final Set<String> replacedBaseNames = new HashSet<>();
+
+    /**
+     * The number of abbreviations returned by {@link #getAbbreviations()}
+     */
+    private int count;
+
+    /**
+     * The abbreviations of the base store and the added ones, built on request after a change
+     */
+    private SortedSet<Abbreviation> allAbbreviations;
+
     private static final Log LOGGER = LogFactory.getLog(JournalAbbreviationRepository.class);
 
+
+    public JournalAbbreviationRepository() {
+        this.base = null;
+    }
+
+    /**
+     * Creates a repository containing the abbreviations of the given store.
+     */
+    public JournalAbbreviationRepository(JournalAbbreviationStore base) {
+        this.base = Objects.requireNonNull(base);
+        this.count = base.getListedCount();
+    }
+
     public void readJournalListFromResource(String resource) {
         AbbreviationParser parser = new AbbreviationParser();
         parser.readJournalListFromResource(Objects.requireNonNull(resource));
@@ -53,20 +88,28 @@ public class JournalAbbreviationRepository {
     }
 
     public int size() {
-        return abbreviations.size();
+        return count;
     }
 
     public boolean isKnownName(String journalName) {
         String nameKey = Objects.requireNonNull(journalName).trim().toLowerCase();
-        return (fullNameLowerCase2Abbreviation.get(nameKey) != null)
-                || (isoLowerCase2Abbreviation.get(nameKey) != null)
-                || (medlineLowerCase2Abbreviation.get(nameKey) != null);
+        return (find(fullNameLowerCase2Abbreviation, JournalAbbreviationStore.FULL_NAME, nameKey) != null)
+                || (find(isoLowerCase2Abbreviation, JournalAbbreviationStore.ISO, nameKey) != null)
+                || (find(medlineLowerCase2Abbreviation, JournalAbbreviationStore.MEDLINE, nameKey) != null);
     }
 
     public boolean isAbbreviatedName(String journalName) {
         String nameKey = Objects.requireNonNull(journalName).trim().toLowerCase();
-        return (isoLowerCase2Abbreviation.get(nameKey) != null)
-                || (medlineLowerCase2Abbreviation.get(nameKey) != null);
+        return (find(isoLowerCase2Abbreviation, JournalAbbreviationStore.ISO, nameKey) != null)
+                || (find(medlineLowerCase2Abbreviation, JournalAbbreviationStore.MEDLINE, nameKey) != null);
+    }
+
+    private Abbreviation find(Map<String, Abbreviation> added, int storeIndex, String nameKey) {
+        Abbreviation abbreviation = added.get(nameKey);
+        if ((abbreviation == null) && (base != null)) {
+            abbreviation = base.find(storeIndex, nameKey);
+        }
+        return abbreviation;
     }
 
     /**
@@ -78,36 +121,86 @@ public class JournalAbbreviationRepository {
     public Optional<Abbreviation> getAbbreviation(String journalName) {
         String nameKey = Objects.requireNonNull(journalName).toLowerCase().trim();
 
-        if (fullNameLowerCase2Abbreviation.containsKey(nameKey)) {
-            return Optional.of(fullNameLowerCase2Abbreviation.get(nameKey));
-        } else if (isoLowerCase2Abbreviation.containsKey(nameKey)) {
-            return Optional.of(isoLowerCase2Abbreviation.get(nameKey));
-        } else if (medlineLowerCase2Abbreviation.containsKey(nameKey)) {
-            return Optional.of(medlineLowerCase2Abbreviation.get(nameKey));
-        } else {
-            return Optional.empty();
+        Abbreviation abbreviation = find(fullNameLowerCase2Abbreviation, JournalAbbreviationStore.FULL_NAME, nameKey);
+        if (abbreviation == null) {
+            abbreviation = find(isoLowerCase2Abbreviation, JournalAbbreviationStore.ISO, nameKey);
         }
+        if (abbreviation == null) {
+            abbreviation = find(medlineLowerCase2Abbreviation, JournalAbbreviationStore.MEDLINE, nameKey);
+        }
+        return Optional.ofNullable(abbreviation);
     }
 
     public void addEntry(Abbreviation abbreviation) {
         Objects.requireNonNull(abbreviation);
 
-        if (isKnownName(abbreviation.getName())) {
-            Abbreviation previous = getAbbreviation(abbreviation.getName()).get();
-            abbreviations.remove(previous);
+        // only the listed abbreviations of these names can change
+        Set<String> names = new HashSet<>();
+        names.add(abbreviation.getName());
+        Optional<Abbreviation> previous = getAbbreviation(abbreviation.getName());
+        if (previous.isPresent()) {
+            names.add(previous.get().getName());
+        }
+        int listedBefore = countListed(names);
+
+        if (previous.isPresent()) {
+            abbreviations.remove(previous.get());
+            if (base != null) {
+                replacedBaseNames.add(previous.get().getName());
+            }
             LOGGER.info("Duplicate journal abbreviation - old one will be overwritten by new one\nOLD: "
-                    + previous + "\nNEW: " + abbreviation);
+                    + previous.get() + "\nNEW: " + abbreviation);
         }
 
         abbreviations.add(abbreviation);
+        count += countListed(names) - listedBefore;
+        allAbbreviations = null;
 
         fullNameLowerCase2Abbreviation.put(abbreviation.getName().toLowerCase(), abbreviation);
         isoLowerCase2Abbreviation.put(abbreviation.getIsoAbbreviation().toLowerCase(), abbreviation);
         medlineLowerCase2Abbreviation.put(abbreviation.getMedlineAbbreviation().toLowerCase(), abbreviation);
     }
 
+    /**
+     * Counts the given names which are names of listed abbreviations, either added ones or ones of the base store.
+     */
+    private int countListed(Collection<String> names) {
+        int listed = 0;
+        for (String name : names) {
+            if (abbreviations.contains(new Abbreviation(name, name))
+                    || ((base != null) && !replacedBaseNames.contains(name) && base.isListed(name))) {
+                listed++;
+            }
+        }
+        return listed;
+    }
+
     public SortedSet<Abbreviation> getAbbreviations() {
-        return Collections.unmodifiableSortedSet(abbreviations);
+        if (base == null) {
+            return Collections.unmodifiableSortedSet(abbreviations);
+        }
+        if (allAbbreviations == null) {
+            SortedSet<Abbreviation> all = new TreeSet<>(abbreviations);
+            for (Abbreviation abbreviation : base.getAbbreviations()) {
+                if (!replacedBaseNames.contains(abbreviation.getName())) {
+                    // does not replace an added abbreviation of the same name
+                    all.add(abbreviation);
+                }
+            }
+            allAbbreviations = Collections.unmodifiableSortedSet(all);
+        }
+        return allAbbreviations;
+    }
+
+    /**
+     * Writes the abbreviations in the format of {@link JournalAbbreviationStore}.
+     */
+    void writeCompiled(OutputStream out) throws IOException {
+        if (base != null) {
+            throw new IllegalStateException("Cannot compile a repository based on a compiled store");
+        }
+        JournalAbbreviationStore.write(Arrays.<Map<String, Abbreviation>> asList(fullNameLowerCase2Abbreviation,
+                isoLowerCase2Abbreviation, medlineLowerCase2Abbreviation), abbreviations, out);
     }
 
     public Optional<String> getNextAbbreviation(String text) {
@@ -0,0 +1,353 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.logic.journals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable journal abbreviation list in a precompiled binary form.
+ * <p>
+ * The built-in journal list is compiled at build time (see the task compileJournalLists in build.gradle), so that it
+ * does not have to be parsed at every start. The data is kept outside of the Java heap (memory mapped if the file is
+ * not packed in a jar) and the abbreviations are only created when they are looked up. Together with custom journal
+ * lists, it is compiled once into the user's directory (see {@link Abbreviations#getCompiledListsDirectory()}).
+ * <p>
+ * The format stores the result of adding all abbreviations of a list to a {@link JournalAbbreviationRepository} (all
+ * numbers are big-endian ints):
+ * <pre>
+ * MAGIC VERSION recordCount
+ * recordCount times: nameOffset isoAbbreviationOffset listed
+ * 3 times (full name, ISO, MEDLINE index): keyCount, then keyCount times: keyOffset record (sorted by key)
+ * strings: byteLength UTF-8 bytes
+ * </pre>
+ * The offsets are positions in the file. "listed" is 1 if the record is part of the abbreviation list returned by
+ * {@link JournalAbbreviationRepository#getAbbreviations()}, 0 if it is only reachable by a key. The keys are the lower
+ * case names, as used by the repository.
+ */
+public class JournalAbbreviationStore {
+
+    static final int FULL_NAME = 0;
+    static final int ISO = 1;
+    static final int MEDLINE = 2;
+
+    private static final int MAGIC = 0x4A41424C;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int RECORD_SIZE = 12;
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int listedCount;
+    private final int[] indexStart = new int[3];
+    private final int[] indexSize = new int[3];
+
+
+    JournalAbbreviationStore(ByteBuffer buffer) throws IOException {
+        this.buffer = Objects.requireNonNull(buffer);
+        if ((buffer.limit() < HEADER_SIZE) || (buffer.getInt(0) != MAGIC)) {
+            throw new IOException("Not a compiled journal list");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported version of compiled journal list: " + buffer.getInt(4));
+        }
+        recordCount = buffer.getInt(8);
+        int position = HEADER_SIZE + (recordCount * RECORD_SIZE);
+        for (int index = FULL_NAME; index <= MEDLINE; index++) {
+            indexSize[index] = buffer.getInt(position);
+            indexStart[index] = position + 4;
+            position = indexStart[index] + (indexSize[index] * INDEX_ENTRY_SIZE);
+        }
+        int listed = 0;
+        for (int record = 0; record < recordCount; record++) {
+            if (isListed(record)) {
+                listed++;
+            }
+        }
+        listedCount = listed;
+    }
+
+    /**
+     * Loads a compiled journal list. A file is memory mapped, other resources (e.g. inside a jar) are copied into a
+     * direct buffer.
+     */
+    public static JournalAbbreviationStore load(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return map(Paths.get(url.toURI()));
+            } catch (URISyntaxException e) {
+                throw new IOException(e);
+            }
+        }
+
+        try (InputStream in = url.openStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                bytes.write(chunk, 0, read);
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size());
+            buffer.put(bytes.toByteArray());
+            buffer.flip();
+            return new JournalAbbreviationStore(buffer);
+        }
+    }
+
+    public static JournalAbbreviationStore map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new JournalAbbreviationStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Looks up a key in one of the indexes.
+     *
+     * @param index FULL_NAME, ISO or MEDLINE
+     * @param key the lower case name
+     * @return the abbreviation, or null if the key is unknown
+     */
+    Abbreviation find(int index, String key) {
+        int low = 0;
+        int high = indexSize[index] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = indexStart[index] + (middle * INDEX_ENTRY_SIZE);
+            int comparison = readString(buffer.getInt(entry)).compareTo(key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return readRecord(buffer.getInt(entry + 4));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the listed abbreviations, sorted by name.
+     */
+    List<Abbreviation> getAbbreviations() {
+        List<Abbreviation> abbreviations = new ArrayList<>(listedCount);
+        for (int record = 0; record < recordCount; record++) {
+            if (isListed(record)) {
+                abbreviations.add(readRecord(record));
+            }
+        }
+        return abbreviations;
+    }
+
+    /**
+     * Returns the number of listed abbreviations, without creating them.
+     */
+    int getListedCount() {
+        return listedCount;
+    }
+
+    /**
+     * Checks whether a listed abbreviation has exactly the given name.
+     */
+    boolean isListed(String name) {
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = readName(middle).compareTo(name);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                // records of the same name are next to each other
+                for (int record = middle; (record >= 0) && readName(record).equals(name); record--) {
+                    if (isListed(record)) {
+                        return true;
+                    }
+                }
+                for (int record = middle + 1; (record < recordCount) && readName(record).equals(name); record++) {
+                    if (isListed(record)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean isListed(int record) {
+        return buffer.getInt(HEADER_SIZE + (record * RECORD_SIZE) + 8) != 0;
+    }
+
+    private String readName(int record) {
+        return readString(buffer.getInt(HEADER_SIZE + (record * RECORD_SIZE)));
+    }
+
+    private Abbreviation readRecord(int record) {
+        int position = HEADER_SIZE + (record * RECORD_SIZE);
+        return new Abbreviation(readString(buffer.getInt(position)), readString(buffer.getInt(position + 4)));
+    }
+
+    private String readString(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + 4);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the given state of a {@link JournalAbbreviationRepository} in the compiled format.
+     */
+    static void write(List<Map<String, Abbreviation>> indexes, Collection<Abbreviation> listed, OutputStream out)
+            throws IOException {
+        // all abbreviations reachable by a key or listed, sorted by name
+        Map<Abbreviation, Integer> records = new IdentityHashMap<>();
+        List<Abbreviation> sortedRecords = new ArrayList<>();
+        for (Map<String, Abbreviation> index : indexes) {
+            for (Abbreviation abbreviation : index.values()) {
+                if (records.put(abbreviation, 0) == null) {
+                    sortedRecords.add(abbreviation);
+                }
+            }
+        }
+        for (Abbreviation abbreviation : listed) {
+            if (records.put(abbreviation, 0) == null) {
+                sortedRecords.add(abbreviation);
+            }
+        }
+        Collections.sort(sortedRecords);
+        Set<Abbreviation> listedRecords = Collections.newSetFromMap(new IdentityHashMap<>());
+        listedRecords.addAll(listed);
+
+        StringPool strings = new StringPool(HEADER_SIZE + (sortedRecords.size() * RECORD_SIZE)
+                + (indexes.size() * 4) + (countKeys(indexes) * INDEX_ENTRY_SIZE));
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(sortedRecords.size());
+        for (int record = 0; record < sortedRecords.size(); record++) {
+            Abbreviation abbreviation = sortedRecords.get(record);
+            records.put(abbreviation, record);
+            data.writeInt(strings.offsetOf(abbreviation.getName()));
+            data.writeInt(strings.offsetOf(abbreviation.getIsoAbbreviation()));
+            data.writeInt(listedRecords.contains(abbreviation) ? 1 : 0);
+        }
+        for (Map<String, Abbreviation> index : indexes) {
+            List<String> keys = new ArrayList<>(index.keySet());
+            Collections.sort(keys);
+            data.writeInt(keys.size());
+            for (String key : keys) {
+                data.writeInt(strings.offsetOf(key));
+                data.writeInt(records.get(index.get(key)));
+            }
+        }
+        strings.writeTo(data);
+        data.flush();
+    }
+
+    private static int countKeys(List<Map<String, Abbreviation>> indexes) {
+        int count = 0;
+        for (Map<String, Abbreviation> index : indexes) {
+            count += index.size();
+        }
+        return count;
+    }
+
+    /**
+     * Compiles journal lists. The last argument is the output file, the others are the journal lists, read in the
+     * given order.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JournalAbbreviationStore <journal list>... <output file>");
+            System.exit(1);
+        }
+        JournalAbbreviationRepository repository = new JournalAbbreviationRepository();
+        for (int i = 0; i < (args.length - 1); i++) {
+            repository.readJournalListFromFile(new File(args[i]));
+        }
+
+        File output = new File(args[args.length - 1]);
+        File directory = output.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            repository.writeCompiled(out);
+        }
+    }
+
+
+    /**
+     * Assigns every distinct string its position in the string section of the file.
+     */
+    private static class StringPool {
+
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private int nextOffset;
+
+
+        StringPool(int start) {
+            nextOffset = start;
+        }
+
+        int offsetOf(String string) {
+            Integer offset = offsets.get(string);
+            if (offset == null) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                offset = nextOffset;
+                offsets.put(string, offset);
+                strings.add(bytes);
+                nextOffset += 4 + bytes.length;
+            }
+            return offset;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            for (byte[] bytes : strings) {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.logic.labelPattern;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import net.sf.jabref.MetaData;
+import net.sf.jabref.logic.preferences.PreferencesSnapshot;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.util.Util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Generates BibTeX keys for the entries of one database.
+ *
+ * In contrast to {@link LabelPatternUtil#makeLabel(MetaData, BibtexDatabase, BibtexEntry)} the key patterns are
+ * parsed only once per entry type and the key generator settings are taken from a {@link PreferencesSnapshot}. A
+ * generator does not use any static state, so several generators can be used at the same time.
+ *
+ * Use {@link #generateKeys(Collection)} to compute the keys of many entries at once. It does not modify the database,
+ * so it can run outside of the event dispatch thread, and looks up the keys already in use in a set built once.
+ */
+public class KeyGenerator {
+
+    private static final Log LOGGER = LogFactory.getLog(KeyGenerator.class);
+
+    private final MetaData metaData;
+    private final BibtexDatabase database;
+    private final Pattern keyPatternRegex;
+    private final String keyPatternReplacement;
+    private final boolean alwaysAddLetter;
+    private final boolean firstLetterA;
+
+    private final Map<String, List<KeyPart>> compiledPatterns = new ConcurrentHashMap<>();
+
+
+    /**
+     * Counts how often a key is used.
+     */
+    private interface KeyOccurrences {
+
+        int count(String key);
+    }
+
+    /**
+     * One element of a key pattern: either a literal text or a field marker like [auth:lower].
+     */
+    private static class KeyPart {
+
+        private final String text;
+        private final boolean field;
+        private final String[] modifiers;
+
+
+        KeyPart(String text) {
+            this.text = text;
+            this.field = false;
+            this.modifiers = null;
+        }
+
+        KeyPart(String[] fieldMarker) {
+            this.text = fieldMarker[0];
+            this.field = true;
+            this.modifiers = fieldMarker;
+        }
+
+        String apply(BibtexDatabase database, BibtexEntry entry) {
+            if (!field) {
+                return text;
+            }
+            String label = LabelPatternUtil.makeLabel(database, entry, text);
+            // the first element of the modifiers is the field name itself
+            if (modifiers.length > 1) {
+                label = LabelPatternUtil.applyModifiers(label, modifiers, 1);
+            }
+            return label;
+        }
+    }
+
+
+    public KeyGenerator(MetaData metaData, BibtexDatabase database, PreferencesSnapshot preferences) {
+        this.metaData = Objects.requireNonNull(metaData);
+        this.database = Objects.requireNonNull(database);
+
+        String regex = preferences.getKeyPatternRegex();
+        if ((regex == null) || regex.trim().isEmpty()) {
+            keyPatternRegex = null;
+            keyPatternReplacement = null;
+        } else {
+            keyPatternRegex = Pattern.compile(regex);
+            String replacement = preferences.getKeyPatternReplacement();
+            keyPatternReplacement = replacement == null ? "" : replacement;
+        }
+        alwaysAddLetter = preferences.isKeyGenAlwaysAddLetter();
+        firstLetterA = preferences.isKeyGenFirstLetterA();
+    }
+
+    /**
+     * Generates a unique key for the given entry and stores it in the entry, updating the database if the entry is
+     * part of it.
+     */
+    public void generateKey(BibtexEntry entry) {
+        String oldKey = entry.getCiteKey();
+        String key = makeUnique(generateBaseKey(entry), oldKey, new KeyOccurrences() {
+
+            @Override
+            public int count(String key) {
+                return database.getNumberOfKeyOccurrences(key);
+            }
+        });
+
+        if (!key.equals(oldKey)) {
+            if (database.getEntryById(entry.getId()) == null) {
+                // entry does not (yet) exist in the database, just update the entry
+                entry.setField(BibtexEntry.KEY_FIELD, key);
+            } else {
+                database.setCiteKeyForEntry(entry.getId(), key);
+            }
+        }
+    }
+
+    /**
+     * Computes unique keys for the given entries without modifying the entries or the database. The result is the same
+     * as calling {@link #generateKey(BibtexEntry)} for the entries one after the other.
+     *
+     * @return the new key of every entry, in the order of the given entries
+     */
+    public Map<BibtexEntry, String> generateKeys(Collection<BibtexEntry> entries) {
+        final Map<String, Integer> usedKeys = new HashMap<>();
+        for (BibtexEntry entry : database.getEntries()) {
+            addKey(usedKeys, entry.getCiteKey(), 1);
+        }
+        KeyOccurrences occurrences = new KeyOccurrences() {
+
+            @Override
+            public int count(String key) {
+                Integer count = usedKeys.get(key);
+                return count == null ? 0 : count;
+            }
+        };
+
+        Map<BibtexEntry, String> result = new LinkedHashMap<>();
+        for (BibtexEntry entry : entries) {
+            String oldKey = entry.getCiteKey();
+            String key = makeUnique(generateBaseKey(entry), oldKey, occurrences);
+            result.put(entry, key);
+
+            if (database.getEntryById(entry.getId()) != null) {
+                // the new key of this entry is taken into account for the following entries
+                addKey(usedKeys, oldKey, -1);
+                addKey(usedKeys, key, 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the key of the given entry according to the key pattern of its type, without making it unique.
+     */
+    public String generateBaseKey(BibtexEntry entry) {
+        StringBuilder stringBuilder = new StringBuilder();
+        try {
+            for (KeyPart part : getCompiledPattern(entry.getType().getName().toLowerCase())) {
+                stringBuilder.append(part.apply(database, entry));
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Cannot make label", e);
+        }
+
+        // Remove all illegal characters from the key.
+        String key = Util.checkLegalKey(stringBuilder.toString());
+
+        // Remove Regular Expressions while generating Keys
+        if (keyPatternRegex != null) {
+            key = keyPatternRegex.matcher(key).replaceAll(keyPatternReplacement);
+        }
+        return key;
+    }
+
+    private List<KeyPart> getCompiledPattern(String entryType) {
+        List<KeyPart> parts = compiledPatterns.get(entryType);
+        if (parts == null) {
+            parts = compile(metaData.getLabelPattern().getValue(entryType));
+            compiledPatterns.put(entryType, parts);
+        }
+        return parts;
+    }
+
+    /**
+     * Converts the result of {@link LabelPatternUtil#split(String)} into key parts.
+     */
+    private static List<KeyPart> compile(List<String> typeList) {
+        List<KeyPart> parts = new ArrayList<>();
+        boolean field = false;
+        // the first element is the unparsed pattern
+        for (int i = 1; i < typeList.size(); i++) {
+            String typeListEntry = typeList.get(i);
+            if ("[".equals(typeListEntry)) {
+                field = true;
+            } else if ("]".equals(typeListEntry)) {
+                field = false;
+            } else if (field) {
+                parts.add(new KeyPart(LabelPatternUtil.parseFieldMarker(typeListEntry)));
+            } else {
+                parts.add(new KeyPart(typeListEntry));
+            }
+        }
+        return parts;
+    }
+
+    private String makeUnique(String key, String oldKey, KeyOccurrences occurrences) {
+        int count = occurrences.count(key);
+        if ((oldKey != null) && oldKey.equals(key)) {
+            count--; // No change, so we can accept one dupe.
+        }
+
+        if (!alwaysAddLetter && (count == 0)) {
+            // No dupes found, so we can just go ahead.
+            return key;
+        }
+
+        // The key is already in use, so we must modify it.
+        int number = 0;
+        if (!alwaysAddLetter && !firstLetterA) {
+            number = 1;
+        }
+
+        String moddedKey = key + LabelPatternUtil.getAddition(number);
+        count = occurrences.count(moddedKey);
+        if ((oldKey != null) && oldKey.equals(moddedKey)) {
+            count--;
+        }
+
+        while (count > 0) {
+            number++;
+            moddedKey = key + LabelPatternUtil.getAddition(number);
+
+            count = occurrences.count(moddedKey);
+            if ((oldKey != null) && oldKey.equals(moddedKey)) {
+                count--;
+            }
+        }
+        return moddedKey;
+    }
+
+    private static void addKey(Map<String, Integer> usedKeys, String key, int delta) {
+        if ((key == null) || key.isEmpty()) {
+            // empty keys are not counted by the database either
+            return;
+        }
+        Integer count = usedKeys.get(key);
+        int newCount = (count == null ? 0 : count) + delta;
+        if (newCount > 0) {
+            usedKeys.put(key, newCount);
+        } else {
+            usedKeys.remove(key);
+        }
+    }
+}
@@ -28,6 +28,7 @@ import net.sf.jabref.logic.formatter.casechanger.Word;
 import net.sf.jabref.model.entry.AuthorList;
 import net.sf.jabref.model.database.BibtexDatabase;
 import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.logic.preferences.PreferencesSnapshot;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -422,121 +423,17 @@ public class LabelPatternUtil {
      * @return modified Bibtexentry
      */
     public static void makeLabel(MetaData metaData, BibtexDatabase dBase, BibtexEntry entry) {
-        LabelPatternUtil.database = dBase;
-        ArrayList<String> typeList;
-        String key;
-        StringBuilder stringBuilder = new StringBuilder();
-        boolean forceUpper = false;
-        boolean forceLower = false;
-
-        try {
-            // get the type of entry
-            String entryType = entry.getType().getName().toLowerCase();
-            // Get the arrayList corresponding to the type
-            typeList = metaData.getLabelPattern().getValue(entryType);
-            int typeListSize = typeList.size();
-            boolean field = false;
-            for (int i = 1; i < typeListSize; i++) {
-                String typeListEntry = typeList.get(i);
-                if ("[".equals(typeListEntry)) {
-                    field = true;
-                } else if ("]".equals(typeListEntry)) {
-                    field = false;
-                } else if (field) {
-                    // check whether there is a modifier on the end such as
-                    // ":lower"
-                    // String modifier = null;
-                    String[] parts = LabelPatternUtil.parseFieldMarker(typeListEntry);//val.split(":");
-
-                    String label = LabelPatternUtil.makeLabel(entry, parts[0]);
-
-                    // apply modifier if present
-                    if (parts.length > 1) {
-                        label = LabelPatternUtil.applyModifiers(label, parts, 1);
-                    }
-
-                    stringBuilder.append(label);
-
-                } else {
-                    stringBuilder.append(typeListEntry);
-                }
-            }
-        } catch (Exception e) {
-            LOGGER.warn("Cannot make label", e);
-        }
-
-        // Remove all illegal characters from the key.
-        key = Util.checkLegalKey(stringBuilder.toString());
-
-        // Remove Regular Expressions while generating Keys
-        String regex = Globals.prefs.get("KeyPatternRegex");
-        if ((regex != null) && !regex.trim().isEmpty()) {
-            String replacement = Globals.prefs.get("KeyPatternReplacement");
-            key = key.replaceAll(regex, replacement);
-        }
-
-        if (forceUpper) {
-            key = key.toUpperCase();
-        }
-        if (forceLower) {
-            key = key.toLowerCase();
-        }
-
-        String oldKey = entry.getCiteKey();
-        int occurrences = LabelPatternUtil.database.getNumberOfKeyOccurrences(key);
-
-        if ((oldKey != null) && oldKey.equals(key))
-         {
-            occurrences--; // No change, so we can accept one dupe.
-        }
-
-        boolean alwaysAddLetter = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_ALWAYS_ADD_LETTER);
-        boolean firstLetterA = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_FIRST_LETTER_A);
-
-        if (!alwaysAddLetter && (occurrences == 0)) {
-            // No dupes found, so we can just go ahead.
-            if (!key.equals(oldKey)) {
-                if (LabelPatternUtil.database.getEntryById(entry.getId()) == null) {
-                    // entry does not (yet) exist in the database, just update the entry
-                    entry.setField(BibtexEntry.KEY_FIELD, key);
-                } else {
-                    LabelPatternUtil.database.setCiteKeyForEntry(entry.getId(), key);
-                }
-            }
-
-        } else {
-            // The key is already in use, so we must modify it.
-            int number = 0;
-            if (!alwaysAddLetter && !firstLetterA) {
-                number = 1;
-            }
-
-            String moddedKey = key + LabelPatternUtil.getAddition(number);
-            occurrences = LabelPatternUtil.database.getNumberOfKeyOccurrences(moddedKey);
-
-            if ((oldKey != null) && oldKey.equals(moddedKey)) {
-                occurrences--;
-            }
-
-            while (occurrences > 0) {
-                number++;
-                moddedKey = key + LabelPatternUtil.getAddition(number);
-
-                occurrences = LabelPatternUtil.database.getNumberOfKeyOccurrences(moddedKey);
-                if ((oldKey != null) && oldKey.equals(moddedKey)) {
-                    occurrences--;
-                }
-            }
+        makeLabel(metaData, dBase, entry, Globals.prefs.getSnapshot());
+    }
 
-            if (!moddedKey.equals(oldKey)) {
-                if (LabelPatternUtil.database.getEntryById(entry.getId()) == null) {
-                    // entry does not (yet) exist in the database, just update the entry
-                    entry.setField(BibtexEntry.KEY_FIELD, moddedKey);
-                } else {
-                    LabelPatternUtil.database.setCiteKeyForEntry(entry.getId(), moddedKey);
-                }
-            }
-        }
+    /**
+     * Generates a BibTeX label like {@link #makeLabel(MetaData, BibtexDatabase, BibtexEntry)}, but reads the key
+     * generator settings from the given preferences.
+     */
+    public static void makeLabel(MetaData metaData, BibtexDatabase dBase, BibtexEntry entry,
+            PreferencesSnapshot preferences) {
+        LabelPatternUtil.database = dBase;
+        new KeyGenerator(metaData, dBase, preferences).generateKey(entry);
     }
 
     /**
@@ -584,6 +481,13 @@ public class LabelPatternUtil {
     }
 
     public static String makeLabel(BibtexEntry entry, String val) {
+        return makeLabel(LabelPatternUtil.database, entry, val);
+    }
+
+    /**
+     * Evaluates a single field marker, resolving strings of the author and editor fields using the given database.
+     */
+    static String makeLabel(BibtexDatabase database, BibtexEntry entry, String val) {
 
         try {
             if (val.startsWith("auth") || val.startsWith("pureauth")) {
@@ -600,7 +504,7 @@ public class LabelPatternUtil {
                  */
                 String authString = entry.getField("author");
                 if (authString != null) {
-                    authString = LabelPatternUtil.normalize(LabelPatternUtil.database.resolveForStrings(authString));
+                    authString = LabelPatternUtil.normalize(database.resolveForStrings(authString));
                 }
 
                 if (val.startsWith("pure")) {
@@ -613,7 +517,7 @@ public class LabelPatternUtil {
                     authString = entry.getField("editor");
                     if (authString != null) {
                         authString = LabelPatternUtil
-                                .normalize(LabelPatternUtil.database.resolveForStrings(authString));
+                                .normalize(database.resolveForStrings(authString));
                     } else {
                         authString = "";
                     }
@@ -808,7 +712,7 @@ public class LabelPatternUtil {
      *            The appendix number.
      * @return The String to append.
      */
-    private static String getAddition(int number) {
+    static String getAddition(int number) {
         if (number >= LabelPatternUtil.CHARS.length()) {
             int lastChar = number % LabelPatternUtil.CHARS.length();
             return LabelPatternUtil.getAddition((number / LabelPatternUtil.CHARS.length()) - 1) + LabelPatternUtil.CHARS.substring(lastChar, lastChar + 1);
@@ -1331,7 +1235,7 @@ public class LabelPatternUtil {
      * @param arg The argument string.
      * @return An array of strings representing the parts of the marker
      */
-    private static String[] parseFieldMarker(String arg) {
+    static String[] parseFieldMarker(String arg) {
         List<String> parts = new ArrayList<>();
         StringBuilder current = new StringBuilder();
         boolean escaped = false;
@@ -0,0 +1,228 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.logic.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the downloads of the fetchers concurrently.
+ * <p>
+ * Every host gets its own small pool of threads, so that at most {@link #getMaxConnectionsPerHost()} requests are sent
+ * to a server at the same time and a slow server does not hold up the others. The HTTP connections are kept alive and
+ * reused by the JDK, as long as every response is read completely and closed, as {@link #download(URL, Charset)}
+ * does. The JDK keeps up to five idle connections per host (system property "http.maxConnections").
+ * <p>
+ * {@link #fetchInOrder(List, Download, Receiver)} hands the results to the caller in the order of the URLs, no matter
+ * in which order they arrive, so that the results of a search are shown in the order of the search engine.
+ */
+public class FetchExecutor {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
+    private static final FetchExecutor INSTANCE = new FetchExecutor(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 5.1; rv:31.0) Gecko/20100101 Firefox/31.0";
+
+    /**
+     * Idle threads of a host are stopped after this time
+     */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+
+    /**
+     * Downloads and converts one URL. Runs on a thread of the executor.
+     */
+    public interface Download<T> {
+
+        T download(URL url) throws IOException;
+    }
+
+    /**
+     * Gets the results of {@link #fetchInOrder(List, Download, Receiver)}, on the thread which called it.
+     */
+    public interface Receiver<T> {
+
+        /**
+         * @return false to stop fetching
+         */
+        boolean received(URL url, T result);
+
+        /**
+         * @return false to stop fetching
+         */
+        boolean failed(URL url, IOException exception);
+    }
+
+
+    private final int maxConnectionsPerHost;
+
+    private final Map<String, ThreadPoolExecutor> hostExecutors = new HashMap<>();
+
+
+    public FetchExecutor(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("At least one connection per host is needed");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * Returns the executor shared by all fetchers.
+     */
+    public static FetchExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Starts the given download. It waits until less than {@link #getMaxConnectionsPerHost()} downloads from the same
+     * host are running.
+     */
+    public <T> Future<T> submit(final URL url, final Download<T> download) {
+        return getHostExecutor(url).submit(new Callable<T>() {
+
+            @Override
+            public T call() throws IOException {
+                return download.download(url);
+            }
+        });
+    }
+
+    /**
+     * Downloads all given URLs concurrently and passes the results to the receiver in the order of the URLs. Returns
+     * when all results have been received, or when the receiver asks to stop. Downloads which have not been received
+     * are canceled then.
+     *
+     * @return true if all results have been received
+     */
+    public <T> boolean fetchInOrder(List<URL> urls, Download<T> download, Receiver<T> receiver)
+            throws InterruptedException {
+        List<Future<T>> futures = new ArrayList<>(urls.size());
+        for (URL url : urls) {
+            futures.add(submit(url, download));
+        }
+
+        int received = 0;
+        try {
+            for (; received < futures.size(); received++) {
+                URL url = urls.get(received);
+                boolean proceed;
+                try {
+                    proceed = receiver.received(url, futures.get(received).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    proceed = receiver.failed(url, (IOException) cause);
+                }
+                if (!proceed) {
+                    received++;
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            for (int i = received; i < futures.size(); i++) {
+                futures.get(i).cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Stops all threads of this executor. Running downloads are interrupted.
+     */
+    public void shutdown() {
+        synchronized (hostExecutors) {
+            for (ThreadPoolExecutor executor : hostExecutors.values()) {
+                executor.shutdownNow();
+            }
+            hostExecutors.clear();
+        }
+    }
+
+    private ThreadPoolExecutor getHostExecutor(URL url) {
+        final String host = url.getProtocol() + "://" + url.getHost() + ':' + url.getPort();
+        synchronized (hostExecutors) {
+            ThreadPoolExecutor executor = hostExecutors.get(host);
+            if (executor == null) {
+                executor = new ThreadPoolExecutor(maxConnectionsPerHost, maxConnectionsPerHost, KEEP_ALIVE_SECONDS,
+                        TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+                            private final AtomicInteger count = new AtomicInteger();
+
+
+                            @Override
+                            public Thread newThread(Runnable runnable) {
+                                Thread thread = new Thread(runnable,
+                                        "Fetcher " + url.getHost() + ' ' + count.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+                executor.allowCoreThreadTimeOut(true);
+                hostExecutors.put(host, executor);
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Downloads the given URL as a String. The response is read completely and closed, so that the connection can be
+     * reused for the next request to the same host.
+     *
+     * @param encoding the encoding of the response, null for the default encoding of the platform
+     */
+    public static String download(URL url, Charset encoding) throws IOException {
+        URLConnection connection = url.openConnection();
+        // set user-agent to avoid being blocked as a crawler
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+
+        try (InputStream in = connection.getInputStream();
+             Reader reader = encoding == null ? new InputStreamReader(in) : new InputStreamReader(in, encoding)) {
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                sb.append(buffer, 0, read);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,926 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.logic.net;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.CacheRequest;
+import java.net.CacheResponse;
+import java.net.HttpURLConnection;
+import java.net.ResponseCache;
+import java.net.SecureCacheResponse;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Keeps the responses of HTTP GET requests on disk, so that repeated lookups (of a DOI, an ISBN, a full text, ...) do
+ * not go to the network again, not even in the next session.
+ * <p>
+ * The cache is installed for all {@link HttpURLConnection}s with {@link ResponseCache#setDefault(ResponseCache)}, so
+ * it is used by {@link URLDownload}, the fetchers and Jsoup without any change to them. Responses are stored by URL
+ * and the request headers which select the representation (Accept, Accept-Language). A response which varies by other
+ * request headers (see the header Vary) is only used for requests with the same values of these headers.
+ * <p>
+ * A response is used without asking the server while it is fresh, as stated by the headers Cache-Control (max-age)
+ * and Expires. A response which only states its Last-Modified date is fresh for a tenth of its age, but at most a
+ * day. A response which is no longer fresh is revalidated with its ETag or Last-Modified date; the server then only
+ * sends the response again if it has changed.
+ * <p>
+ * Only responses which can be used again or revalidated are stored, and none which are marked "no-store" or
+ * "private", set a cookie, vary by any request ("Vary: *") or are PDF documents.
+ * <p>
+ * The total size of the cache is limited. When it is exceeded, the least recently used responses are removed. A
+ * single response may use at most an eighth of the cache and at most 1 MB. Responses are written to disk while they
+ * are read, so they are not kept in memory.
+ */
+public class PersistentResponseCache extends ResponseCache {
+
+    private static final Log LOGGER = LogFactory.getLog(PersistentResponseCache.class);
+
+    /**
+     * How long a response with a Last-Modified date but without explicit expiration is used at most without asking
+     * the server
+     */
+    static final long MAX_HEURISTIC_FRESHNESS = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * The request headers which select the representation of a resource
+     */
+    private static final List<String> KEY_HEADERS = Arrays.asList("Accept", "Accept-Language");
+
+    private static final String SUFFIX = ".cache";
+
+    private static final int MAGIC = 0x4A524843;
+    private static final int VERSION = 2;
+
+    /**
+     * A single response may use at most this part of the cache
+     */
+    private static final int MAX_ENTRY_FRACTION = 8;
+
+    /**
+     * A single response may use at most this many bytes
+     */
+    private static final long MAX_ENTRY_SIZE = 1024 * 1024;
+
+    private static final int REVALIDATION_TIMEOUT = 10000;
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age\\s*=\\s*\"?(\\d+)");
+
+
+    private final File directory;
+    private final long maxSize;
+
+    /**
+     * The size of every stored response by key, the least recently used first
+     */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean indexLoaded;
+    private long size;
+
+    /**
+     * The last request started by a thread. The headers of a request cannot be read in {@link #put(URI, URLConnection)}
+     * any more, so they are remembered from {@link #get(URI, String, Map)}.
+     */
+    private final ThreadLocal<Request> currentRequest = new ThreadLocal<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger revalidations = new AtomicInteger();
+
+
+    /**
+     * @param directory the directory to store the responses in, created when needed
+     * @param maxSize the maximal size of all stored responses in bytes
+     */
+    public PersistentResponseCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    public static File getDefaultDirectory() {
+        return new File(System.getProperty("user.home"), ".jabref" + File.separator + "httpcache");
+    }
+
+    @Override
+    public CacheResponse get(URI uri, String method, Map<String, List<String>> requestHeaders) {
+        currentRequest.remove();
+        if (!"GET".equals(method) || containsToken(getHeader(requestHeaders, "Cache-Control"), "no-cache")) {
+            return null;
+        }
+        String key = createKey(uri, requestHeaders);
+        currentRequest.set(new Request(uri, key, requestHeaders));
+
+        CachedResponse cached = read(key);
+        if (cached == null) {
+            return null;
+        }
+        if (!cached.uri.equals(uri.toString()) || !cached.matches(requestHeaders)) {
+            cached.close();
+            return null;
+        }
+        if (cached.expires > System.currentTimeMillis()) {
+            try {
+                CacheResponse response = cached.toCacheResponse();
+                hits.incrementAndGet();
+                return response;
+            } catch (IOException e) {
+                LOGGER.debug("Cannot use cached response of " + uri, e);
+                cached.close();
+                return null;
+            }
+        }
+        if (cached.etag.isEmpty() && cached.lastModified.isEmpty()) {
+            cached.close();
+            return null;
+        }
+        return revalidate(uri, requestHeaders, key, cached);
+    }
+
+    @Override
+    public CacheRequest put(URI uri, URLConnection connection) throws IOException {
+        Request request = currentRequest.get();
+        currentRequest.remove();
+        if ((request == null) || !request.uri.equals(uri) || !(connection instanceof HttpURLConnection)) {
+            return null;
+        }
+        HttpURLConnection http = (HttpURLConnection) connection;
+        if (!"GET".equals(http.getRequestMethod()) || (http.getResponseCode() != HttpURLConnection.HTTP_OK)
+                || !isStorable(http.getHeaderFields()) || (http.getContentLengthLong() > getMaxEntrySize())) {
+            return null;
+        }
+
+        final EntryWriter writer;
+        try {
+            writer = new EntryWriter(request.key,
+                    createResponse(uri, http, request.headers, System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.info("Cannot cache response of " + uri, e);
+            return null;
+        }
+        return new CacheRequest() {
+
+            @Override
+            public OutputStream getBody() {
+                return writer;
+            }
+
+            @Override
+            public void abort() {
+                writer.abort();
+            }
+        };
+    }
+
+    /**
+     * Asks the server whether a stored response is still valid.
+     *
+     * @return the stored or the new response, null if the request has to be sent again
+     */
+    private CacheResponse revalidate(URI uri, Map<String, List<String>> requestHeaders, String key,
+            CachedResponse cached) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+            // this request must not be answered from the cache
+            connection.setUseCaches(false);
+            connection.setInstanceFollowRedirects(false);
+            connection.setConnectTimeout(REVALIDATION_TIMEOUT);
+            connection.setReadTimeout(REVALIDATION_TIMEOUT);
+            for (Map.Entry<String, List<String>> header : requestHeaders.entrySet()) {
+                if (header.getKey() != null) {
+                    for (String value : header.getValue()) {
+                        connection.addRequestProperty(header.getKey(), value);
+                    }
+                }
+            }
+            if (!cached.etag.isEmpty()) {
+                connection.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (!cached.lastModified.isEmpty()) {
+                connection.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+
+            int responseCode = connection.getResponseCode();
+            long now = System.currentTimeMillis();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                connection.getInputStream().close();
+                cached.update(connection.getHeaderFields(), now);
+                // the response is stored again with the new headers
+                try (InputStream body = cached.getBody()) {
+                    if (!store(key, cached, body)) {
+                        return null;
+                    }
+                }
+                revalidations.incrementAndGet();
+                CachedResponse updated = read(key);
+                return updated == null ? null : updated.toCacheResponse();
+            } else if (responseCode == HttpURLConnection.HTTP_OK) {
+                try (InputStream in = connection.getInputStream()) {
+                    Map<String, List<String>> headers = connection.getHeaderFields();
+                    if (isStorable(headers) && (connection.getContentLengthLong() <= getMaxEntrySize())
+                            && store(key, createResponse(uri, connection, requestHeaders, now), in)) {
+                        CachedResponse stored = read(key);
+                        return stored == null ? null : stored.toCacheResponse();
+                    }
+                }
+                // the response cannot be kept, so the request is sent again without the cache
+                return null;
+            }
+            InputStream error = connection.getErrorStream();
+            if (error != null) {
+                error.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Could not revalidate " + uri, e);
+        } finally {
+            cached.close();
+        }
+        return null;
+    }
+
+    private static CachedResponse createResponse(URI uri, HttpURLConnection connection,
+            Map<String, List<String>> requestHeaders, long now) throws IOException {
+        CachedResponse response = new CachedResponse();
+        response.uri = uri.toString();
+        response.headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            // the body is stored decoded from the transfer encoding
+            if (!"Transfer-Encoding".equalsIgnoreCase(header.getKey())) {
+                response.headers.put(header.getKey(), new ArrayList<>(header.getValue()));
+            }
+        }
+        response.expires = getExpiration(response.headers, now);
+        response.etag = nullToEmpty(connection.getHeaderField("ETag"));
+        response.lastModified = nullToEmpty(connection.getHeaderField("Last-Modified"));
+        String vary = getHeader(response.headers, "Vary");
+        if (vary != null) {
+            for (String name : vary.split(",")) {
+                if (!name.trim().isEmpty()) {
+                    response.vary.put(name.trim(), nullToEmpty(getHeader(requestHeaders, name.trim())));
+                }
+            }
+        }
+        if (connection instanceof HttpsURLConnection) {
+            HttpsURLConnection https = (HttpsURLConnection) connection;
+            response.cipherSuite = https.getCipherSuite();
+            response.serverCertificates = encode(https.getServerCertificates());
+        }
+        return response;
+    }
+
+    /**
+     * @return the time until which a response may be used without asking the server
+     */
+    static long getExpiration(Map<String, List<String>> headers, long now) {
+        String cacheControl = getHeader(headers, "Cache-Control");
+        if (containsToken(cacheControl, "no-cache")) {
+            return now;
+        }
+        if (cacheControl != null) {
+            Matcher maxAge = MAX_AGE.matcher(cacheControl.toLowerCase(Locale.ENGLISH));
+            if (maxAge.find()) {
+                try {
+                    return now + TimeUnit.SECONDS.toMillis(Long.parseLong(maxAge.group(1)));
+                } catch (NumberFormatException e) {
+                    return now;
+                }
+            }
+        }
+        String expires = getHeader(headers, "Expires");
+        if (expires != null) {
+            // an invalid date means "already expired"
+            return Math.max(now, parseDate(expires, now));
+        }
+        String lastModified = getHeader(headers, "Last-Modified");
+        if (lastModified != null) {
+            // the usual heuristic: a tenth of the time since the last change
+            long age = now - parseDate(lastModified, now);
+            return now + Math.max(0, Math.min(MAX_HEURISTIC_FRESHNESS, age / 10));
+        }
+        // without any information the response has to be revalidated, which needs an ETag
+        return now;
+    }
+
+    /**
+     * @return whether a response may be stored, and can be used again while fresh or after a revalidation
+     */
+    static boolean isStorable(Map<String, List<String>> headers) {
+        String cacheControl = getHeader(headers, "Cache-Control");
+        if (containsToken(cacheControl, "no-store") || containsToken(cacheControl, "private")
+                || (getHeader(headers, "Set-Cookie") != null) || (getHeader(headers, "Set-Cookie2") != null)
+                || containsToken(getHeader(headers, "Vary"), "*")
+                || containsToken(getHeader(headers, "Content-Type"), "application/pdf")) {
+            return false;
+        }
+        boolean hasValidator = (getHeader(headers, "ETag") != null) || (getHeader(headers, "Last-Modified") != null);
+        boolean hasLifetime = (getHeader(headers, "Expires") != null)
+                || ((cacheControl != null) && MAX_AGE.matcher(cacheControl.toLowerCase(Locale.ENGLISH)).find());
+        return hasValidator || hasLifetime;
+    }
+
+    private static long parseDate(String date, long defaultValue) {
+        try {
+            return ZonedDateTime.parse(date.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return defaultValue;
+        }
+    }
+
+    private static boolean containsToken(String header, String token) {
+        return (header != null) && header.toLowerCase(Locale.ENGLISH).contains(token);
+    }
+
+    /**
+     * @return all values of the header joined by ", ", null if the header is not present
+     */
+    private static String getHeader(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                return String.join(", ", header.getValue());
+            }
+        }
+        return null;
+    }
+
+    static String createKey(URI uri, Map<String, List<String>> requestHeaders) {
+        StringBuilder key = new StringBuilder(uri.toString());
+        for (String name : KEY_HEADERS) {
+            String value = getHeader(requestHeaders, name);
+            if (value != null) {
+                key.append('\n').append(name).append(": ").append(value);
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long getMaxEntrySize() {
+        return Math.min(maxSize / MAX_ENTRY_FRACTION, MAX_ENTRY_SIZE);
+    }
+
+    /**
+     * @return the stored response, ready to read its body, or null if there is none
+     */
+    private CachedResponse read(String key) {
+        synchronized (index) {
+            loadIndex();
+            if (index.get(key) == null) {
+                return null;
+            }
+        }
+        File file = getFile(key);
+        try {
+            CachedResponse response = CachedResponse.read(file);
+            file.setLastModified(System.currentTimeMillis());
+            return response;
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read cached response " + file, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a response with the given body.
+     *
+     * @return false if the response has not been stored, e.g. because it is too large
+     */
+    private boolean store(String key, CachedResponse response, InputStream body) {
+        EntryWriter writer;
+        try {
+            writer = new EntryWriter(key, response);
+        } catch (IOException e) {
+            LOGGER.info("Cannot cache response of " + response.uri, e);
+            return false;
+        }
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                writer.write(buffer, 0, read);
+                if (writer.aborted) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Cannot read response of " + response.uri, e);
+            writer.abort();
+            return false;
+        }
+        return writer.commit();
+    }
+
+    /**
+     * Puts a completely written response file into the cache.
+     */
+    private void add(String key, File temporary, long length) throws IOException {
+        synchronized (index) {
+            loadIndex();
+            Files.move(temporary.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Long oldSize = index.put(key, length);
+            size += length - (oldSize == null ? 0 : oldSize);
+            evict();
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (index) {
+            Long oldSize = index.remove(key);
+            if (oldSize != null) {
+                size -= oldSize;
+            }
+            getFile(key).delete();
+        }
+    }
+
+    /**
+     * Removes the least recently used responses until the cache is small enough.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while ((size > maxSize) && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            size -= eldest.getValue();
+            iterator.remove();
+            getFile(eldest.getKey()).delete();
+        }
+    }
+
+    /**
+     * Reads the stored responses, using the modification time of the files as time of the last use.
+     */
+    private void loadIndex() {
+        if (indexLoaded) {
+            return;
+        }
+        indexLoaded = true;
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            String name = file.getName();
+            index.put(name.substring(0, name.length() - SUFFIX.length()), file.length());
+            size += file.length();
+        }
+        evict();
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + SUFFIX);
+    }
+
+    /**
+     * @return the number of responses used without asking the server
+     */
+    public int getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of stored responses confirmed by the server
+     */
+    public int getRevalidationCount() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return the size of all stored responses in bytes
+     */
+    public long getSize() {
+        synchronized (index) {
+            loadIndex();
+            return size;
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static List<byte[]> encode(Certificate[] certificates) throws IOException {
+        List<byte[]> encoded = new ArrayList<>();
+        try {
+            if (certificates != null) {
+                for (Certificate certificate : certificates) {
+                    encoded.add(certificate.getEncoded());
+                }
+            }
+        } catch (CertificateEncodingException e) {
+            throw new IOException(e);
+        }
+        return encoded;
+    }
+
+
+    private static class Request {
+
+        private final URI uri;
+        private final String key;
+        private final Map<String, List<String>> headers;
+
+
+        Request(URI uri, String key, Map<String, List<String>> headers) {
+            this.uri = uri;
+            this.key = key;
+            this.headers = headers;
+        }
+    }
+
+    /**
+     * Writes a response to a temporary file while its body is read, and puts it into the cache once it is complete.
+     * The response is dropped as soon as it gets too large.
+     */
+    private class EntryWriter extends OutputStream {
+
+        private final String key;
+        private final String uri;
+        private final File temporary;
+        private final OutputStream out;
+        private final long maxEntrySize = getMaxEntrySize();
+        private long length;
+        private boolean aborted;
+        private boolean committed;
+
+
+        EntryWriter(String key, CachedResponse response) throws IOException {
+            this.key = key;
+            this.uri = response.uri;
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create directory " + directory);
+            }
+            temporary = File.createTempFile(key, ".tmp", directory);
+            out = new BufferedOutputStream(new FileOutputStream(temporary));
+            try {
+                byte[] metadata = response.getMetadata();
+                DataOutputStream data = new DataOutputStream(out);
+                data.writeInt(MAGIC);
+                data.writeInt(VERSION);
+                data.writeInt(metadata.length);
+                data.write(metadata);
+                length = data.size();
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+            if (length > maxEntrySize) {
+                abort();
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int count) {
+            if (aborted) {
+                return;
+            }
+            if ((length + count) > maxEntrySize) {
+                abort();
+                return;
+            }
+            try {
+                out.write(bytes, offset, count);
+                length += count;
+            } catch (IOException e) {
+                LOGGER.info("Cannot cache response of " + uri, e);
+                abort();
+            }
+        }
+
+        /**
+         * Called when the body has been read completely.
+         */
+        @Override
+        public void close() {
+            commit();
+        }
+
+        boolean commit() {
+            if (aborted || committed) {
+                return committed;
+            }
+            try {
+                out.close();
+                add(key, temporary, length);
+                committed = true;
+            } catch (IOException e) {
+                LOGGER.info("Cannot cache response of " + uri, e);
+                abort();
+            }
+            return committed;
+        }
+
+        void abort() {
+            if (aborted || committed) {
+                return;
+            }
+            aborted = true;
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Ignored
+            }
+            temporary.delete();
+        }
+    }
+
+    /**
+     * A stored response. The file starts with a version header and the length of the metadata, which are the fields
+     * in the order of {@link #getMetadata()}. The rest of the file is the body.
+     */
+    private static class CachedResponse {
+
+        private String uri;
+        private long expires;
+        private String etag = "";
+        private String lastModified = "";
+
+        /**
+         * The values of the request headers listed in the header Vary
+         */
+        private final Map<String, String> vary = new LinkedHashMap<>();
+        private Map<String, List<String>> headers;
+        private String cipherSuite = "";
+        private List<byte[]> serverCertificates = Collections.emptyList();
+
+        /**
+         * The opened file, positioned at the start of the body
+         */
+        private FileChannel channel;
+
+
+        byte[] getMetadata() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(uri);
+            out.writeLong(expires);
+            out.writeUTF(etag);
+            out.writeUTF(lastModified);
+            out.writeInt(vary.size());
+            for (Map.Entry<String, String> header : vary.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(header.getValue());
+            }
+            out.writeInt(headers.size());
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                // the status line is stored with the key null
+                out.writeBoolean(header.getKey() != null);
+                if (header.getKey() != null) {
+                    out.writeUTF(header.getKey());
+                }
+                out.writeInt(header.getValue().size());
+                for (String value : header.getValue()) {
+                    out.writeUTF(value);
+                }
+            }
+            out.writeUTF(cipherSuite);
+            out.writeInt(serverCertificates.size());
+            for (byte[] certificate : serverCertificates) {
+                out.writeInt(certificate.length);
+                out.write(certificate);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Reads the metadata of a stored response and keeps the file open to read the body.
+         */
+        static CachedResponse read(File file) throws IOException {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                // not buffered, so that the channel stays positioned at the start of the body
+                DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+                if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                    throw new IOException("Unknown format");
+                }
+                int length = in.readInt();
+                if ((length < 0) || (length > channel.size())) {
+                    throw new IOException("Invalid metadata length " + length);
+                }
+                byte[] metadata = new byte[length];
+                in.readFully(metadata);
+                CachedResponse response = readMetadata(new DataInputStream(new ByteArrayInputStream(metadata)));
+                response.channel = channel;
+                return response;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private static CachedResponse readMetadata(DataInputStream in) throws IOException {
+            CachedResponse response = new CachedResponse();
+            response.uri = in.readUTF();
+            response.expires = in.readLong();
+            response.etag = in.readUTF();
+            response.lastModified = in.readUTF();
+            int varyCount = in.readInt();
+            for (int i = 0; i < varyCount; i++) {
+                response.vary.put(in.readUTF(), in.readUTF());
+            }
+            int headerCount = in.readInt();
+            response.headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                String key = in.readBoolean() ? in.readUTF() : null;
+                int valueCount = in.readInt();
+                List<String> values = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) {
+                    values.add(in.readUTF());
+                }
+                response.headers.put(key, values);
+            }
+            response.cipherSuite = in.readUTF();
+            int certificateCount = in.readInt();
+            response.serverCertificates = new ArrayList<>(certificateCount);
+            for (int i = 0; i < certificateCount; i++) {
+                byte[] certificate = new byte[in.readInt()];
+                in.readFully(certificate);
+                response.serverCertificates.add(certificate);
+            }
+            return response;
+        }
+
+        /**
+         * @return whether the request has the same values of the headers by which the response varies
+         */
+        boolean matches(Map<String, List<String>> requestHeaders) {
+            for (Map.Entry<String, String> header : vary.entrySet()) {
+                if (!header.getValue().equals(nullToEmpty(getHeader(requestHeaders, header.getKey())))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Takes over the headers of a "304 Not Modified" response.
+         */
+        void update(Map<String, List<String>> newHeaders, long now) {
+            for (Map.Entry<String, List<String>> header : newHeaders.entrySet()) {
+                if ((header.getKey() != null) && !"Content-Length".equalsIgnoreCase(header.getKey())
+                        && !"Transfer-Encoding".equalsIgnoreCase(header.getKey())) {
+                    headers.keySet().removeIf(name -> header.getKey().equalsIgnoreCase(name));
+                    headers.put(header.getKey(), new ArrayList<>(header.getValue()));
+                }
+            }
+            expires = getExpiration(headers, now);
+            etag = nullToEmpty(getHeader(headers, "ETag"));
+            lastModified = nullToEmpty(getHeader(headers, "Last-Modified"));
+        }
+
+        /**
+         * @return the body, which can be read only once
+         */
+        InputStream getBody() {
+            return Channels.newInputStream(channel);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Ignored
+            }
+        }
+
+        CacheResponse toCacheResponse() throws IOException {
+            final Map<String, List<String>> responseHeaders = Collections.unmodifiableMap(headers);
+            if (cipherSuite.isEmpty()) {
+                return new CacheResponse() {
+
+                    @Override
+                    public Map<String, List<String>> getHeaders() {
+                        return responseHeaders;
+                    }
+
+                    @Override
+                    public InputStream getBody() {
+                        return CachedResponse.this.getBody();
+                    }
+                };
+            }
+
+            // a response to HTTPS is only used with the data of the secure connection
+            final List<Certificate> certificates = new ArrayList<>();
+            try {
+                CertificateFactory factory = CertificateFactory.getInstance("X.509");
+                for (byte[] certificate : serverCertificates) {
+                    certificates.add(factory.generateCertificate(new ByteArrayInputStream(certificate)));
+                }
+            } catch (CertificateException e) {
+                throw new IOException(e);
+            }
+            return new SecureCacheResponse() {
+
+                @Override
+                public Map<String, List<String>> getHeaders() {
+                    return responseHeaders;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return CachedResponse.this.getBody();
+                }
+
+                @Override
+                public String getCipherSuite() {
+                    return cipherSuite;
+                }
+
+                @Override
+                public List<Certificate> getLocalCertificateChain() {
+                    return null;
+                }
+
+                @Override
+                public List<Certificate> getServerCertificateChain() throws SSLPeerUnverifiedException {
+                    if (certificates.isEmpty()) {
+                        throw new SSLPeerUnverifiedException("No server certificates cached");
+                    }
+                    return certificates;
+                }
+
+                @Override
+                public Principal getPeerPrincipal() throws SSLPeerUnverifiedException {
+                    return ((X509Certificate) getServerCertificateChain().get(0)).getSubjectX500Principal();
+                }
+
+                @Override
+                public Principal getLocalPrincipal() {
+                    return null;
+                }
+            };
+        }
+    }
+}
@@ -26,7 +26,9 @@ import java.net.URLConnection;
 import java.nio.charset.Charset;
 
 /**
- * Each call to a public method creates a new HTTP connection. Nothing is cached.
+ * Each call to a public method sends a new HTTP request, unless the response is found in the
+ * {@link PersistentResponseCache}. The connection is kept alive and reused by the JDK. For many downloads, see
+ * {@link FetchExecutor}.
  *
  * @author Erik Putrycz erik.putrycz-at-nrc-cnrc.gc.ca
  * @author Simon Harrer
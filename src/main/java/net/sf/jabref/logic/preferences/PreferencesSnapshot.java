@@ -0,0 +1,395 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+ This program is free software; you can redistribute it and/or modify
+ it under the terms of the GNU General Public License as published by
+ the Free Software Foundation; either version 2 of the License, or
+ (at your option) any later version.
+
+ This program is distributed in the hope that it will be useful,
+ but WITHOUT ANY WARRANTY; without even the implied warranty of
+ MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ GNU General Public License for more details.
+
+ You should have received a copy of the GNU General Public License along
+ with this program; if not, write to the Free Software Foundation, Inc.,
+ 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package net.sf.jabref.logic.preferences;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import net.sf.jabref.JabRefPreferences;
+
+/**
+ * Immutable, typed copy of the preferences read in per-entry code such as key generation, writing of entries and
+ * formatting of table cells.
+ *
+ * Use {@link JabRefPreferences#getSnapshot()} to get the snapshot of the current preferences. Logic classes which
+ * accept a snapshot do not need to access the global preferences and can be tested with any snapshot, created with a
+ * {@link Builder}.
+ */
+public final class PreferencesSnapshot {
+
+    private final String keyPatternRegex;
+    private final String keyPatternReplacement;
+    private final boolean keyGenAlwaysAddLetter;
+    private final boolean keyGenFirstLetterA;
+
+    private final boolean writeFieldCamelCaseName;
+    private final boolean writeFieldAddSpaces;
+    private final boolean includeEmptyFields;
+    private final int writeFieldSortStyle;
+    private final List<String> writeFieldUserDefinedOrder;
+
+    private final boolean resolveStringsAllFields;
+    private final List<String> doNotResolveStringsFor;
+    private final char valueDelimiterStart;
+    private final char valueDelimiterEnd;
+    private final boolean writeFieldWrapField;
+    private final Set<String> putBracesAroundCapitalsFields;
+    private final Set<String> nonWrappableFields;
+
+    private final boolean namesNatbib;
+    private final boolean namesLastOnly;
+    private final boolean namesAsIs;
+    private final boolean abbreviateAuthorNames;
+    private final boolean namesFirstLast;
+    private final boolean showOneLetterHeadingForIconColumns;
+
+
+    /**
+     * Copies the current values of the given preferences.
+     */
+    public PreferencesSnapshot(JabRefPreferences preferences) {
+        this(new Builder(preferences));
+    }
+
+    private PreferencesSnapshot(Builder builder) {
+        keyPatternRegex = builder.keyPatternRegex;
+        keyPatternReplacement = builder.keyPatternReplacement;
+        keyGenAlwaysAddLetter = builder.keyGenAlwaysAddLetter;
+        keyGenFirstLetterA = builder.keyGenFirstLetterA;
+        writeFieldCamelCaseName = builder.writeFieldCamelCaseName;
+        writeFieldAddSpaces = builder.writeFieldAddSpaces;
+        includeEmptyFields = builder.includeEmptyFields;
+        writeFieldSortStyle = builder.writeFieldSortStyle;
+        writeFieldUserDefinedOrder = builder.writeFieldUserDefinedOrder;
+        resolveStringsAllFields = builder.resolveStringsAllFields;
+        doNotResolveStringsFor = builder.doNotResolveStringsFor;
+        valueDelimiterStart = builder.valueDelimiterStart;
+        valueDelimiterEnd = builder.valueDelimiterEnd;
+        writeFieldWrapField = builder.writeFieldWrapField;
+        putBracesAroundCapitalsFields = builder.putBracesAroundCapitalsFields;
+        nonWrappableFields = builder.nonWrappableFields;
+        namesNatbib = builder.namesNatbib;
+        namesLastOnly = builder.namesLastOnly;
+        namesAsIs = builder.namesAsIs;
+        abbreviateAuthorNames = builder.abbreviateAuthorNames;
+        namesFirstLast = builder.namesFirstLast;
+        showOneLetterHeadingForIconColumns = builder.showOneLetterHeadingForIconColumns;
+    }
+
+    private static List<String> toList(String[] values) {
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(values.clone()));
+    }
+
+    /**
+     * Parses a ';' separated list of field names the same way as {@link JabRefPreferences#updateSpecialFieldHandling()}
+     */
+    private static Set<String> toFieldSet(String fieldString) {
+        Set<String> fields = new HashSet<>();
+        if ((fieldString != null) && !fieldString.isEmpty()) {
+            for (String field : fieldString.split(";")) {
+                fields.add(field.trim());
+            }
+        }
+        return Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * @return the regular expression removed from generated keys, or null if none is set
+     */
+    public String getKeyPatternRegex() {
+        return keyPatternRegex;
+    }
+
+    public String getKeyPatternReplacement() {
+        return keyPatternReplacement;
+    }
+
+    public boolean isKeyGenAlwaysAddLetter() {
+        return keyGenAlwaysAddLetter;
+    }
+
+    public boolean isKeyGenFirstLetterA() {
+        return keyGenFirstLetterA;
+    }
+
+    public boolean isWriteFieldCamelCaseName() {
+        return writeFieldCamelCaseName;
+    }
+
+    public boolean isWriteFieldAddSpaces() {
+        return writeFieldAddSpaces;
+    }
+
+    public boolean isIncludeEmptyFields() {
+        return includeEmptyFields;
+    }
+
+    public int getWriteFieldSortStyle() {
+        return writeFieldSortStyle;
+    }
+
+    public List<String> getWriteFieldUserDefinedOrder() {
+        return writeFieldUserDefinedOrder;
+    }
+
+    public boolean isResolveStringsAllFields() {
+        return resolveStringsAllFields;
+    }
+
+    public List<String> getDoNotResolveStringsFor() {
+        return doNotResolveStringsFor;
+    }
+
+    public char getValueDelimiterStart() {
+        return valueDelimiterStart;
+    }
+
+    public char getValueDelimiterEnd() {
+        return valueDelimiterEnd;
+    }
+
+    public boolean isWriteFieldWrapField() {
+        return writeFieldWrapField;
+    }
+
+    public boolean putBracesAroundCapitals(String fieldName) {
+        return putBracesAroundCapitalsFields.contains(fieldName);
+    }
+
+    public boolean isNonWrappableField(String fieldName) {
+        return nonWrappableFields.contains(fieldName);
+    }
+
+    public boolean isNamesNatbib() {
+        return namesNatbib;
+    }
+
+    public boolean isNamesLastOnly() {
+        return namesLastOnly;
+    }
+
+    public boolean isNamesAsIs() {
+        return namesAsIs;
+    }
+
+    public boolean isAbbreviateAuthorNames() {
+        return abbreviateAuthorNames;
+    }
+
+    public boolean isNamesFirstLast() {
+        return namesFirstLast;
+    }
+
+    public boolean isShowOneLetterHeadingForIconColumns() {
+        return showOneLetterHeadingForIconColumns;
+    }
+
+
+    /**
+     * Creates snapshots with given values, e.g. in tests which must not depend on the preferences of the user. Values
+     * which are not set are false, 0, empty or null, except for the value delimiters, which are braces.
+     */
+    public static final class Builder {
+
+        private String keyPatternRegex = null;
+        private String keyPatternReplacement = "";
+        private boolean keyGenAlwaysAddLetter;
+        private boolean keyGenFirstLetterA;
+        private boolean writeFieldCamelCaseName;
+        private boolean writeFieldAddSpaces;
+        private boolean includeEmptyFields;
+        private int writeFieldSortStyle;
+        private List<String> writeFieldUserDefinedOrder = Collections.emptyList();
+        private boolean resolveStringsAllFields;
+        private List<String> doNotResolveStringsFor = Collections.emptyList();
+        private char valueDelimiterStart = '{';
+        private char valueDelimiterEnd = '}';
+        private boolean writeFieldWrapField;
+        private Set<String> putBracesAroundCapitalsFields = Collections.emptySet();
+        private Set<String> nonWrappableFields = Collections.emptySet();
+        private boolean namesNatbib;
+        private boolean namesLastOnly;
+        private boolean namesAsIs;
+        private boolean abbreviateAuthorNames;
+        private boolean namesFirstLast;
+        private boolean showOneLetterHeadingForIconColumns;
+
+
+        public Builder() {
+            // the default values
+        }
+
+        /**
+         * Starts with the current values of the given preferences.
+         */
+        public Builder(JabRefPreferences preferences) {
+            Objects.requireNonNull(preferences);
+
+            keyPatternRegex = preferences.get(JabRefPreferences.KEY_PATTERN_REGEX);
+            keyPatternReplacement = preferences.get(JabRefPreferences.KEY_PATTERN_REPLACEMENT);
+            keyGenAlwaysAddLetter = preferences.getBoolean(JabRefPreferences.KEY_GEN_ALWAYS_ADD_LETTER);
+            keyGenFirstLetterA = preferences.getBoolean(JabRefPreferences.KEY_GEN_FIRST_LETTER_A);
+
+            writeFieldCamelCaseName = preferences.getBoolean(JabRefPreferences.WRITEFIELD_CAMELCASENAME);
+            writeFieldAddSpaces = preferences.getBoolean(JabRefPreferences.WRITEFIELD_ADDSPACES);
+            includeEmptyFields = preferences.getBoolean(JabRefPreferences.INCLUDE_EMPTY_FIELDS);
+            writeFieldSortStyle = preferences.getInt(JabRefPreferences.WRITEFIELD_SORTSTYLE);
+            writeFieldUserDefinedOrder = toList(
+                    preferences.getStringArray(JabRefPreferences.WRITEFIELD_USERDEFINEDORDER));
+
+            resolveStringsAllFields = preferences.getBoolean(JabRefPreferences.RESOLVE_STRINGS_ALL_FIELDS);
+            doNotResolveStringsFor = toList(preferences.getStringArray(JabRefPreferences.DO_NOT_RESOLVE_STRINGS_FOR));
+            valueDelimiterStart = preferences.getValueDelimiters(0);
+            valueDelimiterEnd = preferences.getValueDelimiters(1);
+            writeFieldWrapField = preferences.getBoolean(JabRefPreferences.WRITEFIELD_WRAPFIELD);
+            putBracesAroundCapitalsFields = toFieldSet(preferences.get(JabRefPreferences.PUT_BRACES_AROUND_CAPITALS));
+            nonWrappableFields = toFieldSet(preferences.get(JabRefPreferences.NON_WRAPPABLE_FIELDS));
+
+            namesNatbib = preferences.getBoolean(JabRefPreferences.NAMES_NATBIB);
+            namesLastOnly = preferences.getBoolean(JabRefPreferences.NAMES_LAST_ONLY);
+            namesAsIs = preferences.getBoolean(JabRefPreferences.NAMES_AS_IS);
+            abbreviateAuthorNames = preferences.getBoolean(JabRefPreferences.ABBR_AUTHOR_NAMES);
+            namesFirstLast = preferences.getBoolean(JabRefPreferences.NAMES_FIRST_LAST);
+            showOneLetterHeadingForIconColumns = preferences
+                    .getBoolean(JabRefPreferences.SHOW_ONE_LETTER_HEADING_FOR_ICON_COLUMNS);
+        }
+
+        public Builder setKeyPatternRegex(String keyPatternRegex) {
+            this.keyPatternRegex = keyPatternRegex;
+            return this;
+        }
+
+        public Builder setKeyPatternReplacement(String keyPatternReplacement) {
+            this.keyPatternReplacement = keyPatternReplacement;
+            return this;
+        }
+
+        public Builder setKeyGenAlwaysAddLetter(boolean keyGenAlwaysAddLetter) {
+            this.keyGenAlwaysAddLetter = keyGenAlwaysAddLetter;
+            return this;
+        }
+
+        public Builder setKeyGenFirstLetterA(boolean keyGenFirstLetterA) {
+            this.keyGenFirstLetterA = keyGenFirstLetterA;
+            return this;
+        }
+
+        public Builder setWriteFieldCamelCaseName(boolean writeFieldCamelCaseName) {
+            this.writeFieldCamelCaseName = writeFieldCamelCaseName;
+            return this;
+        }
+
+        public Builder setWriteFieldAddSpaces(boolean writeFieldAddSpaces) {
+            this.writeFieldAddSpaces = writeFieldAddSpaces;
+            return this;
+        }
+
+        public Builder setIncludeEmptyFields(boolean includeEmptyFields) {
+            this.includeEmptyFields = includeEmptyFields;
+            return this;
+        }
+
+        public Builder setWriteFieldSortStyle(int writeFieldSortStyle) {
+            this.writeFieldSortStyle = writeFieldSortStyle;
+            return this;
+        }
+
+        public Builder setWriteFieldUserDefinedOrder(List<String> writeFieldUserDefinedOrder) {
+            this.writeFieldUserDefinedOrder = Collections.unmodifiableList(new ArrayList<>(writeFieldUserDefinedOrder));
+            return this;
+        }
+
+        public Builder setResolveStringsAllFields(boolean resolveStringsAllFields) {
+            this.resolveStringsAllFields = resolveStringsAllFields;
+            return this;
+        }
+
+        public Builder setDoNotResolveStringsFor(List<String> doNotResolveStringsFor) {
+            this.doNotResolveStringsFor = Collections.unmodifiableList(new ArrayList<>(doNotResolveStringsFor));
+            return this;
+        }
+
+        public Builder setValueDelimiterStart(char valueDelimiterStart) {
+            this.valueDelimiterStart = valueDelimiterStart;
+            return this;
+        }
+
+        public Builder setValueDelimiterEnd(char valueDelimiterEnd) {
+            this.valueDelimiterEnd = valueDelimiterEnd;
+            return this;
+        }
+
+        public Builder setWriteFieldWrapField(boolean writeFieldWrapField) {
+            this.writeFieldWrapField = writeFieldWrapField;
+            return this;
+        }
+
+        public Builder setPutBracesAroundCapitalsFields(Collection<String> putBracesAroundCapitalsFields) {
+            this.putBracesAroundCapitalsFields = Collections
+                    .unmodifiableSet(new HashSet<>(putBracesAroundCapitalsFields));
+            return this;
+        }
+
+        public Builder setNonWrappableFields(Collection<String> nonWrappableFields) {
+            this.nonWrappableFields = Collections.unmodifiableSet(new HashSet<>(nonWrappableFields));
+            return this;
+        }
+
+        public Builder setNamesNatbib(boolean namesNatbib) {
+            this.namesNatbib = namesNatbib;
+            return this;
+        }
+
+        public Builder setNamesLastOnly(boolean namesLastOnly) {
+            this.namesLastOnly = namesLastOnly;
+            return this;
+        }
+
+        public Builder setNamesAsIs(boolean namesAsIs) {
+            this.namesAsIs = namesAsIs;
+            return this;
+        }
+
+        public Builder setAbbreviateAuthorNames(boolean abbreviateAuthorNames) {
+            this.abbreviateAuthorNames = abbreviateAuthorNames;
+            return this;
+        }
+
+        public Builder setNamesFirstLast(boolean namesFirstLast) {
+            this.namesFirstLast = namesFirstLast;
+            return this;
+        }
+
+        public Builder setShowOneLetterHeadingForIconColumns(boolean showOneLetterHeadingForIconColumns) {
+            this.showOneLetterHeadingForIconColumns = showOneLetterHeadingForIconColumns;
+            return this;
+        }
+
+        public PreferencesSnapshot build() {
+            return new PreferencesSnapshot(this);
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.apache.commons.logging.LogFactory;
 
 import java.net.InetAddress;
 import java.net.Socket;
+import java.util.Collections;
+import java.util.List;
 
 public class RemoteListenerClient {
 
@@ -23,6 +25,17 @@ public class RemoteListenerClient {
      * @return true if successful, false otherwise.
      */
     public static boolean sendToActiveJabRefInstance(String[] args, int remoteServerPort) {
+        return sendToActiveJabRefInstance(Collections.singletonList(args), remoteServerPort);
+    }
+
+    /**
+     * Attempt to send several sets of command line arguments to already running JabRef instance, using a single
+     * connection.
+     *
+     * @param commands Command line arguments of each command.
+     * @return true if successful, false otherwise.
+     */
+    public static boolean sendToActiveJabRefInstance(List<String[]> commands, int remoteServerPort) {
         try (Socket socket = new Socket(InetAddress.getByName("localhost"), remoteServerPort)) {
             socket.setSoTimeout(TIMEOUT);
 
@@ -36,14 +49,15 @@ public class RemoteListenerClient {
                     System.out.println(error);
                     return false;
                 }
-                protocol.sendMessage(StringUtil.join(args, "\n"));
+                for (String[] args : commands) {
+                    protocol.sendMessage(StringUtil.join(args, "\n"));
+                }
                 return true;
             } finally {
                 protocol.close();
             }
         } catch (Exception e) {
-            LOGGER.debug(
-                    "Could not send args " + StringUtil.join(args, ", ") + " to the server at port " + remoteServerPort,
+            LOGGER.debug("Could not send " + commands.size() + " commands to the server at port " + remoteServerPort,
                     e);
             return false;
         }
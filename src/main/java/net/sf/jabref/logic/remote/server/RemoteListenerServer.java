@@ -15,65 +15,357 @@
 */
 package net.sf.jabref.logic.remote.server;
 
+import net.sf.jabref.JabRefExecutorService;
 import net.sf.jabref.logic.remote.shared.Protocol;
+import net.sf.jabref.logic.util.OS;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import java.io.IOException;
 import java.net.InetAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Serves several connections on a single thread using a selector. Every connection may send several messages
+ * (see {@link Protocol}).
+ * <p/>
+ * Received messages are put into a bounded queue and passed to the {@link MessageHandler} one after the other on a
+ * separate thread. If the queue is full, the server stops reading from that connection until the handler catches up,
+ * so that the client is slowed down by TCP flow control instead of being refused. The other connections are served
+ * meanwhile.
+ * <p/>
+ * Connections which send nothing for a while are closed, and so are new connections beyond a maximal number.
+ */
 public class RemoteListenerServer implements Runnable {
 
-    private static final int BACKLOG = 1;
+    private static final int BACKLOG = 50;
+    private static final int QUEUE_CAPACITY = 100;
     private static final int ONE_SECOND_TIMEOUT = 1000;
 
+    private static final int DEFAULT_IDLE_TIMEOUT = 60 * 1000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 32;
+
     private static final Log LOGGER = LogFactory.getLog(RemoteListenerServer.class);
 
     private final MessageHandler messageHandler;
-    private final ServerSocket serverSocket;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final long idleTimeout;
+    private final int maxConnections;
+
+    private final BlockingQueue<String> messages = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Set<Connection> connections = new HashSet<>();
+
+    /**
+     * Set while some connection waits for space in the queue, so that the dispatcher wakes up the server thread
+     */
+    private final AtomicBoolean readingPaused = new AtomicBoolean();
+    private volatile boolean running;
 
 
     public RemoteListenerServer(MessageHandler messageHandler, int port) throws IOException {
-        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getByName("localhost"));
+        this(messageHandler, port, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * @param idleTimeout the time in milliseconds after which a connection sending nothing is closed
+     * @param maxConnections the number of connections served at the same time
+     */
+    RemoteListenerServer(MessageHandler messageHandler, int port, long idleTimeout, int maxConnections)
+            throws IOException {
         this.messageHandler = messageHandler;
+        this.idleTimeout = idleTimeout;
+        this.maxConnections = maxConnections;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            // same default as java.net.ServerSocket, on Windows this would allow binding a port in use
+            serverChannel.socket().setReuseAddress(!OS.WINDOWS);
+            serverChannel.socket().bind(new InetSocketAddress(InetAddress.getByName("localhost"), port), BACKLOG);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            closeServerSocket();
+            throw e;
+        }
     }
 
     @Override
     public void run() {
+        running = true;
+        JabRefExecutorService.INSTANCE.execute(new MessageDispatcher());
         try {
             while (!Thread.interrupted()) {
-                try (Socket socket = serverSocket.accept()) {
-                    socket.setSoTimeout(ONE_SECOND_TIMEOUT);
-
-                    Protocol protocol = new Protocol(socket);
-                    protocol.sendMessage(Protocol.IDENTIFIER);
-                    String message = protocol.receiveMessage();
-                    protocol.close();
-                    if (message.isEmpty()) {
-                        continue;
-                    }
-                    messageHandler.handleMessage(message);
-
-                } catch (SocketException ex) {
-                    return;
-                } catch (IOException e) {
-                    LOGGER.warn("RemoteListenerServer crashed", e);
+                selector.select(Math.min(idleTimeout, ONE_SECOND_TIMEOUT));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
                 }
+                resumeReading();
+                closeIdleConnections();
             }
+        } catch (ClosedSelectorException | CancelledKeyException ex) {
+            // the server has been stopped
+        } catch (IOException e) {
+            LOGGER.warn("RemoteListenerServer crashed", e);
         } finally {
+            running = false;
+            for (Connection connection : new ArrayList<>(connections)) {
+                connection.close();
+            }
             closeServerSocket();
         }
     }
 
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Closing remote connection", e);
+            connection.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        if (connections.size() >= maxConnections) {
+            LOGGER.debug("Too many remote connections, refusing a new one");
+            channel.close();
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel, channel.register(selector, SelectionKey.OP_READ));
+        connections.add(connection);
+        try {
+            connection.send(Protocol.IDENTIFIER);
+        } catch (IOException e) {
+            LOGGER.debug("Closing remote connection", e);
+            connection.close();
+        }
+    }
+
+    /**
+     * Passes the waiting messages of the paused connections to the queue, as far as there is space, and reads from
+     * these connections again.
+     */
+    private void resumeReading() {
+        if (!readingPaused.getAndSet(false)) {
+            return;
+        }
+        for (Connection connection : new ArrayList<>(connections)) {
+            if (connection.isPaused()) {
+                try {
+                    connection.resume();
+                } catch (IOException e) {
+                    LOGGER.debug("Closing remote connection", e);
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private void closeIdleConnections() {
+        long now = System.currentTimeMillis();
+        for (Connection connection : new ArrayList<>(connections)) {
+            // a paused connection waits for the handler, not for the client
+            if (!connection.isPaused() && ((now - connection.lastActivity) > idleTimeout)) {
+                LOGGER.debug("Closing idle remote connection");
+                connection.close();
+            }
+        }
+    }
+
     public void closeServerSocket() {
         try {
-            serverSocket.close();
+            serverChannel.close();
         } catch (IOException ignored) {
             // Ignored
         }
+        try {
+            // wakes up the server thread, which then closes the open connections
+            selector.close();
+        } catch (IOException ignored) {
+            // Ignored
+        }
+    }
+
+
+    /**
+     * State of one client connection. Only used by the server thread.
+     */
+    private class Connection {
+
+        private final SocketChannel channel;
+        private final SelectionKey key;
+
+        private final ByteBuffer header = ByteBuffer.allocate(4);
+        private ByteBuffer body;
+        private ByteBuffer output;
+
+        /**
+         * A received message which did not fit into the queue. No more is read while it waits.
+         */
+        private String pending;
+        private long lastActivity = System.currentTimeMillis();
+
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+            key.attach(this);
+        }
+
+        boolean isPaused() {
+            return pending != null;
+        }
+
+        /**
+         * Reads all complete messages available on the channel, until the queue is full.
+         */
+        void read() throws IOException {
+            lastActivity = System.currentTimeMillis();
+            while (pending == null) {
+                if (body == null) {
+                    if (channel.read(header) < 0) {
+                        close();
+                        return;
+                    }
+                    if (header.hasRemaining()) {
+                        return;
+                    }
+                    header.flip();
+                    int length = header.getInt();
+                    header.clear();
+                    if (!Protocol.isValidLength(length)) {
+                        throw new IOException("Invalid message length " + length);
+                    }
+                    body = ByteBuffer.allocate(length);
+                }
+
+                if (channel.read(body) < 0) {
+                    close();
+                    return;
+                }
+                if (body.hasRemaining()) {
+                    return;
+                }
+                String message = new String(body.array(), StandardCharsets.UTF_8);
+                body = null;
+                if (!message.isEmpty() && !messages.offer(message)) {
+                    pending = message;
+                    readingPaused.set(true);
+                    updateInterestOps();
+                }
+            }
+        }
+
+        /**
+         * Tries again to queue the waiting message, and reads on if that worked.
+         */
+        void resume() throws IOException {
+            if (!messages.offer(pending)) {
+                readingPaused.set(true);
+                return;
+            }
+            pending = null;
+            updateInterestOps();
+            read();
+        }
+
+        void send(String message) throws IOException {
+            output = Protocol.encode(message);
+            write();
+        }
+
+        void write() throws IOException {
+            channel.write(output);
+            updateInterestOps();
+        }
+
+        private void updateInterestOps() {
+            if (!key.isValid()) {
+                return;
+            }
+            int ops = pending == null ? SelectionKey.OP_READ : 0;
+            if ((output != null) && output.hasRemaining()) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            key.cancel();
+            connections.remove(this);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Ignored
+            }
+        }
     }
 
+    /**
+     * Passes the received messages to the message handler, in the order in which they arrived.
+     */
+    private class MessageDispatcher implements Runnable {
+
+        @Override
+        public void run() {
+            while (running || !messages.isEmpty()) {
+                String message;
+                try {
+                    message = messages.poll(ONE_SECOND_TIMEOUT, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (message == null) {
+                    continue;
+                }
+                if (readingPaused.get()) {
+                    // there is space in the queue now
+                    selector.wakeup();
+                }
+                try {
+                    messageHandler.handleMessage(message);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not handle remote message", e);
+                }
+            }
+        }
+    }
 }
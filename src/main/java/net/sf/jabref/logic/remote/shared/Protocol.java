@@ -3,49 +3,79 @@ package net.sf.jabref.logic.remote.shared;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
- * Every message is terminated with '\0'.
+ * Every message is sent as its length in bytes (a 4 byte big-endian integer) followed by the UTF-8 encoded message.
+ * <p/>
+ * After connecting, the server sends {@link #IDENTIFIER}. The client may then send any number of messages over the
+ * same connection without waiting for an answer.
  */
 public class Protocol {
 
     public static final String IDENTIFIER = "jabref";
 
+    /**
+     * Longer messages are rejected, to protect the server against garbage sent by other applications.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 1024 * 1024;
+
     private static final Log LOGGER = LogFactory.getLog(Protocol.class);
 
     private final Socket socket;
-    private final OutputStream out;
-    private final InputStream in;
+    private final DataOutputStream out;
+    private final DataInputStream in;
 
 
     public Protocol(Socket socket) throws IOException {
         this.socket = socket;
-        this.out = socket.getOutputStream();
-        this.in = socket.getInputStream();
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+
+    /**
+     * Returns the message including its length prefix, ready to be written to a channel.
+     */
+    public static ByteBuffer encode(String message) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+
+    public static boolean isValidLength(int length) {
+        return (length >= 0) && (length <= MAX_MESSAGE_LENGTH);
     }
 
     public void sendMessage(String message) throws IOException {
-        out.write(message.getBytes());
-        out.write('\0');
+        ByteBuffer buffer = encode(message);
+        out.write(buffer.array(), 0, buffer.limit());
         out.flush();
     }
 
     public String receiveMessage() throws IOException {
-        int c;
-        StringBuilder result = new StringBuilder();
         try {
-            while (((c = in.read()) != '\0') && (c >= 0)) {
-                result.append((char) c);
+            int length = in.readInt();
+            if (!isValidLength(length)) {
+                throw new IOException("Invalid message length " + length);
             }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
         } catch (SocketTimeoutException ex) {
             LOGGER.info("Connection timed out.", ex);
+            return "";
         }
-        return result.toString();
     }
 
     public void close() {
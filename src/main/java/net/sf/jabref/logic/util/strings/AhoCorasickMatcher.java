@@ -0,0 +1,190 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.logic.util.strings;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * Finds all occurrences of many words in a text in a single pass (Aho-Corasick algorithm).
+ * <p>
+ * The automaton is built once and can then be used by several threads at the same time. Matching is case sensitive
+ * and finds overlapping occurrences, e.g. "AB" and "B" in "AB".
+ */
+public class AhoCorasickMatcher {
+
+    /**
+     * Receives the occurrences found by {@link AhoCorasickMatcher#findAll(CharSequence, MatchHandler)}.
+     */
+    public interface MatchHandler {
+
+        /**
+         * @param word the index of the word in the list given to the constructor
+         * @param start the index of the first character of the occurrence
+         * @param end the index after the last character of the occurrence
+         */
+        void found(int word, int start, int end);
+    }
+
+
+    private static final int[] NO_WORDS = new int[0];
+
+    private final int[] wordLengths;
+
+    /**
+     * The characters of the transitions of every state, sorted
+     */
+    private final char[][] transitionChars;
+    private final int[][] transitionTargets;
+    private final int[] failure;
+
+    /**
+     * The words ending in every state, including the words of the states reachable by failure links
+     */
+    private final int[][] output;
+
+
+    public AhoCorasickMatcher(List<String> words) {
+        wordLengths = new int[words.size()];
+
+        // the trie
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        addState(chars, targets, ends);
+        for (int word = 0; word < words.size(); word++) {
+            String text = Objects.requireNonNull(words.get(word));
+            if (text.isEmpty()) {
+                throw new IllegalArgumentException("Cannot match the empty string");
+            }
+            wordLengths[word] = text.length();
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                int next = find(chars.get(state), targets.get(state), text.charAt(i));
+                if (next < 0) {
+                    next = addState(chars, targets, ends);
+                    chars.get(state).append(text.charAt(i));
+                    targets.get(state).add(next);
+                }
+                state = next;
+            }
+            ends.get(state).add(word);
+        }
+
+        int states = chars.size();
+        transitionChars = new char[states][];
+        transitionTargets = new int[states][];
+        for (int state = 0; state < states; state++) {
+            sortTransitions(state, chars.get(state).toString().toCharArray(), targets.get(state));
+        }
+
+        // the failure links, breadth first
+        failure = new int[states];
+        output = new int[states][];
+        output[0] = NO_WORDS;
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionTargets[0]) {
+            failure[child] = 0;
+            output[child] = toArray(ends.get(child), NO_WORDS);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            for (int i = 0; i < transitionChars[state].length; i++) {
+                char c = transitionChars[state][i];
+                int child = transitionTargets[state][i];
+                int fallback = failure[state];
+                while ((fallback > 0) && (next(fallback, c) < 0)) {
+                    fallback = failure[fallback];
+                }
+                int target = next(fallback, c);
+                failure[child] = (target < 0) || (target == child) ? 0 : target;
+                output[child] = toArray(ends.get(child), output[failure[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Reports every occurrence of every word in the given text, ordered by the end of the occurrence.
+     */
+    public void findAll(CharSequence text, MatchHandler handler) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = next(state, c);
+            while ((next < 0) && (state > 0)) {
+                state = failure[state];
+                next = next(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            for (int word : output[state]) {
+                handler.found(word, (i + 1) - wordLengths[word], i + 1);
+            }
+        }
+    }
+
+    private int next(int state, char c) {
+        int index = Arrays.binarySearch(transitionChars[state], c);
+        return index < 0 ? -1 : transitionTargets[state][index];
+    }
+
+    private void sortTransitions(int state, char[] chars, List<Integer> targets) {
+        Integer[] order = new Integer[chars.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Character.compare(chars[a], chars[b]));
+        transitionChars[state] = new char[chars.length];
+        transitionTargets[state] = new int[chars.length];
+        for (int i = 0; i < order.length; i++) {
+            transitionChars[state][i] = chars[order[i]];
+            transitionTargets[state][i] = targets.get(order[i]);
+        }
+    }
+
+    private static int addState(List<StringBuilder> chars, List<List<Integer>> targets, List<List<Integer>> ends) {
+        chars.add(new StringBuilder(1));
+        targets.add(new ArrayList<>(1));
+        ends.add(new ArrayList<>(0));
+        return chars.size() - 1;
+    }
+
+    private static int find(CharSequence chars, List<Integer> targets, char c) {
+        for (int i = 0; i < chars.length(); i++) {
+            if (chars.charAt(i) == c) {
+                return targets.get(i);
+            }
+        }
+        return -1;
+    }
+
+    private static int[] toArray(List<Integer> words, int[] inherited) {
+        if (words.isEmpty()) {
+            return inherited;
+        }
+        int[] result = new int[words.size() + inherited.length];
+        for (int i = 0; i < words.size(); i++) {
+            result[i] = words.get(i);
+        }
+        System.arraycopy(inherited, 0, result, words.size(), inherited.length);
+        return result;
+    }
+}
@@ -0,0 +1,195 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.logic.xmp;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+/**
+ * Writes XMP metadata into many PDF files on a bounded pool of worker threads.
+ * <p>
+ * Files which already contain the metadata are not saved again (see
+ * {@link XMPUtil#writeXMPIfChanged(File, java.util.Collection, BibtexDatabase, boolean)}), so refreshing the
+ * metadata of a library mostly costs reading the PDFs. Every file is handled by one task; if several entries link the
+ * same file, they are written in the order in which they were added, as if written one after the other.
+ */
+public class XMPBatchWriter {
+
+    /**
+     * Is informed about each written file, on the worker thread which wrote it.
+     */
+    public interface Listener {
+
+        /**
+         * @param changed false if the file was up to date and has not been saved
+         */
+        void written(File file, BibtexEntry entry, boolean changed);
+
+        void failed(File file, BibtexEntry entry, Exception exception);
+    }
+
+
+    private final BibtexDatabase database;
+    private final int threads;
+
+    private final Map<File, List<BibtexEntry>> entriesByFile = new LinkedHashMap<>();
+
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger upToDate = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private volatile boolean canceled;
+    private long elapsedMillis;
+
+
+    /**
+     * @param database the database used to resolve strings, may be null
+     */
+    public XMPBatchWriter(BibtexDatabase database) {
+        // writing is mostly disk bound, more threads than cores do not help
+        this(database, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public XMPBatchWriter(BibtexDatabase database, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.database = database;
+        this.threads = threads;
+    }
+
+    public void add(File file, BibtexEntry entry) {
+        File key = file.getAbsoluteFile();
+        List<BibtexEntry> entries = entriesByFile.get(key);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            entriesByFile.put(key, entries);
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * Files not started yet are not written any more.
+     */
+    public void cancel() {
+        canceled = true;
+    }
+
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Writes all added files and waits until they are done.
+     */
+    public void run(final Listener listener) throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "XMP writer " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            for (Map.Entry<File, List<BibtexEntry>> job : entriesByFile.entrySet()) {
+                final File file = job.getKey();
+                final List<BibtexEntry> entries = job.getValue();
+                executor.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        write(file, entries, listener);
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            executor.shutdownNow();
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+
+    private void write(File file, List<BibtexEntry> entries, Listener listener) {
+        for (BibtexEntry entry : entries) {
+            if (canceled) {
+                return;
+            }
+            try {
+                boolean changed = XMPUtil.writeXMPIfChanged(file, Collections.singletonList(entry), database, true);
+                if (changed) {
+                    written.incrementAndGet();
+                } else {
+                    upToDate.incrementAndGet();
+                }
+                listener.written(file, entry, changed);
+            } catch (Exception e) {
+                errors.incrementAndGet();
+                listener.failed(file, entry, e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of files saved with new metadata
+     */
+    public int getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return the number of files which already contained the metadata
+     */
+    public int getUpToDateCount() {
+        return upToDate.get();
+    }
+
+    public int getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * @return the time the last {@link #run(Listener)} took
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the number of files handled per second by the last {@link #run(Listener)}
+     */
+    public double getFilesPerSecond() {
+        int handled = written.get() + upToDate.get() + errors.get();
+        return elapsedMillis == 0 ? handled : (handled * 1000.0) / elapsedMillis;
+    }
+}
@@ -1063,6 +1063,29 @@ public class XMPUtil {
     public static void writeXMP(File file,
             Collection<BibtexEntry> bibtexEntries, BibtexDatabase database,
             boolean writePDFInfo) throws IOException, TransformerException {
+        XMPUtil.writeXMP(file, bibtexEntries, database, writePDFInfo, false);
+    }
+
+    /**
+     * Like {@link #writeXMP(File, Collection, BibtexDatabase, boolean)}, but
+     * does not save the file if it already contains the metadata to be
+     * written. Saving rewrites the whole PDF, which takes much longer than
+     * reading it.
+     *
+     * The XMP-streams are compared without the whitespace between the
+     * elements, the document information field by field.
+     *
+     * @return true if the file has been written, false if it was up to date
+     */
+    public static boolean writeXMPIfChanged(File file,
+            Collection<BibtexEntry> bibtexEntries, BibtexDatabase database,
+            boolean writePDFInfo) throws IOException, TransformerException {
+        return XMPUtil.writeXMP(file, bibtexEntries, database, writePDFInfo, true);
+    }
+
+    private static boolean writeXMP(File file,
+            Collection<BibtexEntry> bibtexEntries, BibtexDatabase database,
+            boolean writePDFInfo, boolean onlyIfChanged) throws IOException, TransformerException {
 
         if (database != null) {
             bibtexEntries = database.resolveForStrings(bibtexEntries, false);
@@ -1074,6 +1097,13 @@ public class XMPUtil {
                         "Error: Cannot add metadata to encrypted document.");
             }
 
+            String oldMetadata = null;
+            Map<String, String> oldInformation = null;
+            if (onlyIfChanged) {
+                oldMetadata = XMPUtil.normalizeXMP(document.getDocumentCatalog().getMetadata());
+                oldInformation = XMPUtil.getDocumentInformation(document);
+            }
+
             if (writePDFInfo && (bibtexEntries.size() == 1)) {
                 XMPUtil.writeDocumentInformation(document, bibtexEntries
                         .iterator().next(), null);
@@ -1110,6 +1140,11 @@ public class XMPUtil {
             // Save to stream and then input that stream to the PDF
             ByteArrayOutputStream os = new ByteArrayOutputStream();
             meta.save(os);
+            if (onlyIfChanged
+                    && XMPUtil.normalizeXMP(new ByteArrayInputStream(os.toByteArray())).equals(oldMetadata)
+                    && XMPUtil.getDocumentInformation(document).equals(oldInformation)) {
+                return false;
+            }
             ByteArrayInputStream is = new ByteArrayInputStream(os.toByteArray());
             PDMetadata metadataStream = new PDMetadata(document, is, false);
             catalog.setMetadata(metadataStream);
@@ -1121,8 +1156,40 @@ public class XMPUtil {
                 throw new TransformerException("Could not write XMP-metadata: "
                         + e.getLocalizedMessage());
             }
+            return true;
+        }
+    }
 
+    /**
+     * @return the XMP-stream without the whitespace between elements, which
+     *         changes when the stream is parsed and saved again
+     */
+    private static String normalizeXMP(PDMetadata metadata) throws IOException {
+        if (metadata == null) {
+            return "";
+        }
+        try (InputStream is = metadata.createInputStream()) {
+            return XMPUtil.normalizeXMP(is);
+        }
+    }
+
+    private static String normalizeXMP(InputStream is) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = is.read(buffer)) > 0) {
+            os.write(buffer, 0, read);
+        }
+        return new String(os.toByteArray(), StandardCharsets.UTF_8).replaceAll(">\\s+<", "><").trim();
+    }
+
+    private static Map<String, String> getDocumentInformation(PDDocument document) {
+        COSDictionary dict = document.getDocumentInformation().getDictionary();
+        Map<String, String> information = new HashMap<>();
+        for (Map.Entry<COSName, COSBase> o : dict.entrySet()) {
+            information.put(o.getKey().getName(), String.valueOf(o.getValue()));
         }
+        return information;
     }
 
     /**
@@ -38,6 +38,7 @@ import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -60,6 +61,15 @@ public class BibtexDatabase {
 
     private final Set<DatabaseChangeListener> changeListeners = new HashSet<>();
 
+    private final Object bulkChangeLock = new Object();
+
+    /**
+     * Collects the changes while a bulk change is in progress, null otherwise. Guarded by bulkChangeLock.
+     */
+    private BulkChange bulkChange;
+
+    private int bulkChangeDepth;
+
     private boolean followCrossrefs = true;
 
     /**
@@ -119,6 +129,30 @@ public class BibtexDatabase {
         return entries.values();
     }
 
+    /**
+     * Returns a copy of this database as it is now, which does not change when this database changes. It is meant to
+     * be read on another thread, e.g. to save it, and must not be changed itself.
+     * <p>
+     * The copy is cheap: the entries share their fields with the entries of this database until either of them changes
+     * (see {@link BibtexEntry#snapshot()}). The copy has the same entry ids, but no listeners, neither on the database
+     * nor on the entries. It must be made on the thread changing this database, so that it never holds a half applied
+     * edit.
+     */
+    public synchronized BibtexDatabase snapshot() {
+        BibtexDatabase snapshot = new BibtexDatabase();
+        for (BibtexEntry entry : entries.values()) {
+            snapshot.entries.put(entry.getId(), entry.snapshot());
+        }
+        for (BibtexString string : bibtexStrings.values()) {
+            snapshot.bibtexStrings.put(string.getId(), string.snapshot());
+        }
+        snapshot.allKeys.putAll(allKeys);
+        snapshot.preamble = preamble;
+        snapshot.epilog = epilog;
+        snapshot.followCrossrefs = followCrossrefs;
+        return snapshot;
+    }
+
     public TreeSet<String> getAllVisibleFields() {
         TreeSet<String> allFields = new TreeSet<>();
         for (BibtexEntry e : getEntries()) {
@@ -545,7 +579,60 @@ public class BibtexDatabase {
         }
     }
 
+    /**
+     * Starts a bulk change. Until the matching call of {@link #commitBulkChange()}, the change listeners are not
+     * notified of inserted, removed and changed entries. Instead, they get a single BULK_CHANGE event at the end, so
+     * that views like the main table are updated only once. The changes themselves are applied immediately.
+     * <p>
+     * Bulk changes may be nested, only the outermost commit fires the event. Always commit in a finally block:
+     * <pre>
+     * database.beginBulkChange();
+     * try {
+     *     ...
+     * } finally {
+     *     database.commitBulkChange();
+     * }
+     * </pre>
+     */
+    public void beginBulkChange() {
+        synchronized (bulkChangeLock) {
+            if (bulkChangeDepth == 0) {
+                bulkChange = new BulkChange();
+            }
+            bulkChangeDepth++;
+        }
+    }
+
+    /**
+     * Ends a bulk change started with {@link #beginBulkChange()} and notifies the change listeners of the net result:
+     * an entry which has been inserted and removed again is not reported at all, an entry which has been inserted and
+     * changed is only reported as inserted.
+     */
+    public void commitBulkChange() {
+        BulkChange finished;
+        synchronized (bulkChangeLock) {
+            if (bulkChangeDepth == 0) {
+                throw new IllegalStateException("No bulk change in progress");
+            }
+            bulkChangeDepth--;
+            if (bulkChangeDepth > 0) {
+                return;
+            }
+            finished = bulkChange;
+            bulkChange = null;
+        }
+        if (!finished.isEmpty()) {
+            fireDatabaseChanged(finished.toEvent(this));
+        }
+    }
+
     private void fireDatabaseChanged(DatabaseChangeEvent e) {
+        synchronized (bulkChangeLock) {
+            if (bulkChange != null) {
+                bulkChange.add(e);
+                return;
+            }
+        }
         for (DatabaseChangeListener tmpListener : changeListeners) {
             tmpListener.databaseChanged(e);
         }
@@ -662,6 +749,55 @@ public class BibtexDatabase {
     };
 
 
+    /**
+     * The net changes of a bulk change.
+     */
+    private static class BulkChange {
+
+        private final Set<BibtexEntry> added = new LinkedHashSet<>();
+        private final Set<BibtexEntry> removed = new LinkedHashSet<>();
+        private final Set<BibtexEntry> changed = new LinkedHashSet<>();
+
+
+        void add(DatabaseChangeEvent e) {
+            BibtexEntry entry = e.getEntry();
+            switch (e.getType()) {
+            case ADDED_ENTRY:
+                if (removed.remove(entry)) {
+                    // removed and inserted again, e.g. by undo and redo
+                    changed.add(entry);
+                } else {
+                    added.add(entry);
+                }
+                break;
+            case REMOVED_ENTRY:
+                changed.remove(entry);
+                if (!added.remove(entry)) {
+                    removed.add(entry);
+                }
+                break;
+            case CHANGED_ENTRY:
+                if (!added.contains(entry)) {
+                    changed.add(entry);
+                }
+                break;
+            default:
+                // an announced change is of no interest once the bulk change is over
+                break;
+            }
+        }
+
+        boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+
+        DatabaseChangeEvent toEvent(BibtexDatabase source) {
+            return new DatabaseChangeEvent(source, new ArrayList<>(added), new ArrayList<>(removed),
+                    new ArrayList<>(changed));
+        }
+    }
+
+
     public void setEpilog(String epilog) {
         this.epilog = epilog;
     }
@@ -15,18 +15,29 @@
 */
 package net.sf.jabref.model.database;
 
+import java.util.Collections;
+import java.util.List;
+
 import net.sf.jabref.model.entry.BibtexEntry;
 
 public class DatabaseChangeEvent {
 
+    /**
+     * BULK_CHANGE is fired once at the end of a bulk change (see {@link BibtexDatabase#beginBulkChange()}) instead of
+     * the events of the single entries. It has no entry, use {@link #getAddedEntries()}, {@link #getRemovedEntries()}
+     * and {@link #getChangedEntries()} instead.
+     */
     public enum ChangeType {
-        ADDED_ENTRY, REMOVED_ENTRY, CHANGED_ENTRY, CHANGING_ENTRY
+        ADDED_ENTRY, REMOVED_ENTRY, CHANGED_ENTRY, CHANGING_ENTRY, BULK_CHANGE
     }
 
 
     private final BibtexEntry entry;
     private final ChangeType type;
     private final BibtexDatabase source;
+    private final List<BibtexEntry> addedEntries;
+    private final List<BibtexEntry> removedEntries;
+    private final List<BibtexEntry> changedEntries;
 
 
     public DatabaseChangeEvent(BibtexDatabase source, ChangeType type,
@@ -34,12 +45,33 @@ public class DatabaseChangeEvent {
         this.source = source;
         this.type = type;
         this.entry = entry;
+        List<BibtexEntry> entries = Collections.singletonList(entry);
+        List<BibtexEntry> none = Collections.emptyList();
+        this.addedEntries = type == ChangeType.ADDED_ENTRY ? entries : none;
+        this.removedEntries = type == ChangeType.REMOVED_ENTRY ? entries : none;
+        this.changedEntries = type == ChangeType.CHANGED_ENTRY ? entries : none;
+    }
+
+    /**
+     * Creates a BULK_CHANGE event. An entry must be contained in at most one of the lists.
+     */
+    public DatabaseChangeEvent(BibtexDatabase source, List<BibtexEntry> addedEntries,
+            List<BibtexEntry> removedEntries, List<BibtexEntry> changedEntries) {
+        this.source = source;
+        this.type = ChangeType.BULK_CHANGE;
+        this.entry = null;
+        this.addedEntries = Collections.unmodifiableList(addedEntries);
+        this.removedEntries = Collections.unmodifiableList(removedEntries);
+        this.changedEntries = Collections.unmodifiableList(changedEntries);
     }
 
     public BibtexDatabase getSource() {
         return source;
     }
 
+    /**
+     * @return the entry of the change, or null for a BULK_CHANGE
+     */
     public BibtexEntry getEntry() {
         return entry;
     }
@@ -47,4 +79,27 @@ public class DatabaseChangeEvent {
     public ChangeType getType() {
         return type;
     }
+
+    /**
+     * Returns the added entries, in the order in which they were added. This works for ADDED_ENTRY as well as for
+     * BULK_CHANGE events.
+     */
+    public List<BibtexEntry> getAddedEntries() {
+        return addedEntries;
+    }
+
+    /**
+     * Returns the removed entries. This works for REMOVED_ENTRY as well as for BULK_CHANGE events.
+     */
+    public List<BibtexEntry> getRemovedEntries() {
+        return removedEntries;
+    }
+
+    /**
+     * Returns the changed entries which were neither added nor removed. This works for CHANGED_ENTRY as well as for
+     * BULK_CHANGE events.
+     */
+    public List<BibtexEntry> getChangedEntries() {
+        return changedEntries;
+    }
 }
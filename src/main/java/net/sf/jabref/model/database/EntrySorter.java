@@ -121,6 +121,13 @@ public class EntrySorter implements DatabaseChangeListener {
                     set.add(-pos - 1, e.getEntry());
                 }
                 break;
+            case BULK_CHANGE:
+                // apply all changes and sort only once
+                set.removeAll(new HashSet<>(e.getRemovedEntries()));
+                set.addAll(e.getAddedEntries());
+                changed = true;
+                index();
+                break;
             }
         }
     }
@@ -0,0 +1,216 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.model.database;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.EntryUtil;
+
+/**
+ * Keeps track of the keywords of the entries of a database, in both directions: the keywords of every entry and the
+ * entries of every keyword.
+ * <p>
+ * The "keywords" field of an entry is split (see {@link EntryUtil#getSeparatedKeywords(String)}) once when the entry
+ * is added, and again only when the field has changed. Finding the entries with a given keyword therefore does not
+ * need to look at the other entries of the database.
+ */
+public class KeywordIndex implements DatabaseChangeListener {
+
+    private static final String KEYWORDS_FIELD = "keywords";
+
+    /**
+     * The "keywords" field of every entry of the database, as it was split the last time
+     */
+    private final Map<BibtexEntry, String> fieldValues = new IdentityHashMap<>();
+
+    /**
+     * The keywords of every entry which has some
+     */
+    private final Map<BibtexEntry, List<String>> keywordsOfEntries = new IdentityHashMap<>();
+
+    private final Map<String, Set<BibtexEntry>> entriesOfKeywords = new HashMap<>();
+
+    private final List<DatabaseChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+
+    /**
+     * Creates the index of the given database and keeps it up to date with the changes of the database.
+     */
+    public KeywordIndex(BibtexDatabase database) {
+        synchronized (this) {
+            database.addDatabaseChangeListener(this);
+            for (BibtexEntry entry : database.getEntries()) {
+                update(entry);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener which is notified of the changes of the database after the index has been updated.
+     */
+    public void addDatabaseChangeListener(DatabaseChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeDatabaseChangeListener(DatabaseChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns all keywords of the database, sorted.
+     */
+    public synchronized SortedSet<String> getKeywords() {
+        return new TreeSet<>(entriesOfKeywords.keySet());
+    }
+
+    /**
+     * Returns the keywords of the given entry, in the order of its "keywords" field.
+     */
+    public synchronized List<String> getKeywords(BibtexEntry entry) {
+        List<String> keywords = keywordsOfEntries.get(entry);
+        return keywords == null ? Collections.<String> emptyList() : keywords;
+    }
+
+    /**
+     * Returns the keywords appearing in any of the given entries, sorted.
+     */
+    public synchronized SortedSet<String> getKeywords(BibtexEntry[] entries) {
+        SortedSet<String> result = new TreeSet<>();
+        for (BibtexEntry entry : entries) {
+            result.addAll(getKeywords(entry));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the keywords appearing in all of the given entries, sorted. There are none if no entries are given.
+     */
+    public synchronized SortedSet<String> getCommonKeywords(BibtexEntry[] entries) {
+        SortedSet<String> result = new TreeSet<>();
+        if (entries.length == 0) {
+            return result;
+        }
+        result.addAll(getKeywords(entries[0]));
+        for (int i = 1; (i < entries.length) && !result.isEmpty(); i++) {
+            result.retainAll(getKeywords(entries[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries with the given keyword.
+     */
+    public synchronized int getCount(String keyword) {
+        Set<BibtexEntry> entries = entriesOfKeywords.get(keyword);
+        return entries == null ? 0 : entries.size();
+    }
+
+    /**
+     * Returns the entries with the given keyword, in no particular order.
+     */
+    public synchronized List<BibtexEntry> getEntries(String keyword) {
+        Set<BibtexEntry> entries = entriesOfKeywords.get(keyword);
+        return entries == null ? new ArrayList<>() : new ArrayList<>(entries);
+    }
+
+    /**
+     * Returns the entries with at least one of the given keywords, in no particular order.
+     */
+    public synchronized List<BibtexEntry> getEntries(Collection<String> keywords) {
+        Set<BibtexEntry> result = Collections.newSetFromMap(new IdentityHashMap<BibtexEntry, Boolean>());
+        for (String keyword : keywords) {
+            Set<BibtexEntry> entries = entriesOfKeywords.get(keyword);
+            if (entries != null) {
+                result.addAll(entries);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    @Override
+    public void databaseChanged(DatabaseChangeEvent e) {
+        if (e.getType() != DatabaseChangeEvent.ChangeType.CHANGING_ENTRY) {
+            synchronized (this) {
+                for (BibtexEntry entry : e.getRemovedEntries()) {
+                    remove(entry);
+                }
+                for (BibtexEntry entry : e.getAddedEntries()) {
+                    update(entry);
+                }
+                for (BibtexEntry entry : e.getChangedEntries()) {
+                    if (fieldValues.containsKey(entry)) {
+                        update(entry);
+                    }
+                }
+            }
+        }
+        for (DatabaseChangeListener listener : listeners) {
+            listener.databaseChanged(e);
+        }
+    }
+
+    private void update(BibtexEntry entry) {
+        String value = entry.getField(KEYWORDS_FIELD);
+        if (fieldValues.containsKey(entry) && Objects.equals(value, fieldValues.get(entry))) {
+            // most changes of an entry do not touch its keywords
+            return;
+        }
+        remove(entry);
+        fieldValues.put(entry, value);
+        List<String> keywords = EntryUtil.getSeparatedKeywords(value);
+        if (keywords.isEmpty()) {
+            return;
+        }
+        keywordsOfEntries.put(entry, Collections.unmodifiableList(keywords));
+        for (String keyword : keywords) {
+            Set<BibtexEntry> entries = entriesOfKeywords.get(keyword);
+            if (entries == null) {
+                entries = Collections.newSetFromMap(new IdentityHashMap<BibtexEntry, Boolean>());
+                entriesOfKeywords.put(keyword, entries);
+            }
+            entries.add(entry);
+        }
+    }
+
+    private void remove(BibtexEntry entry) {
+        fieldValues.remove(entry);
+        List<String> keywords = keywordsOfEntries.remove(entry);
+        if (keywords == null) {
+            return;
+        }
+        for (String keyword : keywords) {
+            Set<BibtexEntry> entries = entriesOfKeywords.get(keyword);
+            if (entries != null) {
+                entries.remove(entry);
+                if (entries.isEmpty()) {
+                    entriesOfKeywords.remove(keyword);
+                }
+            }
+        }
+    }
+}
@@ -250,12 +250,15 @@ public class AuthorList {
      * @return An AuthorList object representing the given authors.
      */
     public static AuthorList getAuthorList(String authors) {
-        AuthorList authorList = AUTHOR_CACHE.get(authors);
-        if (authorList == null) {
-            authorList = new AuthorList(authors);
-            AUTHOR_CACHE.put(authors, authorList);
+        // the cache is shared by all threads, e.g. the ones formatting a bibliography in parallel
+        synchronized (AUTHOR_CACHE) {
+            AuthorList authorList = AUTHOR_CACHE.get(authors);
+            if (authorList == null) {
+                authorList = new AuthorList(authors);
+                AUTHOR_CACHE.put(authors, authorList);
+            }
+            return authorList;
         }
-        return authorList;
     }
 
     /**
@@ -26,12 +26,10 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -53,9 +51,10 @@ public class BibtexEntry {
 
     private EntryType type;
 
-    private Map<String, String> fields = new HashMap<>();
+    private EntryFields fields = new EntryFields();
 
-    private final VetoableChangeSupport changeSupport = new VetoableChangeSupport(this);
+    // Created when the first listener is added, most entries never get one:
+    private VetoableChangeSupport changeSupport;
 
     // Search and grouping status is stored in boolean fields for quick reference:
     private boolean searchHit;
@@ -110,7 +109,7 @@ public class BibtexEntry {
      * @return a set of existing field names
      */
     public Set<String> getFieldNames() {
-        return new TreeSet<>(fields.keySet());
+        return fields.getNames();
     }
 
     /**
@@ -409,7 +408,9 @@ public class BibtexEntry {
 
     private void firePropertyChangedEvent(String fieldName, Object oldValue, Object newValue)
             throws PropertyVetoException {
-        changeSupport.fireVetoableChange(new PropertyChangeEvent(this, fieldName, oldValue, newValue));
+        if (changeSupport != null) {
+            changeSupport.fireVetoableChange(new PropertyChangeEvent(this, fieldName, oldValue, newValue));
+        }
     }
 
     /**
@@ -418,6 +419,9 @@ public class BibtexEntry {
      * itself each time a field changes.
      */
     public void addPropertyChangeListener(VetoableChangeListener listener) {
+        if (changeSupport == null) {
+            changeSupport = new VetoableChangeSupport(this);
+        }
         changeSupport.addVetoableChangeListener(listener);
     }
 
@@ -425,7 +429,9 @@ public class BibtexEntry {
      * Removes a property listener.
      */
     public void removePropertyChangeListener(VetoableChangeListener listener) {
-        changeSupport.removeVetoableChangeListener(listener);
+        if (changeSupport != null) {
+            changeSupport.removeVetoableChangeListener(listener);
+        }
     }
 
     /**
@@ -434,10 +440,25 @@ public class BibtexEntry {
     @Override
     public Object clone() {
         BibtexEntry clone = new BibtexEntry(id, type);
-        clone.fields = new HashMap<>(fields);
+        clone.fields = new EntryFields(fields);
         return clone;
     }
 
+    /**
+     * Returns a copy of this entry as it is now, for reading it on another thread (e.g. to save it) while this entry
+     * goes on changing. The fields are only copied when this entry or the copy changes them, so that a copy is cheap.
+     * <p>
+     * Unlike {@link #clone()}, the copy keeps the serialization read from the file. It must be made on the thread
+     * changing this entry.
+     */
+    public BibtexEntry snapshot() {
+        BibtexEntry snapshot = new BibtexEntry(id, type);
+        snapshot.fields = fields.share();
+        snapshot.parsedSerialization = parsedSerialization;
+        snapshot.changed = changed;
+        return snapshot;
+    }
+
     /**
      * This returns a canonical BibTeX serialization. Special characters such as "{" or "&" are NOT escaped, but written
      * as is
@@ -134,6 +134,16 @@ public class BibtexString {
         return new BibtexString(id, name, content);
     }
 
+    /**
+     * Returns a copy of this string which, unlike {@link #clone()}, keeps the serialization read from the file.
+     */
+    public BibtexString snapshot() {
+        BibtexString snapshot = new BibtexString(id, name, content);
+        snapshot.parsedSerialization = parsedSerialization;
+        snapshot.hasChanged = hasChanged;
+        return snapshot;
+    }
+
     public Type getType() {
         return type;
     }
@@ -0,0 +1,194 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.model.entry;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compact storage of the fields of a {@link BibtexEntry}.
+ * <p>
+ * An entry has only a few fields, mostly with the same names in all entries. Instead of a hash table per entry, the
+ * names and values are kept in a single array (name at even, value at the following odd index) which is searched
+ * linearly. Field names are shared by all entries through a global symbol table, so that a database holds every
+ * field name only once and most name comparisons succeed by identity.
+ * <p>
+ * Like a HashMap, a field can be present with a null value. This class is not thread safe.
+ * <p>
+ * A copy made by {@link #share()} uses the same array as the original until one of them is changed, which then
+ * copies the array first (copy on write).
+ */
+final class EntryFields {
+
+    private static final ConcurrentMap<String, String> FIELD_NAMES = new ConcurrentHashMap<>();
+
+    private static final String[] EMPTY = new String[0];
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] namesAndValues = EMPTY;
+
+    private int size;
+
+    /**
+     * Whether the array may be used by another instance, so that it has to be copied before changing it
+     */
+    private boolean shared;
+
+
+    EntryFields() {
+        // empty
+    }
+
+    EntryFields(EntryFields other) {
+        namesAndValues = Arrays.copyOf(other.namesAndValues, other.size * 2);
+        size = other.size;
+    }
+
+    /**
+     * Returns a copy of these fields without copying the array. Both this instance and the copy copy the array before
+     * they are changed for the first time.
+     */
+    EntryFields share() {
+        shared = true;
+        EntryFields copy = new EntryFields();
+        copy.namesAndValues = namesAndValues;
+        copy.size = size;
+        copy.shared = true;
+        return copy;
+    }
+
+    /**
+     * Returns the shared instance of the given field name. This is the instance returned by {@link String#intern()},
+     * so that field name constants in the code are identical to it.
+     */
+    static String internFieldName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String shared = FIELD_NAMES.get(name);
+        if (shared == null) {
+            shared = name.intern();
+            FIELD_NAMES.put(shared, shared);
+        }
+        return shared;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    String get(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : namesAndValues[index + 1];
+    }
+
+    /**
+     * @return the previous value of the field, null if it was not present or null
+     */
+    String put(String name, String value) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            ensureOwnArray();
+            String oldValue = namesAndValues[index + 1];
+            namesAndValues[index + 1] = value;
+            return oldValue;
+        }
+
+        if ((size * 2) == namesAndValues.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            namesAndValues = Arrays.copyOf(namesAndValues, capacity * 2);
+            shared = false;
+        } else {
+            ensureOwnArray();
+        }
+        namesAndValues[size * 2] = internFieldName(name);
+        namesAndValues[(size * 2) + 1] = value;
+        size++;
+        return null;
+    }
+
+    void putAll(Map<String, String> fields) {
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            put(field.getKey(), field.getValue());
+        }
+    }
+
+    /**
+     * @return the previous value of the field, null if it was not present or null
+     */
+    String remove(String name) {
+        int index = indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        ensureOwnArray();
+        String oldValue = namesAndValues[index + 1];
+        int last = (size - 1) * 2;
+        // keep the array dense by moving the last field into the gap
+        namesAndValues[index] = namesAndValues[last];
+        namesAndValues[index + 1] = namesAndValues[last + 1];
+        namesAndValues[last] = null;
+        namesAndValues[last + 1] = null;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Returns the sorted names of all fields, including those with a null value.
+     */
+    Set<String> getNames() {
+        Set<String> names = new TreeSet<>();
+        for (int i = 0; i < size; i++) {
+            names.add(namesAndValues[i * 2]);
+        }
+        return names;
+    }
+
+    private void ensureOwnArray() {
+        if (shared) {
+            namesAndValues = Arrays.copyOf(namesAndValues, namesAndValues.length);
+            shared = false;
+        }
+    }
+
+    private int indexOf(String name) {
+        int end = size * 2;
+        // field names passed in are often constants, which are identical to the shared names
+        for (int i = 0; i < end; i += 2) {
+            if (namesAndValues[i] == name) {
+                return i;
+            }
+        }
+        if (name == null) {
+            return -1;
+        }
+        for (int i = 0; i < end; i += 2) {
+            if (name.equals(namesAndValues[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
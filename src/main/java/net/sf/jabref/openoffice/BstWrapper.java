@@ -19,7 +19,9 @@ import net.sf.jabref.model.database.BibtexDatabase;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.exporter.layout.LayoutFormatter;
 import net.sf.jabref.exporter.layout.format.FormatChars;
-import net.sf.jabref.bst.VM;
+import net.sf.jabref.bst.BstMachine;
+import net.sf.jabref.bst.BstProgram;
+import net.sf.jabref.bst.BstProgramCache;
 import org.antlr.runtime.RecognitionException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,7 +42,7 @@ import java.util.regex.Pattern;
 class BstWrapper {
 
     private final LayoutFormatter formatter = new FormatChars();
-    private VM vm;
+    private BstProgram program;
 
     private static final Log LOGGER = LogFactory.getLog(BstWrapper.class);
 
@@ -50,13 +52,13 @@ class BstWrapper {
 
     /**
      * Set the bst file to be used for processing. This method will initiate parsing
-     * of the bst file.
+     * and compilation of the bst file, unless it has been compiled before.
      * @param f The bst file to load.
      * @throws IOException On IO errors.
      * @throws RecognitionException On parsing errors.
      */
     public void loadBstFile(File f) throws IOException, RecognitionException {
-        vm = new VM(f);
+        program = BstProgramCache.getProgram(f);
     }
 
     /**
@@ -69,7 +71,7 @@ class BstWrapper {
         // TODO: how to handle uniquefiers?
 
         // TODO: need handling of crossrefs?
-        String result = vm.run(entries);
+        String result = new BstMachine(program, true).run(entries);
         return parseResult(result);
     }
 
@@ -0,0 +1,258 @@
+/*  Copyright (C) 2003-2015 JabRef contributors.
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License along
+    with this program; if not, write to the Free Software Foundation, Inc.,
+    51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+*/
+package net.sf.jabref.pdfimport;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jabref.importer.OutputPrinter;
+import net.sf.jabref.importer.fileformat.PdfContentImporter;
+import net.sf.jabref.logic.xmp.XMPUtil;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.IdGenerator;
+
+/**
+ * Creates entries for many PDF files at once, e.g. all PDFs of a directory, without asking the user about each file
+ * (as {@link PdfImporter} does).
+ * <p>
+ * The metadata of the files is extracted on a bounded pool of worker threads: the XMP metadata is used if there is
+ * some, otherwise the text of the first page is analyzed by the {@link PdfContentImporter}. Every file is read only
+ * once for both. The results are cached by the hash of the file content, so importing the same files again does not
+ * parse them again.
+ * <p>
+ * The created entries are handed to the calling thread as soon as they are ready, in the order in which they are
+ * finished, and {@link #importInto(List, BibtexDatabase, Listener)} inserts them into the database in one bulk
+ * change.
+ */
+public class PdfImportPipeline {
+
+    private static final Log LOGGER = LogFactory.getLog(PdfImportPipeline.class);
+
+    /**
+     * The number of extracted entries kept in the cache
+     */
+    private static final int CACHE_SIZE = 1000;
+
+    private static final Map<String, BibtexEntry> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, BibtexEntry>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BibtexEntry> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * Is informed about each file, on the thread which called {@link #run(List, Listener)}.
+     */
+    public interface Listener {
+
+        /**
+         * Called for each successfully read file. The entry is a new entry with a fresh id, which may be modified, e.g.
+         * to link the file. If no metadata has been found, the entry has no fields.
+         */
+        void imported(File file, BibtexEntry entry);
+
+        void failed(File file, Exception exception);
+    }
+
+
+    private final int threads;
+    private final OutputPrinter status;
+
+    private final AtomicInteger cacheHits = new AtomicInteger();
+
+
+    /**
+     * @param status used by the content importer to report the lookup of DOIs
+     */
+    public PdfImportPipeline(OutputPrinter status) {
+        // loading a PDF is CPU bound, but needs a lot of memory
+        this(status, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public PdfImportPipeline(OutputPrinter status, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.status = status;
+        this.threads = threads;
+    }
+
+    /**
+     * Creates an entry for each of the given files and waits until all are done.
+     */
+    public void run(List<File> files, Listener listener) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+            private final AtomicInteger count = new AtomicInteger();
+
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "PDF importer " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            CompletionService<BibtexEntry> completionService = new ExecutorCompletionService<>(executor);
+            Map<Future<BibtexEntry>, File> jobs = new LinkedHashMap<>();
+            for (final File file : files) {
+                jobs.put(completionService.submit(new Callable<BibtexEntry>() {
+
+                    @Override
+                    public BibtexEntry call() throws IOException {
+                        return createEntry(file);
+                    }
+                }), file);
+            }
+            for (int i = 0; i < jobs.size(); i++) {
+                Future<BibtexEntry> done = completionService.take();
+                File file = jobs.get(done);
+                try {
+                    listener.imported(file, done.get());
+                } catch (ExecutionException e) {
+                    LOGGER.info("Could not import " + file, e.getCause());
+                    listener.failed(file, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates an entry for each of the given files and inserts it into the database. The database notifies its
+     * listeners only once, when all files are done.
+     *
+     * @param listener may complete the entries before they are inserted
+     * @return the inserted entries
+     */
+    public List<BibtexEntry> importInto(List<File> files, final BibtexDatabase database, final Listener listener)
+            throws InterruptedException {
+        final List<BibtexEntry> inserted = new ArrayList<>(files.size());
+        database.beginBulkChange();
+        try {
+            run(files, new Listener() {
+
+                @Override
+                public void imported(File file, BibtexEntry entry) {
+                    listener.imported(file, entry);
+                    database.insertEntry(entry);
+                    inserted.add(entry);
+                }
+
+                @Override
+                public void failed(File file, Exception exception) {
+                    listener.failed(file, exception);
+                }
+            });
+        } finally {
+            database.commitBulkChange();
+        }
+        return inserted;
+    }
+
+    /**
+     * @return the number of files whose entry has been taken from the cache
+     */
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    private BibtexEntry createEntry(File file) throws IOException {
+        byte[] content = Files.readAllBytes(file.toPath());
+        String hash = hash(content);
+
+        BibtexEntry extracted = CACHE.get(hash);
+        if (extracted == null) {
+            extracted = extractEntry(content);
+            if (extracted == null) {
+                extracted = new BibtexEntry();
+            }
+            CACHE.put(hash, (BibtexEntry) extracted.clone());
+        } else {
+            cacheHits.incrementAndGet();
+        }
+
+        BibtexEntry entry = (BibtexEntry) extracted.clone();
+        entry.setId(IdGenerator.next());
+        return entry;
+    }
+
+    /**
+     * Reads the metadata of a PDF file.
+     *
+     * @param content the content of the file
+     * @return the entry described by the metadata, null if no metadata has been found
+     */
+    protected BibtexEntry extractEntry(byte[] content) throws IOException {
+        List<BibtexEntry> entries = XMPUtil.readXMP(new ByteArrayInputStream(content));
+        if ((entries == null) || entries.isEmpty()) {
+            // the content importer keeps the state of the parsing, so every file needs its own instance
+            entries = new PdfContentImporter().importEntries(new ByteArrayInputStream(content), status);
+        }
+        if ((entries == null) || entries.isEmpty()) {
+            return null;
+        }
+        // only one entry is imported, as the PdfImporter does
+        return entries.get(0);
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-1
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Empties the cache of extracted entries.
+     */
+    static void clearCache() {
+        CACHE.clear();
+    }
+}
@@ -15,12 +15,13 @@ public class SpecialFieldDatabaseChangeListener implements
 
     @Override
     public void databaseChanged(DatabaseChangeEvent e) {
-        if (e.getType() == DatabaseChangeEvent.ChangeType.ADDED_ENTRY &&
+        if (!e.getAddedEntries().isEmpty() &&
                 SpecialFieldsUtils.keywordSyncEnabled()) {
-            final BibtexEntry entry = e.getEntry();
             // NamedCompount code similar to SpecialFieldUpdateListener
             NamedCompound nc = new NamedCompound(Localization.lang("Synchronized special fields based on keywords"));
-            SpecialFieldsUtils.syncSpecialFieldsFromKeywords(entry, nc);
+            for (BibtexEntry entry : e.getAddedEntries()) {
+                SpecialFieldsUtils.syncSpecialFieldsFromKeywords(entry, nc);
+            }
             nc.end();
             JabRef.jrf.getCurrentBasePanel().undoManager.addEdit(nc);
         }
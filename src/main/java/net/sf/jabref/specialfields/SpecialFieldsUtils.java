@@ -16,10 +16,16 @@
 package net.sf.jabref.specialfields;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import net.sf.jabref.util.Util;
 
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.database.KeywordIndex;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.Globals;
 import net.sf.jabref.gui.undo.NamedCompound;
@@ -137,7 +143,7 @@ public class SpecialFieldsUtils {
         SpecialFieldsUtils.exportFieldToKeywords(Printed.getInstance(), be, nc);
     }
 
-    private static void importKeywordsForField(ArrayList<String> keywordList, SpecialField c, BibtexEntry be, NamedCompound nc) {
+    private static void importKeywordsForField(List<String> keywordList, SpecialField c, BibtexEntry be, NamedCompound nc) {
         List<String> values = c.getKeyWords();
         String newValue = null;
         for (String val : values) {
@@ -160,12 +166,53 @@ public class SpecialFieldsUtils {
         }
         ArrayList<String> keywordList = net.sf.jabref.model.entry.EntryUtil
                 .getSeparatedKeywords(be.getField("keywords"));
-        SpecialFieldsUtils.importKeywordsForField(keywordList, Priority.getInstance(), be, ce);
-        SpecialFieldsUtils.importKeywordsForField(keywordList, Rank.getInstance(), be, ce);
-        SpecialFieldsUtils.importKeywordsForField(keywordList, Quality.getInstance(), be, ce);
-        SpecialFieldsUtils.importKeywordsForField(keywordList, Relevance.getInstance(), be, ce);
-        SpecialFieldsUtils.importKeywordsForField(keywordList, ReadStatus.getInstance(), be, ce);
-        SpecialFieldsUtils.importKeywordsForField(keywordList, Printed.getInstance(), be, ce);
+        SpecialFieldsUtils.importKeywords(keywordList, be, ce);
+    }
+
+    /**
+     * Updates the field values of all entries of the database according to their keywords. Only the entries having a
+     * keyword of a special field or a value of a special field are looked at, their keywords are taken from the index.
+     *
+     * @param ce indicates the undo named compound. May be null
+     */
+    public static void syncSpecialFieldsFromKeywords(BibtexDatabase database, KeywordIndex index, NamedCompound ce) {
+        List<String> keywords = new ArrayList<>();
+        for (SpecialField field : SpecialFieldsUtils.getSpecialFields()) {
+            keywords.addAll(field.getKeyWords());
+        }
+        Set<BibtexEntry> entries = Collections.newSetFromMap(new IdentityHashMap<BibtexEntry, Boolean>());
+        entries.addAll(index.getEntries(keywords));
+        for (BibtexEntry entry : database.getEntries()) {
+            if (!entries.contains(entry) && (entry.getField("keywords") != null) && hasSpecialFieldValue(entry)) {
+                entries.add(entry);
+            }
+        }
+        for (BibtexEntry entry : entries) {
+            SpecialFieldsUtils.importKeywords(index.getKeywords(entry), entry, ce);
+        }
+    }
+
+    private static void importKeywords(List<String> keywordList, BibtexEntry be, NamedCompound ce) {
+        for (SpecialField field : SpecialFieldsUtils.getSpecialFields()) {
+            SpecialFieldsUtils.importKeywordsForField(keywordList, field, be, ce);
+        }
+    }
+
+    private static boolean hasSpecialFieldValue(BibtexEntry be) {
+        for (SpecialField field : SpecialFieldsUtils.getSpecialFields()) {
+            if (be.getField(field.getFieldName()) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the special fields, in the order in which they are synchronized
+     */
+    private static List<SpecialField> getSpecialFields() {
+        return Arrays.asList(Priority.getInstance(), Rank.getInstance(), Quality.getInstance(),
+                Relevance.getInstance(), ReadStatus.getInstance(), Printed.getInstance());
     }
 
     /**
@@ -20,9 +20,14 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 
 import javax.swing.AbstractAction;
@@ -41,6 +46,8 @@ import javax.swing.JScrollPane;
 import javax.swing.JTextField;
 
 import net.sf.jabref.gui.BasePanel;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.database.KeywordIndex;
 import net.sf.jabref.model.entry.BibtexEntry;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRef;
@@ -370,40 +377,68 @@ public class ManageKeywordsAction extends MnemonicAwareAction {
             }
         }
 
-        BibtexEntry[] entries = bp.getSelectedEntries();
+        List<BibtexEntry> entries = getEntriesToUpdate(bp.getKeywordIndex(), bp.getSelectedEntries(), keywordsToAdd,
+                keywordsToRemove);
         NamedCompound ce = new NamedCompound(Localization.lang("Update keywords"));
-        for (BibtexEntry entry : entries) {
-            List<String> separatedKeywords = entry.getSeparatedKeywords();
-
-            // we "intercept" with a treeset
-            // pro: no duplicates
-            // possible con: alphabetical sorting of the keywords
-            TreeSet<String> keywords = new TreeSet<>();
-            keywords.addAll(separatedKeywords);
-
-            // update keywords
-            keywords.removeAll(keywordsToRemove);
-            keywords.addAll(keywordsToAdd);
-
-            // put keywords back
-            separatedKeywords.clear();
-            separatedKeywords.addAll(keywords);
-            String oldValue = entry.getField("keywords");
-            entry.putKeywords(separatedKeywords);
-            String updatedValue = entry.getField("keywords");
-            if ((oldValue == null) || !oldValue.equals(updatedValue)) {
-                    ce.addEdit(new UndoableFieldChange(entry, "keywords", oldValue, updatedValue));
-            }
+        BibtexDatabase database = bp.database();
+        database.beginBulkChange();
+        try {
+            for (BibtexEntry entry : entries) {
+                List<String> separatedKeywords = entry.getSeparatedKeywords();
 
-            if (SpecialFieldsUtils.keywordSyncEnabled()) {
-                SpecialFieldsUtils.syncSpecialFieldsFromKeywords(entry, ce);
+                // we "intercept" with a treeset
+                // pro: no duplicates
+                // possible con: alphabetical sorting of the keywords
+                TreeSet<String> keywords = new TreeSet<>();
+                keywords.addAll(separatedKeywords);
+
+                // update keywords
+                keywords.removeAll(keywordsToRemove);
+                keywords.addAll(keywordsToAdd);
+
+                // put keywords back
+                separatedKeywords.clear();
+                separatedKeywords.addAll(keywords);
+                String oldValue = entry.getField("keywords");
+                entry.putKeywords(separatedKeywords);
+                String updatedValue = entry.getField("keywords");
+                if ((oldValue == null) || !oldValue.equals(updatedValue)) {
+                        ce.addEdit(new UndoableFieldChange(entry, "keywords", oldValue, updatedValue));
+                }
+
+                if (SpecialFieldsUtils.keywordSyncEnabled()) {
+                    SpecialFieldsUtils.syncSpecialFieldsFromKeywords(entry, ce);
+                }
             }
+        } finally {
+            database.commitBulkChange();
         }
         ce.end();
         bp.undoManager.addEdit(ce);
         bp.markBaseChanged();
     }
 
+    /**
+     * Returns the entries of the selection which get or lose a keyword. If keywords are added, these are all entries
+     * of the selection. Otherwise, only the entries having a keyword to be removed are updated, which are looked up in
+     * the keyword index instead of splitting the keywords of every selected entry.
+     */
+    private static List<BibtexEntry> getEntriesToUpdate(KeywordIndex keywordIndex, BibtexEntry[] selection,
+            Set<String> keywordsToAdd, Set<String> keywordsToRemove) {
+        if (!keywordsToAdd.isEmpty()) {
+            return Arrays.asList(selection);
+        }
+        Set<BibtexEntry> affected = Collections.newSetFromMap(new IdentityHashMap<BibtexEntry, Boolean>());
+        affected.addAll(keywordIndex.getEntries(keywordsToRemove));
+        List<BibtexEntry> result = new ArrayList<>();
+        for (BibtexEntry entry : selection) {
+            if (affected.contains(entry)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
     private static HashSet<String> createClone(HashSet<String> keywordsToAdd) {
         return new HashSet<>(keywordsToAdd);
     }
@@ -416,26 +451,14 @@ public class ManageKeywordsAction extends MnemonicAwareAction {
         keywordListModel.clear();
         sortedKeywordsOfAllEntriesBeforeUpdateByUser.clear();
 
+        KeywordIndex keywordIndex = bp.getKeywordIndex();
         if (mergeKeywords.isSelected()) {
-            for (BibtexEntry entry : entries) {
-                List<String> separatedKeywords = entry.getSeparatedKeywords();
-                sortedKeywordsOfAllEntriesBeforeUpdateByUser.addAll(separatedKeywords);
-            }
+            sortedKeywordsOfAllEntriesBeforeUpdateByUser.addAll(keywordIndex.getKeywords(entries));
         } else {
             assert intersectKeywords.isSelected();
 
-            // all keywords from first entry have to be added
-            BibtexEntry firstEntry = entries[0];
-            List<String> separatedKeywords = firstEntry.getSeparatedKeywords();
-            sortedKeywordsOfAllEntriesBeforeUpdateByUser.addAll(separatedKeywords);
-
-            // for the remaining entries, intersection has to be used
-            // this approach ensures that one empty keyword list leads to an empty set of common keywords
-            for (int i = 1; i < entries.length; i++) {
-                BibtexEntry entry = entries[i];
-                separatedKeywords = entry.getSeparatedKeywords();
-                sortedKeywordsOfAllEntriesBeforeUpdateByUser.retainAll(separatedKeywords);
-            }
+            // one empty keyword list leads to an empty set of common keywords
+            sortedKeywordsOfAllEntriesBeforeUpdateByUser.addAll(keywordIndex.getCommonKeywords(entries));
         }
         for (String s : sortedKeywordsOfAllEntriesBeforeUpdateByUser) {
             keywordListModel.addElement(s);
@@ -646,22 +646,17 @@ public class Util {
         // set user-agent to avoid being blocked as a crawler
         source.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 5.1; rv:31.0) Gecko/20100101 Firefox/31.0");
 
-        InputStreamReader in;
-        if (encoding != null) {
-            in = new InputStreamReader(source.getInputStream(), encoding);
-        } else {
-            in = new InputStreamReader(source.getInputStream());
-        }
-
-        StringBuilder sb = new StringBuilder();
-        while (true) {
-            int byteRead = in.read();
-            if (byteRead == -1) {
-                break;
+        // read the response completely and close it, so that the connection is kept alive for the next request
+        try (InputStreamReader in = encoding == null ? new InputStreamReader(source.getInputStream()) :
+                new InputStreamReader(source.getInputStream(), encoding)) {
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                sb.append(buffer, 0, read);
             }
-            sb.append((char) byteRead);
+            return sb.toString();
         }
-        return sb.toString();
     }
 
     /**
@@ -0,0 +1,49 @@
+package net.sf.jabref;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StartupTasksTest {
+
+    @Test
+    public void testSubmittedPhasesRunConcurrently() throws InterruptedException {
+        StartupTasks tasks = new StartupTasks();
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable waitForOther = () -> {
+            bothStarted.countDown();
+            try {
+                // does not finish if the phases run one after the other
+                Assert.assertTrue(bothStarted.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        tasks.submit("first", waitForOther);
+        tasks.submit("second", waitForOther);
+        tasks.awaitSubmitted();
+
+        Assert.assertEquals(0, bothStarted.getCount());
+        Assert.assertTrue(tasks.getTimings().keySet().containsAll(Arrays.asList("first", "second")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExceptionOfSubmittedPhaseIsRethrown() {
+        StartupTasks tasks = new StartupTasks();
+        tasks.submit("failing", () -> {
+            throw new IllegalArgumentException();
+        });
+        tasks.awaitSubmitted();
+    }
+
+    @Test
+    public void testComputeReturnsResultAndRecordsTiming() {
+        StartupTasks tasks = new StartupTasks();
+
+        Assert.assertEquals("result", tasks.compute("phase", () -> "result"));
+        Assert.assertTrue(tasks.getTimings().containsKey("phase"));
+    }
+}
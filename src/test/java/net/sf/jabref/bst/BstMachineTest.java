@@ -0,0 +1,177 @@
+package net.sf.jabref.bst;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.importer.ParserResult;
+import net.sf.jabref.importer.fileformat.BibtexParser;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+import org.antlr.runtime.RecognitionException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class BstMachineTest {
+
+    private static final File ABBRV = new File("src/test/resources/net/sf/jabref/bst/abbrv.bst");
+
+
+    @Before
+    public void setPreferences() {
+        Globals.prefs = JabRefPreferences.getInstance();
+    }
+
+    @Test
+    public void testAbbrvProducesSameOutputAsVM() throws RecognitionException, IOException {
+        List<BibtexEntry> entries = new ArrayList<>();
+        entries.add(parse("@inproceedings{canh05,"
+                + " author = {Crowston, K. and Annabi, H. and Howison, J. and Masango, C.},"
+                + " title = {Effective work practices for floss development: A model and propositions},"
+                + " booktitle = {Hawaii International Conference On System Sciences (HICSS)}, year = {2005}}"));
+        entries.add(parse("@article{sartre, author = {Jean-Paul Sartre}, title = {L'{\\^e}tre et le n{\\'e}ant},"
+                + " journal = {Gallimard}, year = {1943}, pages = {1--722}}"));
+        entries.add(parse("@book{knuth, author = {Donald E. Knuth}, title = {The {\\TeX}book},"
+                + " publisher = {Addison-Wesley}, year = {1984}, volume = {A}, series = {Computers and Typesetting}}"));
+        entries.add(parse("@misc{nothing, note = {Only a note}}"));
+
+        String expected = new VM(ABBRV).run(entries);
+        String actual = new BstMachine(BstProgram.compile(ABBRV)).run(entries);
+
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testProgramCanBeRunSeveralTimes() throws RecognitionException, IOException {
+        BstMachine machine = new BstMachine(BstProgram.compile(ABBRV));
+        List<BibtexEntry> entries = Collections
+                .singletonList(parse("@article{canh05, author = \"Jean-Paul Sartre\" }"));
+
+        String first = machine.run(entries);
+
+        Assert.assertTrue(first.contains("J.-P. Sartre"));
+        Assert.assertEquals(first, machine.run(entries));
+    }
+
+    @Test
+    public void testComparisonsAndArithmetic() throws RecognitionException {
+        BstMachine machine = new BstMachine(BstProgram.compile("FUNCTION {a}{ #5 #5 = #1 #2 = #3 #4 < #4 #3 > "
+                + "\"H\" \"H\" = \"H\" \"Ha\" = #1 #1 + #3 #5 - } EXECUTE {a}"));
+        machine.run(Collections.<BibtexEntry> emptyList());
+
+        BstStack stack = machine.getStack();
+        Assert.assertEquals(-2, stack.pop());
+        Assert.assertEquals(2, stack.pop());
+        Assert.assertEquals(0, stack.pop());
+        Assert.assertEquals(1, stack.pop());
+        Assert.assertEquals(1, stack.pop());
+        Assert.assertEquals(1, stack.pop());
+        Assert.assertEquals(0, stack.pop());
+        Assert.assertEquals(1, stack.pop());
+        Assert.assertTrue(stack.isEmpty());
+    }
+
+    @Test
+    public void testVariablesAndWhile() throws RecognitionException {
+        BstMachine machine = new BstMachine(BstProgram.compile("STRINGS { t } INTEGERS { i sum } "
+                + "FUNCTION {not} { { #0 } { #1 } if$ } "
+                + "FUNCTION {loop} { \"HELLO\" 't := #0 'sum := #1 'i := "
+                + "{ i #4 < } { sum i + 'sum := i #1 + 'i := } while$ t empty$ not } "
+                + "EXECUTE {loop}"));
+        machine.run(Collections.<BibtexEntry> emptyList());
+
+        Assert.assertEquals(1, machine.getStack().pop());
+        Assert.assertEquals("HELLO", machine.getGlobalString("t"));
+        Assert.assertEquals(Integer.valueOf(6), machine.getGlobalInteger("sum"));
+        Assert.assertEquals(Integer.valueOf(Integer.MAX_VALUE), machine.getGlobalInteger("global.max$"));
+    }
+
+    @Test
+    public void testSort() throws RecognitionException, IOException {
+        BstMachine machine = new BstMachine(BstProgram.compile("ENTRY { title } { } { label } "
+                + "FUNCTION {presort} { cite$ 'sort.key$ := } ITERATE { presort } SORT"));
+        List<BibtexEntry> entries = new ArrayList<>();
+        entries.add(parse("@article{a, author=\"AAA\"}"));
+        entries.add(parse("@article{b, author=\"BBB\"}"));
+        entries.add(parse("@article{d, author=\"DDD\"}"));
+        entries.add(parse("@article{c, author=\"CCC\"}"));
+        machine.run(entries);
+
+        List<BstMachine.EntryContext> sorted = machine.getEntries();
+        Assert.assertEquals("a", sorted.get(0).getBibtexEntry().getCiteKey());
+        Assert.assertEquals("b", sorted.get(1).getBibtexEntry().getCiteKey());
+        Assert.assertEquals("c", sorted.get(2).getBibtexEntry().getCiteKey());
+        Assert.assertEquals("d", sorted.get(3).getBibtexEntry().getCiteKey());
+    }
+
+    @Test
+    public void testCallTypeAndFields() throws RecognitionException, IOException {
+        BstMachine machine = new BstMachine(BstProgram.compile("ENTRY { title } { } { } "
+                + "FUNCTION {article} { title write$ newline$ } READ ITERATE { call.type$ }"));
+
+        String result = machine.run(Collections.singletonList(parse("@article{a, title=\"Title\"}")));
+
+        Assert.assertEquals("Title\n", result);
+    }
+
+    @Test
+    public void testParallelIterateProducesSameOutput() throws RecognitionException, IOException {
+        List<BibtexEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(parse("@article{key" + i + ", author = {Author" + (i % 37) + ", First and Second, S.},"
+                    + " title = {Title number " + i + "}, journal = {Journal}, year = {" + (1900 + (i % 100)) + "}}"));
+        }
+        BstProgram program = BstProgram.compile(ABBRV);
+
+        String sequential = new BstMachine(program).run(entries);
+        String parallel = new BstMachine(program, true).run(entries);
+
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testParallelIterateWithGlobalStateFallsBackToSequential() throws RecognitionException, IOException {
+        // number.label is read before it is assigned in each entry, so the entries depend on each other
+        BstProgram program = BstProgram.compile("ENTRY { } { } { label } INTEGERS { number.label } "
+                + "FUNCTION {init} { #1 'number.label := } "
+                + "FUNCTION {number} { number.label int.to.str$ 'label := number.label #1 + 'number.label := "
+                + "label write$ newline$ } "
+                + "EXECUTE {init} ITERATE {number}");
+        List<BibtexEntry> entries = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            entries.add(parse("@misc{key" + i + "}"));
+            expected.append(i).append('\n');
+        }
+
+        BstMachine machine = new BstMachine(program, true);
+
+        Assert.assertEquals(expected.toString(), machine.run(entries));
+        Assert.assertEquals(Integer.valueOf(1001), machine.getGlobalInteger("number.label"));
+    }
+
+    @Test
+    public void testCacheReturnsSameProgram() throws RecognitionException, IOException {
+        Assert.assertSame(BstProgramCache.getProgram(ABBRV), BstProgramCache.getProgram(ABBRV));
+    }
+
+    @Test(expected = VMException.class)
+    public void testUnknownIdentifierFailsAtRuntime() throws RecognitionException {
+        new BstMachine(BstProgram.compile("FUNCTION {a}{ unknown } EXECUTE {a}"))
+                .run(Collections.<BibtexEntry> emptyList());
+    }
+
+    private static BibtexEntry parse(String s) throws IOException {
+        ParserResult result = BibtexParser.parse(new StringReader(s));
+        Collection<BibtexEntry> c = result.getDatabase().getEntries();
+        Assert.assertEquals(1, c.size());
+        return c.iterator().next();
+    }
+}
@@ -0,0 +1,36 @@
+package net.sf.jabref.exporter.layout.format;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sf.jabref.exporter.ExportFormats;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NumberTest {
+
+    @Test
+    public void testFormatReturnsEntryNumber() {
+        ExportFormats.setEntryNumber(3);
+        Assert.assertEquals("3", new Number().format("ignored"));
+    }
+
+    @Test
+    public void testEntryNumberIsKeptPerThread() throws InterruptedException {
+        ExportFormats.setEntryNumber(3);
+        final AtomicReference<String> otherThread = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                ExportFormats.setEntryNumber(1);
+                otherThread.set(new Number().format(null));
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertEquals("1", otherThread.get());
+        Assert.assertEquals("3", new Number().format(null));
+    }
+}
@@ -0,0 +1,186 @@
+package net.sf.jabref.groups;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.groups.structure.AllEntriesGroup;
+import net.sf.jabref.groups.structure.ExplicitGroup;
+import net.sf.jabref.groups.structure.GroupHierarchyType;
+import net.sf.jabref.groups.structure.KeywordGroup;
+import net.sf.jabref.logic.search.SearchRule;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.database.KeywordIndex;
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.BibtexEntryTypes;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupMembershipTest {
+
+    private BibtexDatabase database;
+    private GroupTreeNode root;
+    private GroupTreeNode physics;
+    private GroupTreeNode optics;
+    private GroupTreeNode lasers;
+    private GroupTreeNode chemistry;
+    private GroupTreeNode favorites;
+
+
+    @Before
+    public void setUp() {
+        Globals.prefs = JabRefPreferences.getInstance();
+        database = new BibtexDatabase();
+        root = new GroupTreeNode(new AllEntriesGroup());
+        physics = node(root, "physics", GroupHierarchyType.INCLUDING);
+        optics = node(physics, "optics", GroupHierarchyType.INCLUDING);
+        lasers = node(optics, "lasers", GroupHierarchyType.REFINING);
+        chemistry = node(root, "chemistry", GroupHierarchyType.INDEPENDENT);
+        favorites = new GroupTreeNode(new ExplicitGroup("favorites", GroupHierarchyType.INDEPENDENT));
+        chemistry.add(favorites);
+
+        String[] keywords = {"physics", "optics", "lasers", "optics, lasers", "physics, lasers", "chemistry",
+                "chemistry, lasers", ""};
+        for (String keyword : keywords) {
+            addEntry(keyword);
+        }
+    }
+
+    @Test
+    public void testMembersMatchSearchRules() {
+        GroupMembership membership = new GroupMembership(database);
+
+        assertSameAsSearchRules(membership);
+    }
+
+    @Test
+    public void testHierarchicalContexts() {
+        GroupMembership membership = new GroupMembership(database);
+
+        // physics includes the entries of optics, and optics those of lasers
+        Assert.assertEquals(6, membership.getMembers(physics).cardinality());
+        // lasers refines optics, which includes the lasers
+        Assert.assertEquals("[optics, lasers]", keywords(membership, membership.getMembers(lasers)));
+        Assert.assertEquals("[chemistry, chemistry, lasers]", keywords(membership, membership.getMembers(chemistry)));
+    }
+
+    @Test
+    public void testChangedEntriesAreUpdated() {
+        GroupMembership membership = new GroupMembership(database);
+        assertSameAsSearchRules(membership);
+
+        BibtexEntry entry = addEntry("optics");
+        database.getEntries().iterator().next().setField("keywords", "chemistry");
+        assertSameAsSearchRules(membership);
+
+        database.beginBulkChange();
+        try {
+            entry.setField("keywords", "lasers");
+            database.removeEntry(database.getEntries().iterator().next().getId());
+            addEntry("optics, lasers");
+        } finally {
+            database.commitBulkChange();
+        }
+        assertSameAsSearchRules(membership);
+        Assert.assertEquals(database.getEntryCount(), membership.getAllEntries().cardinality());
+    }
+
+    @Test
+    public void testOrdinalsOfRemovedEntriesAreReused() {
+        GroupMembership membership = new GroupMembership(database);
+        BibtexEntry first = database.getEntries().iterator().next();
+        int ordinal = membership.getOrdinal(first);
+
+        database.removeEntry(first.getId());
+        Assert.assertEquals(-1, membership.getOrdinal(first));
+        BibtexEntry added = addEntry("optics");
+
+        Assert.assertEquals(ordinal, membership.getOrdinal(added));
+        Assert.assertSame(added, membership.getEntry(ordinal));
+        assertSameAsSearchRules(membership);
+    }
+
+    @Test
+    public void testExplicitGroupFollowsAssignments() {
+        GroupMembership membership = new GroupMembership(database);
+        BibtexEntry entry = database.getEntries().iterator().next();
+        Assert.assertTrue(membership.getMembers(favorites).isEmpty());
+
+        favorites.addToGroup(new BibtexEntry[] {entry});
+
+        BitSet members = membership.getMembers(favorites);
+        Assert.assertEquals(1, members.cardinality());
+        Assert.assertTrue(members.get(membership.getOrdinal(entry)));
+        assertSameAsSearchRules(membership);
+    }
+
+    @Test
+    public void testRetainGroupsForgetsRemovedGroups() {
+        GroupMembership membership = new GroupMembership(database);
+        BitSet before = membership.getMembers(lasers);
+
+        lasers.removeFromParent();
+        membership.retainGroups(root);
+        addEntry("lasers");
+
+        // the removed group is not updated any more, but is computed again when asked for, without refining optics
+        Assert.assertEquals(1, before.cardinality());
+        Assert.assertEquals(5, membership.getMembers(lasers.getGroup()).cardinality());
+    }
+
+    @Test
+    public void testKeywordIndexFindsSameMembers() {
+        addEntry("Physics of Lasers; solid-state physics");
+        addEntry("Optics\nphysicslab");
+        GroupMembership membership = new GroupMembership(database, new KeywordIndex(database));
+        assertSameAsSearchRules(membership);
+
+        database.getEntries().iterator().next().setField("keywords", "applied optics");
+        addEntry("nonlinear optics, LASERS");
+        assertSameAsSearchRules(membership);
+    }
+
+    private void assertSameAsSearchRules(GroupMembership membership) {
+        for (Enumeration<GroupTreeNode> e = root.preorderEnumeration(); e.hasMoreElements();) {
+            GroupTreeNode node = e.nextElement();
+            SearchRule rule = node.getSearchRule();
+            BitSet expected = new BitSet();
+            for (BibtexEntry entry : database.getEntries()) {
+                if (rule.applyRule(SearchRule.DUMMY_QUERY, entry)) {
+                    expected.set(membership.getOrdinal(entry));
+                }
+            }
+            Assert.assertEquals(node.getGroup().getName(), expected, membership.getMembers(node));
+        }
+    }
+
+    private static String keywords(GroupMembership membership, BitSet members) {
+        List<String> keywords = new ArrayList<>();
+        for (BibtexEntry entry : membership.getEntries(members)) {
+            keywords.add(entry.getField("keywords"));
+        }
+        // the order of the ordinals depends on the order of the entries in the database
+        Collections.sort(keywords);
+        return keywords.toString();
+    }
+
+    private BibtexEntry addEntry(String keywords) {
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next(), BibtexEntryTypes.ARTICLE);
+        entry.setField("keywords", keywords);
+        database.insertEntry(entry);
+        return entry;
+    }
+
+    private static GroupTreeNode node(GroupTreeNode parent, String keyword, GroupHierarchyType context) {
+        GroupTreeNode node = new GroupTreeNode(new KeywordGroup(keyword, "keywords", keyword, false, false, context));
+        parent.add(node);
+        return node;
+    }
+}
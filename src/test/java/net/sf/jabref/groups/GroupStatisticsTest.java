@@ -0,0 +1,165 @@
+package net.sf.jabref.groups;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.groups.structure.AllEntriesGroup;
+import net.sf.jabref.groups.structure.ExplicitGroup;
+import net.sf.jabref.groups.structure.GroupHierarchyType;
+import net.sf.jabref.groups.structure.KeywordGroup;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.BibtexEntryTypes;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupStatisticsTest {
+
+    private BibtexDatabase database;
+    private GroupTreeNode root;
+    private GroupTreeNode physics;
+    private GroupTreeNode favorites;
+
+    /**
+     * The computations handed to the executor, which are run by the test
+     */
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final AtomicInteger notifications = new AtomicInteger();
+    private GroupStatistics statistics;
+
+
+    @Before
+    public void setUp() {
+        Globals.prefs = JabRefPreferences.getInstance();
+        database = new BibtexDatabase();
+        root = new GroupTreeNode(new AllEntriesGroup());
+        physics = new GroupTreeNode(
+                new KeywordGroup("physics", "keywords", "physics", false, false, GroupHierarchyType.INDEPENDENT));
+        root.add(physics);
+        favorites = new GroupTreeNode(new ExplicitGroup("favorites", GroupHierarchyType.INDEPENDENT));
+        root.add(favorites);
+        addEntry("physics");
+        addEntry("chemistry");
+
+        statistics = new GroupStatistics(new GroupMembership(database), new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        }, new Runnable() {
+
+            @Override
+            public void run() {
+                notifications.incrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    public void testGroupsAreCountedInBackground() throws Exception {
+        statistics.update(root);
+        Assert.assertEquals(-1, statistics.getCount(physics.getGroup()));
+
+        runTasks();
+
+        Assert.assertEquals(2, statistics.getCount(root.getGroup()));
+        Assert.assertEquals(1, statistics.getCount(physics.getGroup()));
+        Assert.assertEquals(0, statistics.getCount(favorites.getGroup()));
+        Assert.assertEquals(1, notifications.get());
+    }
+
+    @Test
+    public void testCountsFollowDatabaseChanges() throws Exception {
+        statistics.update(root);
+        runTasks();
+
+        BibtexEntry entry = addEntry("physics");
+        runTasks();
+        Assert.assertEquals(2, statistics.getCount(physics.getGroup()));
+
+        entry.setField("keywords", "chemistry");
+        runTasks();
+        Assert.assertEquals(1, statistics.getCount(physics.getGroup()));
+        Assert.assertEquals(3, statistics.getCount(root.getGroup()));
+        Assert.assertEquals(3, notifications.get());
+    }
+
+    @Test
+    public void testChangesAreCoalesced() throws Exception {
+        statistics.update(root);
+        for (int i = 0; i < 100; i++) {
+            addEntry("physics");
+        }
+
+        Assert.assertEquals(1, tasks.size());
+        runTasks();
+        Assert.assertEquals(101, statistics.getCount(physics.getGroup()));
+        Assert.assertEquals(1, notifications.get());
+    }
+
+    @Test
+    public void testUnchangedLargeCountsDoNotNotify() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            addEntry("physics");
+        }
+        statistics.update(root);
+        runTasks();
+        Assert.assertEquals(201, statistics.getCount(physics.getGroup()));
+
+        database.getEntries().iterator().next().setField("title", "Unrelated");
+        Assert.assertEquals(1, tasks.size());
+        runTasks();
+
+        Assert.assertEquals(1, notifications.get());
+    }
+
+    @Test
+    public void testUpdateCountsChangedAssignments() throws Exception {
+        statistics.update(root);
+        runTasks();
+
+        favorites.addToGroup(database.getEntries().toArray(new BibtexEntry[0]));
+        statistics.update(root);
+        runTasks();
+
+        Assert.assertEquals(2, statistics.getCount(favorites.getGroup()));
+    }
+
+    @Test
+    public void testNothingIsCountedBeforeUpdate() {
+        addEntry("physics");
+
+        Assert.assertTrue(tasks.isEmpty());
+    }
+
+    private void runTasks() throws Exception {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+        // the listener is called on the event dispatch thread
+        SwingUtilities.invokeAndWait(new Runnable() {
+
+            @Override
+            public void run() {
+                // wait for the listener
+            }
+        });
+    }
+
+    private BibtexEntry addEntry(String keywords) {
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next(), BibtexEntryTypes.ARTICLE);
+        entry.setField("keywords", keywords);
+        database.insertEntry(entry);
+        return entry;
+    }
+}
@@ -0,0 +1,69 @@
+package net.sf.jabref.gui;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PdfThumbnailCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
+    private static BufferedImage image() {
+        return new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Test
+    public void testKeyContainsPathModificationTimeAndSize() throws IOException {
+        File file = folder.newFile("paper.pdf");
+        assertTrue(file.setLastModified(1000000000000L));
+
+        assertEquals(file.getAbsolutePath() + "|1000000000000|200x300", PdfThumbnailCache.getKey(file, 200, 300));
+    }
+
+    @Test
+    public void testChangedFileHasOtherKey() throws IOException {
+        File file = folder.newFile("paper.pdf");
+        assertTrue(file.setLastModified(1000000000000L));
+        String key = PdfThumbnailCache.getKey(file, 200, 300);
+
+        assertTrue(file.setLastModified(1000000001000L));
+        assertNotEquals(key, PdfThumbnailCache.getKey(file, 200, 300));
+    }
+
+    @Test
+    public void testOtherSizeHasOtherKey() throws IOException {
+        File file = folder.newFile("paper.pdf");
+
+        assertNotEquals(PdfThumbnailCache.getKey(file, 200, 300), PdfThumbnailCache.getKey(file, 300, 200));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedThumbnailIsRemoved() {
+        PdfThumbnailCache cache = new PdfThumbnailCache(2);
+        BufferedImage first = image();
+        BufferedImage second = image();
+        cache.put("first", first);
+        cache.put("second", second);
+        // the first one is used more recently now
+        assertSame(first, cache.get("first"));
+
+        cache.put("third", image());
+
+        assertSame(first, cache.get("first"));
+        assertNull(cache.get("second"));
+        assertNotNull(cache.get("third"));
+    }
+
+    @Test
+    public void testUnknownKey() {
+        assertNull(new PdfThumbnailCache(2).get("unknown"));
+    }
+}
@@ -0,0 +1,134 @@
+package net.sf.jabref.gui.undo;
+
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CountingUndoManagerTest {
+
+    private CountingUndoManager undoManager;
+    private BibtexEntry entry;
+
+
+    @Before
+    public void setUp() {
+        undoManager = new CountingUndoManager(null);
+        entry = new BibtexEntry(IdGenerator.next());
+    }
+
+    @Test
+    public void testMemoryUsageIsCounted() {
+        undoManager.addEdit(new UndoableFieldChange(entry, "title", null, "A title"));
+        long size = undoManager.getMemoryUsage();
+        Assert.assertTrue(size > 0);
+
+        undoManager.addEdit(new UndoableFieldChange(entry, "title", "A title", repeat('x', 1000)));
+        Assert.assertTrue(undoManager.getMemoryUsage() > (size + 2000));
+    }
+
+    @Test
+    public void testOldestEditsAreDroppedAboveLimit() {
+        undoManager.setMemoryLimit(10000);
+        UndoableFieldChange first = new UndoableFieldChange(entry, "title", null, repeat('x', 100));
+        undoManager.addEdit(first);
+        UndoableFieldChange last = null;
+        for (int i = 0; i < 100; i++) {
+            last = new UndoableFieldChange(entry, "title", null, repeat('x', 100));
+            undoManager.addEdit(last);
+        }
+
+        Assert.assertTrue(undoManager.getMemoryUsage() <= 10000);
+        Assert.assertTrue(undoManager.getMemoryUsage() > 5000);
+        // dropped edits cannot be undone any more
+        Assert.assertFalse(first.canUndo());
+        Assert.assertTrue(last.canUndo());
+    }
+
+    @Test
+    public void testSingleLargeEditIsKept() {
+        undoManager.setMemoryLimit(100);
+        undoManager.addEdit(new UndoableFieldChange(entry, "title", null, repeat('x', 1000)));
+
+        Assert.assertTrue(undoManager.canUndo());
+    }
+
+    @Test
+    public void testCompoundCountsItsEdits() {
+        NamedCompound compound = new NamedCompound("compound");
+        for (int i = 0; i < 10; i++) {
+            compound.addEdit(new UndoableFieldChange(entry, "title", null, repeat('x', 100)));
+        }
+        compound.end();
+        undoManager.addEdit(compound);
+
+        Assert.assertTrue(undoManager.getMemoryUsage() > 2000);
+    }
+
+    @Test
+    public void testInsertedEntryIsCountedOnlyWhenUndone() {
+        BibtexDatabase database = new BibtexDatabase();
+        entry.setField("abstract", repeat('x', 1000));
+        database.insertEntry(entry);
+        undoManager.addEdit(new UndoableInsertEntry(database, entry, null));
+        long inserted = undoManager.getMemoryUsage();
+        Assert.assertTrue(inserted < 1000);
+
+        undoManager.undo();
+        Assert.assertTrue(undoManager.getMemoryUsage() > 2000);
+
+        undoManager.redo();
+        Assert.assertEquals(inserted, undoManager.getMemoryUsage());
+    }
+
+    @Test
+    public void testRemovedEntryIsCountedOnlyWhileRemoved() {
+        BibtexDatabase database = new BibtexDatabase();
+        entry.setField("abstract", repeat('x', 1000));
+        undoManager.addEdit(new UndoableRemoveEntry(database, entry, null));
+        long removed = undoManager.getMemoryUsage();
+        Assert.assertTrue(removed > 2000);
+
+        undoManager.undo();
+        Assert.assertTrue(undoManager.getMemoryUsage() < 1000);
+    }
+
+    @Test
+    public void testEditToRedoIsNotDropped() {
+        undoManager.setMemoryLimit(1000);
+        BibtexDatabase database = new BibtexDatabase();
+        entry.setField("abstract", repeat('x', 1000));
+        database.insertEntry(entry);
+        UndoableFieldChange first = new UndoableFieldChange(entry, "title", null, "A title");
+        undoManager.addEdit(first);
+        UndoableInsertEntry insertion = new UndoableInsertEntry(database, entry, null);
+        undoManager.addEdit(insertion);
+
+        // the undone insertion exceeds the limit, so the older edit is dropped
+        undoManager.undo();
+        Assert.assertFalse(first.canUndo());
+        Assert.assertTrue(undoManager.canRedo());
+
+        undoManager.redo();
+        Assert.assertSame(entry, database.getEntryById(entry.getId()));
+    }
+
+    @Test
+    public void testDiscardAllEditsResetsMemoryUsage() {
+        undoManager.addEdit(new UndoableFieldChange(entry, "title", null, "A title"));
+        undoManager.discardAllEdits();
+
+        Assert.assertEquals(0, undoManager.getMemoryUsage());
+    }
+
+    static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package net.sf.jabref.gui.undo;
+
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UndoableFieldChangeTest {
+
+    @Test
+    public void testUndoAndRedoSmallChangeOfLongValue() {
+        String start = CountingUndoManagerTest.repeat('a', 500);
+        String end = CountingUndoManagerTest.repeat('b', 500);
+        String oldValue = start + "old" + end;
+        String newValue = start + "new value" + end;
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next());
+        entry.setField("abstract", newValue);
+        UndoableFieldChange change = new UndoableFieldChange(entry, "abstract", oldValue, newValue);
+
+        // only the changed part of the old value is kept
+        Assert.assertTrue(change.getSize() < (CountingUndoManager.sizeOf(newValue) + 200));
+        change.undo();
+        Assert.assertEquals(oldValue, entry.getField("abstract"));
+        change.redo();
+        Assert.assertEquals(newValue, entry.getField("abstract"));
+    }
+
+    @Test
+    public void testUndoReplacedLongValue() {
+        String oldValue = CountingUndoManagerTest.repeat('a', 500);
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next());
+        entry.setField("abstract", "short");
+        UndoableFieldChange change = new UndoableFieldChange(entry, "abstract", oldValue, "short");
+
+        change.undo();
+        Assert.assertEquals(oldValue, entry.getField("abstract"));
+    }
+
+    @Test
+    public void testUndoRemovedField() {
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next());
+        UndoableFieldChange change = new UndoableFieldChange(entry, "title", null, "A title");
+
+        change.undo();
+        Assert.assertNull(entry.getField("title"));
+    }
+
+    @Test
+    public void testStringDeltaAtBothEnds() {
+        Assert.assertEquals("abc", StringDelta.of("abc", "abc").apply("abc"));
+        Assert.assertEquals("xabc", StringDelta.of("xabc", "abc").apply("abc"));
+        Assert.assertEquals("abcx", StringDelta.of("abcx", "abc").apply("abc"));
+        Assert.assertEquals("aa", StringDelta.of("aa", "aaa").apply("aaa"));
+        Assert.assertEquals("", StringDelta.of("", "abc").apply("abc"));
+    }
+}
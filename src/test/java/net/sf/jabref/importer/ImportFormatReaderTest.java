@@ -0,0 +1,77 @@
+package net.sf.jabref.importer;
+
+import java.nio.charset.StandardCharsets;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.importer.fileformat.BiblioscapeImporter;
+import net.sf.jabref.importer.fileformat.ImportFormat;
+import net.sf.jabref.importer.fileformat.IsiImporter;
+import net.sf.jabref.importer.fileformat.MsBibImporter;
+import net.sf.jabref.importer.fileformat.PdfXmpImporter;
+import net.sf.jabref.importer.fileformat.RisImporter;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImportFormatReaderTest {
+
+    private ImportFormatReader reader;
+
+
+    @Before
+    public void setUp() {
+        if (Globals.prefs == null) {
+            Globals.prefs = JabRefPreferences.getInstance();
+        }
+        reader = new ImportFormatReader();
+        reader.resetImportFormats();
+    }
+
+    private static String getPath(String resource) throws Exception {
+        return ImportFormatReaderTest.class.getResource(resource).toURI().getPath();
+    }
+
+    @Test
+    public void testImportUnknownFormatRis() throws Exception {
+        ImportFormatReader.UnknownFormatImport result = reader
+                .importUnknownFormat(getPath("fileformat/RisImporterTest1.ris"));
+        Assert.assertEquals("RIS", result.format);
+        Assert.assertEquals(1, result.parserResult.getDatabase().getEntryCount());
+    }
+
+    @Test
+    public void testImportUnknownFormatIsi() throws Exception {
+        ImportFormatReader.UnknownFormatImport result = reader
+                .importUnknownFormat(getPath("fileformat/IsiImporterTestWOS.isi"));
+        Assert.assertEquals("ISI", result.format);
+        Assert.assertEquals(2, result.parserResult.getDatabase().getEntryCount());
+    }
+
+    @Test
+    public void testImportUnknownFormatBibtex() throws Exception {
+        ImportFormatReader.UnknownFormatImport result = reader.importUnknownFormat(getPath("jabref-header.bib"));
+        Assert.assertEquals(ImportFormatReader.BIBTEX_FORMAT, result.format);
+    }
+
+    @Test
+    public void testImportFromFileReadsWholeFile() throws Exception {
+        Assert.assertEquals(1,
+                reader.importFromFile(new RisImporter(), getPath("fileformat/RisImporterTest1.ris"), null).size());
+    }
+
+    @Test
+    public void testGetConfidence() {
+        byte[] ris = "TY  - JOUR\nAU  - Doe, J.\n".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(ImportFormat.CONFIDENCE_RECOGNIZED, new RisImporter().getConfidence(ris));
+        Assert.assertEquals(ImportFormat.CONFIDENCE_NONE, new IsiImporter().getConfidence(ris));
+        Assert.assertEquals(ImportFormat.CONFIDENCE_POSSIBLE, new BiblioscapeImporter().getConfidence(ris));
+        Assert.assertEquals(ImportFormat.CONFIDENCE_NONE, new PdfXmpImporter().getConfidence(ris));
+        Assert.assertEquals(ImportFormat.CONFIDENCE_RECOGNIZED,
+                new PdfXmpImporter().getConfidence("%PDF-1.4\n".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(ImportFormat.CONFIDENCE_RECOGNIZED, new MsBibImporter()
+                .getConfidence("<?xml version=\"1.0\"?>\n<b:Sources SelectedStyle=\"\" xmlns:b=".getBytes(
+                        StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,70 @@
+package net.sf.jabref.importer.fileformat;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.importer.OutputPrinterToNull;
+import net.sf.jabref.model.entry.BibtexEntry;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OvidImporterTest {
+
+    private static final String OVID = "Results of search\n"
+            + "<1>\n"
+            + "Authors\n"
+            + "  Smith J.\n"
+            + "Title\n"
+            + "  First title.\n"
+            + "Abstract\n"
+            + "  Text of the first abstract.<2>\n"
+            + "Authors\n"
+            + "  Miller A.\n"
+            + "Title\n"
+            + "  Second title.\n";
+
+
+    @Before
+    public void setUp() {
+        if (Globals.prefs == null) {
+            Globals.prefs = JabRefPreferences.getInstance();
+        }
+    }
+
+    private static InputStream stream() {
+        return new ByteArrayInputStream(OVID.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testIsRecognizedFormat() throws IOException {
+        Assert.assertTrue(new OvidImporter().isRecognizedFormat(stream()));
+    }
+
+    @Test
+    public void testItemsAreSplitAtMarkersInsideLines() throws IOException {
+        List<BibtexEntry> entries = new OvidImporter().importEntries(stream(), new OutputPrinterToNull());
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("First title", entries.get(0).getField("title"));
+        Assert.assertEquals("Text of the first abstract", entries.get(0).getField("abstract"));
+        Assert.assertEquals("Second title", entries.get(1).getField("title"));
+        Assert.assertNull(entries.get(1).getField("abstract"));
+    }
+
+    @Test
+    public void testEntriesArePassedToConsumer() throws IOException {
+        List<BibtexEntry> entries = new ArrayList<>();
+        new OvidImporter().importEntries(stream(), new OutputPrinterToNull(), entries::add);
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("First title", entries.get(0).getField("title"));
+        Assert.assertEquals("Second title", entries.get(1).getField("title"));
+    }
+}
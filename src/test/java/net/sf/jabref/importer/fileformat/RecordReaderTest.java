@@ -0,0 +1,53 @@
+package net.sf.jabref.importer.fileformat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class RecordReaderTest {
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+
+    @Test
+    public void testTerminatedRecords() throws IOException {
+        RecordReader records = RecordReader.terminatedBy(reader("TY  - JOUR\nTI  - A\nER  - \n\nTY  - BOOK\nER  -\n"),
+                line -> line.startsWith("ER  -"));
+        assertEquals(Arrays.asList("TY  - JOUR", "TI  - A"), records.readRecord());
+        assertEquals(Arrays.asList("", "TY  - BOOK"), records.readRecord());
+        assertNull(records.readRecord());
+        assertNull(records.readRecord());
+    }
+
+    @Test
+    public void testLastRecordWithoutTerminator() throws IOException {
+        RecordReader records = RecordReader.terminatedBy(reader("a\nb\n\n\n\nc"), String::isEmpty);
+        assertEquals(Arrays.asList("a", "b"), records.readRecord());
+        assertEquals(Arrays.asList("c"), records.readRecord());
+        assertNull(records.readRecord());
+    }
+
+    @Test
+    public void testRecordsWithStartLine() throws IOException {
+        RecordReader records = RecordReader.startingWith(reader("FN header\nPT J\nAU x\nPT J\n  \nPT B\nER"),
+                line -> line.startsWith("PT "));
+        assertEquals(Arrays.asList("FN header"), records.readRecord());
+        assertEquals(Arrays.asList("PT J", "AU x"), records.readRecord());
+        assertEquals(Arrays.asList("PT J", "  "), records.readRecord());
+        assertEquals(Arrays.asList("PT B", "ER"), records.readRecord());
+        assertNull(records.readRecord());
+    }
+
+    @Test
+    public void testBlankInput() throws IOException {
+        assertNull(RecordReader.terminatedBy(reader("\n  \n"), String::isEmpty).readRecord());
+        assertNull(RecordReader.startingWith(reader(""), line -> true).readRecord());
+    }
+}
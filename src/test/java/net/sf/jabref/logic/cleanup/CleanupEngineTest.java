@@ -0,0 +1,141 @@
+package net.sf.jabref.logic.cleanup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import net.sf.jabref.logic.FieldChange;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CleanupEngineTest {
+
+    private static final Cleaner UPPER_CASE_TITLE = new Cleaner() {
+
+        @Override
+        public List<FieldChange> cleanup(BibtexEntry entry) {
+            String title = entry.getField("title");
+            if (title != null) {
+                entry.setField("title", title.toUpperCase());
+            }
+            return new ArrayList<>();
+        }
+    };
+
+    private static final Cleaner FAILING = new Cleaner() {
+
+        @Override
+        public List<FieldChange> cleanup(BibtexEntry entry) {
+            throw new IllegalStateException("broken cleaner");
+        }
+    };
+
+
+    @Test
+    public void testEntryIsNotChanged() {
+        BibtexEntry entry = entry("a", "title", "7");
+        CleanupEngine engine = new CleanupEngine(Arrays.asList(UPPER_CASE_TITLE, new RemoveFieldCleanup("note")));
+
+        List<FieldChange> changes = engine.computeChanges(entry);
+
+        Assert.assertEquals("title", entry.getField("title"));
+        Assert.assertEquals("7", entry.getField("note"));
+        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals("note", changes.get(0).getField());
+        Assert.assertEquals("7", changes.get(0).getOldValue());
+        Assert.assertNull(changes.get(0).getNewValue());
+        Assert.assertEquals("title", changes.get(1).getField());
+        Assert.assertEquals("TITLE", changes.get(1).getNewValue());
+        Assert.assertSame(entry, changes.get(1).getEntry());
+    }
+
+    @Test
+    public void testCleanersAreAppliedInOrder() {
+        BibtexEntry entry = entry("a", "title", null);
+        Cleaner copyTitleToNote = new Cleaner() {
+
+            @Override
+            public List<FieldChange> cleanup(BibtexEntry entry) {
+                entry.setField("note", entry.getField("title"));
+                return new ArrayList<>();
+            }
+        };
+
+        List<FieldChange> changes = new CleanupEngine(Arrays.asList(UPPER_CASE_TITLE, copyTitleToNote))
+                .computeChanges(entry);
+
+        Assert.assertEquals("note", changes.get(0).getField());
+        Assert.assertEquals("TITLE", changes.get(0).getNewValue());
+    }
+
+    @Test
+    public void testUnchangedEntryHasNoChanges() {
+        BibtexEntry entry = entry("a", "TITLE", null);
+
+        Assert.assertEquals(Collections.emptyList(),
+                new CleanupEngine(Arrays.asList(UPPER_CASE_TITLE)).computeChanges(entry));
+    }
+
+    @Test
+    public void testChangesBeforeFailingCleanerAreKept() {
+        BibtexEntry entry = entry("a", "title", "7");
+
+        List<FieldChange> changes = new CleanupEngine(
+                Arrays.asList(UPPER_CASE_TITLE, FAILING, new RemoveFieldCleanup("note"))).computeChanges(entry);
+
+        // the cleaners after the failing one are skipped
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals("title", changes.get(0).getField());
+        Assert.assertEquals("TITLE", changes.get(0).getNewValue());
+    }
+
+    @Test
+    public void testFailingFirstCleanerChangesNothing() {
+        BibtexEntry entry = entry("a", "title", null);
+
+        Assert.assertEquals(Collections.emptyList(),
+                new CleanupEngine(Arrays.asList(FAILING, UPPER_CASE_TITLE)).computeChanges(entry));
+    }
+
+    @Test
+    public void testParallelChangesEqualSequentialChanges() {
+        List<BibtexEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(entry("e" + i, (i % 3) == 0 ? "TITLE " + i : "title " + i, (i % 5) == 0 ? "n" : null));
+        }
+        CleanupEngine engine = new CleanupEngine(Arrays.asList(UPPER_CASE_TITLE, new RemoveFieldCleanup("note")));
+
+        List<FieldChange> sequential = engine.computeChanges(entries);
+        List<FieldChange> parallel = engine.computeChangesInParallel(entries);
+
+        Assert.assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            Assert.assertSame(sequential.get(i).getEntry(), parallel.get(i).getEntry());
+            Assert.assertEquals(sequential.get(i).getField(), parallel.get(i).getField());
+            Assert.assertEquals(sequential.get(i).getNewValue(), parallel.get(i).getNewValue());
+        }
+    }
+
+    @Test
+    public void testApply() {
+        BibtexEntry entry = entry("a", "title", "7");
+        CleanupEngine engine = new CleanupEngine(Arrays.asList(UPPER_CASE_TITLE, new RemoveFieldCleanup("note")));
+
+        CleanupEngine.apply(engine.computeChanges(entry));
+
+        Assert.assertEquals("TITLE", entry.getField("title"));
+        Assert.assertNull(entry.getField("note"));
+    }
+
+    private static BibtexEntry entry(String id, String title, String note) {
+        BibtexEntry entry = new BibtexEntry(id);
+        entry.setField("title", title);
+        if (note != null) {
+            entry.setField("note", note);
+        }
+        return entry;
+    }
+}
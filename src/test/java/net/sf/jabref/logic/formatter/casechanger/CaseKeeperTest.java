@@ -2,6 +2,15 @@ package net.sf.jabref.logic.formatter.casechanger;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import net.sf.jabref.logic.util.strings.StringLengthComparator;
+
 import org.junit.Test;
 
 
@@ -17,4 +26,110 @@ public class CaseKeeperTest {
         assertEquals("{VLSI} {VLSI}", ck.format("VLSI {VLSI}"));
     }
 
+    @Test
+    public void testBoundaries() {
+        CaseKeeper ck = new CaseKeeper();
+
+        assertEquals("A (new) {VLSI}-based {DSP} [{FPGA}]", ck.format("A (new) VLSI-based DSP [FPGA]"));
+        assertEquals("Low-power {VLSI}", ck.format("Low-power VLSI"));
+        assertEquals("xVLSI", ck.format("xVLSI"));
+        assertEquals("VLSI}", ck.format("VLSI}"));
+        assertEquals("\"{VLSI}\"", ck.format("\"VLSI\""));
+    }
+
+    @Test
+    public void testLongerWordsAreProtectedFirst() {
+        CaseKeeper ck = new CaseKeeper();
+
+        assertEquals("{3GPP} and {3G}", ck.format("3GPP and 3G"));
+        assertEquals("{New Zealand}", ck.format("New Zealand"));
+    }
+
+    @Test
+    public void testCharacterAfterWordIsConsumed() {
+        CaseKeeper ck = new CaseKeeper();
+
+        // the space after the first word is not the start of the second one
+        assertEquals("{VLSI} VLSI", ck.format("VLSI VLSI"));
+        assertEquals("{VLSI} VLSI {VLSI}", ck.format("VLSI VLSI VLSI"));
+        // the character after the word is not checked to be a word boundary
+        assertEquals("{VLSI}X", ck.format("VLSIX"));
+    }
+
+    @Test
+    public void testWordsAreMatchedLiterally() {
+        CaseKeeper ck = new CaseKeeper();
+
+        assertEquals("{H.264} video", ck.format("H.264 video"));
+        assertEquals("H-264 video", ck.format("H-264 video"));
+    }
+
+    @Test
+    public void testNullAndEmpty() {
+        CaseKeeper ck = new CaseKeeper();
+
+        assertNull(ck.format(null));
+        assertEquals("", ck.format(""));
+    }
+
+    @Test
+    public void testSameResultAsOneReplacementPerWordForTitles() {
+        CaseKeeper ck = new CaseKeeper();
+        WordByWord wordByWord = new WordByWord(new CaseKeeperList().getAll());
+        String[] titles = {"A (new) VLSI-based DSP architecture for 3GPP LTE",
+                "Die grundlage der allgemeinen relativit{\\\"a}tstheorie", "Low-power FPGA design in the United States",
+                "An efficient H.264/AVC decoder on GPU", "Measurements of the CMOS noise in January"};
+
+        for (String title : titles) {
+            assertEquals(wordByWord.format(title), ck.format(title));
+        }
+    }
+
+    @Test
+    public void testSameResultAsOneReplacementPerWord() {
+        CaseKeeper ck = new CaseKeeper();
+        String[] words = new CaseKeeperList().getAll();
+        WordByWord wordByWord = new WordByWord(words);
+        String[] separators = {" ", " ", " ", "-", "/", "(", ")", "[", "]", "{", "}", "\"", "", "x", ",", ": "};
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder text = new StringBuilder();
+            int parts = random.nextInt(8);
+            for (int j = 0; j < parts; j++) {
+                text.append(separators[random.nextInt(separators.length)]);
+                text.append(random.nextInt(3) == 0 ? "word" : words[random.nextInt(words.length)]);
+            }
+            assertEquals(text.toString(), wordByWord.format(text.toString()), ck.format(text.toString()));
+        }
+    }
+
+
+    /**
+     * The former implementation: one regular expression replacement for every word, from the longest word on. The
+     * expressions are compiled once, which gives the same result as String.replaceAll in less time.
+     */
+    private static class WordByWord {
+
+        private final List<Pattern> patterns = new ArrayList<>();
+        private final List<String> replacements = new ArrayList<>();
+
+
+        WordByWord(String[] words) {
+            String[] sorted = words.clone();
+            Arrays.sort(sorted, new StringLengthComparator());
+            for (String word : sorted) {
+                patterns.add(Pattern.compile("(^|[- /\\[(}\"])" + Pattern.quote(word) + "($|[^}])"));
+                replacements.add("$1\\{" + Matcher.quoteReplacement(word) + "\\}$2");
+            }
+        }
+
+        String format(String text) {
+            String result = text;
+            for (int i = 0; i < patterns.size(); i++) {
+                result = patterns.get(i).matcher(result).replaceAll(replacements.get(i));
+            }
+            return result;
+        }
+    }
 }
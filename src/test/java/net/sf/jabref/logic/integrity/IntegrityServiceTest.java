@@ -0,0 +1,218 @@
+package net.sf.jabref.logic.integrity;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.BibtexEntryTypes;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntegrityServiceTest {
+
+    private BibtexDatabase database;
+    private final AtomicInteger checks = new AtomicInteger();
+    private final AtomicInteger notifications = new AtomicInteger();
+
+    private final IntegrityCheck countingCheck = new IntegrityCheck() {
+
+        @Override
+        public List<IntegrityMessage> checkBibtexEntry(BibtexEntry entry) {
+            checks.incrementAndGet();
+            return super.checkBibtexEntry(entry);
+        }
+    };
+
+    private final IntegrityService.Listener listener = new IntegrityService.Listener() {
+
+        @Override
+        public void messagesChanged(IntegrityService service) {
+            notifications.incrementAndGet();
+        }
+    };
+
+
+    @Before
+    public void setUp() {
+        database = new BibtexDatabase();
+    }
+
+    @Test
+    public void testInitialCheckFindsAllMessages() {
+        for (int i = 0; i < 2000; i++) {
+            addEntry((i % 10) == 0 ? "86" : "1986", (i % 4) == 0 ? "1-2" : "1--2");
+        }
+
+        IntegrityService service = new IntegrityService(database, countingCheck);
+
+        Assert.assertEquals(2000, checks.get());
+        Assert.assertEquals(new IntegrityCheck().checkBibtexDatabase(database).size(), service.getMessageCount());
+        Assert.assertEquals(200 + 500, service.getMessages().size());
+    }
+
+    @Test
+    public void testMessagesAreInDatabaseOrder() {
+        for (int i = 0; i < 500; i++) {
+            addEntry("86", "1--2");
+        }
+        IntegrityService service = new IntegrityService(database, countingCheck);
+
+        List<IntegrityMessage> expected = new IntegrityCheck().checkBibtexDatabase(database);
+        List<IntegrityMessage> messages = service.getMessages();
+        Assert.assertEquals(expected.size(), messages.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertSame(expected.get(i).getEntry(), messages.get(i).getEntry());
+            Assert.assertEquals(expected.get(i).getFieldName(), messages.get(i).getFieldName());
+        }
+    }
+
+    @Test
+    public void testOnlyChangedEntriesAreChecked() {
+        BibtexEntry entry = addEntry("1986", "1--2");
+        addEntry("1987", "3--4");
+        IntegrityService service = new IntegrityService(database, countingCheck);
+        service.addListener(listener);
+        Assert.assertEquals(0, service.getMessageCount());
+
+        entry.setField("year", "86");
+
+        Assert.assertEquals(3, checks.get());
+        Assert.assertEquals(1, notifications.get());
+        Assert.assertEquals("year", service.getMessages(entry).get(0).getFieldName());
+
+        entry.setField("year", "1986");
+        Assert.assertEquals(0, service.getMessageCount());
+        Assert.assertEquals(2, notifications.get());
+    }
+
+    @Test
+    public void testChangeDuringInitialCheckDoesNotWaitForIt() throws Exception {
+        addEntry("1986", "1--2");
+        addEntry("1987", "1--2");
+        final AtomicReference<BibtexEntry> firstChecked = new AtomicReference<>();
+        final CountDownLatch secondCheckStarted = new CountDownLatch(1);
+        final CountDownLatch releaseSecondCheck = new CountDownLatch(1);
+        final IntegrityCheck blockingCheck = new IntegrityCheck() {
+
+            @Override
+            public List<IntegrityMessage> checkBibtexEntry(BibtexEntry entry) {
+                int check = checks.incrementAndGet();
+                if (check == 1) {
+                    firstChecked.set(entry);
+                } else if (check == 2) {
+                    secondCheckStarted.countDown();
+                    try {
+                        releaseSecondCheck.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.checkBibtexEntry(entry);
+            }
+        };
+        final AtomicReference<IntegrityService> service = new AtomicReference<>();
+        Thread initialCheck = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                service.set(new IntegrityService(database, blockingCheck));
+            }
+        });
+        initialCheck.start();
+        Assert.assertTrue(secondCheckStarted.await(10, TimeUnit.SECONDS));
+
+        // the entry checked already becomes invalid while the initial check still runs
+        final BibtexEntry entry = firstChecked.get();
+        Thread edit = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                entry.setField("year", "86");
+            }
+        });
+        edit.start();
+        edit.join(10000);
+        boolean editFinished = !edit.isAlive();
+        releaseSecondCheck.countDown();
+        initialCheck.join();
+
+        Assert.assertTrue(editFinished);
+        Assert.assertEquals(1, service.get().getMessageCount());
+        Assert.assertEquals("year", service.get().getMessages(entry).get(0).getFieldName());
+    }
+
+    @Test
+    public void testListenerIsOnlyNotifiedOfChangedMessages() {
+        BibtexEntry entry = addEntry("1986", "1--2");
+        IntegrityService service = new IntegrityService(database, countingCheck);
+        service.addListener(listener);
+
+        entry.setField("note", "no problem");
+        entry.setField("pages", "1-2");
+        entry.setField("note", "the same problem");
+
+        Assert.assertEquals(1, notifications.get());
+        Assert.assertEquals(1, service.getMessageCount());
+    }
+
+    @Test
+    public void testAddedAndRemovedEntries() {
+        IntegrityService service = new IntegrityService(database, countingCheck);
+
+        BibtexEntry entry = addEntry("86", "1--2");
+        Assert.assertEquals(1, service.getMessageCount());
+
+        database.removeEntry(entry.getId());
+        Assert.assertEquals(0, service.getMessageCount());
+        Assert.assertTrue(service.getMessages(entry).isEmpty());
+    }
+
+    @Test
+    public void testBulkChangeIsCheckedOnce() {
+        BibtexEntry entry = addEntry("1986", "1--2");
+        IntegrityService service = new IntegrityService(database, countingCheck);
+        service.addListener(listener);
+        checks.set(0);
+
+        database.beginBulkChange();
+        try {
+            entry.setField("year", "86");
+            entry.setField("pages", "1-2");
+            addEntry("87", "1--2");
+        } finally {
+            database.commitBulkChange();
+        }
+
+        Assert.assertEquals(2, checks.get());
+        Assert.assertEquals(1, notifications.get());
+        Assert.assertEquals(3, service.getMessageCount());
+    }
+
+    @Test
+    public void testDisposedServiceIgnoresChanges() {
+        BibtexEntry entry = addEntry("1986", "1--2");
+        IntegrityService service = new IntegrityService(database, countingCheck);
+
+        service.dispose();
+        entry.setField("year", "86");
+
+        Assert.assertEquals(0, service.getMessageCount());
+        service.checkAll();
+        Assert.assertEquals(1, service.getMessageCount());
+    }
+
+    private BibtexEntry addEntry(String year, String pages) {
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next(), BibtexEntryTypes.ARTICLE);
+        entry.setField("year", year);
+        entry.setField("pages", pages);
+        database.insertEntry(entry);
+        return entry;
+    }
+}
@@ -2,14 +2,27 @@ package net.sf.jabref.logic.journals;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
 
 public class AbbreviationsTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+
     @Before
     public void setUp() throws Exception {
         Globals.prefs = JabRefPreferences.getInstance();
@@ -20,6 +33,15 @@ public class AbbreviationsTest {
         Abbreviations.initializeJournalNames(Globals.prefs);
     }
 
+    @Test
+    public void testLazyInitializationReadsListsOnFirstUse() {
+        Abbreviations.initializeJournalNamesLazily(Globals.prefs);
+        JournalAbbreviationRepository repository = Abbreviations.getJournalAbbreviations();
+        assertNotNull(repository);
+        assertTrue(repository.isKnownName("Proceedings of the IEEE"));
+        assertSame(repository, Abbreviations.getJournalAbbreviations());
+    }
+
     @Test
     public void testIEEEabrv() {
         Boolean oldIEEEsetting = Globals.prefs.getBoolean(JabRefPreferences.USE_IEEE_ABRV);
@@ -41,4 +63,51 @@ public class AbbreviationsTest {
         Globals.prefs.putBoolean(JabRefPreferences.USE_IEEE_ABRV, oldIEEEsetting);
     }
 
+    private static void writeList(File file, String... lines) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        }
+    }
+
+    @Test
+    public void testCompiledCustomListsGiveSameResultAsTextLists() throws IOException {
+        File directory = new File(folder.getRoot(), "compiled");
+        File external = folder.newFile("external.txt");
+        writeList(external, "Long Name = L. N.", "Proceedings of the IEEE = Proc. I. E. E. E.");
+        File personal = folder.newFile("personal.txt");
+        writeList(personal, "Long Name = LA. N.");
+        List<File> lists = Arrays.asList(external, personal, new File(folder.getRoot(), "missing.txt"));
+
+        JournalAbbreviationRepository text = Abbreviations.readJournalLists(null, false, lists);
+        // compiles the lists, then reads the compiled version
+        for (int i = 0; i < 2; i++) {
+            JournalAbbreviationRepository compiled = Abbreviations.readCompiledJournalLists(directory, false, lists);
+            assertEquals(1, directory.listFiles().length);
+            assertEquals(new ArrayList<>(text.getAbbreviations()), new ArrayList<>(compiled.getAbbreviations()));
+            assertEquals(text.size(), compiled.size());
+            assertEquals("LA. N.", compiled.getIsoAbbreviation("Long Name").orElse("WRONG"));
+            assertEquals("Proc. I. E. E. E.", compiled.getIsoAbbreviation("Proceedings of the IEEE").orElse("WRONG"));
+        }
+    }
+
+    @Test
+    public void testChangedCustomListIsCompiledAgain() throws IOException {
+        File directory = new File(folder.getRoot(), "compiled");
+        File personal = folder.newFile("personal.txt");
+        writeList(personal, "Long Name = L. N.");
+        List<File> lists = Arrays.asList(personal);
+        Abbreviations.readCompiledJournalLists(directory, false, lists);
+        File[] before = directory.listFiles();
+
+        writeList(personal, "Long Name = LA. N.", "Other Name = O. N.");
+        JournalAbbreviationRepository repository = Abbreviations.readCompiledJournalLists(directory, false, lists);
+
+        assertEquals("LA. N.", repository.getIsoAbbreviation("Long Name").orElse("WRONG"));
+        assertTrue(repository.isKnownName("Other Name"));
+        // the outdated version is removed
+        assertEquals(1, directory.listFiles().length);
+        assertFalse(before[0].exists());
+    }
 }
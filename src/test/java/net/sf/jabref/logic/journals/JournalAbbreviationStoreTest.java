@@ -0,0 +1,124 @@
+package net.sf.jabref.logic.journals;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+
+import org.junit.Test;
+
+public class JournalAbbreviationStoreTest {
+
+    private static JournalAbbreviationStore compile(JournalAbbreviationRepository repository) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        repository.writeCompiled(out);
+        return new JournalAbbreviationStore(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void testLookups() throws IOException {
+        JournalAbbreviationRepository source = new JournalAbbreviationRepository();
+        source.addEntry(new Abbreviation("Long Name", "L. N."));
+        source.addEntry(new Abbreviation("Journal für Physik", "J. Phys."));
+        JournalAbbreviationRepository repository = new JournalAbbreviationRepository(compile(source));
+
+        assertEquals(2, repository.size());
+        assertEquals("L. N.", repository.getIsoAbbreviation("long name").orElse("WRONG"));
+        assertEquals("L N", repository.getMedlineAbbreviation("Long Name").orElse("WRONG"));
+        assertEquals("Journal für Physik", repository.getNextAbbreviation("J Phys").orElse("WRONG"));
+        assertTrue(repository.isKnownName("L. N."));
+        assertTrue(repository.isAbbreviatedName("J. Phys."));
+        assertFalse(repository.isKnownName("?"));
+        assertEquals("Journal für Physik", repository.getAbbreviations().first().getName());
+    }
+
+    @Test
+    public void testAddedAbbreviationsOverrideStore() throws IOException {
+        JournalAbbreviationRepository source = new JournalAbbreviationRepository();
+        source.addEntry(new Abbreviation("Long Name", "L. N."));
+        source.addEntry(new Abbreviation("Other Name", "O. N."));
+        JournalAbbreviationRepository repository = new JournalAbbreviationRepository(compile(source));
+
+        repository.addEntry(new Abbreviation("Long Name", "LA. N."));
+
+        assertEquals(2, repository.size());
+        assertEquals("LA. N.", repository.getIsoAbbreviation("Long Name").orElse("WRONG"));
+        // the key of the replaced abbreviation still works, as in a repository without a store
+        assertEquals("Long Name", repository.getNextAbbreviation("L N").orElse("WRONG"));
+    }
+
+    @Test
+    public void testSizeFollowsAddedAbbreviations() throws IOException {
+        JournalAbbreviationRepository source = new JournalAbbreviationRepository();
+        JournalAbbreviationRepository text = new JournalAbbreviationRepository();
+        for (Abbreviation abbreviation : Arrays.asList(new Abbreviation("Long Name", "L. N."),
+                new Abbreviation("Other Name", "O. N."), new Abbreviation("Third Name", "T. N."))) {
+            source.addEntry(abbreviation);
+            text.addEntry(abbreviation);
+        }
+        JournalAbbreviationRepository repository = new JournalAbbreviationRepository(compile(source));
+
+        // a new name, a replaced name, a name replacing the abbreviation of another name, and the same again
+        for (Abbreviation abbreviation : Arrays.asList(new Abbreviation("New Name", "N. N."),
+                new Abbreviation("Long Name", "LA. N."), new Abbreviation("O. N.", "O. N."),
+                new Abbreviation("T. N.", "T. N."), new Abbreviation("T. N.", "T. N."))) {
+            repository.addEntry(abbreviation);
+            text.addEntry(abbreviation);
+            assertEquals(new ArrayList<>(text.getAbbreviations()), new ArrayList<>(repository.getAbbreviations()));
+            assertEquals(text.size(), repository.size());
+        }
+    }
+
+    @Test
+    public void testAbbreviationsAreBuiltOnceForEachChange() throws IOException {
+        JournalAbbreviationRepository source = new JournalAbbreviationRepository();
+        source.addEntry(new Abbreviation("Long Name", "L. N."));
+        JournalAbbreviationRepository repository = new JournalAbbreviationRepository(compile(source));
+
+        SortedSet<Abbreviation> abbreviations = repository.getAbbreviations();
+        assertSame(abbreviations, repository.getAbbreviations());
+
+        repository.addEntry(new Abbreviation("Other Name", "O. N."));
+        assertEquals(2, repository.getAbbreviations().size());
+        assertEquals(1, abbreviations.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAbbreviationsCannotBeModified() throws IOException {
+        JournalAbbreviationRepository source = new JournalAbbreviationRepository();
+        source.addEntry(new Abbreviation("Long Name", "L. N."));
+        new JournalAbbreviationRepository(compile(source)).getAbbreviations().clear();
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsOtherData() throws IOException {
+        new JournalAbbreviationStore(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}));
+    }
+
+    @Test
+    public void testBuiltinListGivesSameResultAsTextList() throws IOException {
+        JournalAbbreviationRepository text = new JournalAbbreviationRepository();
+        text.readJournalListFromResource(Abbreviations.JOURNALS_FILE_BUILTIN);
+        JournalAbbreviationRepository builtin = new JournalAbbreviationRepository();
+        builtin.readJournalListFromResource(Abbreviations.JOURNALS_FILE_BUILTIN);
+        JournalAbbreviationRepository compiled = new JournalAbbreviationRepository(compile(builtin));
+
+        text.readJournalListFromResource(Abbreviations.JOURNALS_IEEE_ABBREVIATION_LIST_WITH_TEXT);
+        compiled.readJournalListFromResource(Abbreviations.JOURNALS_IEEE_ABBREVIATION_LIST_WITH_TEXT);
+
+        List<Abbreviation> expected = new ArrayList<>(text.getAbbreviations());
+        assertEquals(expected, new ArrayList<>(compiled.getAbbreviations()));
+        assertEquals(text.size(), compiled.size());
+        for (Abbreviation abbreviation : expected) {
+            for (String name : new String[] {abbreviation.getName(), abbreviation.getIsoAbbreviation(),
+                    abbreviation.getMedlineAbbreviation()}) {
+                assertEquals(text.getNextAbbreviation(name), compiled.getNextAbbreviation(name));
+            }
+        }
+    }
+}
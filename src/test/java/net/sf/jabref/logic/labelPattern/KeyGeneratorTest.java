@@ -0,0 +1,88 @@
+package net.sf.jabref.logic.labelPattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.MetaData;
+import net.sf.jabref.importer.fileformat.BibtexParser;
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.BibtexEntryTypes;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class KeyGeneratorTest {
+
+    @BeforeClass
+    public static void setUpGlobalsPrefs() {
+        Globals.prefs = JabRefPreferences.getInstance();
+    }
+
+    @Test
+    public void testBatchGivesSameKeysAsOneByOne() {
+        BibtexDatabase batchDatabase = createDatabase();
+        BibtexDatabase singleDatabase = createDatabase();
+
+        Map<BibtexEntry, String> keys = new KeyGenerator(new MetaData(), batchDatabase, Globals.prefs.getSnapshot())
+                .generateKeys(new ArrayList<>(batchDatabase.getEntries()));
+
+        KeyGenerator generator = new KeyGenerator(new MetaData(), singleDatabase, Globals.prefs.getSnapshot());
+        List<String> expected = new ArrayList<>();
+        for (BibtexEntry entry : singleDatabase.getEntries()) {
+            generator.generateKey(entry);
+            expected.add(entry.getCiteKey());
+        }
+
+        Assert.assertEquals(expected, new ArrayList<>(keys.values()));
+        Assert.assertEquals(expected.size(), keys.values().stream().distinct().count());
+    }
+
+    @Test
+    public void testBatchDoesNotModifyEntries() {
+        BibtexDatabase database = createDatabase();
+
+        new KeyGenerator(new MetaData(), database, Globals.prefs.getSnapshot())
+                .generateKeys(new ArrayList<>(database.getEntries()));
+
+        for (BibtexEntry entry : database.getEntries()) {
+            Assert.assertNull(entry.getCiteKey());
+        }
+    }
+
+    @Test
+    public void testGeneratedKeyAvoidsExistingKey() {
+        BibtexDatabase database = new BibtexDatabase();
+        BibtexEntry existing = BibtexParser.singleFromString("@ARTICLE{Newton1687, author={Someone Else}}");
+        database.insertEntry(existing);
+        BibtexEntry entry = createEntry();
+        database.insertEntry(entry);
+
+        String key = new KeyGenerator(new MetaData(), database, Globals.prefs.getSnapshot())
+                .generateKeys(Collections.singletonList(entry)).get(entry);
+
+        Assert.assertNotEquals("Newton1687", key);
+        Assert.assertTrue(key.startsWith("Newton1687"));
+    }
+
+    private static BibtexDatabase createDatabase() {
+        BibtexDatabase database = new BibtexDatabase();
+        for (int i = 0; i < 30; i++) {
+            database.insertEntry(createEntry());
+        }
+        return database;
+    }
+
+    private static BibtexEntry createEntry() {
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next(), BibtexEntryTypes.ARTICLE);
+        entry.setField("author", "Isaac Newton");
+        entry.setField("year", "1687");
+        return entry;
+    }
+}
@@ -0,0 +1,189 @@
+package net.sf.jabref.logic.net;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the downloads against a local HTTP server, which answers "/n" with "result n" after n * 10 ms, so that the
+ * first requests finish last.
+ */
+public class FetchExecutorTest {
+
+    private HttpServer server;
+    private FetchExecutor executor;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final FetchExecutor.Download<String> download = new FetchExecutor.Download<String>() {
+
+        @Override
+        public String download(URL url) throws IOException {
+            return FetchExecutor.download(url, StandardCharsets.UTF_8);
+        }
+    };
+
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int current = running.incrementAndGet();
+                requests.incrementAndGet();
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                }
+                try {
+                    int number = Integer.parseInt(exchange.getRequestURI().getPath().substring(1));
+                    Thread.sleep(number * 10L);
+                    if (number == 13) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    byte[] response = ("result " + number).getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, response.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(response);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    exchange.close();
+                }
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        executor = new FetchExecutor(3);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testResultsAreReceivedInOrder() throws Exception {
+        List<URL> urls = urls(10, 1);
+        final List<String> results = new ArrayList<>();
+
+        boolean complete = executor.fetchInOrder(urls, download, new FetchExecutor.Receiver<String>() {
+
+            @Override
+            public boolean received(URL url, String result) {
+                results.add(result);
+                return true;
+            }
+
+            @Override
+            public boolean failed(URL url, IOException exception) {
+                Assert.fail(exception.toString());
+                return false;
+            }
+        });
+
+        Assert.assertTrue(complete);
+        Assert.assertEquals(10, results.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("result " + (10 - i), results.get(i));
+        }
+    }
+
+    @Test
+    public void testConnectionsPerHostAreBounded() throws Exception {
+        executor.fetchInOrder(urls(12, 1), download, new FetchExecutor.Receiver<String>() {
+
+            @Override
+            public boolean received(URL url, String result) {
+                return true;
+            }
+
+            @Override
+            public boolean failed(URL url, IOException exception) {
+                return true;
+            }
+        });
+
+        Assert.assertEquals(12, requests.get());
+        Assert.assertTrue("at most 3 concurrent requests, but were " + maxRunning.get(), maxRunning.get() <= 3);
+        Assert.assertTrue("requests should run concurrently", maxRunning.get() > 1);
+    }
+
+    @Test
+    public void testFailedDownloadIsReportedInOrder() throws Exception {
+        final List<String> results = new ArrayList<>();
+
+        boolean complete = executor.fetchInOrder(urls(3, 12), download, new FetchExecutor.Receiver<String>() {
+
+            @Override
+            public boolean received(URL url, String result) {
+                results.add(result);
+                return true;
+            }
+
+            @Override
+            public boolean failed(URL url, IOException exception) {
+                results.add("failed " + url.getPath());
+                return true;
+            }
+        });
+
+        Assert.assertTrue(complete);
+        Assert.assertEquals("[result 14, failed /13, result 12]", results.toString());
+    }
+
+    @Test
+    public void testReceiverCanStopFetching() throws Exception {
+        final List<String> results = new ArrayList<>();
+
+        boolean complete = executor.fetchInOrder(urls(10, 1), download, new FetchExecutor.Receiver<String>() {
+
+            @Override
+            public boolean received(URL url, String result) {
+                results.add(result);
+                return results.size() < 2;
+            }
+
+            @Override
+            public boolean failed(URL url, IOException exception) {
+                return false;
+            }
+        });
+
+        Assert.assertFalse(complete);
+        Assert.assertEquals(2, results.size());
+    }
+
+    /**
+     * Creates the URLs of the numbers from first + count - 1 down to first.
+     */
+    private List<URL> urls(int count, int first) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        for (int i = (first + count) - 1; i >= first; i--) {
+            urls.add(new URL("http", "localhost", server.getAddress().getPort(), "/" + i));
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,292 @@
+package net.sf.jabref.logic.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.ResponseCache;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs requests against a local HTTP server. The path selects the caching headers of the response: "/plain" has
+ * none, "/etag" must always be revalidated with its ETag, "/modified" only has a Last-Modified date, "/nostore",
+ * "/private" and "/cookie" must not be stored, "/vary" varies by the header X-Variant, "/pdf" is a PDF document and
+ * "/large" has a large body. All other paths are fresh for an hour.
+ */
+public class PersistentResponseCacheTest {
+
+    private static final int LARGE_SIZE = 16 * 1024;
+
+    private HttpServer server;
+    private File directory;
+    private ResponseCache previousCache;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final List<String> accepts = Collections.synchronizedList(new ArrayList<>());
+
+
+    @Before
+    public void setUp() throws IOException {
+        previousCache = ResponseCache.getDefault();
+        directory = Files.createTempDirectory("jabref-httpcache").toFile();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                String path = exchange.getRequestURI().getPath();
+                String accept = exchange.getRequestHeaders().getFirst("Accept");
+                accepts.add(accept);
+                String variant = exchange.getRequestHeaders().getFirst("X-Variant");
+                Headers headers = exchange.getResponseHeaders();
+                byte[] response = ("content of " + path + " as " + accept).getBytes(StandardCharsets.UTF_8);
+                if ("/etag".equals(path)) {
+                    headers.add("Cache-Control", "max-age=0");
+                    headers.add("ETag", "\"v1\"");
+                    if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        notModified.incrementAndGet();
+                        exchange.sendResponseHeaders(304, -1);
+                        exchange.close();
+                        return;
+                    }
+                } else if ("/modified".equals(path)) {
+                    headers.add("Last-Modified", "Mon, 05 Jan 2015 10:00:00 GMT");
+                } else if ("/nostore".equals(path)) {
+                    headers.add("Cache-Control", "no-store");
+                } else if ("/private".equals(path)) {
+                    headers.add("Cache-Control", "private, max-age=3600");
+                } else if ("/cookie".equals(path)) {
+                    headers.add("Cache-Control", "max-age=3600");
+                    headers.add("Set-Cookie", "session=1");
+                } else if ("/vary".equals(path)) {
+                    headers.add("Cache-Control", "max-age=3600");
+                    headers.add("Vary", "X-Variant");
+                    response = ("content of " + path + " for " + variant).getBytes(StandardCharsets.UTF_8);
+                } else if ("/pdf".equals(path)) {
+                    headers.add("Cache-Control", "max-age=3600");
+                    headers.add("Content-Type", "application/pdf");
+                } else if ("/large".equals(path)) {
+                    headers.add("Cache-Control", "max-age=3600");
+                    response = new byte[LARGE_SIZE];
+                    Arrays.fill(response, (byte) 'x');
+                } else if (!"/plain".equals(path)) {
+                    headers.add("Cache-Control", "max-age=3600");
+                }
+                // the large body is sent chunked, so that its size is only known while it is read
+                exchange.sendResponseHeaders(200, "/large".equals(path) ? 0 : response.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(response);
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        ResponseCache.setDefault(previousCache);
+        server.stop(0);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testFreshResponseIsServedFromDisk() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        Assert.assertEquals("content of /fresh as text/plain", get("/fresh", "text/plain"));
+        Assert.assertEquals("content of /fresh as text/plain", get("/fresh", "text/plain"));
+        Assert.assertEquals(1, requests.get());
+        Assert.assertEquals(1, cache.getHitCount());
+
+        // a new cache (e.g. in the next session) finds the stored response
+        PersistentResponseCache nextSession = install(1024 * 1024);
+        Assert.assertEquals("content of /fresh as text/plain", get("/fresh", "text/plain"));
+        Assert.assertEquals(1, requests.get());
+        Assert.assertEquals(1, nextSession.getHitCount());
+    }
+
+    @Test
+    public void testAcceptHeaderSelectsResponse() throws IOException {
+        install(1024 * 1024);
+
+        Assert.assertEquals("content of /fresh as text/plain", get("/fresh", "text/plain"));
+        Assert.assertEquals("content of /fresh as application/x-bibtex", get("/fresh", "application/x-bibtex"));
+        Assert.assertEquals("content of /fresh as application/x-bibtex", get("/fresh", "application/x-bibtex"));
+        Assert.assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testStaleResponseIsRevalidatedWithETag() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        Assert.assertEquals("content of /etag as text/plain", get("/etag", "text/plain"));
+        Assert.assertEquals("content of /etag as text/plain", get("/etag", "text/plain"));
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(1, notModified.get());
+        Assert.assertEquals(1, cache.getRevalidationCount());
+        // the revalidation sends the same headers as the request
+        Assert.assertEquals("text/plain", accepts.get(1));
+    }
+
+    @Test
+    public void testNoStoreResponseIsNotStored() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        get("/nostore", "text/plain");
+        get("/nostore", "text/plain");
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResponsesAreRemoved() throws IOException {
+        // an entry has somewhat less than 200 bytes, so only about ten fit
+        PersistentResponseCache cache = install(8 * 250);
+
+        get("/fresh", "a");
+        for (int i = 0; i < 20; i++) {
+            get("/other" + i, "b");
+            // "/fresh" stays the most recently used one
+            get("/fresh", "a");
+        }
+        Assert.assertTrue(cache.getSize() <= (8 * 250));
+        Assert.assertEquals(21, requests.get());
+
+        get("/other0", "b");
+        Assert.assertEquals(22, requests.get());
+    }
+
+    @Test
+    public void testResponseWithoutCachingHeadersIsNotStored() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        get("/plain", "text/plain");
+        Assert.assertEquals("content of /plain as text/plain", get("/plain", "text/plain"));
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testResponseWithLastModifiedIsFreshForAWhile() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        get("/modified", "text/plain");
+        Assert.assertEquals("content of /modified as text/plain", get("/modified", "text/plain"));
+        Assert.assertEquals(1, requests.get());
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testPrivateResponseIsNotStored() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        get("/private", "text/plain");
+        get("/private", "text/plain");
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testResponseSettingCookieIsNotStored() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        get("/cookie", "text/plain");
+        get("/cookie", "text/plain");
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testVaryingResponseIsOnlyUsedForSameHeaders() throws IOException {
+        install(1024 * 1024);
+
+        Assert.assertEquals("content of /vary for a", get("/vary", "text/plain", "a"));
+        Assert.assertEquals("content of /vary for a", get("/vary", "text/plain", "a"));
+        Assert.assertEquals(1, requests.get());
+        Assert.assertEquals("content of /vary for b", get("/vary", "text/plain", "b"));
+        Assert.assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testPdfIsNotStored() throws IOException {
+        PersistentResponseCache cache = install(1024 * 1024);
+
+        get("/pdf", "application/pdf");
+        get("/pdf", "application/pdf");
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testLargeResponseIsNotStored() throws IOException {
+        // an entry may use an eighth of the cache, which is less than the response
+        PersistentResponseCache cache = install(8 * 1024);
+
+        Assert.assertEquals(LARGE_SIZE, get("/large", "text/plain").length());
+        Assert.assertEquals(LARGE_SIZE, get("/large", "text/plain").length());
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(0, cache.getSize());
+        Assert.assertArrayEquals(new String[0], directory.list());
+    }
+
+    private PersistentResponseCache install(long maxSize) {
+        PersistentResponseCache cache = new PersistentResponseCache(directory, maxSize);
+        ResponseCache.setDefault(cache);
+        return cache;
+    }
+
+    private String get(String path, String accept) throws IOException {
+        return get(path, accept, null);
+    }
+
+    private String get(String path, String accept, String variant) throws IOException {
+        URL url = new URL("http", "localhost", server.getAddress().getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty("Accept", accept);
+        if (variant != null) {
+            connection.setRequestProperty("X-Variant", variant);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            return new String(readFully(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        byte[] buffer = new byte[1024];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+package net.sf.jabref.logic.preferences;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PreferencesSnapshotTest {
+
+    @Test
+    public void testDefaultValues() {
+        PreferencesSnapshot snapshot = new PreferencesSnapshot.Builder().build();
+
+        Assert.assertNull(snapshot.getKeyPatternRegex());
+        Assert.assertFalse(snapshot.isKeyGenAlwaysAddLetter());
+        Assert.assertEquals(0, snapshot.getWriteFieldSortStyle());
+        Assert.assertEquals(Collections.emptyList(), snapshot.getWriteFieldUserDefinedOrder());
+        Assert.assertEquals('{', snapshot.getValueDelimiterStart());
+        Assert.assertEquals('}', snapshot.getValueDelimiterEnd());
+        Assert.assertFalse(snapshot.isNonWrappableField("url"));
+    }
+
+    @Test
+    public void testGivenValues() {
+        PreferencesSnapshot snapshot = new PreferencesSnapshot.Builder()
+                .setKeyPatternRegex("[0-9]")
+                .setKeyGenAlwaysAddLetter(true)
+                .setWriteFieldSortStyle(2)
+                .setDoNotResolveStringsFor(Arrays.asList("url", "pdf"))
+                .setValueDelimiterStart('"')
+                .setValueDelimiterEnd('"')
+                .setNonWrappableFields(Arrays.asList("url", "doi"))
+                .setPutBracesAroundCapitalsFields(Collections.singletonList("title"))
+                .setNamesNatbib(true)
+                .build();
+
+        Assert.assertEquals("[0-9]", snapshot.getKeyPatternRegex());
+        Assert.assertTrue(snapshot.isKeyGenAlwaysAddLetter());
+        Assert.assertEquals(2, snapshot.getWriteFieldSortStyle());
+        Assert.assertEquals(Arrays.asList("url", "pdf"), snapshot.getDoNotResolveStringsFor());
+        Assert.assertEquals('"', snapshot.getValueDelimiterStart());
+        Assert.assertEquals('"', snapshot.getValueDelimiterEnd());
+        Assert.assertTrue(snapshot.isNonWrappableField("doi"));
+        Assert.assertFalse(snapshot.isNonWrappableField("title"));
+        Assert.assertTrue(snapshot.putBracesAroundCapitals("title"));
+        Assert.assertTrue(snapshot.isNamesNatbib());
+        Assert.assertFalse(snapshot.isNamesLastOnly());
+    }
+
+    @Test
+    public void testLaterChangesOfGivenListDoNotChangeSnapshot() {
+        List<String> order = new ArrayList<>(Arrays.asList("author", "title"));
+        PreferencesSnapshot snapshot = new PreferencesSnapshot.Builder().setWriteFieldUserDefinedOrder(order).build();
+
+        order.add("year");
+
+        Assert.assertEquals(Arrays.asList("author", "title"), snapshot.getWriteFieldUserDefinedOrder());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListsCannotBeModified() {
+        new PreferencesSnapshot.Builder().setWriteFieldUserDefinedOrder(Arrays.asList("author")).build()
+                .getWriteFieldUserDefinedOrder().add("title");
+    }
+
+    @Test
+    public void testBuilderCanBeReused() {
+        PreferencesSnapshot.Builder builder = new PreferencesSnapshot.Builder().setIncludeEmptyFields(false);
+        PreferencesSnapshot before = builder.build();
+        PreferencesSnapshot after = builder.setIncludeEmptyFields(true).build();
+
+        Assert.assertFalse(before.isIncludeEmptyFields());
+        Assert.assertTrue(after.isIncludeEmptyFields());
+    }
+}
@@ -8,6 +8,11 @@ import org.junit.Test;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public class RemoteTest {
 
@@ -53,6 +58,35 @@ public class RemoteTest {
         }
     }
 
+    @Test
+    public void testPipelinedCommandsFromSeveralClients() throws Exception {
+        final int port = 34567;
+        final int clients = 10;
+        final int commandsPerClient = 20;
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(clients * commandsPerClient);
+
+        try (RemoteListenerServerLifecycle server = new RemoteListenerServerLifecycle()) {
+            server.openAndStart(msg -> {
+                received.add(msg);
+                latch.countDown();
+            }, port);
+
+            for (int client = 0; client < clients; client++) {
+                List<String[]> commands = new ArrayList<>();
+                for (int command = 0; command < commandsPerClient; command++) {
+                    commands.add(new String[] {"client" + client, "command" + command});
+                }
+                Assert.assertTrue(RemoteListenerClient.sendToActiveJabRefInstance(commands, port));
+            }
+
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            // the commands of one connection are handled in the order in which they were sent
+            Assert.assertEquals("client0\ncommand0", received.get(0));
+            Assert.assertEquals("client0\ncommand1", received.get(1));
+        }
+    }
+
     @Test
     public void testPortAlreadyInUse() throws IOException {
         final int port = 34567;
@@ -0,0 +1,97 @@
+package net.sf.jabref.logic.remote.server;
+
+import net.sf.jabref.logic.remote.client.RemoteListenerClient;
+import net.sf.jabref.logic.remote.shared.Protocol;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RemoteListenerServerTest {
+
+    private static final int PORT = 34568;
+
+    private RemoteListenerServer server;
+
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.closeServerSocket();
+        }
+    }
+
+    private void start(MessageHandler handler, long idleTimeout, int maxConnections) throws IOException {
+        server = new RemoteListenerServer(handler, PORT, idleTimeout, maxConnections);
+        new Thread(server).start();
+    }
+
+    private static Socket connect() throws IOException {
+        Socket socket = new Socket(InetAddress.getByName("localhost"), PORT);
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    @Test
+    public void testIdleConnectionIsClosed() throws Exception {
+        start(message -> Assert.fail("no message expected"), 200, 10);
+
+        try (Socket socket = connect()) {
+            Assert.assertEquals(Protocol.IDENTIFIER, new Protocol(socket).receiveMessage());
+            // blocks until the server closes the connection
+            Assert.assertEquals(-1, socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    public void testConnectionsBeyondLimitAreClosed() throws Exception {
+        start(message -> Assert.fail("no message expected"), 60000, 1);
+
+        try (Socket first = connect(); Socket second = connect()) {
+            Assert.assertEquals(Protocol.IDENTIFIER, new Protocol(first).receiveMessage());
+            Assert.assertEquals(-1, second.getInputStream().read());
+        }
+    }
+
+    @Test
+    public void testSlowHandlerDoesNotBlockServer() throws Exception {
+        final int commands = 250;
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger received = new AtomicInteger();
+        start(message -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.incrementAndGet();
+        }, 60000, 10);
+
+        List<String[]> messages = new ArrayList<>();
+        for (int i = 0; i < commands; i++) {
+            messages.add(new String[] {"command" + i});
+        }
+        // more messages than fit into the queue
+        Assert.assertTrue(RemoteListenerClient.sendToActiveJabRefInstance(messages, PORT));
+
+        // the server still accepts and answers new connections
+        try (Socket socket = connect()) {
+            Assert.assertEquals(Protocol.IDENTIFIER, new Protocol(socket).receiveMessage());
+        }
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while ((received.get() < commands) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(commands, received.get());
+    }
+}
@@ -0,0 +1,58 @@
+package net.sf.jabref.logic.util.strings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AhoCorasickMatcherTest {
+
+    @Test
+    public void testFindsOverlappingOccurrences() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Arrays.asList("he", "she", "his", "hers"));
+
+        Assert.assertEquals("[she 1-4, he 2-4, hers 2-6]", find(matcher, "ushers", "he", "she", "his", "hers"));
+    }
+
+    @Test
+    public void testFindsRepeatedOccurrences() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Arrays.asList("AA", "A"));
+
+        Assert.assertEquals("[A 0-1, AA 0-2, A 1-2, AA 1-3, A 2-3]", find(matcher, "AAA", "AA", "A"));
+    }
+
+    @Test
+    public void testIsCaseSensitive() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Arrays.asList("VLSI"));
+
+        Assert.assertEquals("[]", find(matcher, "vlsi VLsI", "VLSI"));
+        Assert.assertEquals("[VLSI 5-9]", find(matcher, "vlsi VLSI", "VLSI"));
+    }
+
+    @Test
+    public void testWordsWithSpaces() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(Arrays.asList("New Zealand", "Zealand", "New"));
+
+        Assert.assertEquals("[New 0-3, New Zealand 0-11, Zealand 4-11]",
+                find(matcher, "New Zealand", "New Zealand", "Zealand", "New"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyWordIsRejected() {
+        new AhoCorasickMatcher(Arrays.asList("A", ""));
+    }
+
+    private static String find(AhoCorasickMatcher matcher, String text, final String... words) {
+        final List<String> found = new ArrayList<>();
+        matcher.findAll(text, new AhoCorasickMatcher.MatchHandler() {
+
+            @Override
+            public void found(int word, int start, int end) {
+                found.add(words[word] + ' ' + start + '-' + end);
+            }
+        });
+        return found.toString();
+    }
+}
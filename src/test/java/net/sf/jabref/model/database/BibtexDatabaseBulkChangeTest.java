@@ -0,0 +1,136 @@
+package net.sf.jabref.model.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BibtexDatabaseBulkChangeTest {
+
+    private BibtexDatabase database;
+    private List<DatabaseChangeEvent> events;
+
+
+    @Before
+    public void setUp() {
+        database = new BibtexDatabase();
+        events = new ArrayList<>();
+        database.addDatabaseChangeListener(new DatabaseChangeListener() {
+
+            @Override
+            public void databaseChanged(DatabaseChangeEvent e) {
+                events.add(e);
+            }
+        });
+    }
+
+    @Test
+    public void testEventsWithoutBulkChange() {
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next());
+        database.insertEntry(entry);
+        entry.setField("title", "A title");
+
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(DatabaseChangeEvent.ChangeType.ADDED_ENTRY, events.get(0).getType());
+        Assert.assertEquals(Collections.singletonList(entry), events.get(0).getAddedEntries());
+        Assert.assertEquals(DatabaseChangeEvent.ChangeType.CHANGED_ENTRY, events.get(1).getType());
+        Assert.assertEquals(Collections.singletonList(entry), events.get(1).getChangedEntries());
+        Assert.assertTrue(events.get(1).getAddedEntries().isEmpty());
+    }
+
+    @Test
+    public void testBulkChangeFiresOneCoalescedEvent() {
+        BibtexEntry changed = new BibtexEntry(IdGenerator.next());
+        BibtexEntry removed = new BibtexEntry(IdGenerator.next());
+        database.insertEntry(changed);
+        database.insertEntry(removed);
+        events.clear();
+
+        BibtexEntry added = new BibtexEntry(IdGenerator.next());
+        BibtexEntry addedAndRemoved = new BibtexEntry(IdGenerator.next());
+        database.beginBulkChange();
+        try {
+            database.insertEntry(added);
+            added.setField("title", "Added");
+            database.insertEntry(addedAndRemoved);
+            database.removeEntry(addedAndRemoved.getId());
+            changed.setField("title", "Changed");
+            database.removeEntry(removed.getId());
+            Assert.assertTrue(events.isEmpty());
+            // the changes are applied immediately
+            Assert.assertEquals(2, database.getEntryCount());
+        } finally {
+            database.commitBulkChange();
+        }
+
+        Assert.assertEquals(1, events.size());
+        DatabaseChangeEvent event = events.get(0);
+        Assert.assertEquals(DatabaseChangeEvent.ChangeType.BULK_CHANGE, event.getType());
+        Assert.assertNull(event.getEntry());
+        Assert.assertEquals(Collections.singletonList(added), event.getAddedEntries());
+        Assert.assertEquals(Collections.singletonList(removed), event.getRemovedEntries());
+        Assert.assertEquals(Collections.singletonList(changed), event.getChangedEntries());
+    }
+
+    @Test
+    public void testNestedBulkChangeFiresOnlyAtOutermostCommit() {
+        BibtexEntry first = new BibtexEntry(IdGenerator.next());
+        BibtexEntry second = new BibtexEntry(IdGenerator.next());
+        database.beginBulkChange();
+        database.insertEntry(first);
+        database.beginBulkChange();
+        database.insertEntry(second);
+        database.commitBulkChange();
+        Assert.assertTrue(events.isEmpty());
+        database.commitBulkChange();
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(Arrays.asList(first, second), events.get(0).getAddedEntries());
+    }
+
+    @Test
+    public void testEmptyBulkChangeFiresNoEvent() {
+        database.beginBulkChange();
+        database.commitBulkChange();
+
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCommitWithoutBeginThrows() {
+        database.commitBulkChange();
+    }
+
+    @Test
+    public void testSorterIsUpdatedByBulkChange() {
+        EntrySorter sorter = database.getSorter(new Comparator<BibtexEntry>() {
+
+            @Override
+            public int compare(BibtexEntry e1, BibtexEntry e2) {
+                return e1.getField("title").compareTo(e2.getField("title"));
+            }
+        });
+        BibtexEntry b = new BibtexEntry(IdGenerator.next());
+        b.setField("title", "b");
+        BibtexEntry a = new BibtexEntry(IdGenerator.next());
+        a.setField("title", "a");
+
+        database.beginBulkChange();
+        database.insertEntry(b);
+        database.insertEntry(a);
+        database.commitBulkChange();
+
+        Assert.assertEquals(2, sorter.getEntryCount());
+        Assert.assertSame(a, sorter.getEntryAt(0));
+        Assert.assertSame(b, sorter.getEntryAt(1));
+    }
+
+}
@@ -0,0 +1,94 @@
+package net.sf.jabref.model.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.BibtexString;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BibtexDatabaseSnapshotTest {
+
+    private BibtexDatabase database;
+    private BibtexEntry entry;
+    private BibtexString string;
+
+
+    @Before
+    public void setUp() {
+        database = new BibtexDatabase();
+        entry = new BibtexEntry(IdGenerator.next());
+        entry.setField(BibtexEntry.KEY_FIELD, "Einstein1905");
+        entry.setField("author", "Einstein");
+        database.insertEntry(entry);
+        string = new BibtexString(IdGenerator.next(), "aps", "American Physical Society");
+        database.addString(string);
+        database.setPreamble("preamble");
+    }
+
+    @Test
+    public void testSnapshotHasSameContent() {
+        BibtexDatabase snapshot = database.snapshot();
+
+        Assert.assertEquals(1, snapshot.getEntryCount());
+        BibtexEntry copy = snapshot.getEntryById(entry.getId());
+        Assert.assertNotSame(entry, copy);
+        Assert.assertEquals("Einstein", copy.getField("author"));
+        Assert.assertSame(copy, snapshot.getEntryByKey("Einstein1905"));
+        Assert.assertEquals("American Physical Society", snapshot.getString(string.getId()).getContent());
+        Assert.assertEquals("preamble", snapshot.getPreamble());
+    }
+
+    @Test
+    public void testSnapshotDoesNotSeeLaterChanges() {
+        BibtexDatabase snapshot = database.snapshot();
+        entry.setField("author", "Bohr");
+        entry.clearField(BibtexEntry.KEY_FIELD);
+        database.insertEntry(new BibtexEntry(IdGenerator.next()));
+        string.setContent("APS");
+        database.setPreamble("changed");
+
+        BibtexEntry copy = snapshot.getEntryById(entry.getId());
+        Assert.assertEquals("Einstein", copy.getField("author"));
+        Assert.assertEquals("Einstein1905", copy.getCiteKey());
+        Assert.assertEquals(1, snapshot.getEntryCount());
+        Assert.assertEquals("American Physical Society", snapshot.getString(string.getId()).getContent());
+        Assert.assertEquals("preamble", snapshot.getPreamble());
+    }
+
+    @Test
+    public void testChangingSnapshotDoesNotChangeDatabase() {
+        BibtexDatabase snapshot = database.snapshot();
+        snapshot.getEntryById(entry.getId()).setField("author", "Bohr");
+
+        Assert.assertEquals("Einstein", entry.getField("author"));
+    }
+
+    @Test
+    public void testSnapshotKeepsParsedSerialization() {
+        entry.setParsedSerialization("@misc{Einstein1905}");
+        BibtexEntry copy = database.snapshot().getEntryById(entry.getId());
+
+        Assert.assertFalse(copy.hasChanged());
+        Assert.assertEquals("@misc{Einstein1905}", copy.getParsedSerialization());
+    }
+
+    @Test
+    public void testChangingSnapshotFiresNoEvents() {
+        final List<DatabaseChangeEvent> events = new ArrayList<>();
+        database.addDatabaseChangeListener(new DatabaseChangeListener() {
+
+            @Override
+            public void databaseChanged(DatabaseChangeEvent e) {
+                events.add(e);
+            }
+        });
+        database.snapshot().getEntryById(entry.getId()).setField("author", "Bohr");
+
+        Assert.assertTrue(events.isEmpty());
+    }
+}
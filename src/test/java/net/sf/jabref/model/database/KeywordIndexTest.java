@@ -0,0 +1,120 @@
+package net.sf.jabref.model.database;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.BibtexEntryTypes;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeywordIndexTest {
+
+    private BibtexDatabase database;
+    private BibtexEntry first;
+    private BibtexEntry second;
+    private BibtexEntry third;
+
+
+    @Before
+    public void setUp() {
+        database = new BibtexDatabase();
+        first = addEntry("optics, lasers");
+        second = addEntry("lasers; chemistry");
+        third = addEntry(null);
+    }
+
+    @Test
+    public void testKeywordsOfDatabase() {
+        KeywordIndex index = new KeywordIndex(database);
+
+        Assert.assertEquals("[chemistry, lasers, optics]", index.getKeywords().toString());
+        Assert.assertEquals(2, index.getCount("lasers"));
+        Assert.assertEquals(0, index.getCount("physics"));
+        Assert.assertEquals(Arrays.asList("optics", "lasers"), index.getKeywords(first));
+        Assert.assertEquals(Collections.emptyList(), index.getKeywords(third));
+    }
+
+    @Test
+    public void testKeywordsOfSelection() {
+        KeywordIndex index = new KeywordIndex(database);
+
+        Assert.assertEquals("[chemistry, lasers, optics]",
+                index.getKeywords(new BibtexEntry[] {first, second}).toString());
+        Assert.assertEquals("[lasers]", index.getCommonKeywords(new BibtexEntry[] {first, second}).toString());
+        Assert.assertEquals("[]", index.getCommonKeywords(new BibtexEntry[] {first, third}).toString());
+        Assert.assertEquals("[]", index.getCommonKeywords(new BibtexEntry[0]).toString());
+    }
+
+    @Test
+    public void testEntriesOfKeywords() {
+        KeywordIndex index = new KeywordIndex(database);
+
+        Assert.assertEquals(Collections.singletonList(first), index.getEntries("optics"));
+        Assert.assertEquals(2, index.getEntries(Arrays.asList("optics", "lasers", "physics")).size());
+        Assert.assertTrue(index.getEntries("physics").isEmpty());
+    }
+
+    @Test
+    public void testIndexFollowsChanges() {
+        KeywordIndex index = new KeywordIndex(database);
+
+        first.setField("keywords", "physics");
+        third.setField("keywords", "optics");
+        database.removeEntry(second.getId());
+        BibtexEntry added = addEntry("lasers");
+
+        Assert.assertEquals("[lasers, optics, physics]", index.getKeywords().toString());
+        Assert.assertEquals(Collections.singletonList(added), index.getEntries("lasers"));
+        Assert.assertEquals(Collections.singletonList(third), index.getEntries("optics"));
+        Assert.assertEquals(Collections.emptyList(), index.getKeywords(second));
+    }
+
+    @Test
+    public void testIndexFollowsBulkChange() {
+        KeywordIndex index = new KeywordIndex(database);
+
+        database.beginBulkChange();
+        try {
+            first.setField("keywords", "chemistry");
+            second.clearField("keywords");
+            addEntry("physics");
+        } finally {
+            database.commitBulkChange();
+        }
+
+        Assert.assertEquals("[chemistry, physics]", index.getKeywords().toString());
+        Assert.assertEquals(Collections.singletonList(first), index.getEntries("chemistry"));
+    }
+
+    @Test
+    public void testListenersAreNotifiedAfterUpdate() {
+        final KeywordIndex index = new KeywordIndex(database);
+        final int[] counts = new int[1];
+        index.addDatabaseChangeListener(new DatabaseChangeListener() {
+
+            @Override
+            public void databaseChanged(DatabaseChangeEvent e) {
+                if (e.getType() == DatabaseChangeEvent.ChangeType.CHANGED_ENTRY) {
+                    counts[0] = index.getCount("physics");
+                }
+            }
+        });
+
+        second.setField("keywords", "physics");
+
+        Assert.assertEquals(1, counts[0]);
+    }
+
+    private BibtexEntry addEntry(String keywords) {
+        BibtexEntry entry = new BibtexEntry(IdGenerator.next(), BibtexEntryTypes.ARTICLE);
+        if (keywords != null) {
+            entry.setField("keywords", keywords);
+        }
+        database.insertEntry(entry);
+        return entry;
+    }
+}
@@ -0,0 +1,76 @@
+package net.sf.jabref.model.entry;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EntryFieldsTest {
+
+    @Test
+    public void testPutGetAndRemove() {
+        EntryFields fields = new EntryFields();
+        for (int i = 0; i < 20; i++) {
+            Assert.assertNull(fields.put("field" + i, "value" + i));
+        }
+        Assert.assertEquals("value0", fields.put("field0", "new"));
+        Assert.assertEquals("new", fields.get("field0"));
+        Assert.assertEquals("value19", fields.get(new String("field19")));
+
+        Assert.assertEquals("value5", fields.remove("field5"));
+        Assert.assertFalse(fields.containsKey("field5"));
+        Assert.assertEquals("value19", fields.get("field19"));
+        Assert.assertEquals(19, fields.size());
+    }
+
+    @Test
+    public void testNullValueIsPresent() {
+        EntryFields fields = new EntryFields();
+        fields.put("keywords", null);
+
+        Assert.assertTrue(fields.containsKey("keywords"));
+        Assert.assertNull(fields.get("keywords"));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList("keywords")), fields.getNames());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        EntryFields fields = new EntryFields();
+        fields.put("author", "Einstein");
+        EntryFields copy = new EntryFields(fields);
+        copy.put("author", "Bohr");
+        copy.put("title", "Title");
+
+        Assert.assertEquals("Einstein", fields.get("author"));
+        Assert.assertFalse(fields.containsKey("title"));
+    }
+
+    @Test
+    public void testSharedCopyIsIndependent() {
+        EntryFields fields = new EntryFields();
+        fields.put("author", "Einstein");
+        fields.put("year", "1905");
+        EntryFields copy = fields.share();
+        fields.put("author", "Bohr");
+        fields.remove("year");
+        copy.put("title", "Title");
+
+        Assert.assertEquals("Einstein", copy.get("author"));
+        Assert.assertEquals("1905", copy.get("year"));
+        Assert.assertEquals("Bohr", fields.get("author"));
+        Assert.assertFalse(fields.containsKey("year"));
+        Assert.assertFalse(fields.containsKey("title"));
+    }
+
+    @Test
+    public void testFieldNamesAreShared() {
+        EntryFields first = new EntryFields();
+        first.put(new String("journal"), "A");
+        EntryFields second = new EntryFields();
+        second.put(new String("journal"), "B");
+
+        Assert.assertSame(first.getNames().iterator().next(), second.getNames().iterator().next());
+        Assert.assertSame("journal", first.getNames().iterator().next());
+    }
+}
@@ -0,0 +1,172 @@
+package net.sf.jabref.pdfimport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.jabref.model.database.BibtexDatabase;
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
+import net.sf.jabref.model.entry.BibtexEntry;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PdfImportPipelineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger extractions = new AtomicInteger();
+
+    private PdfImportPipeline pipeline;
+
+
+    @Before
+    public void setUp() {
+        PdfImportPipeline.clearCache();
+        // instead of parsing a PDF, the "title" is the content of the file; "broken" files cannot be read
+        pipeline = new PdfImportPipeline(null, 2) {
+
+            @Override
+            protected BibtexEntry extractEntry(byte[] content) throws IOException {
+                extractions.incrementAndGet();
+                String text = new String(content, StandardCharsets.UTF_8);
+                if ("broken".equals(text)) {
+                    throw new IOException("Broken file");
+                }
+                if (text.isEmpty()) {
+                    return null;
+                }
+                BibtexEntry entry = new BibtexEntry();
+                entry.setField("title", text);
+                return entry;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        PdfImportPipeline.clearCache();
+    }
+
+    @Test
+    public void testImportIntoInsertsAllEntriesInOneBulkChange() throws Exception {
+        List<File> files = Arrays.asList(createFile("a.pdf", "First"), createFile("b.pdf", "Second"),
+                createFile("c.pdf", ""), createFile("d.pdf", "broken"));
+        BibtexDatabase database = new BibtexDatabase();
+        final List<DatabaseChangeEvent> events = new ArrayList<>();
+        database.addDatabaseChangeListener(new DatabaseChangeListener() {
+
+            @Override
+            public void databaseChanged(DatabaseChangeEvent e) {
+                events.add(e);
+            }
+        });
+        final List<File> failed = new ArrayList<>();
+
+        List<BibtexEntry> entries = pipeline.importInto(files, database, new PdfImportPipeline.Listener() {
+
+            @Override
+            public void imported(File file, BibtexEntry entry) {
+                entry.setField("file", file.getName());
+            }
+
+            @Override
+            public void failed(File file, Exception exception) {
+                failed.add(file);
+            }
+        });
+
+        Assert.assertEquals(3, entries.size());
+        Assert.assertEquals(3, database.getEntryCount());
+        Assert.assertEquals(Collections.singletonList(files.get(3)), failed);
+        Set<String> titles = new HashSet<>();
+        for (BibtexEntry entry : entries) {
+            Assert.assertSame(entry, database.getEntryById(entry.getId()));
+            Assert.assertNotNull(entry.getField("file"));
+            titles.add(entry.getField("title"));
+        }
+        // the file without metadata gets an entry without title
+        Assert.assertEquals(new HashSet<>(Arrays.asList("First", "Second", null)), titles);
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(DatabaseChangeEvent.ChangeType.BULK_CHANGE, events.get(0).getType());
+        Assert.assertEquals(3, events.get(0).getAddedEntries().size());
+    }
+
+    @Test
+    public void testSameContentIsExtractedOnlyOnce() throws Exception {
+        List<File> files = Arrays.asList(createFile("a.pdf", "Title"), createFile("b.pdf", "Other"));
+        final List<BibtexEntry> entries = new ArrayList<>();
+        PdfImportPipeline.Listener listener = new PdfImportPipeline.Listener() {
+
+            @Override
+            public void imported(File file, BibtexEntry entry) {
+                entries.add(entry);
+            }
+
+            @Override
+            public void failed(File file, Exception exception) {
+                Assert.fail(exception.toString());
+            }
+        };
+
+        pipeline.run(files, listener);
+        Assert.assertEquals(2, extractions.get());
+        Assert.assertEquals(0, pipeline.getCacheHits());
+
+        // a copy with the same content is not parsed again
+        pipeline.run(Arrays.asList(createFile("copy.pdf", "Title"), files.get(1)), listener);
+        Assert.assertEquals(2, extractions.get());
+        Assert.assertEquals(2, pipeline.getCacheHits());
+
+        // every import gets its own entry
+        Assert.assertEquals(4, entries.size());
+        Set<String> ids = new HashSet<>();
+        for (BibtexEntry entry : entries) {
+            ids.add(entry.getId());
+        }
+        Assert.assertEquals(4, ids.size());
+    }
+
+    @Test
+    public void testChangesOfImportedEntriesDoNotChangeTheCache() throws Exception {
+        File file = createFile("a.pdf", "Title");
+        PdfImportPipeline.Listener listener = new PdfImportPipeline.Listener() {
+
+            @Override
+            public void imported(File file, BibtexEntry entry) {
+                Assert.assertEquals("Title", entry.getField("title"));
+                entry.setField("title", "Changed");
+            }
+
+            @Override
+            public void failed(File file, Exception exception) {
+                Assert.fail(exception.toString());
+            }
+        };
+
+        pipeline.run(Collections.singletonList(file), listener);
+        pipeline.run(Collections.singletonList(file), listener);
+        Assert.assertEquals(1, pipeline.getCacheHits());
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        File file = folder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,51 @@
+package net.sf.jabref.performance;
+
+import net.sf.jabref.model.entry.BibtexEntry;
+import net.sf.jabref.model.entry.BibtexEntryTypes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Measures the heap used by the field storage of many entries. The field values are shared between the entries, so
+ * that only the per entry overhead is measured.
+ * <p>
+ * The result depends on the garbage collector, so this is not part of the unit tests. Run it with the task
+ * performanceTest.
+ */
+public class BibtexEntryMemoryPerformance {
+
+    private static final int ENTRIES = 100000;
+
+    private static final String[] FIELDS = {"title", "author", "journal", "volume", "number", "pages", "year",
+            "publisher", BibtexEntry.KEY_FIELD};
+
+
+    @Test
+    public void testHeapUsagePerEntry() {
+        BibtexEntry[] entries = new BibtexEntry[ENTRIES];
+        long before = usedHeap();
+        for (int i = 0; i < ENTRIES; i++) {
+            BibtexEntry entry = new BibtexEntry(Integer.toString(i), BibtexEntryTypes.ARTICLE);
+            for (String field : FIELDS) {
+                // field names read by the parser are new strings
+                entry.setField(new String(field), field);
+            }
+            entries[i] = entry;
+        }
+        long bytesPerEntry = (usedHeap() - before) / ENTRIES;
+
+        // a HashMap of the fields and a VetoableChangeSupport alone took about 700 bytes
+        Assert.assertTrue("Entries with " + FIELDS.length + " fields take " + bytesPerEntry + " bytes",
+                bytesPerEntry < 450);
+        Assert.assertEquals(FIELDS.length, entries[ENTRIES - 1].getFieldNames().size());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,75 @@
+package net.sf.jabref.performance;
+
+import java.util.Arrays;
+
+import net.sf.jabref.logic.formatter.casechanger.CaseKeeper;
+import net.sf.jabref.logic.formatter.casechanger.CaseKeeperList;
+import net.sf.jabref.logic.util.strings.StringLengthComparator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the time to protect the words of the {@link CaseKeeperList} in many titles with the former implementation,
+ * which compiled and ran one regular expression for every word of the list on every title.
+ * <p>
+ * Not part of the unit tests, run it with the task performanceTest. The time per title of both implementations is
+ * logged.
+ */
+public class CaseKeeperPerformance {
+
+    private static final Log LOGGER = LogFactory.getLog(CaseKeeperPerformance.class);
+
+    private static final int TITLES = 1000;
+
+    private static final String[] TITLE_PARTS = {"A (new) VLSI-based DSP architecture for 3GPP LTE",
+            "Die grundlage der allgemeinen relativit{\\\"a}tstheorie", "Low-power FPGA design in the United States",
+            "An efficient H.264/AVC decoder on GPU", "Measurements of the CMOS noise in January"};
+
+
+    @Test
+    public void testFormatTitles() {
+        String[] titles = new String[TITLES];
+        for (int i = 0; i < TITLES; i++) {
+            titles[i] = TITLE_PARTS[i % TITLE_PARTS.length] + ' ' + i;
+        }
+        CaseKeeper caseKeeper = new CaseKeeper();
+        // warm up, the results are compared in CaseKeeperTest
+        for (String title : titles) {
+            formatWordByWord(title);
+            caseKeeper.format(title);
+        }
+
+        long start = System.nanoTime();
+        for (String title : titles) {
+            formatWordByWord(title);
+        }
+        long wordByWord = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (String title : titles) {
+            caseKeeper.format(title);
+        }
+        long onePass = System.nanoTime() - start;
+
+        LOGGER.info(String.format("Protecting the case of a title: word by word %.1f us, one pass %.1f us",
+                wordByWord / 1000.0 / TITLES, onePass / 1000.0 / TITLES));
+        Assert.assertTrue("One pass took " + onePass + " ns, word by word " + wordByWord + " ns",
+                onePass < wordByWord);
+    }
+
+    /**
+     * The former implementation of {@link CaseKeeper#format(String)}
+     */
+    private static String formatWordByWord(String text) {
+        String[] words = new CaseKeeperList().getAll();
+        Arrays.sort(words, new StringLengthComparator());
+        String result = text;
+        for (String word : words) {
+            result = result.replaceAll("(^|[- /\\[(}\"])" + word + "($|[^}])", "$1\\{" + word + "\\}$2");
+        }
+        return result;
+    }
+}
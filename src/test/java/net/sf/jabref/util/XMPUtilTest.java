@@ -6,6 +6,7 @@ import net.sf.jabref.importer.fileformat.BibtexParser;
 import net.sf.jabref.importer.ParserResult;
 
 import net.sf.jabref.logic.xmp.EncryptionNotSupportedException;
+import net.sf.jabref.logic.xmp.XMPBatchWriter;
 import net.sf.jabref.logic.xmp.XMPSchemaBibtex;
 import net.sf.jabref.logic.xmp.XMPUtil;
 import net.sf.jabref.model.entry.AuthorList;
@@ -1048,6 +1049,65 @@ public class XMPUtilTest {
 
     }
 
+    @Test
+    public void testWriteXMPIfChanged() throws Exception {
+        List<BibtexEntry> l = new LinkedList<>();
+        l.add(t1BibtexEntry());
+
+        Assert.assertTrue(XMPUtil.writeXMPIfChanged(pdfFile, l, null, true));
+        long length = pdfFile.length();
+
+        // Nothing changed, so the file is not saved again
+        Assert.assertFalse(XMPUtil.writeXMPIfChanged(pdfFile, l, null, true));
+        Assert.assertFalse(XMPUtil.writeXMPIfChanged(pdfFile, l, null, true));
+        Assert.assertEquals(length, pdfFile.length());
+
+        l.get(0).setField("year", "2006");
+        Assert.assertTrue(XMPUtil.writeXMPIfChanged(pdfFile, l, null, true));
+        Assert.assertEquals("2006", XMPUtil.readXMP(pdfFile).get(0).getField("year"));
+    }
+
+    @Test
+    public void testBatchWriter() throws Exception {
+        File secondPdf = File.createTempFile("JabRef", ".pdf");
+        try {
+            try (PDDocument pdf = new PDDocument()) {
+                pdf.addPage(new PDPage());
+                pdf.save(secondPdf.getAbsolutePath());
+            }
+            BibtexEntry first = t1BibtexEntry();
+            BibtexEntry second = t3BibtexEntry();
+            XMPUtil.writeXMP(pdfFile, first, null);
+
+            XMPBatchWriter writer = new XMPBatchWriter(null, 2);
+            writer.add(pdfFile, first);
+            writer.add(secondPdf, second);
+            final List<File> written = Collections.synchronizedList(new ArrayList<File>());
+            writer.run(new XMPBatchWriter.Listener() {
+
+                @Override
+                public void written(File file, BibtexEntry entry, boolean changed) {
+                    if (changed) {
+                        written.add(file);
+                    }
+                }
+
+                @Override
+                public void failed(File file, BibtexEntry entry, Exception exception) {
+                    Assert.fail(exception.toString());
+                }
+            });
+
+            Assert.assertEquals(Collections.singletonList(secondPdf.getAbsoluteFile()), written);
+            Assert.assertEquals(1, writer.getWrittenCount());
+            Assert.assertEquals(1, writer.getUpToDateCount());
+            Assert.assertEquals(0, writer.getErrorCount());
+            assertEqualsBibtexEntry(second, XMPUtil.readXMP(secondPdf).get(0));
+        } finally {
+            secondPdf.delete();
+        }
+    }
+
     /**
      * Test whether the command-line client works correctly with writing a single entry
      *